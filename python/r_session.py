@@ -0,0 +1,171 @@
+"""
+Warm R sessions for the STN pipeline.
+
+Each RSession is one long-lived `Rscript stn_pipeline.R` process that runs the
+pipeline scripts on request, so igraph/dplyr/jsonlite are loaded once per
+session instead of once per stage. RSessionPool hands sessions out to callers
+and replaces the ones that die.
+
+Every R process started from this Python process, pooled or not, is tracked
+so kill_children can take them down with it (see stn_worker.py).
+"""
+import atexit
+import json
+import os
+import queue
+import subprocess
+import sys
+import threading
+
+SENTINEL = "@@STN_DONE@@"
+
+_children = set()
+_children_lock = threading.Lock()
+
+
+def track_child(process):
+    """Register an R subprocess so kill_children can reach it."""
+    with _children_lock:
+        _children.add(process)
+
+
+def untrack_child(process):
+    with _children_lock:
+        _children.discard(process)
+
+
+def kill_children():
+    """Kill every tracked R process that is still running."""
+    with _children_lock:
+        children = list(_children)
+        _children.clear()
+    for process in children:
+        if process.poll() is None:
+            try:
+                process.kill()
+            except OSError:
+                pass
+
+
+class RSessionDied(RuntimeError):
+    """The R process exited while (or before) running a script."""
+
+
+class RSession(object):
+    """One persistent R process. Not thread-safe: use it from one caller at a time."""
+
+    def __init__(self, cwd):
+        self._process = subprocess.Popen(
+            ["Rscript", "stn_pipeline.R"], cwd=cwd,
+            stdin=subprocess.PIPE, stdout=subprocess.PIPE, stderr=None,
+            text=True, bufsize=1)
+        track_child(self._process)
+        self._read_reply()
+
+    def alive(self):
+        return self._process.poll() is None
+
+    def run(self, script, args, cwd=None):
+        """
+        Run one pipeline script with the given command-line arguments, from
+        cwd when given (the script itself is still looked up in the session
+        directory).
+
+        Returns:
+            tuple: (ok, output, error) - whether the script finished, what it
+            printed and the R error message if it failed
+        """
+        request = {"script": script, "args": [str(a) for a in args]}
+        if cwd is not None:
+            request["cwd"] = cwd
+        try:
+            self._process.stdin.write(json.dumps(request) + "\n")
+            self._process.stdin.flush()
+        except (BrokenPipeError, OSError) as e:
+            raise RSessionDied(str(e))
+        output, status = self._read_reply()
+        return bool(status.get("ok")), output, status.get("error")
+
+    def close(self):
+        if self.alive():
+            try:
+                self._process.stdin.write(json.dumps({"shutdown": True}) + "\n")
+                self._process.stdin.close()
+                self._process.wait(timeout=5)
+            except (OSError, subprocess.TimeoutExpired):
+                self._process.kill()
+        untrack_child(self._process)
+
+    def _read_reply(self):
+        lines = []
+        for line in self._process.stdout:
+            if line.startswith(SENTINEL):
+                return "".join(lines), json.loads(line[len(SENTINEL):])
+            lines.append(line)
+        raise RSessionDied("R session exited with code {}".format(self._process.wait()))
+
+
+class RSessionPool(object):
+    """Bounded pool of RSession objects, created on first use."""
+
+    def __init__(self, size, cwd):
+        self._size = size
+        self._cwd = cwd
+        self._idle = queue.LifoQueue()
+        self._slots = threading.BoundedSemaphore(size)
+
+    def run(self, script, *args, cwd=None):
+        """Same as RSession.run, on a pooled session. A dead session is replaced once."""
+        with self._slots:
+            session = self._borrow()
+            try:
+                return session.run(script, args, cwd)
+            except RSessionDied:
+                print("R session died while running {}, restarting".format(script), file=sys.stderr)
+                session.close()
+                session = self._borrow()
+                return session.run(script, args, cwd)
+            finally:
+                if session.alive():
+                    self._idle.put(session)
+                else:
+                    session.close()
+
+    def close(self):
+        while True:
+            try:
+                self._idle.get_nowait().close()
+            except queue.Empty:
+                return
+
+    def _borrow(self):
+        while True:
+            try:
+                session = self._idle.get_nowait()
+            except queue.Empty:
+                break
+            if session.alive():
+                return session
+            session.close()
+        return RSession(self._cwd)
+
+
+_pool = None
+_pool_lock = threading.Lock()
+
+
+def get_pool(cwd):
+    """
+    Process-wide pool sized by STN_R_SESSIONS (default 2, so that the stages
+    stn_dag runs side by side get a session each). Returns None when it is 0,
+    in which case callers run a fresh Rscript per stage.
+    """
+    global _pool
+    size = int(os.environ.get("STN_R_SESSIONS", "2"))
+    if size <= 0:
+        return None
+    with _pool_lock:
+        if _pool is None:
+            _pool = RSessionPool(size, cwd)
+            atexit.register(_pool.close)
+        return _pool
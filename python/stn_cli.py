@@ -7,6 +7,8 @@ Nota: Ejemplo de rutas Windows se escribe como C:\\... para evitar warnings.
 """
 
 import argparse
+import base64
+import binascii
 import os
 import sys
 import re
@@ -31,6 +33,16 @@ class InMemoryUploadedFile:
             return f.read()
 
 
+class InlineUploadedFile:
+    """Same interface for a trace received in memory (stn_worker.py)."""
+    def __init__(self, filename, content):
+        self.filename = filename
+        self._content = content
+
+    def read(self):
+        return self._content
+
+
 def parse_file_arg(farg: str):
     r"""
     Parse a --file argument.
@@ -70,18 +82,42 @@ def parse_file_arg(farg: str):
         raise ValueError("Parsed empty path in --file argument.")
     if not name:
         raise ValueError("Parsed empty algorithm name in --file argument.")
-    if not COLOR_RE.match(color):
-        raise ValueError(f"Color '{color}' does not match format #RRGGBB.")
 
     path = os.path.normpath(path)
     if not os.path.exists(path):
         raise FileNotFoundError(f"File does not exist: {path}")
 
-    safe_name = re.sub(r"[^\w \-]", "_", name)
-    return path, safe_name, color
+    return path, _check_name_and_color(name, color), color
+
+
+def parse_inline_trace(trace):
+    """
+    Parse a trace sent inline by stn_worker.py:
+      {"file": "alg1.txt", "name": "Algorithm1", "color": "#RRGGBB", "content": "<base64>"}
+    """
+    name = (trace.get("name") or "").strip()
+    color = (trace.get("color") or "").strip()
+    if not name:
+        raise ValueError("Inline trace without an algorithm name.")
+    safe_name = _check_name_and_color(name, color)
+    try:
+        content = base64.b64decode(trace.get("content") or "", validate=True)
+    except (binascii.Error, ValueError) as e:
+        raise ValueError(f"Inline trace '{name}' is not valid base64: {e}") from e
+    return InlineUploadedFile(trace.get("file") or name + ".txt", content), safe_name, color
+
+
+def _check_name_and_color(name, color):
+    if not COLOR_RE.match(color):
+        raise ValueError(f"Color '{color}' does not match format #RRGGBB.")
+    return re.sub(r"[^\w \-]", "_", name)
+
 
+class CliError(Exception):
+    """Invalid command-line input. main() reports it and exits with status 2."""
 
-def main():
+
+def build_parser():
     parser = argparse.ArgumentParser(
         description="CLI for generating STN without HTTP server",
         formatter_class=argparse.RawDescriptionHelpFormatter,
@@ -119,27 +155,48 @@ Examples:
     parser.add_argument("--distance-method", type=str, default="euclidean",
                         choices=["euclidean", "manhattan", "hamming"])
 
+    parser.add_argument("--json-only", action="store_true", dest="json_only",
+                        help="Compute the layouts and the JSON only; the PDF path is printed empty.")
     parser.add_argument("--file", action="append", default=[],
                         help="Algorithm file in format path:name:#color (can be repeated). Supports '|' as alternative separator.")
+    return parser
 
-    args = parser.parse_args()
 
-    file_paths, names, colors = [], [], []
+def run(argv=None, traces=None, workspace=None, timings=None, on_stage=None):
+    """
+    Parse the CLI arguments and run the whole pipeline.
+    Returns (pdf_path_rel, json_path_rel), both relative to the working
+    directory (SCRIPTS_DIR, or workspace when given); pdf_path_rel is empty
+    with --json-only.
+    Used by main() and by the long-lived stn_worker.py, which passes the traces
+    inline (see parse_inline_trace) instead of --file arguments and runs each
+    job in its own scratch workspace. When given, timings is filled with the
+    milliseconds spent in each pipeline stage, and on_stage is called with the
+    name of each stage as it starts.
+    """
+    args = build_parser().parse_args(argv)
+
+    files, names, colors = [], [], []
     for farg in args.file:
         try:
             path, name, color = parse_file_arg(farg)
         except (ValueError, FileNotFoundError) as e:
-            print(f"ERROR: {e}", file=sys.stderr)
-            return 2
-        file_paths.append(path)
+            raise CliError(str(e)) from e
+        files.append(InMemoryUploadedFile(path))
+        names.append(name)
+        colors.append(color)
+    for trace in traces or []:
+        try:
+            inline_file, name, color = parse_inline_trace(trace)
+        except ValueError as e:
+            raise CliError(str(e)) from e
+        files.append(inline_file)
         names.append(name)
         colors.append(color)
 
-    if not file_paths:
-        print("ERROR: At least one --file argument is required", file=sys.stderr)
-        return 2
+    if not files:
+        raise CliError("At least one --file argument is required")
 
-    files = [InMemoryUploadedFile(p) for p in file_paths]
     treelayout = args.treelayout.lower() == "true"
 
     aggl = AgglomerativeClusteringParams(
@@ -166,10 +223,12 @@ Examples:
         typeproblem=args.typeproblem,
         strategy_partition=args.strategy,
         agglomerative_clustering=aggl,
-        standard_configuration=standard
+        standard_configuration=standard,
+        json_only=args.json_only
     )
+    params.on_stage = on_stage
 
-    os.chdir(SCRIPTS_DIR)
+    os.chdir(workspace or SCRIPTS_DIR)
 
     if params.agglomerative_clustering.number_of_clusters:
         params.hash_file = f"{params.hash_file}-{params.agglomerative_clustering.number_of_clusters}"
@@ -181,6 +240,18 @@ Examples:
     else:
         pdf_path_rel, json_path_rel = generate_from_file(params)
 
+    if timings is not None:
+        timings.update(params.timings)
+    return pdf_path_rel, json_path_rel
+
+
+def main(argv=None):
+    try:
+        pdf_path_rel, json_path_rel = run(argv)
+    except CliError as e:
+        print(f"ERROR: {e}", file=sys.stderr)
+        return 2
+
     print(pdf_path_rel)
     print(json_path_rel)
     return 0
@@ -3,6 +3,8 @@ Core business logic for STN (Search Trajectory Network) processing.
 This module contains pure logic without Flask dependencies.
 """
 from subprocess import PIPE, Popen
+from r_session import RSessionDied, get_pool as get_r_pool, track_child, untrack_child
+from stn_dag import StageGraph, run_in_process
 from partition.discrete.standard import standard as discrete_standard
 from partition.continuous.standard import continuous_standard
 from partition.continuous.agglomerative import continuous_agglomerative
@@ -12,8 +14,11 @@ import time
 import tarfile
 import shutil
 import re
+import sys
 import functools
 
+SCRIPTS_DIR = os.path.dirname(os.path.abspath(__file__))
+
 
 class Instances(object):
     """Represents instances/algorithms data."""
@@ -50,7 +55,8 @@ class Params(object):
     
     def __init__(self, bmin, best, nruns, partition_value, nodesize, arrowsize, 
                  treelayout, files, names, colors, hash_file, typeproblem, 
-                 strategy_partition, agglomerative_clustering, standard_configuration):
+                 strategy_partition, agglomerative_clustering, standard_configuration,
+                 json_only=False):
         self.bmin = bmin
         self.best = best
         self.nruns = nruns
@@ -66,6 +72,11 @@ class Params(object):
         self.strategy_partition = strategy_partition
         self.agglomerative_clustering = agglomerative_clustering
         self.standard_configuration = standard_configuration
+        self.json_only = json_only
+        # Milliseconds per pipeline stage group (see stn_dag.StageGraph.run)
+        self.timings = {}
+        # Called with the name of each stage group as it starts
+        self.on_stage = None
 
 
 def change_old_format(a):
@@ -182,18 +193,64 @@ def process_partition(params):
 
     all_solutions = functools.reduce(lambda i, j: i + j, [e.contentLineFile for e in content_files])
     
+    stages = StageGraph()
     if params.typeproblem == "discrete" and params.strategy_partition == 'standard':
-        for file in content_files:
-            writing_file_discrete(file.filename, file.contentLineFile, 
-                                params.partition_value, params.strategy_partition, all_solutions)
+        # One stage per algorithm, each on its own Python process when there are several
+        run = run_in_process if len(content_files) > 1 else (lambda fn, *args: fn(*args))
+        for index, file in enumerate(content_files):
+            stages.add("partition/{}".format(index), run, writing_file_discrete,
+                       os.path.abspath(file.filename), file.contentLineFile,
+                       params.partition_value, params.strategy_partition, all_solutions)
     elif params.typeproblem == "discrete" and params.strategy_partition == 'agglomerative':
-        writing_file_continuous(content_files, params, all_solutions)
+        stages.add("partition", writing_file_continuous, content_files, params, all_solutions)
     elif params.typeproblem == "continuous":
-        writing_file_continuous(content_files, params, all_solutions)
+        stages.add("partition", writing_file_continuous, content_files, params, all_solutions)
+    params.timings.update(stages.run(on_start=params.on_stage))
 
     return params.hash_file
 
 
+def _run_r(script, *args):
+    """
+    Run one R stage of the pipeline. Stages run on a warm R session from
+    r_session when one is enabled (STN_R_SESSIONS > 0), otherwise as a fresh
+    Rscript process. Like the plain Rscript call, a failing stage is reported
+    and the pipeline carries on.
+
+    The stage runs in the current directory, whose temp/ folder holds the job
+    data: the scripts directory, or a per-job workspace from stn_worker.py.
+    """
+    print("--> Rscript {} {}".format(script, " ".join(str(a) for a in args)))
+    pool = get_r_pool(SCRIPTS_DIR)
+    if pool is None:
+        command = ["Rscript", os.path.join(SCRIPTS_DIR, script)] + [str(a) for a in args]
+        with Popen(command, stdout=PIPE, stderr=None) as process:
+            track_child(process)
+            try:
+                output = process.communicate()[0]
+            finally:
+                untrack_child(process)
+    else:
+        try:
+            ok, output, error = pool.run(script, *args, cwd=os.getcwd())
+        except RSessionDied as e:
+            ok, output, error = False, "", str(e)
+        if not ok:
+            print("ERROR: {} failed: {}".format(script, error), file=sys.stderr)
+    print("OK: {}".format(output))
+
+
+def _plot_flags(params: Params):
+    """Extra plot-script arguments; --json-only skips the PDF rendering."""
+    return ("--json-only",) if params.json_only else ()
+
+
+def _add_create_stage(stages, params, instance):
+    """create.R for one partitioned trace file (its optional 5th argument)."""
+    return stages.add("create/{}".format(instance), _run_r, "create.R", params.hash_file,
+                      params.bmin, params.best, params.nruns, instance)
+
+
 def generate_from_files(params: Params):
     """
     Generate STN visualization from multiple algorithm files (merged).
@@ -202,51 +259,34 @@ def generate_from_files(params: Params):
         params: Params object with configuration
         
     Returns:
-        tuple: (pdf_path, json_path) - Paths to the generated PDF and JSON files
+        tuple: (pdf_path, json_path) - Paths to the generated PDF and JSON files,
+        pdf_path is empty when params.json_only is set
     """
-    print("--> Rscript create.R {} {} {} {}".format(params.hash_file, params.bmin, params.best, params.nruns))
-    with Popen("Rscript create.R {} {} {} {}".format(params.hash_file, params.bmin, params.best, params.nruns), 
-               stdout=PIPE, stderr=None, shell=True) as process:
-        output = process.communicate()[0]
-        print("OK: {}".format(output))
-
-    print("--> Rscript merge.R {}".format("{}-stn".format(params.hash_file)))
-    with Popen("Rscript merge.R {}".format("{}-stn".format(params.hash_file)), 
-               stdout=PIPE, stderr=None, shell=True) as process:
-        output = process.communicate()[0]
-        print("OK: {}".format(output))
-
-    print("--> Rscript plot-merged.R {} {} {} {}".format(
-        "{}-stn-merged.RData".format(params.hash_file), params.nodesize, params.arrowsize, " ".join(params.colors)))
-    pdf_path = ""
-    json_path = ""
+    stages = StageGraph()
+    # create.R builds each algorithm's STN independently; merge.R needs all of them
+    creates = [_add_create_stage(stages, params, instance)
+               for instance in sorted(os.listdir("temp/" + params.hash_file))]
+    stages.add("merge", _run_r, "merge.R", "{}-stn".format(params.hash_file), deps=creates)
+
+    # Plot and metrics only read the merged STN, so they run side by side
+    merged = "{}-stn-merged.RData".format(params.hash_file)
     if params.treelayout:
-        with Popen("Rscript plot-merged-tree.R {} {} {}".format(
-                "{}-stn-merged.RData".format(params.hash_file), params.nodesize, 
-                " ".join(["{}{}{}".format("\"", c, "\"") for c in params.colors])), 
-                stdout=PIPE, stderr=None, shell=True) as process:
-            output = process.communicate()[0]
-            print("OK: {}".format(output))
-            pdf_path = "temp/{}-stn-merged-plot-tree.pdf".format(params.hash_file)
-            json_path = "temp/{}-stn-merged-plot-tree.json".format(params.hash_file)
+        stages.add("plot", _run_r, "plot-merged-tree.R", merged, params.nodesize, *params.colors,
+                   *_plot_flags(params), deps=("merge",))
+        pdf_path = "temp/{}-stn-merged-plot-tree.pdf".format(params.hash_file)
+        json_path = "temp/{}-stn-merged-plot-tree.json".format(params.hash_file)
     else:
-        with Popen("Rscript plot-merged.R {} {} {} {}".format(
-                "{}-stn-merged.RData".format(params.hash_file), params.nodesize, params.arrowsize, 
-                " ".join(["{}{}{}".format("\"", c, "\"") for c in params.colors])), 
-                stdout=PIPE, stderr=None, shell=True) as process:
-            output = process.communicate()[0]
-            print("OK: {}".format(output))
-            pdf_path = "temp/{}-stn-merged-plot.pdf".format(params.hash_file)
-            json_path = "temp/{}-stn-merged-plot.json".format(params.hash_file)
+        stages.add("plot", _run_r, "plot-merged.R", merged, params.nodesize, params.arrowsize, *params.colors,
+                   *_plot_flags(params), deps=("merge",))
+        pdf_path = "temp/{}-stn-merged-plot.pdf".format(params.hash_file)
+        json_path = "temp/{}-stn-merged-plot.json".format(params.hash_file)
+    stages.add("metrics", _run_r, "metrics-merged.R", merged, deps=("merge",))
 
-    with Popen("Rscript metrics-merged.R {}".format("{}-stn-merged.RData".format(params.hash_file)), 
-               stdout=PIPE, stderr=None, shell=True) as process:
-        output = process.communicate()[0]
-        print("OK: {}".format(output))  
-        shutil.rmtree("temp/" + params.hash_file)
-        shutil.rmtree("temp/{}-stn".format(params.hash_file))
+    params.timings.update(stages.run(on_start=params.on_stage))
+    shutil.rmtree("temp/" + params.hash_file)
+    shutil.rmtree("temp/{}-stn".format(params.hash_file))
 
-    return pdf_path, json_path
+    return ("" if params.json_only else pdf_path), json_path
 
 
 def generate_from_file(params: Params):
@@ -257,35 +297,22 @@ def generate_from_file(params: Params):
         params: Params object with configuration
         
     Returns:
-        tuple: (pdf_path, json_path) - Paths to the generated PDF and JSON files
+        tuple: (pdf_path, json_path) - Paths to the generated PDF and JSON files,
+        pdf_path is empty when params.json_only is set
     """
-    print("--> Rscript create.R {} {} {} {}".format(params.hash_file, params.bmin, params.best, params.nruns))
-    with Popen("Rscript create.R {} {} {} {}".format(params.hash_file, params.bmin, params.best, params.nruns), 
-               stdout=PIPE, stderr=None, shell=True) as process:
-        output = process.communicate()[0]
-        print("OK: {}".format(output))
-    pdf_path = ""
-    json_path = ""
+    stages = StageGraph()
+    stages.add("create", _run_r, "create.R", params.hash_file, params.bmin, params.best, params.nruns)
+    stn = "{}-stn".format(params.hash_file)
     if params.treelayout:
-        print("--> Rscript plot-alg-tree.R {} {}".format("{}-stn".format(params.hash_file), params.nodesize))
-        with Popen("Rscript plot-alg-tree.R {} {}".format("{}-stn".format(params.hash_file), params.nodesize), 
-                   stdout=PIPE, stderr=None, shell=True) as process:
-            output = process.communicate()[0]
-            print("OK: {}".format(output))
-            pdf_path = "temp/{}-stn-plot-tree/{}_stn.pdf".format(params.hash_file, params.names[0])
-            json_path = "temp/{}-stn-plot-tree/{}_stn.json".format(params.hash_file, params.names[0])
+        stages.add("plot", _run_r, "plot-alg-tree.R", stn, params.nodesize, *_plot_flags(params), deps=("create",))
+        pdf_path = "temp/{}-stn-plot-tree/{}_stn.pdf".format(params.hash_file, params.names[0])
+        json_path = "temp/{}-stn-plot-tree/{}_stn.json".format(params.hash_file, params.names[0])
     else:
-        print("--> Rscript plot-alg.R {} {}".format("{}-stn".format(params.hash_file), params.nodesize))
-        with Popen("Rscript plot-alg.R {} {}".format("{}-stn".format(params.hash_file), params.nodesize), 
-                   stdout=PIPE, stderr=None, shell=True) as process:
-            output = process.communicate()[0]
-            print("OK: {}".format(output))
-            pdf_path = "temp/{}-stn-plot/{}_stn.pdf".format(params.hash_file, params.names[0])
-            json_path = "temp/{}-stn-plot/{}_stn.json".format(params.hash_file, params.names[0])
-
-    with Popen("Rscript metrics-alg.R {}".format("{}-stn".format(params.hash_file)), 
-               stdout=PIPE, stderr=None, shell=True) as process:
-        output = process.communicate()[0]
-        print("OK: {}".format(output))
-        
-    return pdf_path, json_path
+        stages.add("plot", _run_r, "plot-alg.R", stn, params.nodesize, *_plot_flags(params), deps=("create",))
+        pdf_path = "temp/{}-stn-plot/{}_stn.pdf".format(params.hash_file, params.names[0])
+        json_path = "temp/{}-stn-plot/{}_stn.json".format(params.hash_file, params.names[0])
+    stages.add("metrics", _run_r, "metrics-alg.R", stn, deps=("create",))
+
+    params.timings.update(stages.run(on_start=params.on_stage))
+
+    return ("" if params.json_only else pdf_path), json_path
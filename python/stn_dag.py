@@ -0,0 +1,155 @@
+"""
+Stage DAG executor for the STN pipeline.
+
+A pipeline is a set of named stages with dependencies. StageGraph.run starts
+every stage whose dependencies have finished, in parallel, as long as the
+stages running at the same time fit in the CPU budget (STN_CPU_BUDGET,
+default: the number of CPUs). It returns how long each group of stages took,
+and can report each group as it starts so a caller can follow the progress.
+
+Stages run on threads, which is enough for R stages (the work happens in an
+R session or Rscript process). Pure-Python CPU-bound work is sent to a
+process pool with run_in_process so it is not serialized by the GIL.
+"""
+
+import multiprocessing
+import os
+import threading
+import time
+from concurrent.futures import ProcessPoolExecutor, ThreadPoolExecutor
+
+
+def cpu_budget():
+    """Number of CPU slots the stages of one job may use at the same time."""
+    budget = os.environ.get("STN_CPU_BUDGET")
+    if budget:
+        return max(1, int(budget))
+    return os.cpu_count() or 1
+
+
+class StageFailed(RuntimeError):
+    """A stage raised; its dependents were skipped."""
+
+
+class _Stage(object):
+    def __init__(self, name, fn, args, deps, cost):
+        self.name = name
+        self.fn = fn
+        self.args = args
+        self.deps = tuple(deps)
+        self.cost = cost
+
+
+class StageGraph(object):
+    """
+    Stages are named "<group>" or "<group>/<item>" (e.g. "create/Algorithm1");
+    timings are reported per group, as the wall-clock span from the first
+    stage of the group starting to the last one finishing.
+    """
+
+    def __init__(self):
+        self._stages = {}
+
+    def add(self, name, fn, *args, deps=(), cost=1):
+        """Add a stage running fn(*args) once every stage in deps has finished."""
+        if name in self._stages:
+            raise ValueError("Duplicate stage: {}".format(name))
+        for dep in deps:
+            if dep not in self._stages:
+                raise ValueError("Stage {} depends on unknown stage {}".format(name, dep))
+        self._stages[name] = _Stage(name, fn, args, deps, cost)
+        return name
+
+    def run(self, budget=None, on_start=None):
+        """
+        Run every stage. The first failure stops new stages from starting; the
+        running ones finish and StageFailed is raised with the original error
+        as its cause. on_start, when given, is called with the name of each
+        group as its first stage starts.
+
+        Returns:
+            dict: group name -> milliseconds, in the order the groups started
+        """
+        budget = budget or cpu_budget()
+        pending = dict(self._stages)
+        done = set()
+        spans = {}
+        started_groups = set()
+        running = 0
+        failure = None
+        lock = threading.Condition()
+
+        def execute(stage):
+            nonlocal running, failure
+            group = stage.name.split("/", 1)[0]
+            started = time.monotonic()
+            error = None
+            try:
+                stage.fn(*stage.args)
+            except BaseException as e:
+                error = e
+            finished = time.monotonic()
+            with lock:
+                first, last = spans.get(group, (started, finished))
+                spans[group] = (min(first, started), max(last, finished))
+                running -= min(stage.cost, budget)
+                if error is not None and failure is None:
+                    failure = (stage.name, error)
+                done.add(stage.name)
+                lock.notify_all()
+
+        with ThreadPoolExecutor(max_workers=budget) as pool:
+            with lock:
+                in_flight = set()
+                while True:
+                    in_flight -= done
+                    if failure is not None or not pending:
+                        if not in_flight:
+                            break
+                        lock.wait()
+                        continue
+                    ready = [s for s in pending.values() if all(d in done for d in s.deps)]
+                    started_any = False
+                    for stage in ready:
+                        cost = min(stage.cost, budget)
+                        if running + cost > budget:
+                            break
+                        running += cost
+                        del pending[stage.name]
+                        in_flight.add(stage.name)
+                        group = stage.name.split("/", 1)[0]
+                        if on_start is not None and group not in started_groups:
+                            started_groups.add(group)
+                            on_start(group)
+                        pool.submit(execute, stage)
+                        started_any = True
+                    if not started_any:
+                        if not in_flight:
+                            raise ValueError("Stage graph has a cycle: {}".format(", ".join(pending)))
+                        lock.wait()
+
+        if failure is not None:
+            name, error = failure
+            raise StageFailed("Stage {} failed: {}".format(name, error)) from error
+        ordered = sorted(spans.items(), key=lambda item: item[1][0])
+        return {group: int(round((last - first) * 1000)) for group, (first, last) in ordered}
+
+
+_process_pool = None
+_process_pool_lock = threading.Lock()
+
+
+def run_in_process(fn, *args):
+    """
+    Run fn(*args) on a process-wide pool of Python processes sized by the CPU
+    budget, and wait for its result. fn must be a module-level function.
+    The pool is started on first use and kept for the life of the process,
+    so its start-up cost is paid once per stn_worker.py.
+    """
+    global _process_pool
+    with _process_pool_lock:
+        if _process_pool is None:
+            method = "forkserver" if "forkserver" in multiprocessing.get_all_start_methods() else "spawn"
+            _process_pool = ProcessPoolExecutor(max_workers=cpu_budget(),
+                                                mp_context=multiprocessing.get_context(method))
+    return _process_pool.submit(fn, *args).result()
@@ -0,0 +1,177 @@
+#!/usr/bin/env python3
+"""
+Long-lived STN worker driven by the Java backend over stdin/stdout.
+
+The interpreter and the heavy imports (numpy, scipy, stn_core) are paid once
+per worker instead of once per problem. The protocol is one JSON object per
+line in each direction:
+
+  -> {"id": "...", "op": "ping"}
+  <- {"id": "...", "ok": true, "pong": true}
+
+  -> {"id": "...", "op": "run", "argv": ["--typeproblem", "discrete", ...]}
+  <- {"id": "...", "ok": true, "pdf": "<rel path>", "json": "<rel path>",
+      "timings": {"partition": 120, "create": 800, ...}}
+  <- {"id": "...", "ok": false, "error": "<message>"}
+
+  -> {"id": "...", "op": "run", "argv": [...], "traces": [{"file": "alg1.txt",
+      "name": "Algorithm1", "color": "#RRGGBB", "content": "<base64>"}, ...]}
+  <- {"id": "...", "ok": true, "json_content": "<visualization JSON>",
+      "pdf_content": "<base64>" | null, "timings": {...}}
+
+  -> {"op": "shutdown"}
+
+argv is exactly what stn_cli.py accepts. With "traces" nothing touches the
+scripts directory: the traces arrive in the request, the job runs in its own
+scratch workspace (STN_WORKSPACE, else /dev/shm when available, else the
+system temp dir) that is deleted afterwards, and the results come back in
+the reply. timings holds the milliseconds spent in each pipeline stage.
+Once the worker has started, it writes
+a single {"ready": true} line. Everything else that would reach stdout, from
+prints in this process or from R subprocesses, is sent to stderr so it can
+never corrupt the protocol.
+
+While a run is in progress the worker reports each pipeline stage as it starts,
+before the reply:
+
+  <- {"id": "...", "event": "stage", "stage": "create"}
+
+On SIGTERM the worker kills the R processes it started before exiting, so
+stopping it never leaves R running. (The backend kills the whole process tree
+when a job hits a limit or is cancelled.)
+"""
+
+import base64
+import json
+import os
+import shutil
+import signal
+import sys
+import tempfile
+import threading
+import traceback
+
+SCRIPTS_DIR = os.path.dirname(os.path.abspath(__file__))
+
+
+def _take_protocol_stream():
+    """Keep a private handle on the real stdout and point fd 1 at stderr."""
+    sys.stdout.flush()
+    protocol_fd = os.dup(1)
+    os.dup2(2, 1)
+    return os.fdopen(protocol_fd, "w", buffering=1, encoding="utf-8")
+
+
+_reply_lock = threading.Lock()
+
+
+def _reply(stream, message):
+    # Stage events come from the pipeline's stage threads
+    with _reply_lock:
+        stream.write(json.dumps(message) + "\n")
+        stream.flush()
+
+
+def _terminate(signum, frame):
+    import r_session
+    r_session.kill_children()
+    os._exit(128 + signum)
+
+
+def _workspace_root():
+    """Where per-job workspaces go: STN_WORKSPACE, else tmpfs if there is one."""
+    root = os.environ.get("STN_WORKSPACE")
+    if root:
+        os.makedirs(root, exist_ok=True)
+        return root
+    if os.path.isdir("/dev/shm") and os.access("/dev/shm", os.W_OK):
+        return "/dev/shm"
+    return None
+
+
+def _read_result(workspace, path_rel, binary):
+    if not path_rel:
+        return None
+    path = os.path.join(workspace, path_rel)
+    if not os.path.isfile(path):
+        return None
+    with open(path, "rb") as f:
+        content = f.read()
+    return base64.b64encode(content).decode("ascii") if binary else content.decode("utf-8")
+
+
+def _run(request, protocol):
+    import stn_cli
+    request_id = request.get("id")
+
+    def on_stage(stage):
+        _reply(protocol, {"id": request_id, "event": "stage", "stage": stage})
+
+    traces = request.get("traces")
+    workspace = None if traces is None else tempfile.mkdtemp(prefix="stn-job-", dir=_workspace_root())
+    try:
+        argv = request.get("argv") or []
+        timings = {}
+        if workspace is None:
+            pdf_path_rel, json_path_rel = stn_cli.run(argv, timings=timings, on_stage=on_stage)
+            return {"ok": True, "pdf": pdf_path_rel, "json": json_path_rel, "timings": timings}
+        pdf_path_rel, json_path_rel = stn_cli.run(argv, traces=traces, workspace=workspace, timings=timings,
+                                                  on_stage=on_stage)
+        return {"ok": True,
+                "json_content": _read_result(workspace, json_path_rel, binary=False),
+                "pdf_content": _read_result(workspace, pdf_path_rel, binary=True),
+                "timings": timings}
+    except stn_cli.CliError as e:
+        return {"ok": False, "error": str(e)}
+    except SystemExit as e:
+        # argparse reports usage errors by exiting
+        return {"ok": False, "error": f"invalid arguments (exit status {e.code})"}
+    finally:
+        if workspace is not None:
+            os.chdir(SCRIPTS_DIR)
+            shutil.rmtree(workspace, ignore_errors=True)
+
+
+def main():
+    protocol = _take_protocol_stream()
+    signal.signal(signal.SIGTERM, _terminate)
+
+    # Warm up: this import pulls in numpy/scipy/stn_core before the first job
+    import stn_cli  # noqa: F401
+
+    _reply(protocol, {"ready": True, "pid": os.getpid()})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            request = json.loads(line)
+        except ValueError:
+            _reply(protocol, {"ok": False, "error": "malformed request"})
+            continue
+
+        op = request.get("op")
+        request_id = request.get("id")
+        if op == "shutdown":
+            break
+        if op == "ping":
+            response = {"ok": True, "pong": True}
+        elif op == "run":
+            try:
+                response = _run(request, protocol)
+            except Exception as e:
+                traceback.print_exc(file=sys.stderr)
+                response = {"ok": False, "error": f"{type(e).__name__}: {e}"}
+        else:
+            response = {"ok": False, "error": f"unknown op: {op}"}
+
+        response["id"] = request_id
+        sys.stdout.flush()
+        sys.stderr.flush()
+        _reply(protocol, response)
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -6,6 +6,8 @@ import com.tfg.backend.algorithm.application.mapper.AlgorithmMapper;
 import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.exceptions.AlgorithmAlreadyExistsException;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
+import com.tfg.backend.common.PrimaryKeyViolation;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,11 +32,15 @@ public class CreateAlgorithmUseCase {
     public ResponseAlgorithmDTO execute(RegistrationAlgorithmDTO registrationAlgorithmDTO, UUID problemId) {
         Algorithm algorithm = algorithmMapper.fromDTOtoObject(registrationAlgorithmDTO, problemId);
 
-        if (algorithmRepositoryJPA.existsById(algorithm.getId())) {
+        // The primary key detects a duplicate id; flushed here so it is reported as one
+        try {
+            algorithm = algorithmRepositoryJPA.saveAndFlush(algorithm);
+        } catch (DataIntegrityViolationException e) {
+            if (!PrimaryKeyViolation.of(e, "pk_algorithm")) {
+                throw e;
+            }
             throw new AlgorithmAlreadyExistsException(algorithm.getId());
         }
-
-        algorithm = algorithmRepositoryJPA.save(algorithm);
         
         // Create nodes if they exist
         if (registrationAlgorithmDTO.getNodes() != null && !registrationAlgorithmDTO.getNodes().isEmpty()) {
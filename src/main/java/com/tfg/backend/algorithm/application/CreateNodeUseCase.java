@@ -6,6 +6,8 @@ import com.tfg.backend.algorithm.application.mapper.NodeMapper;
 import com.tfg.backend.algorithm.domain.Node;
 import com.tfg.backend.algorithm.domain.exceptions.NodeAlreadyExistsException;
 import com.tfg.backend.algorithm.infrastructure.repositories.NodeRepositoryJPA;
+import com.tfg.backend.common.PrimaryKeyViolation;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,11 +28,15 @@ public class CreateNodeUseCase {
     public ResponseNodeDTO execute(RegistrationNodeDTO registrationNodeDTO, UUID algorithmId) {
         Node node = nodeMapper.fromDTOtoObject(registrationNodeDTO, algorithmId);
 
-        if (nodeRepositoryJPA.existsById(node.getId())) {
+        // The primary key detects a duplicate id; flushed here so it is reported as one
+        try {
+            node = nodeRepositoryJPA.saveAndFlush(node);
+        } catch (DataIntegrityViolationException e) {
+            if (!PrimaryKeyViolation.of(e, "pk_node")) {
+                throw e;
+            }
             throw new NodeAlreadyExistsException(node.getId());
         }
-
-        node = nodeRepositoryJPA.save(node);
         return nodeMapper.fromObjectToDTO(node);
     }
 }
@@ -23,4 +23,9 @@ public class ResponseAlgorithmDTO {
     private Integer nodeCount;
     private Integer edgeCount;
     private Integer componentCount;
+    private Integer bestCount;
+    private Integer endCount;
+    private Double bestStrength;
+    private Double averagePathLength;
+    private Integer pathCount;
 }
@@ -3,6 +3,7 @@ package com.tfg.backend.algorithm.application.mapper;
 import com.tfg.backend.algorithm.application.dto.*;
 import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.File;
+import com.tfg.backend.common.UuidV7;
 import com.tfg.backend.problem.domain.Problem;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
 import org.springframework.stereotype.Component;
@@ -23,7 +24,7 @@ public class AlgorithmMapper {
                 .orElseThrow(() -> new RuntimeException("Problem not found with id: " + problemId));
 
         Algorithm algorithm = Algorithm.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generate())
                 .name(dto.getName())
                 .color(dto.getColor())
                 .problem(problem)
@@ -31,7 +32,7 @@ public class AlgorithmMapper {
 
         if (dto.getFile() != null) {
             File file = File.builder()
-                    .id(UUID.randomUUID())
+                    .id(UuidV7.generate())
                     .fileName(dto.getFile().getFileName())
                     .fileType(dto.getFile().getFileType())
                     .content(dto.getFile().getContent())
@@ -50,7 +51,12 @@ public class AlgorithmMapper {
                 .problemId(algorithm.getProblem().getId())
                 .nodeCount(algorithm.getNodeCount())
                 .edgeCount(algorithm.getEdgeCount())
-                .componentCount(algorithm.getComponentCount());
+                .componentCount(algorithm.getComponentCount())
+                .bestCount(algorithm.getBestCount())
+                .endCount(algorithm.getEndCount())
+                .bestStrength(algorithm.getBestStrength())
+                .averagePathLength(algorithm.getAveragePathLength())
+                .pathCount(algorithm.getPathCount());
 
         if (algorithm.getFile() != null) {
             File file = algorithm.getFile();
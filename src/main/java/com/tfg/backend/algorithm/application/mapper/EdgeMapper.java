@@ -7,6 +7,7 @@ import com.tfg.backend.algorithm.domain.Edge;
 import com.tfg.backend.algorithm.domain.Node;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
 import com.tfg.backend.algorithm.infrastructure.repositories.NodeRepositoryJPA;
+import com.tfg.backend.common.UuidV7;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -33,7 +34,7 @@ public class EdgeMapper {
                 .orElseThrow(() -> new RuntimeException("Algorithm not found with id: " + algorithmId));
 
         return Edge.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generate())
                 .sourceNode(sourceNode)
                 .targetNode(targetNode)
                 .algorithm(algorithm)
@@ -7,6 +7,7 @@ import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.Node;
 import com.tfg.backend.algorithm.domain.Position3D;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
+import com.tfg.backend.common.UuidV7;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -31,7 +32,7 @@ public class NodeMapper {
                 .build();
 
         return Node.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generate())
                 .type(dto.getType())
                 .position(position)
                 .algorithm(algorithm)
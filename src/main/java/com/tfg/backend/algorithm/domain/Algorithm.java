@@ -1,5 +1,6 @@
 package com.tfg.backend.algorithm.domain;
 
+import com.tfg.backend.common.AssignedIdEntity;
 import com.tfg.backend.problem.domain.Problem;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -17,7 +18,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Algorithm {
+public class Algorithm extends AssignedIdEntity {
     @Id
     private UUID id;
     
@@ -53,4 +54,19 @@ public class Algorithm {
     
     @Builder.Default
     private Integer componentCount = 0;
+    
+    @Builder.Default
+    private Integer bestCount = 0;
+    
+    @Builder.Default
+    private Integer endCount = 0;
+    
+    // Null when the STN has no best node (NA in metrics-alg.R)
+    private Double bestStrength;
+    
+    // Null when no start node reaches a best node
+    private Double averagePathLength;
+    
+    @Builder.Default
+    private Integer pathCount = 0;
 }
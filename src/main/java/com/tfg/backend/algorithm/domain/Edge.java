@@ -1,5 +1,6 @@
 package com.tfg.backend.algorithm.domain;
 
+import com.tfg.backend.common.AssignedIdEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -12,7 +13,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Edge {
+public class Edge extends AssignedIdEntity {
     @Id
     private UUID id;
     
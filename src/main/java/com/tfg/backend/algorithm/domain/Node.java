@@ -1,5 +1,6 @@
 package com.tfg.backend.algorithm.domain;
 
+import com.tfg.backend.common.AssignedIdEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -14,7 +15,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class Node {
+public class Node extends AssignedIdEntity {
     @Id
     private UUID id;
     
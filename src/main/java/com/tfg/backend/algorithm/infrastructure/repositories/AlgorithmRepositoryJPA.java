@@ -2,6 +2,8 @@ package com.tfg.backend.algorithm.infrastructure.repositories;
 
 import com.tfg.backend.algorithm.domain.Algorithm;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +11,9 @@ import java.util.UUID;
 
 @Repository
 public interface AlgorithmRepositoryJPA extends JpaRepository<Algorithm, UUID> {
-    List<Algorithm> findByProblemId(UUID problemId);
+    /**
+     * Algorithms of the problem, none once it is deleted (before its storage is reclaimed)
+     */
+    @Query("SELECT a FROM Algorithm a WHERE a.problem.id = :problemId AND a.problem.deletedAt IS NULL")
+    List<Algorithm> findByProblemId(@Param("problemId") UUID problemId);
 }
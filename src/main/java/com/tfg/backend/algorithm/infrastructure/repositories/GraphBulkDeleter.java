@@ -0,0 +1,93 @@
+package com.tfg.backend.algorithm.infrastructure.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Removes the STN graph of a deleted problem with set-based SQL instead of loading
+ * it into Hibernate. Edges and nodes go in bounded chunks, each its own statement
+ * (and, outside a transaction, its own commit), so no single delete holds row locks
+ * on the whole graph or stalls other writers; the chunks reach their rows through
+ * the algorithm indexes alone.
+ */
+@Repository
+public class GraphBulkDeleter {
+
+    // Package-private so GraphQueryPlanTest explains the statements as they are sent
+    static final String DELETE_EDGES_SQL =
+            "DELETE FROM edge WHERE id IN (SELECT e.id FROM edge e JOIN algorithm a ON a.id = e.algorithm_id "
+                    + "WHERE a.problem_id = ? LIMIT ?)";
+    static final String DELETE_NODES_SQL =
+            "DELETE FROM node WHERE id IN (SELECT n.id FROM node n JOIN algorithm a ON a.id = n.algorithm_id "
+                    + "WHERE a.problem_id = ? LIMIT ?)";
+    private static final String DELETE_ALGORITHMS_SQL =
+            "DELETE FROM algorithm WHERE problem_id = ? RETURNING file_id";
+    private static final String DELETE_FILE_SQL = "DELETE FROM file WHERE id = ?";
+    // Generation jobs go with the problem through their FK
+    private static final String DELETE_PROBLEM_SQL =
+            "DELETE FROM problem WHERE id = ? "
+                    + "RETURNING standard_partitioning_id, agglomerative_clustering_id, shannon_entropy_id";
+    private static final String DELETE_STANDARD_PARTITIONING_SQL = "DELETE FROM standard_partitioning WHERE id = ?";
+    private static final String DELETE_AGGLOMERATIVE_CLUSTERING_SQL = "DELETE FROM agglomerative_clustering WHERE id = ?";
+    private static final String DELETE_SHANNON_ENTROPY_SQL = "DELETE FROM shannon_entropy WHERE id = ?";
+    private static final String DELETE_PROBLEM_COLLECTION_SQL =
+            "DELETE FROM problem_collection c WHERE c.id = ? AND c.deleted_at IS NOT NULL "
+                    + "AND NOT EXISTS (SELECT 1 FROM problem p WHERE p.problem_collection_id = c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public GraphBulkDeleter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return number of edges deleted, 0 once the problem has none left
+     */
+    public int deleteEdgesOfProblem(UUID problemId, int limit) {
+        return jdbcTemplate.update(DELETE_EDGES_SQL, problemId, limit);
+    }
+
+    /**
+     * Edges still pointing at these nodes (e.g. from a concurrent ingest) go with them
+     * @return number of nodes deleted, 0 once the problem has none left
+     */
+    public int deleteNodesOfProblem(UUID problemId, int limit) {
+        return jdbcTemplate.update(DELETE_NODES_SQL, problemId, limit);
+    }
+
+    /**
+     * Delete the problem row with its algorithms and the rows only they referenced
+     * (trace files, strategy settings), all or nothing. Meant to run once the graph is gone.
+     */
+    @Transactional
+    public void deleteProblem(UUID problemId) {
+        List<UUID> fileIds = jdbcTemplate.queryForList(DELETE_ALGORITHMS_SQL, UUID.class, problemId);
+        fileIds.forEach(fileId -> deleteIfPresent(DELETE_FILE_SQL, fileId));
+
+        List<Map<String, Object>> problems = jdbcTemplate.queryForList(DELETE_PROBLEM_SQL, problemId);
+        for (Map<String, Object> problem : problems) {
+            deleteIfPresent(DELETE_STANDARD_PARTITIONING_SQL, problem.get("standard_partitioning_id"));
+            deleteIfPresent(DELETE_AGGLOMERATIVE_CLUSTERING_SQL, problem.get("agglomerative_clustering_id"));
+            deleteIfPresent(DELETE_SHANNON_ENTROPY_SQL, problem.get("shannon_entropy_id"));
+        }
+    }
+
+    /**
+     * Delete the row of a deleted collection, once none of its problems is left
+     * @return false if some problem row still references it, or it is already gone
+     */
+    public boolean deleteProblemCollection(UUID problemCollectionId) {
+        return jdbcTemplate.update(DELETE_PROBLEM_COLLECTION_SQL, problemCollectionId) > 0;
+    }
+
+    private void deleteIfPresent(String sql, Object id) {
+        if (id != null) {
+            jdbcTemplate.update(sql, id);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tfg.backend.algorithm.infrastructure.repositories;
+
+import com.tfg.backend.algorithm.domain.NodeType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes large STN graphs (nodes and edges) with JDBC batching instead of one
+ * JPA save per row. Rows are plain value records: the caller owns the ids, so
+ * nothing written here has to be read back.
+ */
+@Repository
+public class GraphBulkWriter {
+
+    private static final String INSERT_NODE_SQL =
+            "INSERT INTO node (id, type, algorithm_id, x, y, z) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_EDGE_SQL =
+            "INSERT INTO edge (id, source_node_id, target_node_id, algorithm_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public GraphBulkWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${stn.ingest.batchSize:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insertNodes(List<NodeRow> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_NODE_SQL, nodes, batchSize, (ps, node) -> {
+            ps.setObject(1, node.id());
+            ps.setString(2, node.type().name());
+            ps.setObject(3, node.algorithmId());
+            setNullableDouble(ps, 4, node.x());
+            setNullableDouble(ps, 5, node.y());
+            setNullableDouble(ps, 6, node.z());
+        });
+    }
+
+    public void insertEdges(List<EdgeRow> edges) {
+        if (edges.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EDGE_SQL, edges, batchSize, (ps, edge) -> {
+            ps.setObject(1, edge.id());
+            ps.setObject(2, edge.sourceNodeId());
+            ps.setObject(3, edge.targetNodeId());
+            ps.setObject(4, edge.algorithmId());
+        });
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+
+    public record NodeRow(UUID id, NodeType type, UUID algorithmId, Double x, Double y, Double z) {
+    }
+
+    public record EdgeRow(UUID id, UUID sourceNodeId, UUID targetNodeId, UUID algorithmId) {
+    }
+}
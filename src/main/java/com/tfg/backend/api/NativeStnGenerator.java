@@ -0,0 +1,229 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.MergedStnGraph;
+import com.tfg.backend.stn.StnEngine;
+import com.tfg.backend.stn.StnMetrics;
+import com.tfg.backend.stn.StnNodeType;
+import com.tfg.backend.stn.layout.CsrGraph;
+import com.tfg.backend.stn.layout.GraphLayout;
+import com.tfg.backend.visualization.VisualizationData;
+import org.springframework.stereotype.Service;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the visualization JSON of a registration in the JVM, in place of the
+ * create.R, merge.R and plot-merged(-tree).R stages of stn_cli.py in JSON-only mode.
+ * The traces go through the native partitioners, the per-algorithm STNs are merged
+ * even when there is only one, and the nodes are decorated and laid out as the merged
+ * plot scripts do, so the JSON is the one {@link com.tfg.backend.visualization.VisualizationService}
+ * already reads. The metrics of each algorithm come from the same STNs, so they are never
+ * built twice. There is no PDF; rendering one still goes through stn_cli.py.
+ */
+@Service
+public class NativeStnGenerator {
+
+    // Node and edge colors of plot-merged.R
+    static final String SHARED_COLOR = "gray70";
+    static final String START_COLOR = "gold";
+    static final String END_COLOR = "gray30";
+    static final String BEST_COLOR = "red";
+
+    // Fixed, so the same traces always get the same layout, as a cached result would
+    private static final long LAYOUT_SEED = 1L;
+
+    private final StnEngine stnEngine;
+    private final ObjectMapper objectMapper;
+
+    public NativeStnGenerator(StnEngine stnEngine, ObjectMapper objectMapper) {
+        this.stnEngine = stnEngine;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param treeLayout lay the STN out as a tree, as plot-merged-tree.R does, instead of
+     *                   with Fruchterman-Reingold and stress majorization
+     * @param stnRun     started run the generation belongs to, checked between its phases
+     * @return the visualization JSON and the metrics, without a PDF, or null if the registration
+     * has no traces
+     * @throws StnRunAbortedException if the run was stopped before the generation finished
+     */
+    public StnResult generate(RegistrationProblemDTO dto, boolean treeLayout, StnRun stnRun) throws IOException {
+        RegistrationStns stns = RegistrationStns.build(stnEngine, dto, stnRun);
+        if (stns.graphs().isEmpty()) {
+            return null;
+        }
+        stnRun.throwIfAborted();
+        Map<String, StnMetrics> metrics = stnEngine.metrics(stns.graphs(), stns.runs());
+        stnRun.throwIfAborted();
+        MergedStnGraph merged = stnEngine.merge(stns.graphs());
+        stnRun.throwIfAborted();
+
+        GraphLayout fr;
+        GraphLayout kk;
+        if (treeLayout) {
+            // plot-merged-tree.R writes the tree coordinates as both layouts
+            fr = stnEngine.layoutTree(merged);
+            kk = fr;
+        } else {
+            CsrGraph graph = CsrGraph.of(merged);
+            fr = stnEngine.layoutFruchtermanReingold(graph, 2, LAYOUT_SEED);
+            stnRun.throwIfAborted();
+            kk = stnEngine.layoutStress(graph, 2, LAYOUT_SEED);
+        }
+        stnRun.throwIfAborted();
+        byte[] json = objectMapper.writeValueAsBytes(toVisualizationData(merged, algorithmColors(dto, merged), fr, kk));
+        return new StnResult(null, json, metrics);
+    }
+
+    /**
+     * Colors of the merged algorithms, in their order, as #rrggbb
+     */
+    private static List<String> algorithmColors(RegistrationProblemDTO dto, MergedStnGraph merged) {
+        List<String> colors = new ArrayList<>();
+        for (String name : merged.algorithms()) {
+            String colorHex = "#000000";
+            for (RegistrationAlgorithmDTO alg : dto.getAlgorithms()) {
+                if (name.equals(alg.getName()) && alg.getColor() != null) {
+                    Color c = alg.getColor();
+                    colorHex = String.format("#%02x%02x%02x", c.getRed(), c.getGreen(), c.getBlue());
+                    break;
+                }
+            }
+            colors.add(colorHex);
+        }
+        return colors;
+    }
+
+    static VisualizationData toVisualizationData(MergedStnGraph merged, List<String> algorithmColors,
+                                                 GraphLayout fr, GraphLayout kk) {
+        List<String> algorithms = merged.algorithms();
+        int n = merged.nodeCount();
+        int m = merged.edgeCount();
+
+        // Size is the weighted in-degree plus one, as in stn_decorate
+        double[] inStrength = new double[n];
+        for (int e = 0; e < m; e++) {
+            inStrength[merged.edgeTarget(e)] += merged.edgeWeight(e);
+        }
+
+        List<VisualizationData.NodeData> nodes = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            // merge.R unites the per-algorithm Type and Alg attributes without a separator
+            StringBuilder type = new StringBuilder();
+            StringBuilder algorithm = new StringBuilder();
+            boolean start = false;
+            boolean end = false;
+            boolean best = false;
+            for (int i = merged.nodeMembershipStart(v); i < merged.nodeMembershipStart(v + 1); i++) {
+                StnNodeType memberType = merged.nodeMemberType(i);
+                type.append(memberType.label());
+                algorithm.append(algorithms.get(merged.nodeMemberAlgorithm(i)));
+                start |= memberType == StnNodeType.START;
+                end |= memberType == StnNodeType.END;
+                best |= memberType == StnNodeType.BEST;
+            }
+
+            String color = SHARED_COLOR;
+            if (!merged.isShared(v)) {
+                int only = merged.nodeMemberAlgorithm(merged.nodeMembershipStart(v));
+                if (only < algorithmColors.size()) {
+                    color = algorithmColors.get(only);
+                }
+            }
+            double size = inStrength[v] + 1;
+            if (start) {
+                color = START_COLOR;
+            }
+            if (end) {
+                color = END_COLOR;
+                size += 0.3;
+            }
+            if (best) {
+                color = BEST_COLOR;
+                size += 0.6;
+            }
+
+            VisualizationData.NodeData node = new VisualizationData.NodeData();
+            node.setId(merged.label(v));
+            node.setType(type.toString());
+            node.setSize(size);
+            node.setColor(color);
+            node.setFitness(merged.fitness(v));
+            node.setAlgorithm(algorithm.toString());
+            node.setX_fr(fr.x(v));
+            node.setY_fr(fr.y(v));
+            node.setX_kk(kk.x(v));
+            node.setY_kk(kk.y(v));
+            nodes.add(node);
+        }
+
+        List<VisualizationData.EdgeData> edges = new ArrayList<>(m);
+        for (int e = 0; e < m; e++) {
+            String color = SHARED_COLOR;
+            int first = merged.edgeMembershipStart(e);
+            if (merged.edgeMembershipStart(e + 1) - first == 1) {
+                int only = merged.edgeMemberAlgorithm(first);
+                if (only < algorithmColors.size()) {
+                    color = algorithmColors.get(only);
+                }
+            }
+
+            VisualizationData.EdgeData edge = new VisualizationData.EdgeData();
+            edge.setFrom(merged.label(merged.edgeSource(e)));
+            edge.setTo(merged.label(merged.edgeTarget(e)));
+            edge.setColor(color);
+            edge.setWidth((double) merged.edgeWeight(e));
+            edges.add(edge);
+        }
+
+        VisualizationData.Stats stats = new VisualizationData.Stats();
+        stats.setNode_count(n);
+        stats.setEdge_count(m);
+        stats.setComponent_count(componentCount(merged));
+
+        VisualizationData data = new VisualizationData();
+        data.setAlgorithms(algorithms);
+        data.setAlgorithmColors(algorithmColors);
+        data.setNodes(nodes);
+        data.setEdges(edges);
+        data.setStats(stats);
+        return data;
+    }
+
+    /**
+     * Weakly connected components, igraph's default for components()
+     */
+    private static int componentCount(MergedStnGraph merged) {
+        int n = merged.nodeCount();
+        int[] parent = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+        }
+        int components = n;
+        for (int e = 0; e < merged.edgeCount(); e++) {
+            int a = root(parent, merged.edgeSource(e));
+            int b = root(parent, merged.edgeTarget(e));
+            if (a != b) {
+                parent[a] = b;
+                components--;
+            }
+        }
+        return components;
+    }
+
+    private static int root(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+}
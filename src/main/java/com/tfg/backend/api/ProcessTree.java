@@ -0,0 +1,51 @@
+package com.tfg.backend.api;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A process together with everything it started: the Python worker or stn_cli.py,
+ * its R sessions, Rscript children and process pool
+ */
+final class ProcessTree {
+
+    private ProcessTree() {
+    }
+
+    /**
+     * Kill the process and all its descendants. The descendants are listed before the
+     * process dies, since they are reparented (and so no longer found) afterwards.
+     */
+    static void kill(ProcessHandle root) {
+        List<ProcessHandle> descendants = root.descendants().toList();
+        root.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+    }
+
+    /**
+     * Resident memory of the whole tree, in bytes, or -1 where /proc is not available
+     */
+    static long residentBytes(ProcessHandle root) {
+        long rootBytes = residentBytes(root.pid());
+        if (rootBytes < 0) {
+            return -1;
+        }
+        return rootBytes + root.descendants().mapToLong(p -> Math.max(0, residentBytes(p.pid()))).sum();
+    }
+
+    private static long residentBytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                // VmRSS:	  123456 kB
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+            return 0; // Zombie or kernel thread: no memory of its own
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Pool of long-lived {@code stn_worker.py} processes. Each worker imports
+ * numpy/scipy/stn_core once and then serves jobs over a JSON-lines protocol
+ * on stdin/stdout, so a problem no longer pays interpreter startup. Workers
+ * are started lazily, pinged when they have been idle for a while, replaced
+ * when they die and recycled after {@code stn.workers.maxJobs} jobs.
+ * A supervised job has the worker attached to its {@link StnRun}, so stopping
+ * the run kills the worker and its R sessions; the pool then starts a new one.
+ */
+@Component
+public class PythonWorkerPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorkerPool.class);
+
+    private final String pythonExecutable;
+    private final Path scriptsDir;
+    private final int size;
+    private final int maxJobsPerWorker;
+    private final long pingAfterIdleMillis;
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore permits;
+    private final Deque<PythonWorker> idleWorkers = new ArrayDeque<>();
+    private final AtomicLong restarts = new AtomicLong();
+    private volatile boolean shutdown;
+
+    public PythonWorkerPool(@Value("${stn.python:python3}") String pythonExecutable,
+                            @Value("${stn.scriptsDir:python}") String scriptsDir,
+                            @Value("${stn.workers.size:2}") int size,
+                            @Value("${stn.workers.maxJobs:100}") int maxJobsPerWorker,
+                            @Value("${stn.workers.pingAfterIdleMs:30000}") long pingAfterIdleMillis,
+                            ObjectMapper objectMapper) {
+        this.pythonExecutable = pythonExecutable;
+        this.scriptsDir = Paths.get(scriptsDir);
+        this.size = size;
+        this.maxJobsPerWorker = maxJobsPerWorker;
+        this.pingAfterIdleMillis = pingAfterIdleMillis;
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(Math.max(size, 0), true);
+    }
+
+    /**
+     * A size of 0 disables the pool; callers then fall back to one process per job
+     */
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Run stn_cli with the given arguments (everything after {@code stn_cli.py})
+     * on a pooled worker, waiting for a free one if all are busy.
+     *
+     * @return {pdf, json} paths relative to the scripts directory
+     */
+    public String[] run(List<String> cliArguments) throws IOException, InterruptedException {
+        JsonNode response = call(cliArguments, null, null);
+        return new String[]{response.path("pdf").asText(), response.path("json").asText()};
+    }
+
+    /**
+     * Same as {@link #run}, with the traces sent in the request instead of {@code --file}
+     * arguments. The worker runs the job in a scratch workspace it deletes afterwards and
+     * replies with the results themselves, so no file is exchanged on disk.
+     *
+     * @param traces one map per algorithm with {@code file}, {@code name}, {@code color}
+     *               and the base64 {@code content}
+     * @param stnRun receives the pipeline stage the worker is in and can stop it
+     * @throws StnRunAbortedException if the run was stopped before the worker finished
+     */
+    public Output runInline(List<String> cliArguments, List<Map<String, String>> traces, StnRun stnRun)
+            throws IOException, InterruptedException {
+        JsonNode response = call(cliArguments, traces, stnRun);
+        JsonNode json = response.path("json_content");
+        JsonNode pdf = response.path("pdf_content");
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> timing : response.path("timings").properties()) {
+            timings.put(timing.getKey(), timing.getValue().asLong());
+        }
+        return new Output(
+                json.isTextual() ? json.asText().getBytes(StandardCharsets.UTF_8) : null,
+                pdf.isTextual() ? Base64.getDecoder().decode(pdf.asText()) : null,
+                timings);
+    }
+
+    /**
+     * Results of an inline run; json or pdf may be null if the pipeline did not produce it.
+     * timings holds the milliseconds spent in each pipeline stage group, in start order.
+     */
+    public record Output(byte[] json, byte[] pdf, Map<String, Long> timings) {
+    }
+
+    private JsonNode call(List<String> cliArguments, List<Map<String, String>> traces, StnRun stnRun)
+            throws IOException, InterruptedException {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Python worker pool is disabled");
+        }
+        permits.acquire();
+        PythonWorker worker = null;
+        try {
+            worker = borrow();
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("op", "run");
+            request.put("argv", cliArguments);
+            if (traces != null) {
+                request.put("traces", traces);
+            }
+            JsonNode response;
+            if (stnRun == null) {
+                response = worker.call(request);
+            } else {
+                stnRun.attach(worker.process);
+                try {
+                    response = worker.call(request, stage -> stnRun.setStage(StnGeneratorService.STAGE_PREFIX + stage));
+                } catch (IOException e) {
+                    // A worker killed by the run reads as a worker that exited
+                    stnRun.throwIfAborted();
+                    throw e;
+                } finally {
+                    stnRun.detach();
+                }
+            }
+            if (!response.path("ok").asBoolean(false)) {
+                throw new IOException("stn_worker.py failed: " + response.path("error").asText("unknown error"));
+            }
+            return response;
+        } finally {
+            release(worker);
+            permits.release();
+        }
+    }
+
+    public long getRestarts() {
+        return restarts.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        synchronized (idleWorkers) {
+            for (PythonWorker worker : idleWorkers) {
+                worker.close();
+            }
+            idleWorkers.clear();
+        }
+    }
+
+    private PythonWorker borrow() throws IOException {
+        PythonWorker worker;
+        synchronized (idleWorkers) {
+            worker = idleWorkers.pollFirst();
+        }
+        if (worker != null && !isHealthy(worker)) {
+            worker.close();
+            restarts.incrementAndGet();
+            worker = null;
+        }
+        return worker != null ? worker : start();
+    }
+
+    private void release(PythonWorker worker) {
+        if (worker == null) {
+            return;
+        }
+        if (shutdown || worker.isBroken() || worker.getJobs() >= maxJobsPerWorker) {
+            if (worker.isBroken()) {
+                restarts.incrementAndGet();
+            }
+            worker.close();
+            return;
+        }
+        synchronized (idleWorkers) {
+            idleWorkers.addFirst(worker);
+        }
+    }
+
+    private boolean isHealthy(PythonWorker worker) {
+        if (!worker.isAlive()) {
+            return false;
+        }
+        if (System.currentTimeMillis() - worker.getLastUsed() < pingAfterIdleMillis) {
+            return true;
+        }
+        try {
+            return worker.call(Map.of("op", "ping")).path("pong").asBoolean(false);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private PythonWorker start() throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(pythonExecutable, "stn_worker.py");
+        pb.directory(scriptsDir.toFile());
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        PythonWorker worker = new PythonWorker(pb.start(), objectMapper);
+        try {
+            JsonNode ready = worker.readMessage();
+            if (!ready.path("ready").asBoolean(false)) {
+                throw new IOException("Unexpected greeting from stn_worker.py: " + ready);
+            }
+        } catch (IOException e) {
+            worker.close();
+            throw e;
+        }
+        logger.info("Started STN worker pid {}", worker.pid());
+        return worker;
+    }
+
+    /**
+     * One worker process. Not thread-safe: the pool hands it to one caller at a time.
+     */
+    static class PythonWorker {
+
+        private final Process process;
+        private final ObjectMapper objectMapper;
+        private final BufferedWriter stdin;
+        private final BufferedReader stdout;
+        private int jobs;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean broken;
+
+        PythonWorker(Process process, ObjectMapper objectMapper) {
+            this.process = process;
+            this.objectMapper = objectMapper;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        JsonNode call(Map<String, Object> request) throws IOException {
+            return call(request, stage -> { });
+        }
+
+        /**
+         * @param onStage called with the name of each pipeline stage group as it starts
+         */
+        JsonNode call(Map<String, Object> request, Consumer<String> onStage) throws IOException {
+            String id = UUID.randomUUID().toString();
+            Map<String, Object> message = new LinkedHashMap<>(request);
+            message.put("id", id);
+            try {
+                stdin.write(objectMapper.writeValueAsString(message));
+                stdin.newLine();
+                stdin.flush();
+                JsonNode response = readMessage();
+                while ("stage".equals(response.path("event").asText()) && id.equals(response.path("id").asText())) {
+                    onStage.accept(response.path("stage").asText());
+                    response = readMessage();
+                }
+                if (!id.equals(response.path("id").asText())) {
+                    throw new IOException("Out-of-sequence response from stn_worker.py: " + response);
+                }
+                if ("run".equals(request.get("op"))) {
+                    jobs++;
+                }
+                return response;
+            } catch (IOException e) {
+                broken = true;
+                throw e;
+            } finally {
+                lastUsed = System.currentTimeMillis();
+            }
+        }
+
+        JsonNode readMessage() throws IOException {
+            String line = stdout.readLine();
+            if (line == null) {
+                broken = true;
+                throw new IOException("stn_worker.py exited" + (process.isAlive() ? "" : " with code " + process.exitValue()));
+            }
+            return objectMapper.readTree(line);
+        }
+
+        boolean isAlive() {
+            return !broken && process.isAlive();
+        }
+
+        boolean isBroken() {
+            return broken || !process.isAlive();
+        }
+
+        int getJobs() {
+            return jobs;
+        }
+
+        long getLastUsed() {
+            return lastUsed;
+        }
+
+        long pid() {
+            return process.pid();
+        }
+
+        void close() {
+            try {
+                if (process.isAlive()) {
+                    stdin.write("{\"op\": \"shutdown\"}");
+                    stdin.newLine();
+                    stdin.flush();
+                }
+            } catch (IOException e) {
+                // Already gone
+            }
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tfg.backend.api;
+
+import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.StnEngine;
+import com.tfg.backend.stn.StnGraph;
+import com.tfg.backend.stn.StnTransitions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-algorithm STNs of a registration, built in the JVM from the same uploaded traces
+ * and with the same settings {@link StnGeneratorService} passes to stn_cli.py. The STNs are
+ * keyed by algorithm name, which registration validates as present and unique. The build
+ * checks the run it belongs to between its phases, so a stopped run does not finish it.
+ *
+ * @param graphs algorithm name -> STN, in upload order; empty if the registration has no traces
+ * @param runs   number of runs the STNs were built from
+ */
+record RegistrationStns(Map<String, StnGraph> graphs, int runs) {
+
+    static RegistrationStns build(StnEngine stnEngine, RegistrationProblemDTO dto, StnRun stnRun) throws IOException {
+        if (dto.getAlgorithms() == null || dto.getAlgorithms().isEmpty()) {
+            return new RegistrationStns(Map.of(), 0);
+        }
+
+        Path tempDir = Files.createTempDirectory("stn_native_");
+        List<Path> tempFiles = new ArrayList<>();
+        try {
+            Map<String, Path> traces = new LinkedHashMap<>();
+            for (RegistrationAlgorithmDTO alg : dto.getAlgorithms()) {
+                FileDTO f = alg.getFile();
+                if (f == null || f.getContent() == null) continue;
+
+                // Checked here too: a second trace under the same name would silently replace the first
+                String name = alg.getName();
+                if (name == null || traces.containsKey(name)) {
+                    throw new IllegalArgumentException("Algorithm names must be present and unique: " + name);
+                }
+
+                Path tempFile = tempDir.resolve("algorithm_" + tempFiles.size() + ".txt");
+                StnGeneratorService.decodeTo(f.getContent(), tempFile);
+                tempFiles.add(tempFile);
+                traces.put(name, tempFile);
+            }
+            if (traces.isEmpty()) {
+                return new RegistrationStns(Map.of(), 0);
+            }
+            stnRun.throwIfAborted();
+
+            // Same strategies as the CLI call: standard for discrete problems, agglomerative otherwise
+            Map<String, StnTransitions> partitioned;
+            if ("ContinuousProblem".equalsIgnoreCase(dto.getProblemType())) {
+                partitioned = stnEngine.partitionAgglomerative(traces, false,
+                        dto.getAgglomerativeClustering(), null).traces();
+            } else {
+                partitioned = stnEngine.partitionDiscrete(traces, null);
+            }
+
+            int runs;
+            if (dto.getNumberRuns() != null) {
+                runs = dto.getNumberRuns();
+            } else {
+                runs = 0;
+                for (StnTransitions trace : partitioned.values()) {
+                    runs = Math.max(runs, trace.maxRun());
+                }
+            }
+            Double best = dto.getValueBestKnownSolution() != null
+                    ? dto.getValueBestKnownSolution().doubleValue() : null;
+            stnRun.throwIfAborted();
+
+            // The CLI always runs create.R with bmin 1, so the STN is built for minimization here too
+            return new RegistrationStns(stnEngine.build(partitioned, true, best, runs), runs);
+        } finally {
+            tempFiles.add(tempDir);
+            for (Path tempFile : tempFiles) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // Don't fail the build over a leftover temporary file
+                }
+            }
+        }
+    }
+}
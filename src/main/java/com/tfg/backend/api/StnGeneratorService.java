@@ -3,38 +3,101 @@ package com.tfg.backend.api;
 import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
 import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
 import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.stn.StnMetrics;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.awt.Color;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class StnGeneratorService {
 
+    static final String STAGE_PREFIX = "generate.";
+
+    private static final Logger logger = LoggerFactory.getLogger(StnGeneratorService.class);
+
     private final String pythonExecutable;
     private final Path scriptsDir;
+    private final StnResultCache stnResultCache;
+    private final PythonWorkerPool pythonWorkerPool;
+    private final StnRunSupervisor stnRunSupervisor;
+    private final NativeStnGenerator nativeStnGenerator;
+    private final StnMetricsService stnMetricsService;
+    private final boolean nativeEnabled;
 
     public StnGeneratorService(
             @Value("${stn.python:python3}") String pythonExecutable,
-            @Value("${stn.scriptsDir:python}") String scriptsDir
+            @Value("${stn.scriptsDir:python}") String scriptsDir,
+            StnResultCache stnResultCache,
+            PythonWorkerPool pythonWorkerPool,
+            StnRunSupervisor stnRunSupervisor,
+            NativeStnGenerator nativeStnGenerator,
+            StnMetricsService stnMetricsService,
+            @Value("${stn.native.enabled:false}") boolean nativeEnabled
     ) {
         this.pythonExecutable = pythonExecutable;
         this.scriptsDir = Paths.get(scriptsDir);
+        this.stnResultCache = stnResultCache;
+        this.pythonWorkerPool = pythonWorkerPool;
+        this.stnRunSupervisor = stnRunSupervisor;
+        this.nativeStnGenerator = nativeStnGenerator;
+        this.stnMetricsService = stnMetricsService;
+        this.nativeEnabled = nativeEnabled;
+    }
+
+    /**
+     * Generate the visualization JSON only; the PDF is rendered later, on demand, by {@link #renderPdf}.
+     * With {@code stn.native.enabled} the JSON comes from {@link NativeStnGenerator} instead of stn_cli.py.
+     * The per-algorithm metrics are cached with the JSON, so a cache hit builds no STN at all.
+     * @param stageDurations receives the milliseconds of each pipeline stage, as
+     *                       {@code generate.<stage>}, when a pooled worker ran the job
+     * @param stnRun started run the pipeline processes are attached to, so its limits and
+     *               cancellation reach them
+     * @return the result, without a PDF, or null if nothing could be generated; its metrics are null
+     *         if they could not be computed
+     * @throws StnRunAbortedException if the run was stopped before the pipeline finished
+     */
+    public StnResult generateFromRegistration(RegistrationProblemDTO dto, UUID problemId, Map<String, Long> stageDurations,
+                                           StnRun stnRun) throws IOException, InterruptedException {
+        return generate(dto, problemId, false, stageDurations, stnRun);
     }
 
-    public Path[] generateFromRegistration(RegistrationProblemDTO dto, UUID problemId) throws IOException, InterruptedException {
+    /**
+     * Run the full pipeline, PDF included, for a problem that was generated in JSON-only mode
+     * @return the PDF, or null if the pipeline produced none
+     */
+    public byte[] renderPdf(RegistrationProblemDTO dto, UUID problemId) throws IOException, InterruptedException {
+        try (StnRun stnRun = stnRunSupervisor.newRun()) {
+            stnRun.start();
+            StnResult result = generate(dto, problemId, true, new HashMap<>(), stnRun);
+            return result != null ? result.pdf() : null;
+        }
+    }
+
+    private StnResult generate(RegistrationProblemDTO dto, UUID problemId, boolean withPdf, Map<String, Long> stageDurations,
+                            StnRun stnRun) throws IOException, InterruptedException {
         // Si no hay algoritmos o ficheros, no podemos generar visualización
         if (dto.getAlgorithms() == null || dto.getAlgorithms().isEmpty()) {
             return null;
@@ -64,7 +127,9 @@ public class StnGeneratorService {
         cmd.add("--nodesize"); cmd.add(String.valueOf(dto.getVertexSize()));
         cmd.add("--arrowsize"); cmd.add(String.valueOf(dto.getArrowSize()));
         cmd.add("--treelayout"); cmd.add(Boolean.toString(Boolean.TRUE.equals(dto.getTreeLayout())));
-        cmd.add("--hash-file"); cmd.add(problemId.toString());
+        if (!withPdf) {
+            cmd.add("--json-only");
+        }
 
         // Standard (discrete)
         if ("discrete".equals(typeProblem) && dto.getStandardPartitioning() != null) {
@@ -91,9 +156,24 @@ public class StnGeneratorService {
             }
         }
 
-        // Create temp directory for temporary files
-        Path tempDir = Files.createTempDirectory("stn_files_");
+        // Cache key: every flag that shapes the output (the problem id only names the
+        // output files) plus the content hash, name and color of each trace
+        List<String> cacheKeyParts = new ArrayList<>(cmd.subList(2, cmd.size()));
+        cmd.add("--hash-file"); cmd.add(problemId.toString());
+
+        // The native layouts differ from igraph's, so their results are cached apart
+        boolean useNative = nativeEnabled && !withPdf;
+        if (useNative) {
+            cacheKeyParts.add("--native");
+        }
+
+        // A pooled worker gets the traces inline and returns the results in its reply; only the
+        // one-process-per-job fallback exchanges them through temporary files
+        boolean inline = !useNative && pythonWorkerPool.isEnabled();
+        Path tempDir = inline || useNative ? null : Files.createTempDirectory("stn_files_");
         List<Path> tempFiles = new ArrayList<>();
+        List<Path> outputFiles = new ArrayList<>();
+        List<Map<String, String>> traces = new ArrayList<>();
 
         try {
             // Ficheros y colores por algoritmo
@@ -101,61 +181,97 @@ public class StnGeneratorService {
                 FileDTO f = alg.getFile();
                 if (f == null || f.getContent() == null) continue; // saltamos sin contenido
                 
-                // Decode base64 content and write to temporary file
-                byte[] decodedContent = Base64.getDecoder().decode(f.getContent());
                 String fileName = f.getFileName() != null ? f.getFileName() : "algorithm_" + UUID.randomUUID() + ".txt";
-                Path tempFile = tempDir.resolve(fileName);
-                Files.write(tempFile, decodedContent);
-                tempFiles.add(tempFile);
-                
-                String path = tempFile.toString();
                 String name = alg.getName() != null ? alg.getName() : "alg";
                 String colorHex = "#000000";
                 if (alg.getColor() != null) {
                     Color c = alg.getColor();
                     colorHex = String.format("#%02x%02x%02x", c.getRed(), c.getGreen(), c.getBlue());
                 }
-                // formato: path:name:#RRGGBB
-                cmd.add("--file");
-                cmd.add(path.replace('\\','/') + "|" + name + "|" + colorHex);
+
+                String contentHash;
+                if (inline || useNative) {
+                    // The native generator decodes the traces itself
+                    contentHash = hashBase64(f.getContent());
+                    if (inline) {
+                        traces.add(Map.of("file", fileName, "name", name, "color", colorHex, "content", f.getContent()));
+                    }
+                } else {
+                    // Decode base64 content straight into the temporary file
+                    Path tempFile = tempDir.resolve(fileName);
+                    contentHash = decodeTo(f.getContent(), tempFile);
+                    tempFiles.add(tempFile);
+                    // formato: path:name:#RRGGBB
+                    cmd.add("--file");
+                    cmd.add(tempFile.toString().replace('\\','/') + "|" + name + "|" + colorHex);
+                }
+                cacheKeyParts.add(contentHash + "|" + name + "|" + colorHex);
             }
 
-            ProcessBuilder pb = new ProcessBuilder(cmd);
-            pb.directory(scriptsDir.toFile());
-            pb.redirectErrorStream(true);
-
-            Process p = pb.start();
-            List<String> outputLines = new ArrayList<>();
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    System.out.println(line);
-                    outputLines.add(line);
+            String cacheKey = StnResultCache.key(cacheKeyParts);
+            StnResult cached = stnResultCache.lookup(cacheKey);
+            if (cached != null && (!withPdf || cached.pdf() != null)) {
+                if (withPdf || cached.metrics() != null) {
+                    return cached;
                 }
+                // Cached without its metrics: they are computed once and kept with it from then on
+                StnResult result = new StnResult(null, cached.json(),
+                        computeMetrics(dto, problemId, stageDurations, stnRun));
+                if (result.metrics() != null) {
+                    stnResultCache.store(cacheKey, result);
+                }
+                return result;
             }
-            int code = p.waitFor();
-            if (code != 0) {
-                throw new IOException("stn_cli.py failed with exit code " + code);
+
+            if (useNative) {
+                long started = System.nanoTime();
+                StnResult result = nativeStnGenerator.generate(dto, Boolean.TRUE.equals(dto.getTreeLayout()), stnRun);
+                stageDurations.put(STAGE_PREFIX + "native", (System.nanoTime() - started) / 1_000_000);
+                if (result == null) {
+                    return null;
+                }
+                stnResultCache.store(cacheKey, result);
+                return result;
             }
-            
-            // The script outputs two lines: PDF path and JSON path
-            if (outputLines.size() < 2) {
+
+            if (inline) {
+                PythonWorkerPool.Output output = pythonWorkerPool.runInline(cmd.subList(2, cmd.size()), traces, stnRun);
+                output.timings().forEach((stage, millis) -> stageDurations.put(STAGE_PREFIX + stage, millis));
+                if (output.json() == null || (withPdf && output.pdf() == null)) {
+                    return null;
+                }
+                StnResult result = new StnResult(output.pdf(), output.json(),
+                        withPdf ? null : computeMetrics(dto, problemId, stageDurations, stnRun));
+                stnResultCache.store(cacheKey, result);
+                return result;
+            }
+
+            String[] outputs = runCliProcess(cmd, stnRun);
+            if (outputs == null) {
                 return null;
             }
+
+            String pdfLine = outputs[0].trim();
+            String jsonLine = outputs[1].trim();
             
-            String pdfLine = outputLines.get(outputLines.size() - 2).trim();
-            String jsonLine = outputLines.get(outputLines.size() - 1).trim();
-            
-            if (pdfLine.isEmpty() || jsonLine.isEmpty()) {
+            if (jsonLine.isEmpty() || (withPdf && pdfLine.isEmpty())) {
                 return null;
             }
 
-            // Return both paths
-            Path pdfPath = scriptsDir.resolve(pdfLine).normalize();
+            // Read back and removed below; there is no PDF in JSON-only mode
+            Path pdfPath = pdfLine.isEmpty() ? null : scriptsDir.resolve(pdfLine).normalize();
             Path jsonPath = scriptsDir.resolve(jsonLine).normalize();
-            return new Path[]{pdfPath, jsonPath};
+            if (pdfPath != null) {
+                outputFiles.add(pdfPath);
+            }
+            outputFiles.add(jsonPath);
+            StnResult result = new StnResult(pdfPath != null ? Files.readAllBytes(pdfPath) : null,
+                    Files.readAllBytes(jsonPath), withPdf ? null : computeMetrics(dto, problemId, stageDurations, stnRun));
+            stnResultCache.store(cacheKey, result);
+            return result;
         } finally {
-            // Clean up temporary files
+            // Clean up temporary files and the script's outputs
+            tempFiles.addAll(outputFiles);
             for (Path tempFile : tempFiles) {
                 try {
                     Files.deleteIfExists(tempFile);
@@ -164,10 +280,129 @@ public class StnGeneratorService {
                 }
             }
             try {
-                Files.deleteIfExists(tempDir);
+                if (tempDir != null) {
+                    Files.deleteIfExists(tempDir);
+                }
             } catch (IOException e) {
                 // Log but don't fail if cleanup fails
             }
         }
     }
+
+    /**
+     * Metrics of the traces stn_cli.py ran on, computed in the JVM under the same run. They are
+     * an extra on top of the generated graph, so a trace the native engine cannot read only costs
+     * the algorithms their metrics, not the whole job.
+     * @return the metrics, or null if they could not be computed, so none are cached
+     * @throws StnRunAbortedException if the run was stopped before they were computed
+     */
+    private Map<String, StnMetrics> computeMetrics(RegistrationProblemDTO dto, UUID problemId,
+                                                   Map<String, Long> stageDurations, StnRun stnRun)
+            throws StnRunAbortedException {
+        stnRun.setStage(STAGE_PREFIX + "metrics");
+        long started = System.nanoTime();
+        try {
+            return stnMetricsService.computeFromRegistration(dto, stnRun);
+        } catch (StnRunAbortedException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not compute STN metrics for problem {}: {}", problemId, e.getMessage());
+            return null;
+        } finally {
+            stageDurations.put(STAGE_PREFIX + "metrics", (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Decode a base64 upload into {@code target} through a stream, so the decoded trace is
+     * never held in memory as a whole
+     * @return SHA-256 of the decoded content, as {@link StnResultCache#hash(byte[])} would compute it
+     */
+    static String decodeTo(String base64, Path target) throws IOException {
+        MessageDigest digest = StnResultCache.sha256();
+        try (InputStream in = new DigestInputStream(Base64.getDecoder().wrap(new AsciiInputStream(base64)), digest)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * SHA-256 of the decoded content of a base64 upload, as {@link #decodeTo} would return it,
+     * without writing it anywhere
+     */
+    static String hashBase64(String base64) throws IOException {
+        MessageDigest digest = StnResultCache.sha256();
+        try (InputStream in = new DigestInputStream(Base64.getDecoder().wrap(new AsciiInputStream(base64)), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Bytes of an ASCII string, read without copying it into a byte array first
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private final String text;
+        private int position;
+
+        AsciiInputStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? text.charAt(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= text.length()) {
+                return -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) text.charAt(position++);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Run stn_cli.py in a fresh process, attached to the run so stopping it kills the process tree
+     * @return {pdf, json} lines printed by the script, or null if it printed fewer than two lines
+     */
+    private String[] runCliProcess(List<String> cmd, StnRun stnRun) throws IOException, InterruptedException {
+        ProcessBuilder pb = new ProcessBuilder(cmd);
+        pb.directory(scriptsDir.toFile());
+        pb.redirectErrorStream(true);
+
+        Process p = pb.start();
+        stnRun.attach(p);
+        List<String> outputLines = new ArrayList<>();
+        int code;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                System.out.println(line);
+                outputLines.add(line);
+            }
+            code = p.waitFor();
+        } finally {
+            stnRun.detach();
+        }
+        if (code != 0) {
+            stnRun.throwIfAborted();
+            throw new IOException("stn_cli.py failed with exit code " + code);
+        }
+        
+        // The script outputs two lines: PDF path and JSON path
+        if (outputLines.size() < 2) {
+            return null;
+        }
+        return new String[]{outputLines.get(outputLines.size() - 2), outputLines.get(outputLines.size() - 1)};
+    }
 }
@@ -0,0 +1,40 @@
+package com.tfg.backend.api;
+
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.StnEngine;
+import com.tfg.backend.stn.StnMetrics;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Computes the per-algorithm STN metrics of a registration in the JVM, from the same
+ * uploaded traces and with the same settings {@link StnGeneratorService} passes to stn_cli.py.
+ * {@link StnGeneratorService} calls it for the results of stn_cli.py and stores the metrics
+ * with them in the result cache; {@link NativeStnGenerator} takes them from the STNs it builds.
+ */
+@Service
+public class StnMetricsService {
+
+    private final StnEngine stnEngine;
+
+    public StnMetricsService(StnEngine stnEngine) {
+        this.stnEngine = stnEngine;
+    }
+
+    /**
+     * @param stnRun started run the computation belongs to, checked between its phases
+     * @return algorithm name -> metrics; empty if the registration has no traces
+     * @throws StnRunAbortedException if the run was stopped before the metrics were computed
+     */
+    public Map<String, StnMetrics> computeFromRegistration(RegistrationProblemDTO dto, StnRun stnRun)
+            throws IOException {
+        RegistrationStns stns = RegistrationStns.build(stnEngine, dto, stnRun);
+        if (stns.graphs().isEmpty()) {
+            return Map.of();
+        }
+        stnRun.throwIfAborted();
+        return stnEngine.metrics(stns.graphs(), stns.runs());
+    }
+}
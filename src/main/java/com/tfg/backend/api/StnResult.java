@@ -0,0 +1,20 @@
+package com.tfg.backend.api;
+
+import com.tfg.backend.stn.StnMetrics;
+
+import java.util.Map;
+
+/**
+ * Output of the STN pipeline, held in memory so nothing is left on disk once it has
+ * been ingested or served
+ *
+ * @param pdf     rendered plots, or null when the result was generated without them
+ * @param json    visualization data read by {@link com.tfg.backend.visualization.VisualizationService}
+ * @param metrics algorithm name -> STN metrics, or null when they were not computed with the result
+ */
+public record StnResult(byte[] pdf, byte[] json, Map<String, StnMetrics> metrics) {
+
+    public StnResult(byte[] pdf, byte[] json) {
+        this(pdf, json, null);
+    }
+}
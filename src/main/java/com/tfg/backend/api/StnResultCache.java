@@ -0,0 +1,283 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.stn.StnMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of STN pipeline outputs. Entries are keyed by a
+ * SHA-256 of the trace bytes plus the normalized CLI parameters, so identical
+ * uploads reuse the stored visualization JSON, PDF and STN metrics instead of
+ * rerunning the Python/R pipeline. Each entry is a directory under {@code stn.cache.dir};
+ * the least recently used ones are evicted once {@code stn.cache.maxBytes}
+ * is exceeded. Hits are read into memory under the cache lock, so an eviction
+ * can never remove a file while a caller is still reading it.
+ */
+@Component
+public class StnResultCache {
+
+    static final String PDF_NAME = "stn.pdf";
+    static final String JSON_NAME = "stn.json";
+    static final String METRICS_NAME = "metrics.json";
+
+    private static final TypeReference<LinkedHashMap<String, StnMetrics>> METRICS_TYPE = new TypeReference<>() {
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(StnResultCache.class);
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper;
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public StnResultCache(@Value("${stn.cache.enabled:true}") boolean enabled,
+                          @Value("${stn.cache.dir:${java.io.tmpdir}/stn-cache}") String cacheDir,
+                          @Value("${stn.cache.maxBytes:536870912}") long maxBytes,
+                          ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.cacheDir = Paths.get(cacheDir);
+        this.maxBytes = maxBytes;
+        this.objectMapper = objectMapper;
+        if (enabled) {
+            loadIndex();
+        }
+    }
+
+    /**
+     * Hash the given parts into a cache key. Parts are separated by a NUL byte so
+     * that adjacent values cannot run into each other.
+     */
+    public static String key(List<String> parts) {
+        MessageDigest digest = sha256();
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String hash(byte[] content) {
+        return HexFormat.of().formatHex(sha256().digest(content));
+    }
+
+    /**
+     * @return the cached result, or null on a miss; its pdf is null when the result was
+     * generated without one, and its metrics when they were not stored with it
+     */
+    public synchronized StnResult lookup(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Path entryDir = cacheDir.resolve(key);
+        Path json = entryDir.resolve(JSON_NAME);
+        // get() (not containsKey) so the hit moves the entry to the recent end
+        if (entrySizes.get(key) == null || !Files.exists(json)) {
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        StnResult result;
+        try {
+            Path pdf = entryDir.resolve(PDF_NAME);
+            Path metrics = entryDir.resolve(METRICS_NAME);
+            result = new StnResult(Files.exists(pdf) ? Files.readAllBytes(pdf) : null, Files.readAllBytes(json),
+                    Files.exists(metrics) ? objectMapper.readValue(metrics.toFile(), METRICS_TYPE) : null);
+        } catch (IOException e) {
+            logger.warn("Could not read cached STN result {}: {}", key, e.getMessage());
+            remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+        touch(entryDir);
+        hits.incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Write a freshly generated result into the cache, replacing any entry for key; the
+     * caller keeps using the content it already holds. Failures are logged and never
+     * propagate: the cache is an optimization, not a dependency.
+     */
+    public synchronized void store(String key, StnResult result) {
+        if (!enabled || result.json() == null) {
+            return;
+        }
+        Path staging = cacheDir.resolve(".tmp-" + UUID.randomUUID());
+        try {
+            write(staging, result);
+            commit(key, staging);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not cache STN result {}: {}", key, e.getMessage());
+            deleteRecursively(staging);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void write(Path dir, StnResult result) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(JSON_NAME), result.json());
+        if (result.pdf() != null) {
+            Files.write(dir.resolve(PDF_NAME), result.pdf());
+        }
+        if (result.metrics() != null) {
+            objectMapper.writeValue(dir.resolve(METRICS_NAME).toFile(), result.metrics());
+        }
+    }
+
+    /**
+     * Move a fully written staging directory into place as the entry for key
+     */
+    private void commit(String key, Path staging) throws IOException {
+        Path entryDir = cacheDir.resolve(key);
+        remove(key);
+        Files.move(staging, entryDir, StandardCopyOption.ATOMIC_MOVE);
+
+        long size = directorySize(entryDir);
+        entrySizes.put(key, size);
+        totalBytes += size;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entrySizes.entrySet().iterator();
+        // Never evict the entry that was just written (the last one)
+        while (totalBytes > maxBytes && entrySizes.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.getValue();
+            deleteRecursively(cacheDir.resolve(eldest.getKey()));
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entrySizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteRecursively(cacheDir.resolve(key));
+    }
+
+    /**
+     * Rebuild the in-memory LRU order from what a previous process left on disk,
+     * using directory modification times as the last access time.
+     */
+    private void loadIndex() {
+        try {
+            Files.createDirectories(cacheDir);
+            List<Path> dirs = new ArrayList<>();
+            try (Stream<Path> children = Files.list(cacheDir)) {
+                children.filter(Files::isDirectory).forEach(dirs::add);
+            }
+            dirs.sort(Comparator.comparing(StnResultCache::lastModified));
+            for (Path dir : dirs) {
+                String name = dir.getFileName().toString();
+                if (name.startsWith(".tmp-")) {
+                    deleteRecursively(dir);
+                    continue;
+                }
+                long size = directorySize(dir);
+                entrySizes.put(name, size);
+                totalBytes += size;
+            }
+            evict();
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not load STN cache index from {}: {}", cacheDir, e.getMessage());
+        }
+    }
+
+    private static void touch(Path dir) {
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order after a restart
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static long directorySize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).mapToLong(p -> {
+                try {
+                    return Files.size(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path path) {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    // Left behind for the next cleanup
+                }
+            });
+        } catch (IOException e) {
+            // Left behind for the next cleanup
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
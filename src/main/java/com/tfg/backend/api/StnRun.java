@@ -0,0 +1,121 @@
+package com.tfg.backend.api;
+
+/**
+ * Handle on one run of the STN pipeline, through which the {@link StnRunSupervisor}
+ * enforces its limits and a user can cancel it. Stopping a run kills the process tree
+ * it is attached to, so neither the Python process nor its R children outlive it; work
+ * done in the JVM notices at the next {@link #throwIfAborted} check.
+ */
+public class StnRun implements AutoCloseable {
+
+    public enum AbortReason {
+        TIMEOUT,
+        MEMORY,
+        CANCELLED
+    }
+
+    private final StnRunSupervisor supervisor;
+
+    // Guarded by this
+    private boolean started;
+    private long startedNanos;
+    private ProcessHandle process;
+    private StnRunAbortedException aborted;
+
+    private volatile String stage;
+
+    StnRun(StnRunSupervisor supervisor) {
+        this.supervisor = supervisor;
+    }
+
+    /**
+     * Start the clock and the supervision of this run
+     * @return false if it was cancelled before it started, in which case it must not run
+     */
+    public boolean start() {
+        synchronized (this) {
+            if (aborted != null) {
+                return false;
+            }
+            started = true;
+            startedNanos = System.nanoTime();
+        }
+        supervisor.register(this);
+        return true;
+    }
+
+    /**
+     * Stop the run at the user's request
+     * @return whether it had started; if not, it never will
+     */
+    public boolean cancel() {
+        return abort(AbortReason.CANCELLED, "Cancelled");
+    }
+
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    /**
+     * Kill {@code process} (and its descendants) if the run is stopped while it is attached
+     * @throws StnRunAbortedException if the run was stopped already; the process is killed
+     */
+    public void attach(Process process) throws StnRunAbortedException {
+        synchronized (this) {
+            if (aborted == null) {
+                this.process = process.toHandle();
+                return;
+            }
+        }
+        ProcessTree.kill(process.toHandle());
+        throw aborted;
+    }
+
+    public synchronized void detach() {
+        process = null;
+    }
+
+    public synchronized void throwIfAborted() throws StnRunAbortedException {
+        if (aborted != null) {
+            throw aborted;
+        }
+    }
+
+    @Override
+    public void close() {
+        supervisor.unregister(this);
+    }
+
+    synchronized long elapsedNanos() {
+        return started ? System.nanoTime() - startedNanos : 0;
+    }
+
+    synchronized ProcessHandle process() {
+        return process;
+    }
+
+    /**
+     * Stop the run; only the first reason counts
+     * @return whether it had started
+     */
+    boolean abort(AbortReason reason, String message) {
+        ProcessHandle toKill;
+        boolean wasStarted;
+        synchronized (this) {
+            if (aborted != null) {
+                return started;
+            }
+            aborted = new StnRunAbortedException(reason, message, stage);
+            toKill = process;
+            wasStarted = started;
+        }
+        if (toKill != null) {
+            ProcessTree.kill(toKill);
+        }
+        return wasStarted;
+    }
+}
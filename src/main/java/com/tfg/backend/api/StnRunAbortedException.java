@@ -0,0 +1,29 @@
+package com.tfg.backend.api;
+
+import java.io.IOException;
+
+/**
+ * An STN run was stopped before it finished, by a limit or by the user
+ */
+public class StnRunAbortedException extends IOException {
+
+    private final StnRun.AbortReason reason;
+    private final String stage;
+
+    public StnRunAbortedException(StnRun.AbortReason reason, String message, String stage) {
+        super(message);
+        this.reason = reason;
+        this.stage = stage;
+    }
+
+    public StnRun.AbortReason getReason() {
+        return reason;
+    }
+
+    /**
+     * Stage the run was in when it was stopped, or null if it had not reached one
+     */
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tfg.backend.api;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the per-run ceilings of the STN pipeline: wall-clock time
+ * ({@code stn.jobs.timeoutSeconds}) and resident memory of the Python/R process
+ * tree ({@code stn.jobs.memoryLimitMb}, idle R sessions of a pooled worker
+ * included). Runs are checked every {@code stn.jobs.limitCheckMs}; a limit of 0
+ * disables it. A run over a limit is aborted, which kills its processes and
+ * frees its generation slot for the rest of the queue.
+ */
+@Component
+public class StnRunSupervisor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StnRunSupervisor.class);
+
+    private final long timeoutSeconds;
+    private final long memoryLimitMb;
+    private final Set<StnRun> runs = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+
+    public StnRunSupervisor(@Value("${stn.jobs.timeoutSeconds:1800}") long timeoutSeconds,
+                            @Value("${stn.jobs.memoryLimitMb:4096}") long memoryLimitMb,
+                            @Value("${stn.jobs.limitCheckMs:1000}") long checkIntervalMillis) {
+        this.timeoutSeconds = timeoutSeconds;
+        this.memoryLimitMb = memoryLimitMb;
+        if (timeoutSeconds > 0 || memoryLimitMb > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("stn-supervisor-"));
+            this.scheduler.scheduleWithFixedDelay(this::check, checkIntervalMillis, checkIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * A run that is supervised from its {@link StnRun#start()} until it is closed
+     */
+    public StnRun newRun() {
+        return new StnRun(this);
+    }
+
+    void register(StnRun run) {
+        runs.add(run);
+    }
+
+    void unregister(StnRun run) {
+        runs.remove(run);
+    }
+
+    void check() {
+        for (StnRun run : runs) {
+            try {
+                checkLimits(run);
+            } catch (RuntimeException e) {
+                logger.warn("Could not check the limits of an STN run: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void checkLimits(StnRun run) {
+        if (timeoutSeconds > 0 && run.elapsedNanos() > TimeUnit.SECONDS.toNanos(timeoutSeconds)) {
+            logger.warn("STN run exceeded {} s in stage {}, stopping it", timeoutSeconds, run.getStage());
+            run.abort(StnRun.AbortReason.TIMEOUT, "Time limit of " + timeoutSeconds + " s exceeded");
+            return;
+        }
+        ProcessHandle process = run.process();
+        if (memoryLimitMb > 0 && process != null) {
+            long residentBytes = ProcessTree.residentBytes(process);
+            if (residentBytes > memoryLimitMb * 1024 * 1024) {
+                logger.warn("STN run used {} MB in stage {}, stopping it", residentBytes / (1024 * 1024), run.getStage());
+                run.abort(StnRun.AbortReason.MEMORY, "Memory limit of " + memoryLimitMb + " MB exceeded");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.tfg.backend.common;
+
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * Base of the entities whose {@code @Id UUID} is assigned by the application (see
+ * {@link UuidV7}). Spring Data takes an entity with a non-null id for an existing
+ * row and merges it, which costs a SELECT before every INSERT; these report
+ * themselves as new until they are persisted or loaded, so {@code save} persists
+ * them directly. A duplicate id then surfaces as a primary-key violation.
+ */
+@MappedSuperclass
+public abstract class AssignedIdEntity implements Persistable<UUID> {
+
+    @Transient
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tfg.backend.common;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tells a duplicate assigned id (see {@link AssignedIdEntity}) apart from the other
+ * integrity violations of a save. Spring reports every one of them, a taken primary
+ * key as much as a missing foreign key or a NOT NULL column, as a
+ * {@link DataIntegrityViolationException}, and a save that cascades can violate the
+ * key of another table; only a unique violation (SQLState 23505) of the entity's own
+ * primary-key constraint means its id is already in use.
+ */
+public final class PrimaryKeyViolation {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private PrimaryKeyViolation() {
+    }
+
+    public static boolean of(DataIntegrityViolationException e, String constraintName) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return UNIQUE_VIOLATION.equals(violation.getSQLState())
+                        && constraintName.equalsIgnoreCase(violation.getConstraintName());
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,40 @@
+package com.tfg.backend.common;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562) for primary keys. The first 48 bits are
+ * the Unix time in milliseconds, so rows inserted together land on the same
+ * right-hand pages of the primary-key B-tree instead of being scattered across it
+ * like random (v4) keys. The 12 bits after the version are a counter, so ids from
+ * this process are strictly increasing even within one millisecond; the other 62
+ * bits are random.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Unix millis << 12 | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID generate() {
+        long now = System.currentTimeMillis() << 12;
+        // A counter overflow borrows the next millisecond, keeping the order
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+        long msb = (state >>> 12) << 16 | 0x7000L | (state & 0xfffL);
+        long lsb = RANDOM.nextLong() & 0x3fffffffffffffffL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Unix time in milliseconds embedded in a version 7 UUID
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import com.tfg.backend.generation.application.mapper.GenerationJobMapper;
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.exceptions.GenerationJobNotFoundException;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Asks a queued or running job to stop. A queued job is cancelled right away; a running
+ * one once its pipeline processes are killed, so the returned status may still be RUNNING.
+ * Cancelling a finished job changes nothing. Not transactional: the runner records the
+ * cancellation in its own transaction.
+ */
+@Service
+public class CancelGenerationJobUseCase {
+
+    private final GenerationJobMapper generationJobMapper;
+    private final GenerationJobRepositoryJPA generationJobRepositoryJPA;
+    private final GenerationJobRunner generationJobRunner;
+
+    public CancelGenerationJobUseCase(GenerationJobMapper generationJobMapper,
+                                      GenerationJobRepositoryJPA generationJobRepositoryJPA,
+                                      GenerationJobRunner generationJobRunner) {
+        this.generationJobMapper = generationJobMapper;
+        this.generationJobRepositoryJPA = generationJobRepositoryJPA;
+        this.generationJobRunner = generationJobRunner;
+    }
+
+    public ResponseGenerationJobDTO execute(UUID jobId) {
+        if (!generationJobRepositoryJPA.existsById(jobId)) {
+            throw new GenerationJobNotFoundException(jobId);
+        }
+        generationJobRunner.cancel(jobId);
+        GenerationJob job = generationJobRepositoryJPA.findById(jobId)
+                .orElseThrow(() -> new GenerationJobNotFoundException(jobId));
+        return generationJobMapper.fromObjectToDTO(job);
+    }
+}
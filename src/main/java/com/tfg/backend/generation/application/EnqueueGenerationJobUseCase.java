@@ -0,0 +1,64 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.common.UuidV7;
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.GenerationStatus;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+@Service
+@Transactional
+public class EnqueueGenerationJobUseCase {
+
+    private final GenerationJobRepositoryJPA generationJobRepositoryJPA;
+    private final GenerationJobRunner generationJobRunner;
+
+    public EnqueueGenerationJobUseCase(GenerationJobRepositoryJPA generationJobRepositoryJPA,
+                                       GenerationJobRunner generationJobRunner) {
+        this.generationJobRepositoryJPA = generationJobRepositoryJPA;
+        this.generationJobRunner = generationJobRunner;
+    }
+
+    public UUID execute(RegistrationProblemDTO registrationProblemDTO, UUID problemId) {
+        // Claimed first so a full queue turns the request away before anything is saved
+        GenerationAdmissionController.Reservation reservation = generationJobRunner.reserve(registrationProblemDTO);
+        UUID jobId;
+        try {
+            GenerationJob job = GenerationJob.builder()
+                    .id(UuidV7.generate())
+                    .problemId(problemId)
+                    .status(GenerationStatus.QUEUED)
+                    .build();
+            jobId = generationJobRepositoryJPA.save(job).getId();
+        } catch (RuntimeException e) {
+            generationJobRunner.release(reservation);
+            throw e;
+        }
+
+        // The worker reads the problem and the job from the database, so it must not
+        // start before the caller's transaction is visible
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generationJobRunner.submit(reservation, jobId, registrationProblemDTO);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // No-op once submitted; gives the place back if the problem was rolled back
+                    generationJobRunner.release(reservation);
+                }
+            });
+        } else {
+            generationJobRunner.submit(reservation, jobId, registrationProblemDTO);
+        }
+        return jobId;
+    }
+}
@@ -0,0 +1,207 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the STN pipeline. At most {@code stn.jobs.poolSize}
+ * pipelines run at once and up to {@code stn.jobs.queueCapacity} more wait for a slot,
+ * smallest traces first. Anything beyond that is turned away at once with an estimate
+ * of when to retry, instead of piling Python and R processes onto the node.
+ * <p>
+ * A caller first {@link #reserve reserves} a place, which is what may be refused, and
+ * then {@link #submit submits} the work or {@link #cancel cancels} the reservation.
+ */
+@Component
+public class GenerationAdmissionController {
+
+    // Run time assumed for the retry estimate until a job has finished
+    private static final long DEFAULT_RUN_MILLIS = 30_000;
+    private static final long MAX_RETRY_AFTER_SECONDS = 600;
+
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Guarded by this
+    private int queued;
+    private int running;
+    private long admitted;
+    private long rejected;
+    private long totalWaitMillis;
+    private long maxWaitMillis;
+    private double averageRunMillis = DEFAULT_RUN_MILLIS;
+    private boolean measuredRun;
+
+    public GenerationAdmissionController(@Value("${stn.jobs.poolSize:2}") int maxConcurrent,
+                                         @Value("${stn.jobs.queueCapacity:50}") int queueCapacity) {
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        // Unbounded on its own: reserve() is what keeps it within queueCapacity
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), new CustomizableThreadFactory("stn-generation-"));
+    }
+
+    /**
+     * Size used to order waiting jobs: the encoded length of all the traces of the problem
+     */
+    public static long traceSize(RegistrationProblemDTO registrationProblemDTO) {
+        if (registrationProblemDTO.getAlgorithms() == null) {
+            return 0;
+        }
+        long size = 0;
+        for (RegistrationAlgorithmDTO algorithm : registrationProblemDTO.getAlgorithms()) {
+            if (algorithm.getFile() != null && algorithm.getFile().getContent() != null) {
+                size += algorithm.getFile().getContent().length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Claim a place for a job of the given size
+     * @throws GenerationQueueFullException if every slot and every place in the queue is taken
+     */
+    public synchronized Reservation reserve(long traceSize) {
+        int idleSlots = Math.max(0, maxConcurrent - running);
+        if (queued >= queueCapacity + idleSlots) {
+            rejected++;
+            throw new GenerationQueueFullException(retryAfterSeconds());
+        }
+        queued++;
+        return new Reservation(traceSize, sequence.getAndIncrement());
+    }
+
+    /**
+     * Run the task once a slot is free and no smaller job is waiting
+     */
+    public <T> Future<T> submit(Reservation reservation, Callable<T> task) {
+        synchronized (this) {
+            if (reservation.state != Reservation.State.RESERVED) {
+                throw new IllegalStateException("Reservation already " + reservation.state.name().toLowerCase());
+            }
+            reservation.state = Reservation.State.SUBMITTED;
+        }
+        PrioritizedTask<T> prioritized = new PrioritizedTask<>(reservation, () -> {
+            long started = started(reservation);
+            try {
+                return task.call();
+            } finally {
+                finished(started);
+            }
+        });
+        try {
+            executor.execute(prioritized);
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                queued--;
+            }
+            throw e;
+        }
+        return prioritized;
+    }
+
+    /**
+     * Give back a reservation that will not be submitted; does nothing once it was
+     */
+    public synchronized void cancel(Reservation reservation) {
+        if (reservation.state == Reservation.State.RESERVED) {
+            reservation.state = Reservation.State.CANCELLED;
+            queued--;
+        }
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(maxConcurrent, queueCapacity, running, queued, admitted, rejected,
+                admitted == 0 ? 0 : totalWaitMillis / admitted, maxWaitMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Seconds until a place is likely to free up: one average run spread over the slots
+     */
+    private long retryAfterSeconds() {
+        long seconds = (long) Math.ceil(averageRunMillis / maxConcurrent / 1000.0);
+        return Math.clamp(seconds, 1, MAX_RETRY_AFTER_SECONDS);
+    }
+
+    private synchronized long started(Reservation reservation) {
+        queued--;
+        running++;
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - reservation.reservedAt);
+        admitted++;
+        totalWaitMillis += waitMillis;
+        maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        return System.nanoTime();
+    }
+
+    private synchronized void finished(long startedNanos) {
+        running--;
+        long runMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        // Exponential moving average, seeded by the first real run
+        averageRunMillis = measuredRun ? 0.8 * averageRunMillis + 0.2 * runMillis : runMillis;
+        measuredRun = true;
+    }
+
+    /**
+     * Queue depth and wait times since startup
+     */
+    public record Stats(int maxConcurrent, int queueCapacity, int running, int queued,
+                        long admitted, long rejected, long averageWaitMillis, long maxWaitMillis) {
+    }
+
+    public static final class Reservation {
+
+        private enum State { RESERVED, SUBMITTED, CANCELLED }
+
+        private final long traceSize;
+        private final long sequence;
+        private final long reservedAt = System.nanoTime();
+        private State state = State.RESERVED;
+
+        private Reservation(long traceSize, long sequence) {
+            this.traceSize = traceSize;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+
+        // Smallest traces first, then first come first served
+        private static final Comparator<PrioritizedTask<?>> ORDER = Comparator
+                .<PrioritizedTask<?>>comparingLong(task -> task.reservation.traceSize)
+                .thenComparingLong(task -> task.reservation.sequence);
+
+        private final Reservation reservation;
+
+        PrioritizedTask(Reservation reservation, Callable<T> callable) {
+            super(callable);
+            this.reservation = reservation;
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask<?> other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.api.StnGeneratorService;
+import com.tfg.backend.api.StnResult;
+import com.tfg.backend.api.StnRun;
+import com.tfg.backend.api.StnRunAbortedException;
+import com.tfg.backend.api.StnRunSupervisor;
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.GenerationStatus;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.problem.domain.VisualizationStatus;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.stn.StnMetrics;
+import com.tfg.backend.visualization.VisualizationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs STN generation jobs through the {@link GenerationAdmissionController} so
+ * the Python/R pipeline never holds a request thread or a pooled connection
+ * while it works. Each status change is saved in its own short transaction, and
+ * the nodes and edges in one bulk-ingest transaction that also marks the problem's
+ * visualization READY; a job that fails or is cancelled marks it FAILED instead.
+ * Every job runs under an {@link StnRun}, which enforces the time and memory
+ * ceilings and lets the user cancel it; the STN metrics are computed within the
+ * generate stage, under the same run, and come back with its result.
+ */
+@Component
+public class GenerationJobRunner {
+
+    public static final String STAGE_GENERATE = "generate";
+    public static final String STAGE_PERSIST = "persist";
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobRunner.class);
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final GenerationJobRepositoryJPA generationJobRepositoryJPA;
+    private final ProblemRepositoryJPA problemRepositoryJPA;
+    private final StnGeneratorService stnGeneratorService;
+    private final VisualizationService visualizationService;
+    private final GenerationAdmissionController generationAdmissionController;
+    private final StnRunSupervisor stnRunSupervisor;
+    private final Map<UUID, StnRun> activeRuns = new ConcurrentHashMap<>();
+
+    public GenerationJobRunner(GenerationJobRepositoryJPA generationJobRepositoryJPA,
+                               ProblemRepositoryJPA problemRepositoryJPA,
+                               StnGeneratorService stnGeneratorService,
+                               VisualizationService visualizationService,
+                               GenerationAdmissionController generationAdmissionController,
+                               StnRunSupervisor stnRunSupervisor) {
+        this.generationJobRepositoryJPA = generationJobRepositoryJPA;
+        this.problemRepositoryJPA = problemRepositoryJPA;
+        this.stnGeneratorService = stnGeneratorService;
+        this.visualizationService = visualizationService;
+        this.generationAdmissionController = generationAdmissionController;
+        this.stnRunSupervisor = stnRunSupervisor;
+    }
+
+    /**
+     * Claim a place in the generation queue for this problem
+     * @throws com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException if there is none left
+     */
+    public GenerationAdmissionController.Reservation reserve(RegistrationProblemDTO registrationProblemDTO) {
+        return generationAdmissionController.reserve(GenerationAdmissionController.traceSize(registrationProblemDTO));
+    }
+
+    public void release(GenerationAdmissionController.Reservation reservation) {
+        generationAdmissionController.cancel(reservation);
+    }
+
+    /**
+     * Queue a reserved job for execution. It can only be refused while the server is
+     * shutting down, in which case the job is failed right away.
+     */
+    public void submit(GenerationAdmissionController.Reservation reservation, UUID jobId,
+                       RegistrationProblemDTO registrationProblemDTO) {
+        StnRun stnRun = stnRunSupervisor.newRun();
+        activeRuns.put(jobId, stnRun);
+        try {
+            generationAdmissionController.submit(reservation, () -> {
+                try {
+                    run(jobId, registrationProblemDTO, stnRun);
+                } finally {
+                    activeRuns.remove(jobId, stnRun);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            activeRuns.remove(jobId, stnRun);
+            generationJobRepositoryJPA.findById(jobId).ifPresent(job -> finish(job, GenerationStatus.FAILED,
+                    "Server is shutting down, try again later", null));
+        }
+    }
+
+    /**
+     * Stop a queued or running job. A running job is stopped by killing its pipeline
+     * processes, or at the next stage if it is past them, and then recorded as cancelled.
+     * @return false if the job is not queued or running in this process
+     */
+    public boolean cancel(UUID jobId) {
+        StnRun stnRun = activeRuns.get(jobId);
+        if (stnRun == null) {
+            return false;
+        }
+        if (!stnRun.cancel()) {
+            // Never started and never will: its place in the queue is given back when it comes up
+            generationJobRepositoryJPA.findById(jobId).ifPresent(job -> finish(job, GenerationStatus.CANCELLED,
+                    "Cancelled", null));
+        }
+        return true;
+    }
+
+    void run(UUID jobId, RegistrationProblemDTO registrationProblemDTO, StnRun stnRun) {
+        if (!stnRun.start()) {
+            return; // Cancelled while queued
+        }
+        try (stnRun) {
+            GenerationJob job = generationJobRepositoryJPA.findById(jobId).orElse(null);
+            if (job == null) {
+                return; // Problem was deleted before the job started
+            }
+
+            job.setStatus(GenerationStatus.RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            job = generationJobRepositoryJPA.save(job);
+            run(job, registrationProblemDTO, stnRun);
+        }
+    }
+
+    private void run(GenerationJob job, RegistrationProblemDTO registrationProblemDTO, StnRun stnRun) {
+        try {
+            stnRun.setStage(STAGE_GENERATE);
+            long start = System.nanoTime();
+            StnResult result = stnGeneratorService.generateFromRegistration(registrationProblemDTO, job.getProblemId(),
+                    job.getStageDurations(), stnRun);
+            job.getStageDurations().put(STAGE_GENERATE, elapsedMillis(start));
+
+            if (result != null) {
+                Map<String, StnMetrics> metrics = result.metrics() != null ? result.metrics() : Map.of();
+
+                // Use tree layout preference from the problem, default to KK (false)
+                boolean useKKLayout = !Boolean.TRUE.equals(registrationProblemDTO.getTreeLayout());
+                stnRun.setStage(STAGE_PERSIST);
+                stnRun.throwIfAborted();
+                start = System.nanoTime();
+                visualizationService.processAndPersistVisualization(result.json(), job.getProblemId(), useKKLayout, metrics);
+                job.getStageDurations().put(STAGE_PERSIST, elapsedMillis(start));
+            } else {
+                // The pipeline had nothing to draw
+                updateVisualizationStatus(job.getProblemId(), VisualizationStatus.NONE);
+            }
+            finish(job, GenerationStatus.DONE, null, null);
+        } catch (StnRunAbortedException e) {
+            logger.warn("STN generation job {} stopped in stage {}: {}", job.getId(), e.getStage(), e.getMessage());
+            GenerationStatus status = e.getReason() == StnRun.AbortReason.CANCELLED
+                    ? GenerationStatus.CANCELLED : GenerationStatus.FAILED;
+            finish(job, status, e.getMessage(), e.getStage() != null ? e.getStage() : stnRun.getStage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, GenerationStatus.FAILED, "Generation was interrupted", stnRun.getStage());
+        } catch (Exception e) {
+            logger.error("STN generation job {} failed", job.getId(), e);
+            finish(job, GenerationStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName(),
+                    stnRun.getStage());
+        }
+    }
+
+    /**
+     * Jobs only live in memory while queued or running, so anything left in those
+     * states by a previous process can never complete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        List<GenerationJob> stale = generationJobRepositoryJPA.findByStatusIn(
+                List.of(GenerationStatus.QUEUED, GenerationStatus.RUNNING));
+        for (GenerationJob job : stale) {
+            finish(job, GenerationStatus.FAILED, "Interrupted by a server restart", null);
+        }
+    }
+
+    private void finish(GenerationJob job, GenerationStatus status, String errorMessage, String failedStage) {
+        job.setStatus(status);
+        job.setFailedStage(failedStage);
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+        job.setErrorMessage(errorMessage);
+        job.setFinishedAt(LocalDateTime.now());
+        try {
+            generationJobRepositoryJPA.save(job);
+        } catch (RuntimeException e) {
+            // The problem (and its jobs) may have been deleted while the job was running
+            logger.warn("Could not record the result of generation job {}: {}", job.getId(), e.getMessage());
+        }
+        if (status != GenerationStatus.DONE) {
+            // The ingest transaction rolled back or never ran, so the graph is empty, not partial
+            updateVisualizationStatus(job.getProblemId(), VisualizationStatus.FAILED);
+        }
+    }
+
+    private void updateVisualizationStatus(UUID problemId, VisualizationStatus status) {
+        try {
+            problemRepositoryJPA.updateVisualizationStatus(problemId, status);
+        } catch (RuntimeException e) {
+            logger.warn("Could not mark the visualization of problem {} as {}: {}", problemId, status, e.getMessage());
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
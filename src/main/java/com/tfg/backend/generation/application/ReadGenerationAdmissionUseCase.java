@@ -0,0 +1,28 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.application.dto.ResponseGenerationAdmissionDTO;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ReadGenerationAdmissionUseCase {
+
+    private final GenerationAdmissionController generationAdmissionController;
+
+    public ReadGenerationAdmissionUseCase(GenerationAdmissionController generationAdmissionController) {
+        this.generationAdmissionController = generationAdmissionController;
+    }
+
+    public ResponseGenerationAdmissionDTO execute() {
+        GenerationAdmissionController.Stats stats = generationAdmissionController.stats();
+        return ResponseGenerationAdmissionDTO.builder()
+                .maxConcurrent(stats.maxConcurrent())
+                .queueCapacity(stats.queueCapacity())
+                .running(stats.running())
+                .queued(stats.queued())
+                .admitted(stats.admitted())
+                .rejected(stats.rejected())
+                .averageWaitMillis(stats.averageWaitMillis())
+                .maxWaitMillis(stats.maxWaitMillis())
+                .build();
+    }
+}
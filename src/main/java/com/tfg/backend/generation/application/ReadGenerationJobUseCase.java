@@ -0,0 +1,30 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import com.tfg.backend.generation.application.mapper.GenerationJobMapper;
+import com.tfg.backend.generation.domain.exceptions.GenerationJobNotFoundException;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Service
+@Transactional(readOnly = true)
+public class ReadGenerationJobUseCase {
+
+    private final GenerationJobMapper generationJobMapper;
+    private final GenerationJobRepositoryJPA generationJobRepositoryJPA;
+
+    public ReadGenerationJobUseCase(GenerationJobMapper generationJobMapper,
+                                    GenerationJobRepositoryJPA generationJobRepositoryJPA) {
+        this.generationJobMapper = generationJobMapper;
+        this.generationJobRepositoryJPA = generationJobRepositoryJPA;
+    }
+
+    public ResponseGenerationJobDTO execute(UUID jobId) {
+        return generationJobRepositoryJPA.findById(jobId)
+                .map(generationJobMapper::fromObjectToDTO)
+                .orElseThrow(() -> new GenerationJobNotFoundException(jobId));
+    }
+}
@@ -0,0 +1,17 @@
+package com.tfg.backend.generation.application.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ResponseGenerationAdmissionDTO {
+    private int maxConcurrent;
+    private int queueCapacity;
+    private int running;
+    private int queued;
+    private long admitted;
+    private long rejected;
+    private long averageWaitMillis;
+    private long maxWaitMillis;
+}
@@ -0,0 +1,23 @@
+package com.tfg.backend.generation.application.dto;
+
+import com.tfg.backend.generation.domain.GenerationStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+public class ResponseGenerationJobDTO {
+    private UUID id;
+    private UUID problemId;
+    private GenerationStatus status;
+    private String errorMessage;
+    private String failedStage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Map<String, Long> stageDurations;
+}
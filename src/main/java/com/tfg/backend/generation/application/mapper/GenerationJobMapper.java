@@ -0,0 +1,25 @@
+package com.tfg.backend.generation.application.mapper;
+
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import com.tfg.backend.generation.domain.GenerationJob;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+
+@Component
+public class GenerationJobMapper {
+
+    public ResponseGenerationJobDTO fromObjectToDTO(GenerationJob job) {
+        return ResponseGenerationJobDTO.builder()
+                .id(job.getId())
+                .problemId(job.getProblemId())
+                .status(job.getStatus())
+                .errorMessage(job.getErrorMessage())
+                .failedStage(job.getFailedStage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .stageDurations(new LinkedHashMap<>(job.getStageDurations()))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tfg.backend.generation.domain;
+
+import com.tfg.backend.common.AssignedIdEntity;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Background STN generation for one problem: runs the Python/R pipeline and
+ * persists the resulting graph outside the request that created the problem.
+ */
+@Entity
+@Table(name = "generation_job")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GenerationJob extends AssignedIdEntity {
+
+    @Id
+    private UUID id;
+
+    @NotNull(message = "Problem id cannot be null")
+    private UUID problemId;
+
+    @NotNull(message = "Status cannot be null")
+    @Enumerated(EnumType.STRING)
+    private GenerationStatus status;
+
+    private String errorMessage;
+
+    /**
+     * Stage the job was in when it failed or was cancelled, e.g. {@code generate.create}
+     */
+    private String failedStage;
+
+    @NotNull(message = "Created at cannot be null")
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    /**
+     * Wall-clock time spent in each pipeline stage, in milliseconds
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "generation_job_stage", joinColumns = @JoinColumn(name = "job_id"))
+    @MapKeyColumn(name = "stage")
+    @Column(name = "duration_ms")
+    @Builder.Default
+    private Map<String, Long> stageDurations = new LinkedHashMap<>();
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.tfg.backend.generation.domain;
+
+public enum GenerationStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,9 @@
+package com.tfg.backend.generation.domain.exceptions;
+
+import java.util.UUID;
+
+public class GenerationJobNotFoundException extends RuntimeException {
+    public GenerationJobNotFoundException(UUID id) {
+        super("Generation job with id " + id + " not found");
+    }
+}
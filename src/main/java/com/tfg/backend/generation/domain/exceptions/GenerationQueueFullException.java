@@ -0,0 +1,15 @@
+package com.tfg.backend.generation.domain.exceptions;
+
+public class GenerationQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public GenerationQueueFullException(long retryAfterSeconds) {
+        super("Generation queue is full, try again in " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
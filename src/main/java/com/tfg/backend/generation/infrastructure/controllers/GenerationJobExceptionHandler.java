@@ -0,0 +1,28 @@
+package com.tfg.backend.generation.infrastructure.controllers;
+
+import com.tfg.backend.generation.domain.exceptions.GenerationJobNotFoundException;
+import com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class GenerationJobExceptionHandler {
+
+    @ExceptionHandler(GenerationJobNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleGenerationJobNotFoundException(GenerationJobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", ex.getMessage()));
+    }
+
+    @ExceptionHandler(GenerationQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleGenerationQueueFullException(GenerationQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", ex.getMessage()));
+    }
+}
@@ -0,0 +1,35 @@
+package com.tfg.backend.generation.infrastructure.controllers;
+
+import com.tfg.backend.generation.application.ReadGenerationAdmissionUseCase;
+import com.tfg.backend.generation.application.ReadGenerationJobUseCase;
+import com.tfg.backend.generation.application.dto.ResponseGenerationAdmissionDTO;
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+public class GenerationJobGetController {
+
+    private final ReadGenerationJobUseCase readGenerationJobUseCase;
+    private final ReadGenerationAdmissionUseCase readGenerationAdmissionUseCase;
+
+    public GenerationJobGetController(ReadGenerationJobUseCase readGenerationJobUseCase,
+                                      ReadGenerationAdmissionUseCase readGenerationAdmissionUseCase) {
+        this.readGenerationJobUseCase = readGenerationJobUseCase;
+        this.readGenerationAdmissionUseCase = readGenerationAdmissionUseCase;
+    }
+
+    @GetMapping("/generation-jobs/admission")
+    public ResponseEntity<ResponseGenerationAdmissionDTO> getGenerationAdmission() {
+        return ResponseEntity.ok(readGenerationAdmissionUseCase.execute());
+    }
+
+    @GetMapping("/generation-jobs/{jobId}")
+    public ResponseEntity<ResponseGenerationJobDTO> getGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(readGenerationJobUseCase.execute(jobId));
+    }
+}
@@ -0,0 +1,26 @@
+package com.tfg.backend.generation.infrastructure.controllers;
+
+import com.tfg.backend.generation.application.CancelGenerationJobUseCase;
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+public class GenerationJobPostController {
+
+    private final CancelGenerationJobUseCase cancelGenerationJobUseCase;
+
+    public GenerationJobPostController(CancelGenerationJobUseCase cancelGenerationJobUseCase) {
+        this.cancelGenerationJobUseCase = cancelGenerationJobUseCase;
+    }
+
+    @PostMapping("/generation-jobs/{jobId}/cancel")
+    public ResponseEntity<ResponseGenerationJobDTO> cancelGenerationJob(@PathVariable UUID jobId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cancelGenerationJobUseCase.execute(jobId));
+    }
+}
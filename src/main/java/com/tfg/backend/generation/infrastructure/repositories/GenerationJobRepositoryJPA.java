@@ -0,0 +1,15 @@
+package com.tfg.backend.generation.infrastructure.repositories;
+
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.GenerationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface GenerationJobRepositoryJPA extends JpaRepository<GenerationJob, UUID> {
+    List<GenerationJob> findByStatusIn(Collection<GenerationStatus> statuses);
+}
@@ -1,20 +1,30 @@
 package com.tfg.backend.problem.application;
 
 import com.tfg.backend.algorithm.application.CreateAlgorithmUseCase;
-import com.tfg.backend.api.StnGeneratorService;
+import com.tfg.backend.common.PrimaryKeyViolation;
+import com.tfg.backend.generation.application.EnqueueGenerationJobUseCase;
 import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
 import com.tfg.backend.problem.application.dto.ResponseProblemDTO;
 import com.tfg.backend.problem.application.mapper.ProblemMapper;
 import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import com.tfg.backend.problem.domain.exceptions.ProblemAlreadyExistsException;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
-import com.tfg.backend.visualization.VisualizationService;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.nio.file.Path;
 import java.util.UUID;
 
+/**
+ * Creates a problem in phases so no transaction or pooled connection outlives a phase:
+ * this short transaction commits the problem, its algorithms and a QUEUED generation job;
+ * the STN pipeline then runs in the background with no connection held, and its nodes and
+ * edges are stored in a separate bulk-ingest transaction (see
+ * {@link com.tfg.backend.generation.application.GenerationJobRunner}).
+ * The problem's visualization status follows the job, so a failed pipeline leaves an
+ * empty, FAILED graph instead of a half-populated one.
+ */
 @Service
 @Transactional
 public class CreateProblemUseCase {
@@ -22,58 +32,48 @@ public class CreateProblemUseCase {
     private final ProblemMapper problemMapper;
     private final ProblemRepositoryJPA problemRepositoryJPA;
     private final CreateAlgorithmUseCase createAlgorithmUseCase;
-    private final StnGeneratorService stnGeneratorService;
-    private final VisualizationService visualizationService;
+    private final EnqueueGenerationJobUseCase enqueueGenerationJobUseCase;
 
     public CreateProblemUseCase(ProblemMapper problemMapper,
                                 ProblemRepositoryJPA problemRepositoryJPA,
                                 CreateAlgorithmUseCase createAlgorithmUseCase,
-                                StnGeneratorService stnGeneratorService,
-                                VisualizationService visualizationService) {
+                                EnqueueGenerationJobUseCase enqueueGenerationJobUseCase) {
         this.problemMapper = problemMapper;
         this.problemRepositoryJPA = problemRepositoryJPA;
         this.createAlgorithmUseCase = createAlgorithmUseCase;
-        this.stnGeneratorService = stnGeneratorService;
-        this.visualizationService = visualizationService;
+        this.enqueueGenerationJobUseCase = enqueueGenerationJobUseCase;
     }
 
     public ResponseProblemDTO execute(RegistrationProblemDTO registrationProblemDTO, UUID problemCollectionId) {
         Problem problem = problemMapper.fromDTOtoObject(registrationProblemDTO, problemCollectionId);
 
-        if (problemRepositoryJPA.existsById(problem.getId())) {
+        boolean hasAlgorithms = registrationProblemDTO.getAlgorithms() != null
+                && !registrationProblemDTO.getAlgorithms().isEmpty();
+        problem.setVisualizationStatus(hasAlgorithms ? VisualizationStatus.PENDING : VisualizationStatus.NONE);
+        // The primary key detects a duplicate id; flushed here so it is reported as one
+        try {
+            problem = problemRepositoryJPA.saveAndFlush(problem);
+        } catch (DataIntegrityViolationException e) {
+            if (!PrimaryKeyViolation.of(e, "pk_problem")) {
+                throw e;
+            }
             throw new ProblemAlreadyExistsException(problem.getId());
         }
 
-        problem = problemRepositoryJPA.save(problem);
-
         // Crear algoritmos si existen
-        if (registrationProblemDTO.getAlgorithms() != null && !registrationProblemDTO.getAlgorithms().isEmpty()) {
+        UUID generationJobId = null;
+        if (hasAlgorithms) {
             for (var algorithmDTO : registrationProblemDTO.getAlgorithms()) {
                 createAlgorithmUseCase.execute(algorithmDTO, problem.getId());
             }
-        }
 
-        // Generar visualización STN SIN endpoint HTTP (llamada directa a Python/R)
-        try {
-            Path[] paths = stnGeneratorService.generateFromRegistration(registrationProblemDTO, problem.getId());
-            if (paths != null && paths.length >= 2) {
-                Path pdfPath = paths[0];
-                Path jsonPath = paths[1];
-                
-                // Process JSON and persist nodes
-                // Use tree layout preference from the problem, default to KK (false)
-                boolean useKKLayout = !Boolean.TRUE.equals(registrationProblemDTO.getTreeLayout());
-                visualizationService.processAndPersistVisualization(jsonPath, problem.getId(), useKKLayout);
-                
-                // Here you can also: save the PDF in your storage, associate it with the problem, etc.
-                // e.g. Files.copy(pdfPath, destination, StandardCopyOption.REPLACE_EXISTING);
-            }
-        } catch (Exception e) {
-            // Log and don't interrupt problem creation
-            System.err.println("STN visualization generation or node persistence failed: " + e.getMessage());
-            e.printStackTrace();
+            // The STN pipeline runs in the background once this transaction commits;
+            // clients poll GET /generation-jobs/{id} for its progress
+            generationJobId = enqueueGenerationJobUseCase.execute(registrationProblemDTO, problem.getId());
         }
 
-        return problemMapper.fromObjectToDTO(problem);
+        ResponseProblemDTO responseProblemDTO = problemMapper.fromObjectToDTO(problem);
+        responseProblemDTO.setGenerationJobId(generationJobId);
+        return responseProblemDTO;
     }
 }
\ No newline at end of file
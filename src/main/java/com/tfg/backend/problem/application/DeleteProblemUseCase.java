@@ -4,23 +4,45 @@ import com.tfg.backend.problem.domain.exceptions.ProblemNotFoundException;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Deleting a problem only marks it: it disappears from every read as soon as the
+ * caller's transaction commits, and its algorithms, nodes and edges are removed in
+ * the background by the {@link ProblemStorageReclaimer}.
+ */
 @Service
 @Transactional
 public class DeleteProblemUseCase {
 
     private final ProblemRepositoryJPA problemRepositoryJPA;
+    private final ProblemStorageReclaimer problemStorageReclaimer;
 
-    public DeleteProblemUseCase(ProblemRepositoryJPA problemRepositoryJPA) {
+    public DeleteProblemUseCase(ProblemRepositoryJPA problemRepositoryJPA,
+                                ProblemStorageReclaimer problemStorageReclaimer) {
         this.problemRepositoryJPA = problemRepositoryJPA;
+        this.problemStorageReclaimer = problemStorageReclaimer;
     }
 
     public void execute(UUID problemId) {
-        if (!problemRepositoryJPA.existsById(problemId)) {
+        if (problemRepositoryJPA.markDeleted(problemId, LocalDateTime.now()) == 0) {
             throw new ProblemNotFoundException(problemId);
         }
-        problemRepositoryJPA.deleteById(problemId);
+
+        // Reclaiming before the mark is committed would race a rollback
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    problemStorageReclaimer.submit(problemId);
+                }
+            });
+        } else {
+            problemStorageReclaimer.submit(problemId);
+        }
     }
 }
@@ -0,0 +1,149 @@
+package com.tfg.backend.problem.application;
+
+import com.tfg.backend.algorithm.infrastructure.repositories.GraphBulkDeleter;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reclaims the storage of deleted problems off the request thread: their edges and
+ * nodes in chunks of {@code stn.delete.chunkSize} rows, then the problem itself with
+ * its algorithms. One problem at a time, so a large graph never competes with itself
+ * for the database. A deleted collection is reclaimed the same way, problem by problem,
+ * and its own row goes last. Every {@code stn.delete.sweepIntervalMs} (and right after start) a
+ * sweep queues again whatever is still marked deleted, so a reclaim that failed or was
+ * interrupted by a restart is retried without waiting for the next deploy.
+ */
+@Component
+public class ProblemStorageReclaimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProblemStorageReclaimer.class);
+
+    private final GraphBulkDeleter graphBulkDeleter;
+    private final ProblemRepositoryJPA problemRepositoryJPA;
+    private final ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
+    private final int chunkSize;
+    private final long sweepIntervalMillis;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> pendingCollections = ConcurrentHashMap.newKeySet();
+    // Sweeps and reclaims share the thread, so a sweep never overlaps a reclaim
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("problem-reclaim-"));
+
+    public ProblemStorageReclaimer(GraphBulkDeleter graphBulkDeleter,
+                                   ProblemRepositoryJPA problemRepositoryJPA,
+                                   ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA,
+                                   @Value("${stn.delete.chunkSize:10000}") int chunkSize,
+                                   @Value("${stn.delete.sweepIntervalMs:60000}") long sweepIntervalMillis) {
+        this.graphBulkDeleter = graphBulkDeleter;
+        this.problemRepositoryJPA = problemRepositoryJPA;
+        this.problemCollectionRepositoryJPA = problemCollectionRepositoryJPA;
+        this.chunkSize = chunkSize;
+        this.sweepIntervalMillis = sweepIntervalMillis;
+    }
+
+    /**
+     * Queue the reclaim of a problem that is already marked deleted; no-op if it is queued
+     */
+    public void submit(UUID problemId) {
+        queue(pending, problemId, this::reclaim);
+    }
+
+    /**
+     * Queue the reclaim of a collection that is already marked deleted, together with
+     * its problems; no-op if it is queued
+     */
+    public void submitCollection(UUID problemCollectionId) {
+        queue(pendingCollections, problemCollectionId, this::reclaimCollection);
+    }
+
+    private void queue(Set<UUID> queued, UUID id, Consumer<UUID> reclaim) {
+        if (!queued.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reclaim.accept(id);
+                } finally {
+                    queued.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the sweep after the next start picks it up
+            queued.remove(id);
+        }
+    }
+
+    void reclaim(UUID problemId) {
+        try {
+            long edges = 0;
+            long nodes = 0;
+            int deleted;
+            while ((deleted = graphBulkDeleter.deleteEdgesOfProblem(problemId, chunkSize)) > 0) {
+                edges += deleted;
+            }
+            while ((deleted = graphBulkDeleter.deleteNodesOfProblem(problemId, chunkSize)) > 0) {
+                nodes += deleted;
+            }
+            graphBulkDeleter.deleteProblem(problemId);
+            logger.info("Reclaimed deleted problem {} ({} nodes, {} edges)", problemId, nodes, edges);
+        } catch (RuntimeException e) {
+            logger.warn("Could not reclaim deleted problem {}, retrying on the next sweep: {}",
+                    problemId, e.getMessage());
+        }
+    }
+
+    void reclaimCollection(UUID problemCollectionId) {
+        try {
+            // All of them were marked with the collection; reclaiming one twice is a no-op
+            problemRepositoryJPA.findAllIdsByProblemCollectionId(problemCollectionId).forEach(this::reclaim);
+            if (graphBulkDeleter.deleteProblemCollection(problemCollectionId)) {
+                logger.info("Reclaimed deleted problem collection {}", problemCollectionId);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not reclaim deleted problem collection {}, retrying on the next sweep: {}",
+                    problemCollectionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Problems deleted before a restart are still hidden, but their rows are still there;
+     * the first sweep runs at once and picks them up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedReclaims() {
+        executor.scheduleWithFixedDelay(this::sweep, 0, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void sweep() {
+        try {
+            problemRepositoryJPA.findDeletedIds().forEach(this::submit);
+            problemCollectionRepositoryJPA.findDeletedIds().forEach(this::submitCollection);
+        } catch (RuntimeException e) {
+            // An exception would cancel every later sweep
+            logger.warn("Could not look up deleted problems to reclaim: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
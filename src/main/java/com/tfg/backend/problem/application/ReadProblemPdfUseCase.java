@@ -0,0 +1,80 @@
+package com.tfg.backend.problem.application;
+
+import com.tfg.backend.algorithm.domain.Algorithm;
+import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
+import com.tfg.backend.api.StnGeneratorService;
+import com.tfg.backend.generation.application.GenerationAdmissionController;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.problem.application.mapper.ProblemMapper;
+import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.exceptions.ProblemNotFoundException;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Renders the PDF of a problem on demand. Problems are generated in JSON-only mode, so the
+ * pipeline is rerun here with PDF output; identical requests are then served from the STN
+ * result cache. Renders share the generation slots and queue with the generation jobs.
+ * Not transactional: no database connection is held while R runs.
+ */
+@Service
+public class ReadProblemPdfUseCase {
+
+    private final ProblemMapper problemMapper;
+    private final ProblemRepositoryJPA problemRepositoryJPA;
+    private final AlgorithmRepositoryJPA algorithmRepositoryJPA;
+    private final StnGeneratorService stnGeneratorService;
+    private final GenerationAdmissionController generationAdmissionController;
+
+    public ReadProblemPdfUseCase(ProblemMapper problemMapper,
+                                 ProblemRepositoryJPA problemRepositoryJPA,
+                                 AlgorithmRepositoryJPA algorithmRepositoryJPA,
+                                 StnGeneratorService stnGeneratorService,
+                                 GenerationAdmissionController generationAdmissionController) {
+        this.problemMapper = problemMapper;
+        this.problemRepositoryJPA = problemRepositoryJPA;
+        this.algorithmRepositoryJPA = algorithmRepositoryJPA;
+        this.stnGeneratorService = stnGeneratorService;
+        this.generationAdmissionController = generationAdmissionController;
+    }
+
+    /**
+     * @return the rendered PDF, or empty if the problem has no traces to plot
+     * @throws com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException if the queue is full
+     */
+    public Optional<byte[]> execute(UUID problemId) {
+        Problem problem = problemRepositoryJPA.findById(problemId)
+                .orElseThrow(() -> new ProblemNotFoundException(problemId));
+        List<Algorithm> algorithms = algorithmRepositoryJPA.findByProblemId(problemId);
+        RegistrationProblemDTO registrationProblemDTO = problemMapper.fromObjectToRegistrationDTO(problem, algorithms);
+
+        GenerationAdmissionController.Reservation reservation = generationAdmissionController.reserve(
+                GenerationAdmissionController.traceSize(registrationProblemDTO));
+        Future<byte[]> pdf = generationAdmissionController.submit(reservation,
+                () -> stnGeneratorService.renderPdf(registrationProblemDTO, problemId));
+        try {
+            return Optional.ofNullable(pdf.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw new UncheckedIOException("Could not render the PDF of problem " + problemId, cause);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            // Only InterruptedException is left: the pipeline was stopped by a shutdown
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            pdf.cancel(true);
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.tfg.backend.problem.application.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
 import com.tfg.backend.common.ColorDeserializer;
 import com.tfg.backend.problem.domain.Shape;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -12,7 +15,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.awt.*;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @Builder
@@ -62,5 +67,23 @@ public class RegistrationProblemDTO {
     private StandardPartitioningDTO standardPartitioning;
     private AgglomerativeClusteringDTO agglomerativeClustering;
     private ShannonEntropyDTO shannonEntropy;
-    private List<RegistrationAlgorithmDTO> algorithms;
+    private List<@Valid RegistrationAlgorithmDTO> algorithms;
+
+    /**
+     * The STN pipeline and the ingestion of its graph tell the algorithms apart by name
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Algorithm names must be unique")
+    public boolean isAlgorithmNamesUnique() {
+        if (algorithms == null) {
+            return true;
+        }
+        Set<String> names = new HashSet<>();
+        for (RegistrationAlgorithmDTO algorithm : algorithms) {
+            if (algorithm != null && algorithm.getName() != null && !names.add(algorithm.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.tfg.backend.algorithm.application.dto.ResponseAlgorithmDTO;
 import com.tfg.backend.common.ColorSerializer;
 import com.tfg.backend.problem.domain.Shape;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import lombok.Builder;
 import lombok.Data;
 
@@ -37,4 +38,6 @@ public class ResponseProblemDTO {
     private AgglomerativeClusteringDTO agglomerativeClustering;
     private ShannonEntropyDTO shannonEntropy;
     private List<ResponseAlgorithmDTO> algorithms;
+    private VisualizationStatus visualizationStatus;
+    private UUID generationJobId;
 }
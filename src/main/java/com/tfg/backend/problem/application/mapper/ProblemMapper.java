@@ -1,11 +1,17 @@
 package com.tfg.backend.problem.application.mapper;
 
+import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.algorithm.domain.Algorithm;
+import com.tfg.backend.algorithm.domain.File;
+import com.tfg.backend.common.UuidV7;
 import com.tfg.backend.problem.application.dto.*;
 import com.tfg.backend.problem.domain.*;
 import com.tfg.backend.problemCollection.domain.ProblemCollection;
 import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.UUID;
 
 @Component
@@ -30,7 +36,7 @@ public class ProblemMapper {
             throw new IllegalArgumentException("Invalid problem type: " + dto.getProblemType());
         }
 
-        problem.setId(UUID.randomUUID());
+        problem.setId(UuidV7.generate());
         problem.setName(dto.getName());
         problem.setColor(dto.getColor());
         problem.setColorStart(dto.getColorStart());
@@ -49,7 +55,7 @@ public class ProblemMapper {
         // Map strategies
         if (dto.getStandardPartitioning() != null) {
             StandardPartitioning strategy = StandardPartitioning.builder()
-                    .id(UUID.randomUUID())
+                    .id(UuidV7.generate())
                     .hypercube(dto.getStandardPartitioning().getHypercube())
                     .minBound(dto.getStandardPartitioning().getMinBound())
                     .maxBound(dto.getStandardPartitioning().getMaxBound())
@@ -60,7 +66,7 @@ public class ProblemMapper {
 
         if (dto.getAgglomerativeClustering() != null) {
             AgglomerativeClustering strategy = AgglomerativeClustering.builder()
-                    .id(UUID.randomUUID())
+                    .id(UuidV7.generate())
                     .clusterSize(dto.getAgglomerativeClustering().getClusterSize())
                     .volumeSize(dto.getAgglomerativeClustering().getVolumeSize())
                     .distance(dto.getAgglomerativeClustering().getDistance())
@@ -70,7 +76,7 @@ public class ProblemMapper {
 
         if (dto.getShannonEntropy() != null) {
             ShannonEntropy strategy = ShannonEntropy.builder()
-                    .id(UUID.randomUUID())
+                    .id(UuidV7.generate())
                     .partitioning(dto.getShannonEntropy().getPartitioning())
                     .build();
             problem.setShannonEntropy(strategy);
@@ -96,6 +102,61 @@ public class ProblemMapper {
                 .vertexSize(problem.getVertexSize())
                 .arrowSize(problem.getArrowSize())
                 .treeLayout(problem.isTreeLayout())
+                .isMaximization(problem.isMaximization())
+                .visualizationStatus(problem.getVisualizationStatus());
+
+        // Map strategies
+        if (problem.getStandardPartitioning() != null) {
+            StandardPartitioning strategy = problem.getStandardPartitioning();
+            builder.standardPartitioning(StandardPartitioningDTO.builder()
+                    .id(strategy.getId())
+                    .hypercube(strategy.getHypercube())
+                    .minBound(strategy.getMinBound())
+                    .maxBound(strategy.getMaxBound())
+                    .numberDimension(strategy.getNumberDimension())
+                    .build());
+        }
+
+        if (problem.getAgglomerativeClustering() != null) {
+            AgglomerativeClustering strategy = problem.getAgglomerativeClustering();
+            builder.agglomerativeClustering(AgglomerativeClusteringDTO.builder()
+                    .id(strategy.getId())
+                    .clusterSize(strategy.getClusterSize())
+                    .volumeSize(strategy.getVolumeSize())
+                    .distance(strategy.getDistance())
+                    .build());
+        }
+
+        if (problem.getShannonEntropy() != null) {
+            ShannonEntropy strategy = problem.getShannonEntropy();
+            builder.shannonEntropy(ShannonEntropyDTO.builder()
+                    .id(strategy.getId())
+                    .partitioning(strategy.getPartitioning())
+                    .build());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Rebuild the registration request of a stored problem, traces included, so the STN
+     * pipeline can be rerun for it (e.g. to render its PDF on demand)
+     */
+    public RegistrationProblemDTO fromObjectToRegistrationDTO(Problem problem, List<Algorithm> algorithms) {
+        RegistrationProblemDTO.RegistrationProblemDTOBuilder builder = RegistrationProblemDTO.builder()
+                .name(problem.getName())
+                .color(problem.getColor())
+                .colorStart(problem.getColorStart())
+                .colorEnd(problem.getColorEnd())
+                .startShape(problem.getStartShape())
+                .endShape(problem.getEndShape())
+                .defaultShape(problem.getDefaultShape())
+                .problemType(problem instanceof DiscreteProblem ? "DiscreteProblem" : "ContinuousProblem")
+                .valueBestKnownSolution(problem.getValueBestKnownSolution())
+                .numberRuns(problem.getNumberRuns())
+                .vertexSize(problem.getVertexSize())
+                .arrowSize(problem.getArrowSize())
+                .treeLayout(problem.isTreeLayout())
                 .isMaximization(problem.isMaximization());
 
         // Map strategies
@@ -128,6 +189,20 @@ public class ProblemMapper {
                     .build());
         }
 
+        builder.algorithms(algorithms.stream().map(algorithm -> {
+            File file = algorithm.getFile();
+            return RegistrationAlgorithmDTO.builder()
+                    .name(algorithm.getName())
+                    .color(algorithm.getColor())
+                    .file(file == null ? null : FileDTO.builder()
+                            .id(file.getId())
+                            .fileName(file.getFileName())
+                            .fileType(file.getFileType())
+                            .content(file.getContent())
+                            .build())
+                    .build();
+        }).toList());
+
         return builder.build();
     }
 
@@ -1,5 +1,6 @@
 package com.tfg.backend.problem.domain;
 
+import com.tfg.backend.common.AssignedIdEntity;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -11,7 +12,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class AgglomerativeClustering {
+public class AgglomerativeClustering extends AssignedIdEntity {
     @Id
     private UUID id;
     
@@ -1,13 +1,16 @@
 package com.tfg.backend.problem.domain;
 
 import com.tfg.backend.algorithm.domain.Algorithm;
+import com.tfg.backend.common.AssignedIdEntity;
 import com.tfg.backend.problemCollection.domain.ProblemCollection;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.awt.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -15,11 +18,12 @@ import java.util.UUID;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "problem_type", discriminatorType = DiscriminatorType.STRING)
+@SQLRestriction("deleted_at IS NULL")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public abstract class Problem {
+public abstract class Problem extends AssignedIdEntity {
     @Id
     private UUID id;
 
@@ -59,6 +63,20 @@ public abstract class Problem {
     
     @NotNull(message = "Is maximization cannot be null")
     private boolean isMaximization;
+
+    /**
+     * Progress of the STN graph: PENDING while the generation job runs, READY once its
+     * nodes and edges are stored, FAILED if the job failed or was cancelled
+     */
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Visualization status cannot be null")
+    private VisualizationStatus visualizationStatus = VisualizationStatus.NONE;
+
+    /**
+     * Set when the problem is deleted: it is hidden from then on, and removed with its
+     * algorithms and graph once the background reclaim finishes
+     */
+    private LocalDateTime deletedAt;
     
     @ManyToOne
     @JoinColumn(name = "problem_collection_id")
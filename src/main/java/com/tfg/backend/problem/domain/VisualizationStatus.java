@@ -0,0 +1,8 @@
+package com.tfg.backend.problem.domain;
+
+public enum VisualizationStatus {
+    NONE,
+    PENDING,
+    READY,
+    FAILED
+}
@@ -2,7 +2,11 @@ package com.tfg.backend.problem.infrastructure.controllers;
 
 import com.tfg.backend.problem.application.ReadAllProblemsFromCollectionUseCase;
 import com.tfg.backend.problem.application.ReadOneProblemUseCase;
+import com.tfg.backend.problem.application.ReadProblemPdfUseCase;
 import com.tfg.backend.problem.application.dto.ResponseProblemDTO;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,11 +20,14 @@ public class ProblemGetController {
 
     private final ReadAllProblemsFromCollectionUseCase readAllProblemsFromCollectionUseCase;
     private final ReadOneProblemUseCase readOneProblemUseCase;
+    private final ReadProblemPdfUseCase readProblemPdfUseCase;
 
     public ProblemGetController(ReadAllProblemsFromCollectionUseCase readAllProblemsFromCollectionUseCase, 
-                                ReadOneProblemUseCase readOneProblemUseCase) {
+                                ReadOneProblemUseCase readOneProblemUseCase,
+                                ReadProblemPdfUseCase readProblemPdfUseCase) {
         this.readAllProblemsFromCollectionUseCase = readAllProblemsFromCollectionUseCase;
         this.readOneProblemUseCase = readOneProblemUseCase;
+        this.readProblemPdfUseCase = readProblemPdfUseCase;
     }
 
     @GetMapping("/problem-collections/{collectionId}/problems")
@@ -32,4 +39,13 @@ public class ProblemGetController {
     public ResponseEntity<ResponseProblemDTO> getProblemById(@PathVariable UUID problemId) {
         return ResponseEntity.ok(readOneProblemUseCase.execute(problemId));
     }
+
+    @GetMapping(value = "/problems/{problemId}/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<Resource> getProblemPdf(@PathVariable UUID problemId) {
+        return readProblemPdfUseCase.execute(problemId)
+                .<ResponseEntity<Resource>>map(pdf -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(new ByteArrayResource(pdf)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 }
@@ -1,13 +1,58 @@
 package com.tfg.backend.problem.infrastructure.repositories;
 
 import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProblemRepositoryJPA extends JpaRepository<Problem, UUID> {
     List<Problem> findByProblemCollectionId(UUID problemCollectionId);
+
+    /**
+     * Set the visualization status without loading the problem, in its own short transaction
+     * @return 0 if the problem no longer exists
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Problem p SET p.visualizationStatus = :status WHERE p.id = :problemId")
+    int updateVisualizationStatus(@Param("problemId") UUID problemId, @Param("status") VisualizationStatus status);
+
+    /**
+     * Hide the problem from every read, in the caller's transaction
+     * @return 0 if the problem does not exist or is already deleted
+     */
+    @Modifying
+    @Query("UPDATE Problem p SET p.deletedAt = :deletedAt WHERE p.id = :problemId AND p.deletedAt IS NULL")
+    int markDeleted(@Param("problemId") UUID problemId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Hide every problem of a collection that is being deleted, in the caller's transaction
+     */
+    @Modifying
+    @Query("UPDATE Problem p SET p.deletedAt = :deletedAt "
+            + "WHERE p.problemCollection.id = :problemCollectionId AND p.deletedAt IS NULL")
+    int markDeletedByProblemCollectionId(@Param("problemCollectionId") UUID problemCollectionId,
+                                         @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Deleted problems whose storage has not been reclaimed yet. Native, as the entity
+     * itself never sees them.
+     */
+    @Query(value = "SELECT id FROM problem WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    List<UUID> findDeletedIds();
+
+    /**
+     * Every problem row still referencing the collection, deleted or not
+     */
+    @Query(value = "SELECT id FROM problem WHERE problem_collection_id = :problemCollectionId", nativeQuery = true)
+    List<UUID> findAllIdsByProblemCollectionId(@Param("problemCollectionId") UUID problemCollectionId);
 }
@@ -1,27 +1,54 @@
 package com.tfg.backend.problemCollection.application;
 
-import com.tfg.backend.problemCollection.domain.exceptions.ProblemCollectionNotFoundException;
+import com.tfg.backend.problem.application.ProblemStorageReclaimer;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
 import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Deleting a collection marks it and its problems: they disappear from every read as
+ * soon as the caller's transaction commits, and the {@link ProblemStorageReclaimer}
+ * removes the problems and then the collection row in the background.
+ */
 @Service
 @Transactional
 public class DeleteProblemCollectionUseCase {
 
     private final ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
+    private final ProblemRepositoryJPA problemRepositoryJPA;
+    private final ProblemStorageReclaimer problemStorageReclaimer;
 
-    public DeleteProblemCollectionUseCase(ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA) {
+    public DeleteProblemCollectionUseCase(ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA,
+                                          ProblemRepositoryJPA problemRepositoryJPA,
+                                          ProblemStorageReclaimer problemStorageReclaimer) {
         this.problemCollectionRepositoryJPA = problemCollectionRepositoryJPA;
+        this.problemRepositoryJPA = problemRepositoryJPA;
+        this.problemStorageReclaimer = problemStorageReclaimer;
     }
 
     public void execute(UUID id){
-        if(!problemCollectionRepositoryJPA.existsById(id)){
+        LocalDateTime deletedAt = LocalDateTime.now();
+        if(problemCollectionRepositoryJPA.markDeleted(id, deletedAt) == 0){
             return;
         }
+        problemRepositoryJPA.markDeletedByProblemCollectionId(id, deletedAt);
 
-        problemCollectionRepositoryJPA.deleteById(id);
+        // Reclaiming before the marks are committed would race a rollback
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    problemStorageReclaimer.submitCollection(id);
+                }
+            });
+        } else {
+            problemStorageReclaimer.submitCollection(id);
+        }
     }
 }
@@ -1,19 +1,19 @@
 package com.tfg.backend.problemCollection.application.mapper;
 
+import com.tfg.backend.common.UuidV7;
 import com.tfg.backend.problemCollection.application.dto.RegistrationProblemCollectionDTO;
 import com.tfg.backend.problemCollection.application.dto.ResponseProblemCollectionDTO;
 import com.tfg.backend.problemCollection.application.dto.UpdateProblemCollectionDTO;
 import com.tfg.backend.problemCollection.domain.ProblemCollection;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
 
 @Component
 public class ProblemCollectionMapper {
 
     public ProblemCollection fromDTOtoObject(RegistrationProblemCollectionDTO registrationProblemCollectionDTO) {
         return ProblemCollection.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generate())
                 .name(registrationProblemCollectionDTO.getName())
                 .color(registrationProblemCollectionDTO.getColor())
                 .build();
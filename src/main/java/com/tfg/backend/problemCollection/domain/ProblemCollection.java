@@ -1,25 +1,34 @@
 package com.tfg.backend.problemCollection.domain;
 
+import com.tfg.backend.common.AssignedIdEntity;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.awt.*;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@SQLRestriction("deleted_at IS NULL")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class ProblemCollection {
+public class ProblemCollection extends AssignedIdEntity {
     @Id
     private UUID id;
     @NotBlank(message = "Name can not be blank")
     private String name;
     @NotNull(message = "Color can not be null")
     private Color color;
+    /**
+     * Set when the collection is deleted: it is hidden from then on, and removed once
+     * the background reclaim has removed its problems
+     */
+    private LocalDateTime deletedAt;
 }
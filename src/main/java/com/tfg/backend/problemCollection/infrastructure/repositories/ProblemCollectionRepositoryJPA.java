@@ -2,10 +2,30 @@ package com.tfg.backend.problemCollection.infrastructure.repositories;
 
 import com.tfg.backend.problemCollection.domain.ProblemCollection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProblemCollectionRepositoryJPA extends JpaRepository<ProblemCollection, UUID> {
+
+    /**
+     * Hide the collection from every read, in the caller's transaction
+     * @return 0 if the collection does not exist or is already deleted
+     */
+    @Modifying
+    @Query("UPDATE ProblemCollection c SET c.deletedAt = :deletedAt WHERE c.id = :collectionId AND c.deletedAt IS NULL")
+    int markDeleted(@Param("collectionId") UUID collectionId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Deleted collections whose row has not been removed yet. Native, as the entity
+     * itself never sees them.
+     */
+    @Query(value = "SELECT id FROM problem_collection WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    List<UUID> findDeletedIds();
 }
@@ -28,7 +28,7 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**", "/users").permitAll()
-                .requestMatchers("/problems/**", "/problem-collections/**", "/algorithms/**").authenticated()
+                .requestMatchers("/problems/**", "/problem-collections/**", "/algorithms/**", "/generation-jobs/**").authenticated()
                 .anyRequest().permitAll()
             )
             .sessionManagement(session -> session
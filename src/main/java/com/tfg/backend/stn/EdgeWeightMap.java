@@ -0,0 +1,110 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from a directed (from, to) pair of node ids to the
+ * number of times the transition was observed. Not thread-safe.
+ */
+public final class EdgeWeightMap {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] weights;
+    private int mask;
+    private int size;
+
+    public EdgeWeightMap() {
+        this(1024);
+    }
+
+    public EdgeWeightMap(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1);
+    }
+
+    public void increment(int from, int to) {
+        add(from, to, 1);
+    }
+
+    public void add(int from, int to, int weight) {
+        long key = pack(from, to);
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                weights[slot] += weight;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        weights[slot] = weight;
+        if (++size * 10 > keys.length * 6) {
+            rehash();
+        }
+    }
+
+    public int get(int from, int to) {
+        long key = pack(from, to);
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return weights[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Visit every (from, to, weight) entry in table order
+     */
+    public void forEach(EdgeVisitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != EMPTY) {
+                visitor.visit((int) (key >>> 32), (int) key, weights[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int from, int to, int weight);
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    private int slotOf(long key) {
+        return (int) MurmurHash3.fmix64(key) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        weights = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldWeights = weights;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                weights[slot] = oldWeights[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Union of the STNs of several algorithms by node label, as merge.R builds it. Nodes are
+ * numbered in label order and edges in (source, target) order, like {@link StnGraph}.
+ * <p>
+ * What each algorithm contributed is kept in membership lists: the memberships of node
+ * {@code v} are {@code nodeMembershipStart(v) .. nodeMembershipStart(v + 1) - 1}, each one
+ * an algorithm with the type the node had in it; edge memberships hold the algorithm and
+ * its own transition count. Both lists are in algorithm order.
+ * <p>
+ * The arrays are shared, not copied; callers must not modify them.
+ */
+public final class MergedStnGraph {
+
+    private final List<String> algorithms;
+    private final String[] labels;
+    private final double[] fitness;
+    private final int[] counts;
+    private final int[] nodeMembershipOffsets;
+    private final int[] nodeMemberAlgorithms;
+    private final StnNodeType[] nodeMemberTypes;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+    private final int[] edgeMembershipOffsets;
+    private final int[] edgeMemberAlgorithms;
+    private final int[] edgeMemberWeights;
+
+    MergedStnGraph(List<String> algorithms, String[] labels, double[] fitness, int[] counts,
+                   int[] nodeMembershipOffsets, int[] nodeMemberAlgorithms, StnNodeType[] nodeMemberTypes,
+                   int[] edgeSource, int[] edgeTarget, int[] edgeWeight,
+                   int[] edgeMembershipOffsets, int[] edgeMemberAlgorithms, int[] edgeMemberWeights) {
+        this.algorithms = algorithms;
+        this.labels = labels;
+        this.fitness = fitness;
+        this.counts = counts;
+        this.nodeMembershipOffsets = nodeMembershipOffsets;
+        this.nodeMemberAlgorithms = nodeMemberAlgorithms;
+        this.nodeMemberTypes = nodeMemberTypes;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+        this.edgeMembershipOffsets = edgeMembershipOffsets;
+        this.edgeMemberAlgorithms = edgeMemberAlgorithms;
+        this.edgeMemberWeights = edgeMemberWeights;
+    }
+
+    /**
+     * Names of the merged algorithms; memberships refer to them by position
+     */
+    public List<String> algorithms() {
+        return algorithms;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public int edgeCount() {
+        return edgeSource.length;
+    }
+
+    public String label(int node) {
+        return labels[node];
+    }
+
+    /**
+     * Fitness of the node in the first algorithm that has it (merge.R's coalesce)
+     */
+    public double fitness(int node) {
+        return fitness[node];
+    }
+
+    /**
+     * Visits summed over all algorithms
+     */
+    public int count(int node) {
+        return counts[node];
+    }
+
+    /**
+     * Whether more than one algorithm visited the node (merge.R's Shared)
+     */
+    public boolean isShared(int node) {
+        return nodeMembershipOffsets[node + 1] - nodeMembershipOffsets[node] > 1;
+    }
+
+    public int nodeMembershipStart(int node) {
+        return nodeMembershipOffsets[node];
+    }
+
+    public int nodeMemberAlgorithm(int membership) {
+        return nodeMemberAlgorithms[membership];
+    }
+
+    public StnNodeType nodeMemberType(int membership) {
+        return nodeMemberTypes[membership];
+    }
+
+    /**
+     * @return the type of the node in the given algorithm, or null if the algorithm never visited it
+     */
+    public StnNodeType type(int node, int algorithm) {
+        for (int i = nodeMembershipOffsets[node]; i < nodeMembershipOffsets[node + 1]; i++) {
+            if (nodeMemberAlgorithms[i] == algorithm) {
+                return nodeMemberTypes[i];
+            }
+        }
+        return null;
+    }
+
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Transition count summed over all algorithms
+     */
+    public int edgeWeight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    public int edgeMembershipStart(int edge) {
+        return edgeMembershipOffsets[edge];
+    }
+
+    public int edgeMemberAlgorithm(int membership) {
+        return edgeMemberAlgorithms[membership];
+    }
+
+    public int edgeMemberWeight(int membership) {
+        return edgeMemberWeights[membership];
+    }
+
+    /**
+     * @return the transition count of the edge in the given algorithm, 0 if it never took it
+     */
+    public int edgeWeight(int edge, int algorithm) {
+        for (int i = edgeMembershipOffsets[edge]; i < edgeMembershipOffsets[edge + 1]; i++) {
+            if (edgeMemberAlgorithms[i] == algorithm) {
+                return edgeMemberWeights[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return the node with the given label or -1
+     */
+    public int indexOf(String label) {
+        int index = Arrays.binarySearch(labels, label);
+        return index >= 0 ? index : -1;
+    }
+}
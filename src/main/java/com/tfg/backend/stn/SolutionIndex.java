@@ -0,0 +1,123 @@
+package com.tfg.backend.stn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns solution strings to dense int ids. Lookups go through an
+ * open-addressing table keyed by the 128-bit MurmurHash3 of the solution
+ * bytes, so the solution text itself is only decoded once per distinct
+ * solution (to keep its label). Two different solutions would have to
+ * collide on all 128 bits to be merged.
+ * <p>
+ * Not thread-safe.
+ */
+public final class SolutionIndex {
+
+    private static final int EMPTY = -1;
+
+    private long[] hashes;   // two longs per slot
+    private int[] slotIds;   // id stored in the slot, EMPTY if free
+    private int mask;
+    private int size;
+    private String[] labels;
+    private final long[] scratch = new long[2];
+
+    public SolutionIndex() {
+        this(1024);
+    }
+
+    public SolutionIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+        labels = new String[Math.max(16, expectedSize)];
+    }
+
+    public int intern(String solution) {
+        byte[] bytes = solution.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @return the id of the solution spelled by the given bytes, assigning the next id if it is new
+     */
+    public int intern(byte[] data, int off, int len) {
+        MurmurHash3.hash128(data, off, len, scratch);
+        long h1 = scratch[0];
+        long h2 = scratch[1];
+        int slot = (int) (h1 ^ (h1 >>> 32)) & mask;
+        while (true) {
+            int id = slotIds[slot];
+            if (id == EMPTY) {
+                break;
+            }
+            if (hashes[slot << 1] == h1 && hashes[(slot << 1) + 1] == h2) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == labels.length) {
+            labels = Arrays.copyOf(labels, labels.length << 1);
+        }
+        labels[id] = new String(data, off, len, StandardCharsets.UTF_8);
+        slotIds[slot] = id;
+        hashes[slot << 1] = h1;
+        hashes[(slot << 1) + 1] = h2;
+        if (size * 10 > slotIds.length * 6) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @return the id of the solution or -1 if it was never interned
+     */
+    public int find(String solution) {
+        byte[] bytes = solution.getBytes(StandardCharsets.UTF_8);
+        MurmurHash3.hash128(bytes, 0, bytes.length, scratch);
+        int slot = (int) (scratch[0] ^ (scratch[0] >>> 32)) & mask;
+        while (slotIds[slot] != EMPTY) {
+            if (hashes[slot << 1] == scratch[0] && hashes[(slot << 1) + 1] == scratch[1]) {
+                return slotIds[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public String label(int id) {
+        return labels[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        hashes = new long[capacity << 1];
+        slotIds = new int[capacity];
+        Arrays.fill(slotIds, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldHashes = hashes;
+        int[] oldIds = slotIds;
+        allocate(oldIds.length << 1);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] == EMPTY) {
+                continue;
+            }
+            long h1 = oldHashes[i << 1];
+            int slot = (int) (h1 ^ (h1 >>> 32)) & mask;
+            while (slotIds[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slotIds[slot] = oldIds[i];
+            hashes[slot << 1] = h1;
+            hashes[(slot << 1) + 1] = oldHashes[(i << 1) + 1];
+        }
+    }
+}
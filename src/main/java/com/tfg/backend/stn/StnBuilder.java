@@ -0,0 +1,142 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+
+/**
+ * Builds the STN of one algorithm with the same rules as create.R:
+ * <ul>
+ *     <li>only rows with {@code Run <= runs} are read; start and end nodes are the
+ *     first Solution1 and last Solution2 of each run segment in file order;</li>
+ *     <li>rows of runs 1..runs contribute nodes and edges;</li>
+ *     <li>a node keeps the lowest fitness it was seen with and how many times it was
+ *     seen with it;</li>
+ *     <li>an edge weight is the number of times the transition occurs; self loops
+ *     are dropped;</li>
+ *     <li>types are medium, then end, start and best, each overriding the previous.</li>
+ * </ul>
+ */
+public final class StnBuilder {
+
+    private StnBuilder() {
+    }
+
+    /**
+     * @param minimization whether lower fitness is better (create.R's bmin)
+     * @param best         fitness of the best-known solution; nodes at least as good are typed best
+     * @param runs         number of runs to use
+     */
+    public static StnGraph build(StnTransitions trace, boolean minimization, double best, int runs) {
+        int solutionCount = trace.solutions().size();
+        boolean[] isStart = new boolean[solutionCount];
+        boolean[] isEnd = new boolean[solutionCount];
+        markStartAndEnd(trace, runs, isStart, isEnd);
+
+        double[] minFitness = new double[solutionCount];
+        int[] counts = new int[solutionCount];
+        EdgeWeightMap edges = new EdgeWeightMap(Math.max(16, trace.size() / 2));
+        for (int row = 0; row < trace.size(); row++) {
+            int run = trace.run(row);
+            if (run < 1 || run > runs) {
+                continue;
+            }
+            int from = trace.solution1(row);
+            int to = trace.solution2(row);
+            visit(minFitness, counts, from, trace.fitness1(row));
+            visit(minFitness, counts, to, trace.fitness2(row));
+            if (from != to) {
+                edges.increment(from, to);
+            }
+        }
+
+        // Renumber the solutions that became nodes in label order
+        int nodeCount = 0;
+        for (int id = 0; id < solutionCount; id++) {
+            if (counts[id] > 0) {
+                nodeCount++;
+            }
+        }
+        Integer[] order = new Integer[nodeCount];
+        for (int id = 0, i = 0; id < solutionCount; id++) {
+            if (counts[id] > 0) {
+                order[i++] = id;
+            }
+        }
+        SolutionIndex solutions = trace.solutions();
+        Arrays.sort(order, (a, b) -> solutions.label(a).compareTo(solutions.label(b)));
+
+        int[] newIndex = new int[solutionCount];
+        String[] labels = new String[nodeCount];
+        double[] fitness = new double[nodeCount];
+        int[] nodeCounts = new int[nodeCount];
+        StnNodeType[] types = new StnNodeType[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            int id = order[i];
+            newIndex[id] = i;
+            labels[i] = solutions.label(id);
+            fitness[i] = minFitness[id];
+            nodeCounts[i] = counts[id];
+            StnNodeType type = StnNodeType.MEDIUM;
+            if (isEnd[id]) {
+                type = StnNodeType.END;
+            }
+            if (isStart[id]) {
+                type = StnNodeType.START;
+            }
+            if (minimization ? fitness[i] <= best : fitness[i] >= best) {
+                type = StnNodeType.BEST;
+            }
+            types[i] = type;
+        }
+
+        // Edges in (source, target) order of the renumbered nodes
+        int edgeCount = edges.size();
+        long[] keys = new long[edgeCount];
+        EdgeWeightMap renumbered = new EdgeWeightMap(edgeCount);
+        int[] cursor = {0};
+        edges.forEach((from, to, weight) -> {
+            int source = newIndex[from];
+            int target = newIndex[to];
+            keys[cursor[0]++] = ((long) source << 32) | target;
+            renumbered.add(source, target, weight);
+        });
+        Arrays.sort(keys);
+        int[] edgeSource = new int[edgeCount];
+        int[] edgeTarget = new int[edgeCount];
+        int[] edgeWeight = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            edgeSource[e] = (int) (keys[e] >>> 32);
+            edgeTarget[e] = (int) keys[e];
+            edgeWeight[e] = renumbered.get(edgeSource[e], edgeTarget[e]);
+        }
+
+        return new StnGraph(labels, fitness, nodeCounts, types, edgeSource, edgeTarget, edgeWeight);
+    }
+
+    private static void markStartAndEnd(StnTransitions trace, int runs, boolean[] isStart, boolean[] isEnd) {
+        int previous = -1;
+        for (int row = 0; row < trace.size(); row++) {
+            if (trace.run(row) > runs) {
+                continue;
+            }
+            if (previous < 0) {
+                isStart[trace.solution1(row)] = true;
+            } else if (trace.run(previous) != trace.run(row)) {
+                isEnd[trace.solution2(previous)] = true;
+                isStart[trace.solution1(row)] = true;
+            }
+            previous = row;
+        }
+        if (previous >= 0) {
+            isEnd[trace.solution2(previous)] = true;
+        }
+    }
+
+    private static void visit(double[] minFitness, int[] counts, int id, double fitness) {
+        if (counts[id] == 0 || fitness < minFitness[id] || (Double.isNaN(minFitness[id]) && !Double.isNaN(fitness))) {
+            minFitness[id] = fitness;
+            counts[id] = 1;
+        } else if (fitness == minFitness[id] || (Double.isNaN(fitness) && Double.isNaN(minFitness[id]))) {
+            counts[id]++;
+        }
+    }
+}
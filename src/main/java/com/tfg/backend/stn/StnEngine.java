@@ -0,0 +1,325 @@
+package com.tfg.backend.stn;
+
+import com.tfg.backend.problem.application.dto.AgglomerativeClusteringDTO;
+import com.tfg.backend.problem.application.dto.ShannonEntropyDTO;
+import com.tfg.backend.problem.application.dto.StandardPartitioningDTO;
+import com.tfg.backend.problem.domain.DistanceType;
+import com.tfg.backend.stn.layout.CsrGraph;
+import com.tfg.backend.stn.layout.FruchtermanReingoldLayout;
+import com.tfg.backend.stn.layout.GraphLayout;
+import com.tfg.backend.stn.layout.LayeredLayout;
+import com.tfg.backend.stn.layout.StressMajorizationLayout;
+import com.tfg.backend.stn.partition.AgglomerativePartition;
+import com.tfg.backend.stn.partition.AgglomerativePartitioner;
+import com.tfg.backend.stn.partition.ContinuousStandardPartitioner;
+import com.tfg.backend.stn.partition.DiscreteStandardPartitioner;
+import com.tfg.backend.stn.partition.RawTraceReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Facade over the native STN pipeline: the partitioners, the per-algorithm build of
+ * create.R, the merger of merge.R, the metrics and the layouts of the plot scripts,
+ * all sharing one dedicated pool ({@code stn.native.parallelism}, all cores by default).
+ * {@link com.tfg.backend.api.StnMetricsService} uses it for the metrics and
+ * {@link com.tfg.backend.api.NativeStnGenerator} for the visualization JSON when
+ * {@code stn.native.enabled} is set.
+ */
+@Service
+public class StnEngine {
+
+    private final ForkJoinPool pool;
+    private final DiscreteStandardPartitioner discretePartitioner;
+    private final AgglomerativePartitioner agglomerativePartitioner;
+    private final ContinuousStandardPartitioner continuousPartitioner;
+    private final FruchtermanReingoldLayout fruchtermanReingold;
+    private final StressMajorizationLayout stressMajorization;
+    private final LayeredLayout layered;
+
+    public StnEngine(@Value("${stn.native.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.discretePartitioner = new DiscreteStandardPartitioner(pool);
+        this.agglomerativePartitioner = new AgglomerativePartitioner(pool);
+        this.continuousPartitioner = new ContinuousStandardPartitioner(pool);
+        this.fruchtermanReingold = new FruchtermanReingoldLayout(pool);
+        this.stressMajorization = new StressMajorizationLayout(pool);
+        this.layered = new LayeredLayout(pool);
+    }
+
+    /**
+     * Standard partitioning of discrete traces, the Java counterpart of partition/discrete/standard.py
+     *
+     * @param traces         algorithm name -> uploaded trace file
+     * @param shannonEntropy percentage of positions to keep; null or 0 keeps the full solutions
+     * @return algorithm name -> partitioned transitions, ready for {@link #build}
+     */
+    public Map<String, StnTransitions> partitionDiscrete(Map<String, Path> traces,
+                                                         ShannonEntropyDTO shannonEntropy) throws IOException {
+        List<String> names = new ArrayList<>(traces.keySet());
+        List<StnTransitions> read = readAll(names, name -> TraceFileReader.read(traces.get(name)));
+        Map<String, StnTransitions> byName = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            byName.put(names.get(i), read.get(i));
+        }
+        double percentage = shannonEntropy != null ? shannonEntropy.getPartitioning() : 0.0;
+        return discretePartitioner.partitionTransitions(byName, percentage);
+    }
+
+    /**
+     * Standard partitioning of continuous traces, the Java counterpart of partition/continuous/standard.py.
+     * Library-only for now: like stn_cli.py as {@link com.tfg.backend.api.StnGeneratorService} calls it,
+     * the application partitions continuous problems agglomeratively.
+     *
+     * @param traces               algorithm name -> uploaded trace file
+     * @param standardPartitioning grid bounds and hypercube exponent (the side is 10^hypercube, as in
+     *                             stn_core.StandardConfig); null uses the Python defaults
+     */
+    public Map<String, StnTransitions> partitionContinuous(Map<String, Path> traces,
+                                                           StandardPartitioningDTO standardPartitioning)
+            throws IOException {
+        int hypercube = 0;
+        int minBound = 0;
+        int maxBound = 0;
+        if (standardPartitioning != null) {
+            hypercube = standardPartitioning.getHypercube();
+            minBound = standardPartitioning.getMinBound();
+            maxBound = standardPartitioning.getMaxBound();
+        }
+        return continuousPartitioner.partition(readRawTraces(traces), minBound, maxBound, Math.pow(10, hypercube));
+    }
+
+    /**
+     * Agglomerative partitioning, the Java counterpart of partition/continuous/agglomerative.py
+     *
+     * @param traces                   algorithm name -> uploaded trace file
+     * @param agglomerativeClustering  size and volume limits and distance; null uses the Python defaults
+     *                                 (50%, 50%, euclidean)
+     * @param numberOfClusters         clusters to cut the merge history at, or null for the Python default
+     */
+    public AgglomerativePartition partitionAgglomerative(Map<String, Path> traces, boolean discrete,
+                                                         AgglomerativeClusteringDTO agglomerativeClustering,
+                                                         Integer numberOfClusters) throws IOException {
+        double clusterSize = 50.0;
+        double volumeSize = 50.0;
+        DistanceType distance = DistanceType.EUCLIDEAN;
+        if (agglomerativeClustering != null) {
+            clusterSize = agglomerativeClustering.getClusterSize();
+            volumeSize = agglomerativeClustering.getVolumeSize();
+            if (agglomerativeClustering.getDistance() != null) {
+                distance = agglomerativeClustering.getDistance();
+            }
+        }
+        return agglomerativePartitioner.partition(readRawTraces(traces), discrete, clusterSize, volumeSize,
+                distance, numberOfClusters);
+    }
+
+    private Map<String, List<String>> readRawTraces(Map<String, Path> traces) throws IOException {
+        List<String> names = new ArrayList<>(traces.keySet());
+        List<List<String>> lines = readAll(names, name -> RawTraceReader.read(traces.get(name)));
+        Map<String, List<String>> byName = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            byName.put(names.get(i), lines.get(i));
+        }
+        return byName;
+    }
+
+    /**
+     * Read the partitioned trace of each algorithm and build its STN. The application
+     * partitions in memory and calls {@link #build}; this reads the CSVs the Python
+     * partitioners write, e.g. to compare against create.R.
+     *
+     * @param traces algorithm name -> partitioned trace file
+     * @param best   best-known fitness, or null to use the best Fitness2 across all traces
+     * @param runs   number of runs, or null to use the highest run number across all traces
+     * @return algorithm name -> STN, in the order of {@code traces}
+     */
+    public Map<String, StnGraph> buildFromFiles(Map<String, Path> traces, boolean minimization,
+                                                Double best, Integer runs) throws IOException {
+        List<String> names = new ArrayList<>(traces.keySet());
+        List<StnTransitions> loaded = readAll(names, name -> TraceCsvReader.read(traces.get(name)));
+        Map<String, StnTransitions> byName = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            byName.put(names.get(i), loaded.get(i));
+        }
+        return build(byName, minimization, best, runs);
+    }
+
+    /**
+     * Same as {@link #buildFromFiles} for traces already in memory
+     */
+    public Map<String, StnGraph> build(Map<String, StnTransitions> traces, boolean minimization,
+                                       Double best, Integer runs) {
+        // Like create.R, missing parameters are derived from all algorithms together
+        double bestValue;
+        if (best != null) {
+            bestValue = best;
+        } else {
+            bestValue = minimization ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            for (StnTransitions trace : traces.values()) {
+                double b = trace.bestFitness(minimization);
+                bestValue = minimization ? Math.min(bestValue, b) : Math.max(bestValue, b);
+            }
+        }
+        int runCount;
+        if (runs != null) {
+            runCount = runs;
+        } else {
+            runCount = 0;
+            for (StnTransitions trace : traces.values()) {
+                runCount = Math.max(runCount, trace.maxRun());
+            }
+        }
+
+        double finalBest = bestValue;
+        int finalRuns = runCount;
+        List<String> names = new ArrayList<>(traces.keySet());
+        List<StnGraph> graphs = invoke(names,
+                name -> StnBuilder.build(traces.get(name), minimization, finalBest, finalRuns));
+        Map<String, StnGraph> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            result.put(names.get(i), graphs.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Union of the STNs of all algorithms, the Java counterpart of merge.R
+     *
+     * @param graphs algorithm name -> STN, e.g. the result of {@link #build}
+     */
+    public MergedStnGraph merge(Map<String, StnGraph> graphs) {
+        return StnMerger.merge(graphs);
+    }
+
+    /**
+     * Metrics of each STN, the Java counterpart of metrics-alg.R, the algorithms in parallel
+     *
+     * @param runs number of runs the STNs were built from
+     * @return algorithm name -> metrics, in the order of {@code graphs}
+     */
+    public Map<String, StnMetrics> metrics(Map<String, StnGraph> graphs, int runs) {
+        List<String> names = new ArrayList<>(graphs.keySet());
+        List<StnMetrics> metrics = invoke(names, name -> StnMetricsCalculator.compute(graphs.get(name), runs));
+        Map<String, StnMetrics> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            result.put(names.get(i), metrics.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Fruchterman-Reingold layout, the Java counterpart of layout_with_fr in the plot scripts
+     *
+     * @param dimensions 2, or 3 for a spatial layout
+     * @param seed       seed of the initial placement; the same seed gives the same layout
+     */
+    public GraphLayout layoutFruchtermanReingold(CsrGraph graph, int dimensions, long seed) {
+        return fruchtermanReingold.layout(graph, dimensions, seed);
+    }
+
+    /**
+     * Stress-majorization layout, the Java counterpart of layout_with_kk in the plot scripts
+     *
+     * @param dimensions 2, or 3 for a spatial layout
+     * @param seed       seed of the pivot sample; the same seed gives the same layout
+     */
+    public GraphLayout layoutStress(CsrGraph graph, int dimensions, long seed) {
+        return stressMajorization.layout(graph, dimensions, seed);
+    }
+
+    /**
+     * Layered layout with start nodes on top and best nodes at the bottom, the Java
+     * counterpart of layout_as_tree in plot-alg-tree.R
+     */
+    public GraphLayout layoutTree(StnGraph graph) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int[] source = new int[m];
+        int[] target = new int[m];
+        for (int e = 0; e < m; e++) {
+            source[e] = graph.edgeSource(e);
+            target[e] = graph.edgeTarget(e);
+        }
+        boolean[] top = new boolean[n];
+        boolean[] bottom = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            top[v] = graph.type(v) == StnNodeType.START;
+            bottom[v] = graph.type(v) == StnNodeType.BEST;
+        }
+        return layered.layout(n, source, target, top, bottom);
+    }
+
+    /**
+     * Layered layout of the merged STN with nodes that start a run of any algorithm on top
+     * and nodes that are best in any algorithm at the bottom, as in plot-merged-tree.R
+     */
+    public GraphLayout layoutTree(MergedStnGraph graph) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        int[] source = new int[m];
+        int[] target = new int[m];
+        for (int e = 0; e < m; e++) {
+            source[e] = graph.edgeSource(e);
+            target[e] = graph.edgeTarget(e);
+        }
+        boolean[] top = new boolean[n];
+        boolean[] bottom = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            for (int i = graph.nodeMembershipStart(v); i < graph.nodeMembershipStart(v + 1); i++) {
+                top[v] |= graph.nodeMemberType(i) == StnNodeType.START;
+                bottom[v] |= graph.nodeMemberType(i) == StnNodeType.BEST;
+            }
+        }
+        return layered.layout(n, source, target, top, bottom);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private <T> List<T> readAll(List<String> names, FileTask<T> task) throws IOException {
+        try {
+            return invoke(names, name -> {
+                try {
+                    return task.apply(name);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> List<T> invoke(List<String> names, Function<String, T> task) {
+        try {
+            return pool.submit(() -> names.parallelStream().map(task).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("STN construction interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileTask<T> {
+        T apply(String name) throws IOException;
+    }
+}
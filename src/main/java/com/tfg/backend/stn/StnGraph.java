@@ -0,0 +1,85 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+
+/**
+ * Search trajectory network of one algorithm in primitive arrays: nodes are
+ * numbered 0..n-1 in label order, edges 0..m-1 in (source, target) order,
+ * matching the vertex and edge order of the igraph object built by create.R.
+ * <p>
+ * The arrays are shared, not copied; callers must not modify them.
+ */
+public final class StnGraph {
+
+    private final String[] labels;
+    private final double[] fitness;
+    private final int[] counts;
+    private final StnNodeType[] types;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] edgeWeight;
+
+    StnGraph(String[] labels, double[] fitness, int[] counts, StnNodeType[] types,
+             int[] edgeSource, int[] edgeTarget, int[] edgeWeight) {
+        this.labels = labels;
+        this.fitness = fitness;
+        this.counts = counts;
+        this.types = types;
+        this.edgeSource = edgeSource;
+        this.edgeTarget = edgeTarget;
+        this.edgeWeight = edgeWeight;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    public int edgeCount() {
+        return edgeSource.length;
+    }
+
+    public String label(int node) {
+        return labels[node];
+    }
+
+    /**
+     * Best fitness the solution was observed with
+     */
+    public double fitness(int node) {
+        return fitness[node];
+    }
+
+    /**
+     * Number of times the solution was visited with that fitness
+     */
+    public int count(int node) {
+        return counts[node];
+    }
+
+    public StnNodeType type(int node) {
+        return types[node];
+    }
+
+    public int edgeSource(int edge) {
+        return edgeSource[edge];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Number of times the transition was observed across all runs
+     */
+    public int edgeWeight(int edge) {
+        return edgeWeight[edge];
+    }
+
+    /**
+     * @return the node with the given label or -1
+     */
+    public int indexOf(String label) {
+        int index = Arrays.binarySearch(labels, label);
+        return index >= 0 ? index : -1;
+    }
+}
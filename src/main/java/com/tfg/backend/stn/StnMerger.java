@@ -0,0 +1,210 @@
+package com.tfg.backend.stn;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the STNs of several algorithms with the same rules as merge.R:
+ * <ul>
+ *     <li>nodes with the same label are one node; its fitness is taken from the first
+ *     algorithm that has it and its count is the sum over all algorithms;</li>
+ *     <li>edges with the same endpoints are one edge whose weight is the sum of the
+ *     per-algorithm weights, which are kept as well;</li>
+ *     <li>a node is shared when more than one algorithm has it.</li>
+ * </ul>
+ * Labels are unified in a single pass through one {@link SolutionIndex}, so each label is
+ * hashed once per algorithm that has it and compared by its 128-bit key from then on.
+ */
+public final class StnMerger {
+
+    private StnMerger() {
+    }
+
+    /**
+     * @param graphs algorithm name -> STN; the iteration order is the algorithm order
+     *               (merge.R's file order) used for fitness and memberships
+     */
+    public static MergedStnGraph merge(Map<String, StnGraph> graphs) {
+        List<String> names = new ArrayList<>(graphs.keySet());
+        int totalNodes = 0;
+        int totalEdges = 0;
+        for (StnGraph graph : graphs.values()) {
+            totalNodes += graph.nodeCount();
+            totalEdges += graph.edgeCount();
+        }
+
+        // Nodes: one id per distinct label, memberships in algorithm order
+        SolutionIndex index = new SolutionIndex(Math.max(16, totalNodes));
+        double[] firstFitness = new double[totalNodes];
+        int[] summedCounts = new int[totalNodes];
+        int[] memberNode = new int[totalNodes];
+        int[] memberAlgorithm = new int[totalNodes];
+        StnNodeType[] memberType = new StnNodeType[totalNodes];
+        int[][] ids = new int[names.size()][];
+        int members = 0;
+        for (int a = 0; a < names.size(); a++) {
+            StnGraph graph = graphs.get(names.get(a));
+            int[] algorithmIds = new int[graph.nodeCount()];
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                int before = index.size();
+                int id = index.intern(graph.label(v));
+                if (id == before) {
+                    firstFitness[id] = graph.fitness(v);
+                }
+                summedCounts[id] += graph.count(v);
+                algorithmIds[v] = id;
+                memberNode[members] = id;
+                memberAlgorithm[members] = a;
+                memberType[members++] = graph.type(v);
+            }
+            ids[a] = algorithmIds;
+        }
+
+        // Edges: one id per distinct (source, target), memberships in algorithm order
+        EdgeWeightMap edgeIds = new EdgeWeightMap(Math.max(16, totalEdges));
+        int[] firstSource = new int[totalEdges];
+        int[] firstTarget = new int[totalEdges];
+        int[] edgeMemberEdge = new int[totalEdges];
+        int[] edgeMemberAlgorithm = new int[totalEdges];
+        int[] edgeMemberWeight = new int[totalEdges];
+        int edgeCount = 0;
+        int edgeMembers = 0;
+        for (int a = 0; a < names.size(); a++) {
+            StnGraph graph = graphs.get(names.get(a));
+            int[] algorithmIds = ids[a];
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                int source = algorithmIds[graph.edgeSource(e)];
+                int target = algorithmIds[graph.edgeTarget(e)];
+                int edge = edgeIds.get(source, target) - 1;
+                if (edge < 0) {
+                    edge = edgeCount++;
+                    edgeIds.add(source, target, edge + 1);
+                    firstSource[edge] = source;
+                    firstTarget[edge] = target;
+                }
+                edgeMemberEdge[edgeMembers] = edge;
+                edgeMemberAlgorithm[edgeMembers] = a;
+                edgeMemberWeight[edgeMembers++] = graph.edgeWeight(e);
+            }
+        }
+
+        // Renumber the nodes in label order
+        int nodeCount = index.size();
+        int[] newIndex = labelOrder(graphs, names, ids, nodeCount);
+        String[] labels = new String[nodeCount];
+        double[] fitness = new double[nodeCount];
+        int[] counts = new int[nodeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            int i = newIndex[id];
+            labels[i] = index.label(id);
+            fitness[i] = firstFitness[id];
+            counts[i] = summedCounts[id];
+        }
+        int[] nodeOffsets = new int[nodeCount + 1];
+        int[] nodeMemberAlgorithms = new int[members];
+        StnNodeType[] nodeMemberTypes = new StnNodeType[members];
+        int[] nodeMemberOf = new int[members];
+        for (int i = 0; i < members; i++) {
+            nodeMemberOf[i] = newIndex[memberNode[i]];
+        }
+        scatter(nodeMemberOf, nodeOffsets, (from, to) -> {
+            nodeMemberAlgorithms[to] = memberAlgorithm[from];
+            nodeMemberTypes[to] = memberType[from];
+        });
+
+        // Renumber the edges in (source, target) order
+        long[] keys = new long[edgeCount];
+        EdgeWeightMap renumbered = new EdgeWeightMap(Math.max(16, edgeCount));
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int source = newIndex[firstSource[edge]];
+            int target = newIndex[firstTarget[edge]];
+            keys[edge] = ((long) source << 32) | target;
+            renumbered.add(source, target, edge + 1);
+        }
+        Arrays.sort(keys);
+        int[] edgeSource = new int[edgeCount];
+        int[] edgeTarget = new int[edgeCount];
+        int[] newEdge = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            edgeSource[e] = (int) (keys[e] >>> 32);
+            edgeTarget[e] = (int) keys[e];
+            newEdge[renumbered.get(edgeSource[e], edgeTarget[e]) - 1] = e;
+        }
+        int[] edgeOffsets = new int[edgeCount + 1];
+        int[] edgeMemberAlgorithms = new int[edgeMembers];
+        int[] edgeMemberWeights = new int[edgeMembers];
+        int[] edgeWeight = new int[edgeCount];
+        int[] edgeMemberOf = new int[edgeMembers];
+        for (int i = 0; i < edgeMembers; i++) {
+            edgeMemberOf[i] = newEdge[edgeMemberEdge[i]];
+            edgeWeight[edgeMemberOf[i]] += edgeMemberWeight[i];
+        }
+        scatter(edgeMemberOf, edgeOffsets, (from, to) -> {
+            edgeMemberAlgorithms[to] = edgeMemberAlgorithm[from];
+            edgeMemberWeights[to] = edgeMemberWeight[from];
+        });
+
+        return new MergedStnGraph(List.copyOf(names), labels, fitness, counts,
+                nodeOffsets, nodeMemberAlgorithms, nodeMemberTypes,
+                edgeSource, edgeTarget, edgeWeight, edgeOffsets, edgeMemberAlgorithms, edgeMemberWeights);
+    }
+
+    /**
+     * Every STN already lists its nodes in label order, so a k-way merge of those lists
+     * ranks the merged nodes without sorting their labels again
+     *
+     * @return merged node id -> position in label order
+     */
+    private static int[] labelOrder(Map<String, StnGraph> graphs, List<String> names, int[][] ids, int nodeCount) {
+        int k = names.size();
+        StnGraph[] sources = new StnGraph[k];
+        int[] next = new int[k];
+        PriorityQueue<Integer> heads = new PriorityQueue<>(Math.max(1, k),
+                (a, b) -> sources[a].label(next[a]).compareTo(sources[b].label(next[b])));
+        for (int a = 0; a < k; a++) {
+            sources[a] = graphs.get(names.get(a));
+            if (sources[a].nodeCount() > 0) {
+                heads.add(a);
+            }
+        }
+        int[] newIndex = new int[nodeCount];
+        Arrays.fill(newIndex, -1);
+        int ranked = 0;
+        while (!heads.isEmpty()) {
+            int a = heads.poll();
+            int id = ids[a][next[a]];
+            if (newIndex[id] < 0) {
+                newIndex[id] = ranked++;
+            }
+            if (++next[a] < sources[a].nodeCount()) {
+                heads.add(a);
+            }
+        }
+        return newIndex;
+    }
+
+    /**
+     * Stable counting sort of memberships by owner: fills {@code offsets} and moves
+     * membership {@code from} to its sorted position {@code to}
+     */
+    private static void scatter(int[] owner, int[] offsets, MembershipMove move) {
+        for (int o : owner) {
+            offsets[o + 1]++;
+        }
+        for (int i = 0; i + 1 < offsets.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] cursor = Arrays.copyOf(offsets, offsets.length - 1);
+        for (int from = 0; from < owner.length; from++) {
+            move.move(from, cursor[owner[from]]++);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MembershipMove {
+        void move(int from, int to);
+    }
+}
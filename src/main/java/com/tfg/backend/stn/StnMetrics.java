@@ -0,0 +1,19 @@
+package com.tfg.backend.stn;
+
+/**
+ * Metrics of one algorithm's STN, the quantities metrics-alg.R writes per instance
+ *
+ * @param nodes              number of nodes
+ * @param edges              number of edges
+ * @param components         number of weakly connected components
+ * @param bestCount          number of best nodes
+ * @param endCount           number of end nodes
+ * @param bestStrength       incoming transitions into best nodes per run, rounded to 4 decimals,
+ *                           or null if there is no best node
+ * @param averagePathLength  mean hop count of the shortest start-to-best paths that exist,
+ *                           rounded to 4 decimals, or null if there is none
+ * @param pathCount          number of (start, best) pairs joined by a path
+ */
+public record StnMetrics(int nodes, int edges, int components, int bestCount, int endCount,
+                         Double bestStrength, Double averagePathLength, int pathCount) {
+}
@@ -0,0 +1,185 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+
+/**
+ * Computes {@link StnMetrics} with the same definitions as metrics-alg.R:
+ * <ul>
+ *     <li>components are the weak components ({@code igraph::components}), found with union-find;</li>
+ *     <li>best strength is the summed in-strength of the best nodes divided by the number of runs;</li>
+ *     <li>path lengths are the directed hop distances from every start node to every best node,
+ *     found with one bit-parallel BFS per 64 start nodes; unreachable pairs are left out.</li>
+ * </ul>
+ */
+public final class StnMetricsCalculator {
+
+    private StnMetricsCalculator() {
+    }
+
+    /**
+     * @param runs number of runs the STN was built from
+     */
+    public static StnMetrics compute(StnGraph graph, int runs) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+
+        int bestCount = 0;
+        int endCount = 0;
+        int startCount = 0;
+        boolean[] isBest = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            switch (graph.type(v)) {
+                case BEST -> {
+                    isBest[v] = true;
+                    bestCount++;
+                }
+                case END -> endCount++;
+                case START -> startCount++;
+                default -> {
+                }
+            }
+        }
+
+        Double bestStrength = null;
+        if (bestCount > 0 && runs > 0) {
+            long strength = 0;
+            for (int e = 0; e < m; e++) {
+                if (isBest[graph.edgeTarget(e)]) {
+                    strength += graph.edgeWeight(e);
+                }
+            }
+            bestStrength = round((double) strength / runs);
+        }
+
+        Double averagePathLength = null;
+        int pathCount = 0;
+        if (bestCount > 0 && startCount > 0) {
+            int[] starts = new int[startCount];
+            for (int v = 0, i = 0; v < n; v++) {
+                if (graph.type(v) == StnNodeType.START) {
+                    starts[i++] = v;
+                }
+            }
+            long[] totals = shortestPaths(graph, starts, isBest);
+            pathCount = (int) totals[1];
+            if (pathCount > 0) {
+                averagePathLength = round((double) totals[0] / pathCount);
+            }
+        }
+
+        return new StnMetrics(n, m, components(graph), bestCount, endCount, bestStrength,
+                averagePathLength, pathCount);
+    }
+
+    static int components(StnGraph graph) {
+        int n = graph.nodeCount();
+        int[] parent = new int[n];
+        int[] size = new int[n];
+        for (int v = 0; v < n; v++) {
+            parent[v] = v;
+            size[v] = 1;
+        }
+        int components = n;
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            int a = find(parent, graph.edgeSource(e));
+            int b = find(parent, graph.edgeTarget(e));
+            if (a == b) {
+                continue;
+            }
+            if (size[a] < size[b]) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+            parent[b] = a;
+            size[a] += size[b];
+            components--;
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int v) {
+        while (parent[v] != v) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    /**
+     * Multi-source BFS along out-edges: bit {@code i} of a node's mask marks that the
+     * {@code i}-th start of the current batch has reached it, so one sweep over the
+     * edges advances up to 64 searches at once.
+     *
+     * @return {summed length of the shortest start-to-best paths, number of such paths}
+     */
+    private static long[] shortestPaths(StnGraph graph, int[] starts, boolean[] isBest) {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        // Out-adjacency; edges are already sorted by source
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[graph.edgeSource(e) + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[m];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int e = 0; e < m; e++) {
+            targets[cursor[graph.edgeSource(e)]++] = graph.edgeTarget(e);
+        }
+
+        // A node has a single type, so no start is itself a best node at distance 0
+        long[] seen = new long[n];
+        long[] visit = new long[n];
+        long[] next = new long[n];
+        long lengthSum = 0;
+        long pathCount = 0;
+        for (int batch = 0; batch < starts.length; batch += Long.SIZE) {
+            Arrays.fill(seen, 0L);
+            Arrays.fill(visit, 0L);
+            int batchSize = Math.min(Long.SIZE, starts.length - batch);
+            for (int i = 0; i < batchSize; i++) {
+                int s = starts[batch + i];
+                seen[s] |= 1L << i;
+                visit[s] |= 1L << i;
+            }
+            boolean active = true;
+            for (int level = 1; active; level++) {
+                for (int v = 0; v < n; v++) {
+                    long mask = visit[v];
+                    if (mask != 0) {
+                        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                            next[targets[i]] |= mask;
+                        }
+                    }
+                }
+                active = false;
+                for (int v = 0; v < n; v++) {
+                    long reached = next[v] & ~seen[v];
+                    next[v] = 0L;
+                    visit[v] = reached;
+                    if (reached != 0) {
+                        active = true;
+                        seen[v] |= reached;
+                        if (isBest[v]) {
+                            int paths = Long.bitCount(reached);
+                            pathCount += paths;
+                            lengthSum += (long) level * paths;
+                        }
+                    }
+                }
+            }
+        }
+        return new long[]{lengthSum, pathCount};
+    }
+
+    /**
+     * R's {@code round(x, 4)}
+     */
+    private static double round(double value) {
+        return Math.rint(value * 10_000) / 10_000;
+    }
+}
@@ -0,0 +1,15 @@
+package com.tfg.backend.stn;
+
+/**
+ * Node types assigned by create.R. Later constants win when a node qualifies for several.
+ */
+public enum StnNodeType {
+    MEDIUM,
+    END,
+    START,
+    BEST;
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,100 @@
+package com.tfg.backend.stn;
+
+import java.util.Arrays;
+
+/**
+ * Columnar copy of a partitioned trace ({@code Run,Fitness1,Solution1,Fitness2,Solution2}):
+ * one transition per row, with solutions interned in a {@link SolutionIndex}.
+ */
+public final class StnTransitions {
+
+    private final SolutionIndex solutions;
+    private int[] run;
+    private double[] fitness1;
+    private int[] solution1;
+    private double[] fitness2;
+    private int[] solution2;
+    private int size;
+
+    public StnTransitions() {
+        this(new SolutionIndex(), 1024);
+    }
+
+    public StnTransitions(SolutionIndex solutions, int expectedRows) {
+        this.solutions = solutions;
+        int capacity = Math.max(16, expectedRows);
+        run = new int[capacity];
+        fitness1 = new double[capacity];
+        solution1 = new int[capacity];
+        fitness2 = new double[capacity];
+        solution2 = new int[capacity];
+    }
+
+    public void add(int runNumber, double fit1, int sol1, double fit2, int sol2) {
+        if (size == run.length) {
+            int capacity = size << 1;
+            run = Arrays.copyOf(run, capacity);
+            fitness1 = Arrays.copyOf(fitness1, capacity);
+            solution1 = Arrays.copyOf(solution1, capacity);
+            fitness2 = Arrays.copyOf(fitness2, capacity);
+            solution2 = Arrays.copyOf(solution2, capacity);
+        }
+        run[size] = runNumber;
+        fitness1[size] = fit1;
+        solution1[size] = sol1;
+        fitness2[size] = fit2;
+        solution2[size] = sol2;
+        size++;
+    }
+
+    public void add(int runNumber, double fit1, String sol1, double fit2, String sol2) {
+        add(runNumber, fit1, solutions.intern(sol1), fit2, solutions.intern(sol2));
+    }
+
+    public SolutionIndex solutions() {
+        return solutions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int run(int row) {
+        return run[row];
+    }
+
+    public double fitness1(int row) {
+        return fitness1[row];
+    }
+
+    public int solution1(int row) {
+        return solution1[row];
+    }
+
+    public double fitness2(int row) {
+        return fitness2[row];
+    }
+
+    public int solution2(int row) {
+        return solution2[row];
+    }
+
+    public int maxRun() {
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, run[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Best Fitness2 over all rows: the minimum when minimizing, the maximum otherwise
+     */
+    public double bestFitness(boolean minimization) {
+        double best = minimization ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            best = minimization ? Math.min(best, fitness2[i]) : Math.max(best, fitness2[i]);
+        }
+        return best;
+    }
+}
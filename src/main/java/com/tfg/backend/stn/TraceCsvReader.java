@@ -0,0 +1,81 @@
+package com.tfg.backend.stn;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads a partitioned trace ({@code Run,Fitness1,Solution1,Fitness2,Solution2}
+ * with a header line) the way create.R's read.table does: comma separated for
+ * {@code .csv} files, whitespace separated otherwise.
+ */
+public final class TraceCsvReader {
+
+    private TraceCsvReader() {
+    }
+
+    public static StnTransitions read(Path file) throws IOException {
+        boolean csv = file.getFileName().toString().endsWith(".csv");
+        long bytes = Files.size(file);
+        StnTransitions transitions = new StnTransitions(new SolutionIndex((int) Math.min(bytes / 64, 1 << 20)),
+                (int) Math.min(bytes / 32, 1 << 24));
+        String[] fields = new String[5];
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line = reader.readLine(); // header
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (split(line, csv, fields) != 5) {
+                    throw new IOException(file + ":" + lineNumber + ": expected 5 fields");
+                }
+                try {
+                    transitions.add(Integer.parseInt(fields[0].trim()),
+                            Double.parseDouble(fields[1].trim()), unquote(fields[2]),
+                            Double.parseDouble(fields[3].trim()), unquote(fields[4]));
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return transitions;
+    }
+
+    private static int split(String line, boolean csv, String[] fields) {
+        int count = 0;
+        int length = line.length();
+        int i = 0;
+        while (i <= length && count < fields.length) {
+            if (!csv) {
+                while (i < length && Character.isWhitespace(line.charAt(i))) {
+                    i++;
+                }
+                if (i == length) {
+                    break;
+                }
+            }
+            int end = i;
+            while (end < length && (csv ? line.charAt(end) != ',' : !Character.isWhitespace(line.charAt(end)))) {
+                end++;
+            }
+            fields[count++] = line.substring(i, end);
+            i = end + 1;
+        }
+        return count;
+    }
+
+    private static String unquote(String value) {
+        int length = value.length();
+        if (length >= 2) {
+            char first = value.charAt(0);
+            if ((first == '"' || first == '\'') && value.charAt(length - 1) == first) {
+                return value.substring(1, length - 1);
+            }
+        }
+        return value;
+    }
+}
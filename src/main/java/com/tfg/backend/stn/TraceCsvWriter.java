@@ -0,0 +1,45 @@
+package com.tfg.backend.stn;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes transitions back as a partitioned trace ({@code Run,Fitness1,Solution1,Fitness2,Solution2}),
+ * the format the R scripts and {@link TraceCsvReader} read. Integral fitness values are
+ * written without a decimal part, like the Python partitioners do.
+ */
+public final class TraceCsvWriter {
+
+    public static final String HEADER = "Run,Fitness1,Solution1,Fitness2,Solution2";
+
+    private TraceCsvWriter() {
+    }
+
+    public static void write(StnTransitions transitions, Path file) throws IOException {
+        SolutionIndex solutions = transitions.solutions();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            StringBuilder line = new StringBuilder(160);
+            for (int row = 0; row < transitions.size(); row++) {
+                line.setLength(0);
+                line.append(transitions.run(row)).append(',');
+                appendFitness(line, transitions.fitness1(row)).append(',');
+                line.append(solutions.label(transitions.solution1(row))).append(',');
+                appendFitness(line, transitions.fitness2(row)).append(',');
+                line.append(solutions.label(transitions.solution2(row))).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+
+    private static StringBuilder appendFitness(StringBuilder line, double fitness) {
+        if (fitness == Math.rint(fitness) && Math.abs(fitness) < 1e15) {
+            return line.append((long) fitness);
+        }
+        return line.append(fitness);
+    }
+}
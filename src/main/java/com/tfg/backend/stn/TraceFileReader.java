@@ -0,0 +1,257 @@
+package com.tfg.backend.stn;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads an uploaded (not yet partitioned) trace straight from a memory-mapped file into
+ * {@link StnTransitions}, without a {@code String} per line: fields are parsed from the
+ * mapped bytes and a solution is only decoded the first time it is seen.
+ * <p>
+ * Like {@code change_old_format} in stn_core.py, commas and runs of whitespace both separate
+ * fields. Lines with five fields are {@code Run,Fitness1,Solution1,Fitness2,Solution2}
+ * transitions; lines with three ({@code Run Fitness Solution}, the old format) are paired
+ * with the next line of the same run. Lines whose run or fitness is not a number (headers)
+ * are skipped.
+ * <p>
+ * The file is mapped a window at a time, so the heap only grows with the parsed columns.
+ */
+public final class TraceFileReader {
+
+    private static final long WINDOW = 1L << 28; // 256 MB
+    private static final int MAX_FIELDS = 5;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final StnTransitions transitions;
+    private final int[] fieldStart = new int[MAX_FIELDS + 1];
+    private final int[] fieldEnd = new int[MAX_FIELDS + 1];
+    private byte[] scratch = new byte[256];
+
+    // Previous line of the old format, waiting for its successor
+    private boolean pending;
+    private int pendingRun;
+    private double pendingFitness;
+    private int pendingSolution;
+
+    private TraceFileReader(StnTransitions transitions) {
+        this.transitions = transitions;
+    }
+
+    public static StnTransitions read(Path file) throws IOException {
+        return read(file, new SolutionIndex());
+    }
+
+    /**
+     * @param solutions index the solutions are interned into, possibly shared with other traces
+     */
+    public static StnTransitions read(Path file, SolutionIndex solutions) throws IOException {
+        return read(file, solutions, WINDOW);
+    }
+
+    static StnTransitions read(Path file, SolutionIndex solutions, long window) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            TraceFileReader reader = new TraceFileReader(
+                    new StnTransitions(solutions, (int) Math.min(size / 32, 1 << 24)));
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(window, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int consumed = reader.parseWindow(buffer, (int) length, last);
+                if (consumed == 0) {
+                    throw new IOException(file + ": line longer than " + window + " bytes at offset " + position);
+                }
+                position += consumed;
+            }
+            return reader.transitions;
+        }
+    }
+
+    /**
+     * Parses the complete lines of a window
+     *
+     * @return the number of bytes consumed (up to the start of a line cut by the window end)
+     */
+    private int parseWindow(MappedByteBuffer buffer, int length, boolean last) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (last && lineStart < length) {
+            parseLine(buffer, lineStart, length);
+            return length;
+        }
+        return lineStart;
+    }
+
+    private void parseLine(MappedByteBuffer buffer, int start, int end) {
+        int fields = 0;
+        int i = start;
+        while (i < end) {
+            while (i < end && isSeparator(buffer.get(i))) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            if (fields == MAX_FIELDS) {
+                return; // too many fields
+            }
+            fieldStart[fields] = i;
+            while (i < end && !isSeparator(buffer.get(i))) {
+                i++;
+            }
+            fieldEnd[fields++] = i;
+        }
+        if (fields != 3 && fields != 5) {
+            return;
+        }
+
+        int run;
+        double fitness1;
+        double fitness2 = 0;
+        try {
+            run = Math.toIntExact(parseLong(buffer, fieldStart[0], fieldEnd[0]));
+            fitness1 = parseDouble(buffer, fieldStart[1], fieldEnd[1]);
+            if (fields == 5) {
+                fitness2 = parseDouble(buffer, fieldStart[3], fieldEnd[3]);
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            return;
+        }
+
+        int solution1 = intern(buffer, fieldStart[2], fieldEnd[2]);
+        if (fields == 5) {
+            transitions.add(run, fitness1, solution1, fitness2, intern(buffer, fieldStart[4], fieldEnd[4]));
+            return;
+        }
+        if (pending && pendingRun == run) {
+            transitions.add(run, pendingFitness, pendingSolution, fitness1, solution1);
+        }
+        pending = true;
+        pendingRun = run;
+        pendingFitness = fitness1;
+        pendingSolution = solution1;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ',' || b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+    }
+
+    private int intern(MappedByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length << 1)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return transitions.solutions().intern(scratch, 0, length);
+    }
+
+    static long parseLong(MappedByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 18) {
+            throw new NumberFormatException();
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Exact for decimals whose digits fit in 2^53 and whose exponent is within 10^±22 (one
+     * correctly rounded multiplication or division); anything else goes through
+     * {@link Double#parseDouble}
+     */
+    static double parseDouble(MappedByteBuffer buffer, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fast = true;
+        for (; i < end && isDigit(buffer.get(i)); i++) {
+            if (mantissa < (1L << 53) / 10) {
+                mantissa = mantissa * 10 + (buffer.get(i) - '0');
+            } else {
+                fast = false;
+            }
+            digits++;
+        }
+        if (i < end && buffer.get(i) == '.') {
+            i++;
+            for (; i < end && isDigit(buffer.get(i)); i++) {
+                if (mantissa < (1L << 53) / 10) {
+                    mantissa = mantissa * 10 + (buffer.get(i) - '0');
+                    exponent--;
+                } else {
+                    fast = false;
+                }
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return parseSlow(buffer, start, end);
+        }
+        if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int value = 0;
+            int exponentDigits = 0;
+            for (; i < end && isDigit(buffer.get(i)); i++, exponentDigits++) {
+                value = Math.min(value * 10 + (buffer.get(i) - '0'), 100_000);
+            }
+            if (exponentDigits == 0) {
+                throw new NumberFormatException();
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i != end) {
+            throw new NumberFormatException();
+        }
+        if (!fast || exponent < -22 || exponent > 22) {
+            return parseSlow(buffer, start, end);
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static double parseSlow(MappedByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+}
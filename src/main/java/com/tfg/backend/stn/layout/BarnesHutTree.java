@@ -0,0 +1,354 @@
+package com.tfg.backend.stn.layout;
+
+import java.util.Arrays;
+
+/**
+ * Quadtree (2-d) or octree (3-d) over the node positions for Barnes-Hut repulsion. Cells live
+ * in parallel arrays and the children of a cell are allocated next to each other, so a build
+ * allocates nothing once the arrays have grown to fit; the tree is rebuilt every iteration.
+ * Node positions are copied in tree order, so the nodes of any cell are contiguous.
+ * <p>
+ * {@link #build} is single-threaded; {@link #repulsion} only reads the tree and may run from
+ * many threads at once.
+ */
+final class BarnesHutTree {
+
+    /**
+     * Cells with at most this many nodes are not split
+     */
+    static final int LEAF_SIZE = 16;
+    /**
+     * Coincident nodes end up in one leaf at this depth instead of splitting forever
+     */
+    static final int MAX_DEPTH = 48;
+
+    /**
+     * Coincident nodes are pushed apart along a pseudo-random direction of this length,
+     * like the jitter igraph applies in the same case
+     */
+    private static final double JITTER = 1e-9;
+
+    private final int dimensions;
+    private final int octants;
+    private final int[] order;
+    private final int[] octantOf;
+    private final int[] scratch;
+    private final int[][] counts;
+    private final int[] leaves;
+    private final double[] sorted;
+    private final double[] sortedScratch;
+    private final double[] leafCenter;
+    private final double[] leafHalf;
+    private int leafCount;
+    private boolean built;
+
+    private int cells;
+    private int[] start;
+    private int[] end;
+    private int[] firstChild;
+    private int[] childCount;
+    private double[] half;
+    private double[] center;
+    private double[] centreOfMass;
+    private double[] mass;
+
+    BarnesHutTree(int dimensions, int nodeCount) {
+        this.dimensions = dimensions;
+        this.octants = 1 << dimensions;
+        this.order = new int[nodeCount];
+        this.octantOf = new int[nodeCount];
+        this.scratch = new int[nodeCount];
+        this.counts = new int[MAX_DEPTH + 1][octants + 1];
+        this.leaves = new int[nodeCount];
+        this.sorted = new double[nodeCount * dimensions];
+        this.sortedScratch = new double[nodeCount * dimensions];
+        this.leafCenter = new double[nodeCount * dimensions];
+        this.leafHalf = new double[nodeCount * dimensions];
+        int capacity = Math.max(16, nodeCount);
+        start = new int[capacity];
+        end = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        half = new double[capacity];
+        center = new double[capacity * dimensions];
+        centreOfMass = new double[capacity * dimensions];
+        mass = new double[capacity];
+    }
+
+    /**
+     * Stack size {@link #repulsion} needs
+     */
+    int stackSize() {
+        return (MAX_DEPTH + 1) * octants;
+    }
+
+    /**
+     * Rebuilds the tree over new positions. Nodes are sorted starting from the previous
+     * build's order, which barely changes between iterations and keeps the sort cache-friendly.
+     */
+    void build(double[] coordinates) {
+        int n = order.length;
+        cells = 0;
+        leafCount = 0;
+        if (n == 0) {
+            return;
+        }
+        double[] mid = new double[dimensions];
+        double extent = 0.0;
+        for (int k = 0; k < dimensions; k++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int v = 0; v < n; v++) {
+                double c = coordinates[v * dimensions + k];
+                min = Math.min(min, c);
+                max = Math.max(max, c);
+            }
+            mid[k] = (min + max) / 2;
+            extent = Math.max(extent, (max - min) / 2);
+        }
+        if (!built) {
+            for (int v = 0; v < n; v++) {
+                order[v] = v;
+            }
+            built = true;
+        }
+        int root = newCell(0, n, extent);
+        System.arraycopy(mid, 0, center, 0, dimensions);
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < dimensions; k++) {
+                sorted[i * dimensions + k] = coordinates[order[i] * dimensions + k];
+            }
+        }
+        split(root, 0);
+    }
+
+    int leafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Sets the repulsion every other node exerts on each node of the {@code index}-th leaf,
+     * {@code 1/d} along the line between them, in {@code forces} (indexed like the positions).
+     * A cell narrower than {@code theta} times its distance to the leaf acts on the leaf's
+     * nodes as a single node of its mass at its centre of mass. The tree is walked once per
+     * leaf rather than once per node, and leaves own disjoint nodes, so leaves may be
+     * processed concurrently.
+     */
+    void repulsion(int index, double thetaSquared, double[] forces, int[] stack) {
+        int d = dimensions;
+        int leaf = leaves[index];
+        int from = start[leaf];
+        int to = end[leaf];
+        for (int i = from; i < to; i++) {
+            for (int k = 0; k < d; k++) {
+                forces[order[i] * d + k] = 0.0;
+            }
+        }
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int cell = stack[--top];
+            boolean ancestor = start[cell] <= from && to <= end[cell];
+            if (!ancestor && isFar(cell, index, thetaSquared)) {
+                approximate(cell, from, to, forces);
+            } else if (firstChild[cell] >= 0) {
+                for (int c = firstChild[cell], last = c + childCount[cell]; c < last; c++) {
+                    stack[top++] = c;
+                }
+            } else {
+                exact(cell, from, to, forces);
+            }
+        }
+    }
+
+    /**
+     * Whether the cell is narrower than theta times the distance from its centre of mass to
+     * the nearest point of the leaf's box
+     */
+    private boolean isFar(int cell, int index, double thetaSquared) {
+        int d = dimensions;
+        double gapSquared = 0.0;
+        for (int k = 0; k < d; k++) {
+            double gap = Math.abs(centreOfMass[cell * d + k] - leafCenter[index * d + k]) - leafHalf[index * d + k];
+            if (gap > 0) {
+                gapSquared += gap * gap;
+            }
+        }
+        double side = 2 * half[cell];
+        return side * side < thetaSquared * gapSquared;
+    }
+
+    private void approximate(int cell, int from, int to, double[] forces) {
+        int d = dimensions;
+        double cx = centreOfMass[cell * d];
+        double cy = centreOfMass[cell * d + 1];
+        double cz = d > 2 ? centreOfMass[cell * d + 2] : 0.0;
+        double m = mass[cell];
+        for (int i = from; i < to; i++) {
+            double dx = sorted[i * d] - cx;
+            double dy = sorted[i * d + 1] - cy;
+            double dz = d > 2 ? sorted[i * d + 2] - cz : 0.0;
+            double scale = m / (dx * dx + dy * dy + dz * dz);
+            int v = order[i] * d;
+            forces[v] += dx * scale;
+            forces[v + 1] += dy * scale;
+            if (d > 2) {
+                forces[v + 2] += dz * scale;
+            }
+        }
+    }
+
+    private void exact(int cell, int from, int to, double[] forces) {
+        int d = dimensions;
+        for (int i = from; i < to; i++) {
+            double px = sorted[i * d];
+            double py = sorted[i * d + 1];
+            double pz = d > 2 ? sorted[i * d + 2] : 0.0;
+            double fx = 0.0;
+            double fy = 0.0;
+            double fz = 0.0;
+            for (int j = start[cell]; j < end[cell]; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = px - sorted[j * d];
+                double dy = py - sorted[j * d + 1];
+                double dz = d > 2 ? pz - sorted[j * d + 2] : 0.0;
+                double distSquared = dx * dx + dy * dy + dz * dz;
+                if (distSquared == 0.0) {
+                    int v = order[i];
+                    int u = order[j];
+                    long h = mix(Math.min(u, v) * 0x9E3779B97F4A7C15L + Math.max(u, v));
+                    double sign = v < u ? JITTER : -JITTER;
+                    dx = (h & 1) == 0 ? sign : -sign;
+                    dy = (h & 2) == 0 ? sign : -sign;
+                    dz = d > 2 ? ((h & 4) == 0 ? sign : -sign) : 0.0;
+                    distSquared = dx * dx + dy * dy + dz * dz;
+                }
+                fx += dx / distSquared;
+                fy += dy / distSquared;
+                fz += dz / distSquared;
+            }
+            int v = order[i] * d;
+            forces[v] += fx;
+            forces[v + 1] += fy;
+            if (d > 2) {
+                forces[v + 2] += fz;
+            }
+        }
+    }
+
+    private void split(int cell, int depth) {
+        int d = dimensions;
+        int from = start[cell];
+        int to = end[cell];
+        if (to - from <= LEAF_SIZE || depth >= MAX_DEPTH || half[cell] == 0.0) {
+            firstChild[cell] = -1;
+            childCount[cell] = 0;
+            int index = leafCount++;
+            leaves[index] = cell;
+            for (int k = 0; k < d; k++) {
+                double sum = 0.0;
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = from; i < to; i++) {
+                    double c = sorted[i * d + k];
+                    sum += c;
+                    min = Math.min(min, c);
+                    max = Math.max(max, c);
+                }
+                centreOfMass[cell * d + k] = sum / (to - from);
+                leafCenter[index * d + k] = (min + max) / 2;
+                leafHalf[index * d + k] = (max - min) / 2;
+            }
+            mass[cell] = to - from;
+            return;
+        }
+
+        // Counting sort of the cell's nodes by octant, bit k set when above the centre on axis k
+        int[] offsets = counts[depth];
+        Arrays.fill(offsets, 0);
+        for (int i = from; i < to; i++) {
+            int octant = 0;
+            for (int k = 0; k < d; k++) {
+                if (sorted[i * d + k] >= center[cell * d + k]) {
+                    octant |= 1 << k;
+                }
+            }
+            octantOf[i] = octant;
+            offsets[octant + 1]++;
+        }
+        for (int o = 0; o < octants; o++) {
+            offsets[o + 1] += offsets[o];
+        }
+        for (int i = from; i < to; i++) {
+            int target = from + offsets[octantOf[i]]++;
+            scratch[target] = order[i];
+            for (int k = 0; k < d; k++) {
+                sortedScratch[target * d + k] = sorted[i * d + k];
+            }
+        }
+        System.arraycopy(scratch, from, order, from, to - from);
+        System.arraycopy(sortedScratch, from * d, sorted, from * d, (to - from) * d);
+
+        // offsets[o] now holds the end of octant o; children only for non-empty octants
+        double childHalf = half[cell] / 2;
+        int first = cells;
+        int previous = 0;
+        for (int o = 0; o < octants; o++) {
+            if (offsets[o] == previous) {
+                continue;
+            }
+            int child = newCell(from + previous, from + offsets[o], childHalf);
+            for (int k = 0; k < d; k++) {
+                double c = center[cell * d + k];
+                center[child * d + k] = (o & (1 << k)) != 0 ? c + childHalf : c - childHalf;
+            }
+            previous = offsets[o];
+        }
+        int children = cells - first;
+        firstChild[cell] = first;
+        childCount[cell] = children;
+
+        for (int child = first; child < first + children; child++) {
+            split(child, depth + 1);
+        }
+        double total = to - from;
+        for (int k = 0; k < d; k++) {
+            double sum = 0.0;
+            for (int child = first; child < first + children; child++) {
+                sum += mass[child] * centreOfMass[child * d + k];
+            }
+            centreOfMass[cell * d + k] = sum / total;
+        }
+        mass[cell] = total;
+    }
+
+    private int newCell(int from, int to, double halfSide) {
+        if (cells == start.length) {
+            int capacity = cells << 1;
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            firstChild = Arrays.copyOf(firstChild, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            half = Arrays.copyOf(half, capacity);
+            center = Arrays.copyOf(center, capacity * dimensions);
+            centreOfMass = Arrays.copyOf(centreOfMass, capacity * dimensions);
+            mass = Arrays.copyOf(mass, capacity);
+        }
+        int cell = cells++;
+        start[cell] = from;
+        end[cell] = to;
+        half[cell] = halfSide;
+        return cell;
+    }
+
+    /**
+     * SplitMix64 finaliser
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,105 @@
+package com.tfg.backend.stn.layout;
+
+import com.tfg.backend.stn.MergedStnGraph;
+import com.tfg.backend.stn.StnGraph;
+
+/**
+ * Undirected weighted graph in compressed sparse row form, the input of the layout engines.
+ * Every edge is stored once per endpoint, so the neighbours of {@code v} are
+ * {@code neighbour(offset(v)) .. neighbour(offset(v + 1) - 1)}. Self-loops are dropped since
+ * they exert no force; parallel edges are kept, as igraph keeps them.
+ */
+public final class CsrGraph {
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final double[] weights;
+
+    private CsrGraph(int[] offsets, int[] neighbours, double[] weights) {
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+        this.weights = weights;
+    }
+
+    /**
+     * @param weight edge weights, or null for all 1
+     */
+    public static CsrGraph of(int nodeCount, int[] source, int[] target, double[] weight) {
+        int[] offsets = new int[nodeCount + 1];
+        for (int e = 0; e < source.length; e++) {
+            if (source[e] != target[e]) {
+                offsets[source[e] + 1]++;
+                offsets[target[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < nodeCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = new int[nodeCount];
+        System.arraycopy(offsets, 0, cursor, 0, nodeCount);
+        int[] neighbours = new int[offsets[nodeCount]];
+        double[] weights = new double[offsets[nodeCount]];
+        for (int e = 0; e < source.length; e++) {
+            int s = source[e];
+            int t = target[e];
+            if (s == t) {
+                continue;
+            }
+            double w = weight != null ? weight[e] : 1.0;
+            neighbours[cursor[s]] = t;
+            weights[cursor[s]++] = w;
+            neighbours[cursor[t]] = s;
+            weights[cursor[t]++] = w;
+        }
+        return new CsrGraph(offsets, neighbours, weights);
+    }
+
+    /**
+     * The STN with its transition counts as edge weights, like the {@code weight} attribute
+     * igraph picks up in plot-alg.R and plot-merged.R
+     */
+    public static CsrGraph of(StnGraph graph) {
+        int m = graph.edgeCount();
+        int[] source = new int[m];
+        int[] target = new int[m];
+        double[] weight = new double[m];
+        for (int e = 0; e < m; e++) {
+            source[e] = graph.edgeSource(e);
+            target[e] = graph.edgeTarget(e);
+            weight[e] = graph.edgeWeight(e);
+        }
+        return of(graph.nodeCount(), source, target, weight);
+    }
+
+    /**
+     * The merged STN with its summed transition counts as edge weights, as merge.R leaves them
+     */
+    public static CsrGraph of(MergedStnGraph graph) {
+        int m = graph.edgeCount();
+        int[] source = new int[m];
+        int[] target = new int[m];
+        double[] weight = new double[m];
+        for (int e = 0; e < m; e++) {
+            source[e] = graph.edgeSource(e);
+            target[e] = graph.edgeTarget(e);
+            weight[e] = graph.edgeWeight(e);
+        }
+        return of(graph.nodeCount(), source, target, weight);
+    }
+
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    public int offset(int node) {
+        return offsets[node];
+    }
+
+    public int neighbour(int index) {
+        return neighbours[index];
+    }
+
+    public double weight(int index) {
+        return weights[index];
+    }
+}
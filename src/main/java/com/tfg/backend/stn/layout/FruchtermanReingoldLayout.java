@@ -0,0 +1,144 @@
+package com.tfg.backend.stn.layout;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Fruchterman-Reingold force-directed layout with the force model of igraph's
+ * {@code layout_with_fr}, which produces the {@code x_fr/y_fr} columns of plot-alg.R and
+ * plot-merged.R: nodes repel with {@code 1/d}, edges attract with {@code d^2} times their
+ * weight, and every move is capped by a temperature that starts at {@code sqrt(n)} and cools
+ * linearly to 0.
+ * <p>
+ * Repulsion is approximated with a {@link BarnesHutTree}, so an iteration costs
+ * {@code O(n log n + m)} instead of igraph's {@code O(n^2)}, and forces are accumulated for
+ * all nodes in parallel. Each node's displacement depends only on the previous positions, so
+ * the result is a function of the seed alone, whatever the parallelism.
+ */
+public final class FruchtermanReingoldLayout {
+
+    /**
+     * igraph's default {@code niter}
+     */
+    public static final int DEFAULT_ITERATIONS = 500;
+    /**
+     * Opening angle: cells narrower than this fraction of their distance are approximated
+     */
+    public static final double DEFAULT_THETA = 0.7;
+
+    private static final int CHUNK = 256;
+
+    private final ForkJoinPool pool;
+
+    public FruchtermanReingoldLayout(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public GraphLayout layout(CsrGraph graph, int dimensions, long seed) {
+        return layout(graph, dimensions, DEFAULT_ITERATIONS, DEFAULT_THETA, seed);
+    }
+
+    /**
+     * @param dimensions 2 for a planar layout, 3 for a spatial one
+     * @param theta      Barnes-Hut opening angle, 0 for exact repulsion
+     * @param seed       seed of the initial random placement
+     */
+    public GraphLayout layout(CsrGraph graph, int dimensions, int iterations, double theta, long seed) {
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException("Layouts have 2 or 3 dimensions, not " + dimensions);
+        }
+        if (iterations < 0 || theta < 0) {
+            throw new IllegalArgumentException("Iterations and theta must not be negative");
+        }
+        int n = graph.nodeCount();
+        double[] current = initialPositions(n, dimensions, seed);
+        if (n < 2) {
+            return new GraphLayout(current, dimensions);
+        }
+        double[] next = new double[current.length];
+        double[] forces = new double[current.length];
+        BarnesHutTree tree = new BarnesHutTree(dimensions, n);
+        double thetaSquared = theta * theta;
+        double startTemperature = Math.sqrt(n);
+        int chunks = (n + CHUNK - 1) / CHUNK;
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double temperature = startTemperature - iteration * startTemperature / iterations;
+            tree.build(current);
+            double[] from = current;
+            double[] to = next;
+            run(() -> IntStream.range(0, tree.leafCount()).parallel().forEach(leaf -> {
+                int[] stack = new int[tree.stackSize()];
+                tree.repulsion(leaf, thetaSquared, forces, stack);
+            }));
+            run(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                for (int v = chunk * CHUNK, last = Math.min(n, v + CHUNK); v < last; v++) {
+                    move(graph, from, to, forces, v, dimensions, temperature);
+                }
+            }));
+            next = current;
+            current = to;
+        }
+        return new GraphLayout(current, dimensions);
+    }
+
+    /**
+     * Uniform in a cube of side {@code sqrt(n)} centred on the origin, as igraph seeds it
+     */
+    private static double[] initialPositions(int n, int dimensions, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double width = Math.sqrt(n);
+        double[] positions = new double[n * dimensions];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = (random.nextDouble() - 0.5) * width;
+        }
+        return positions;
+    }
+
+    /**
+     * Adds the attraction of the node's edges to its repulsion and moves it by at most the
+     * temperature
+     */
+    private static void move(CsrGraph graph, double[] from, double[] to, double[] forces, int v,
+                             int dimensions, double temperature) {
+        int base = v * dimensions;
+        for (int i = graph.offset(v), last = graph.offset(v + 1); i < last; i++) {
+            int other = graph.neighbour(i) * dimensions;
+            double distSquared = 0.0;
+            for (int k = 0; k < dimensions; k++) {
+                double delta = from[base + k] - from[other + k];
+                distSquared += delta * delta;
+            }
+            double pull = Math.sqrt(distSquared) * graph.weight(i);
+            for (int k = 0; k < dimensions; k++) {
+                forces[base + k] -= (from[base + k] - from[other + k]) * pull;
+            }
+        }
+
+        double lengthSquared = 0.0;
+        for (int k = 0; k < dimensions; k++) {
+            lengthSquared += forces[base + k] * forces[base + k];
+        }
+        double length = Math.sqrt(lengthSquared);
+        double scale = length > temperature ? temperature / length : 1.0;
+        for (int k = 0; k < dimensions; k++) {
+            to[base + k] = from[base + k] + forces[base + k] * scale;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Layout interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.tfg.backend.stn.layout;
+
+import com.tfg.backend.algorithm.domain.Position3D;
+
+/**
+ * Node coordinates produced by a layout engine, stored interleaved
+ * ({@code x0, y0[, z0], x1, y1[, z1], ...}) in one array shared with the engine.
+ */
+public final class GraphLayout {
+
+    private final double[] coordinates;
+    private final int dimensions;
+
+    GraphLayout(double[] coordinates, int dimensions) {
+        this.coordinates = coordinates;
+        this.dimensions = dimensions;
+    }
+
+    public int nodeCount() {
+        return coordinates.length / dimensions;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public double x(int node) {
+        return coordinates[node * dimensions];
+    }
+
+    public double y(int node) {
+        return coordinates[node * dimensions + 1];
+    }
+
+    /**
+     * @return the third coordinate, or 0 for a planar layout
+     */
+    public double z(int node) {
+        return dimensions > 2 ? coordinates[node * dimensions + 2] : 0.0;
+    }
+
+    /**
+     * Position of a node with its own coordinates
+     */
+    public Position3D position(int node) {
+        return new Position3D(x(node), y(node), z(node));
+    }
+
+    /**
+     * Position of a node of a planar layout lifted to the given height, e.g. its scaled fitness
+     */
+    public Position3D position(int node, double z) {
+        return new Position3D(x(node), y(node), z);
+    }
+}
@@ -0,0 +1,379 @@
+package com.tfg.backend.stn.layout;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Layered (Sugiyama-style) layout of a directed graph, the replacement for the
+ * {@code layout_as_tree} call of plot-alg-tree.R and plot-merged-tree.R:
+ * <ol>
+ *     <li>cycles are broken by dropping the back edges of a depth-first search started
+ *     from the top nodes; edges into top nodes and out of bottom nodes are ignored too;</li>
+ *     <li>every node goes on the layer of the longest path reaching it (linear time), top
+ *     nodes on the first layer and bottom nodes on the last one;</li>
+ *     <li>each layer is reordered by the barycentre of its neighbours on the layers above
+ *     (downward sweeps) or below (upward sweeps), finishing with a downward sweep;</li>
+ *     <li>x coordinates are pulled towards the mean of the neighbours' while keeping the order
+ *     and a unit gap within each layer; y is the layer, the first one on top.</li>
+ * </ol>
+ * Edges spanning several layers take part in the barycentres with the relative position of
+ * their far end, so no dummy nodes are needed. The nodes of a wide layer are processed in
+ * parallel; each one only reads the previous positions of other layers, so the result does
+ * not depend on the parallelism.
+ */
+public final class LayeredLayout {
+
+    /**
+     * Alternating down/up sweeps of both crossing reduction and coordinate assignment
+     */
+    public static final int DEFAULT_SWEEPS = 8;
+
+    private static final int CHUNK = 256;
+
+    private final ForkJoinPool pool;
+
+    public LayeredLayout(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public GraphLayout layout(int nodeCount, int[] source, int[] target, boolean[] top, boolean[] bottom) {
+        return layout(nodeCount, source, target, top, bottom, DEFAULT_SWEEPS);
+    }
+
+    /**
+     * @param top    nodes to put on the first layer, e.g. start nodes
+     * @param bottom nodes to put on the last layer, e.g. best nodes; top wins if both are set
+     */
+    public GraphLayout layout(int nodeCount, int[] source, int[] target, boolean[] top, boolean[] bottom,
+                              int sweeps) {
+        int n = nodeCount;
+        int[] outOffsets = new int[n + 1];
+        for (int e = 0; e < source.length; e++) {
+            if (source[e] != target[e]) {
+                outOffsets[source[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            outOffsets[v + 1] += outOffsets[v];
+        }
+        int[] outTargets = new int[outOffsets[n]];
+        int[] cursor = Arrays.copyOf(outOffsets, n);
+        for (int e = 0; e < source.length; e++) {
+            if (source[e] != target[e]) {
+                outTargets[cursor[source[e]]++] = target[e];
+            }
+        }
+        boolean[] isBottom = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            isBottom[v] = bottom[v] && !top[v];
+        }
+
+        int[] discovery = new int[n];
+        boolean[] kept = breakCycles(outOffsets, outTargets, top, isBottom, discovery);
+        int[] layer = longestPathLayers(outOffsets, outTargets, kept, isBottom);
+        int layerCount = 0;
+        for (int v = 0; v < n; v++) {
+            layerCount = Math.max(layerCount, layer[v] + 1);
+        }
+
+        // Nodes of each layer, first in depth-first discovery order
+        int[] layerOffsets = new int[layerCount + 1];
+        for (int v = 0; v < n; v++) {
+            layerOffsets[layer[v] + 1]++;
+        }
+        for (int l = 0; l < layerCount; l++) {
+            layerOffsets[l + 1] += layerOffsets[l];
+        }
+        int[] byDiscovery = new int[n];
+        for (int v = 0; v < n; v++) {
+            byDiscovery[discovery[v]] = v;
+        }
+        int[] order = new int[n];
+        int[] position = new int[n];
+        int[] fill = Arrays.copyOf(layerOffsets, layerCount);
+        for (int v : byDiscovery) {
+            int slot = fill[layer[v]]++;
+            order[slot] = v;
+            position[v] = slot - layerOffsets[layer[v]];
+        }
+
+        Neighbours up = new Neighbours(n, source, target, layer, true);
+        Neighbours down = new Neighbours(n, source, target, layer, false);
+        reduceCrossings(order, position, layer, layerOffsets, up, down, sweeps);
+        double[] x = assignCoordinates(order, layerOffsets, up, down, sweeps);
+
+        double[] coordinates = new double[n * 2];
+        for (int v = 0; v < n; v++) {
+            coordinates[v * 2] = x[v];
+            coordinates[v * 2 + 1] = layerCount - 1 - layer[v];
+        }
+        return new GraphLayout(coordinates, 2);
+    }
+
+    /**
+     * Iterative depth-first search from the top nodes first, then from any node left
+     *
+     * @param discovery filled with the preorder index of every node
+     * @return for every out-edge slot, whether the edge is kept for layering
+     */
+    private static boolean[] breakCycles(int[] outOffsets, int[] outTargets, boolean[] top, boolean[] isBottom,
+                                         int[] discovery) {
+        int n = outOffsets.length - 1;
+        boolean[] kept = new boolean[outTargets.length];
+        byte[] state = new byte[n]; // 0 unvisited, 1 on the stack, 2 finished
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int discovered = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < n; root++) {
+                if (state[root] != 0 || (pass == 0 && !top[root])) {
+                    continue;
+                }
+                int depth = 0;
+                stack[depth++] = root;
+                state[root] = 1;
+                next[root] = outOffsets[root];
+                discovery[root] = discovered++;
+                while (depth > 0) {
+                    int v = stack[depth - 1];
+                    if (isBottom[v] || next[v] == outOffsets[v + 1]) {
+                        state[v] = 2;
+                        depth--;
+                        continue;
+                    }
+                    int slot = next[v]++;
+                    int u = outTargets[slot];
+                    if (top[u] || state[u] == 1) {
+                        continue;
+                    }
+                    kept[slot] = true;
+                    if (state[u] == 0) {
+                        state[u] = 1;
+                        next[u] = outOffsets[u];
+                        discovery[u] = discovered++;
+                        stack[depth++] = u;
+                    }
+                }
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Kahn's topological order over the kept edges; bottom nodes then move to the last layer
+     */
+    private static int[] longestPathLayers(int[] outOffsets, int[] outTargets, boolean[] kept, boolean[] isBottom) {
+        int n = outOffsets.length - 1;
+        int[] inDegree = new int[n];
+        for (int slot = 0; slot < outTargets.length; slot++) {
+            if (kept[slot]) {
+                inDegree[outTargets[slot]]++;
+            }
+        }
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            if (inDegree[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        int[] layer = new int[n];
+        int last = 0;
+        while (head < tail) {
+            int v = queue[head++];
+            last = Math.max(last, layer[v]);
+            for (int slot = outOffsets[v]; slot < outOffsets[v + 1]; slot++) {
+                if (!kept[slot]) {
+                    continue;
+                }
+                int u = outTargets[slot];
+                layer[u] = Math.max(layer[u], layer[v] + 1);
+                if (--inDegree[u] == 0) {
+                    queue[tail++] = u;
+                }
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            if (isBottom[v]) {
+                layer[v] = last;
+            }
+        }
+        return layer;
+    }
+
+    private void reduceCrossings(int[] order, int[] position, int[] layer, int[] layerOffsets,
+                                 Neighbours up, Neighbours down, int sweeps) {
+        int layerCount = layerOffsets.length - 1;
+        long[] keys = new long[order.length];
+        int[] reordered = new int[order.length];
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            // The last sweep goes down, so every layer ends up ordered by the one above it
+            // and a tree comes out without crossings
+            boolean downward = (sweeps - 1 - sweep) % 2 == 0;
+            Neighbours fixed = downward ? up : down;
+            for (int step = 1; step < layerCount; step++) {
+                int l = downward ? step : layerCount - 1 - step;
+                int start = layerOffsets[l];
+                int width = layerOffsets[l + 1] - start;
+                forEachSlot(start, width, slot -> {
+                    int v = order[slot];
+                    double barycentre = 0.0;
+                    int degree = fixed.degree(v);
+                    if (degree == 0) {
+                        barycentre = (position[v] + 0.5) / width;
+                    } else {
+                        for (int i = fixed.start(v); i < fixed.start(v + 1); i++) {
+                            int u = fixed.node(i);
+                            int uLayer = layer[u];
+                            barycentre += (position[u] + 0.5) / (layerOffsets[uLayer + 1] - layerOffsets[uLayer]);
+                        }
+                        barycentre /= degree;
+                    }
+                    // Positive floats order like their bits; the low half keeps ties in their current order
+                    keys[slot] = ((long) Float.floatToIntBits((float) barycentre) << 32) | (slot - start);
+                });
+                Arrays.sort(keys, start, start + width);
+                for (int i = 0; i < width; i++) {
+                    reordered[start + i] = order[start + (int) keys[start + i]];
+                }
+                for (int i = 0; i < width; i++) {
+                    int v = reordered[start + i];
+                    order[start + i] = v;
+                    position[v] = i;
+                }
+            }
+        }
+    }
+
+    private double[] assignCoordinates(int[] order, int[] layerOffsets, Neighbours up, Neighbours down,
+                                       int sweeps) {
+        int layerCount = layerOffsets.length - 1;
+        double[] x = new double[order.length];
+        for (int l = 0; l < layerCount; l++) {
+            int start = layerOffsets[l];
+            int width = layerOffsets[l + 1] - start;
+            for (int i = 0; i < width; i++) {
+                x[order[start + i]] = i - (width - 1) / 2.0;
+            }
+        }
+        double[] desired = new double[order.length];
+        double[] left = new double[order.length];
+        double[] right = new double[order.length];
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            boolean downward = sweep % 2 == 0;
+            Neighbours fixed = downward ? up : down;
+            for (int step = 0; step < layerCount; step++) {
+                int l = downward ? step : layerCount - 1 - step;
+                int start = layerOffsets[l];
+                int width = layerOffsets[l + 1] - start;
+                forEachSlot(start, width, slot -> {
+                    int v = order[slot];
+                    int degree = fixed.degree(v);
+                    if (degree == 0) {
+                        desired[slot] = x[v];
+                        return;
+                    }
+                    double sum = 0.0;
+                    for (int i = fixed.start(v); i < fixed.start(v + 1); i++) {
+                        sum += x[fixed.node(i)];
+                    }
+                    desired[slot] = sum / degree;
+                });
+                // Closest packing from each side with gaps of at least 1, then their average
+                int end = start + width;
+                for (int slot = start; slot < end; slot++) {
+                    left[slot] = slot == start ? desired[slot] : Math.max(desired[slot], left[slot - 1] + 1);
+                }
+                for (int slot = end - 1; slot >= start; slot--) {
+                    right[slot] = slot == end - 1 ? desired[slot] : Math.min(desired[slot], right[slot + 1] - 1);
+                }
+                for (int slot = start; slot < end; slot++) {
+                    x[order[slot]] = (left[slot] + right[slot]) / 2;
+                }
+            }
+        }
+        return x;
+    }
+
+    private void forEachSlot(int start, int width, SlotTask task) {
+        if (width <= CHUNK) {
+            for (int slot = start; slot < start + width; slot++) {
+                task.run(slot);
+            }
+            return;
+        }
+        int chunks = (width + CHUNK - 1) / CHUNK;
+        try {
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                for (int slot = start + chunk * CHUNK, last = Math.min(start + width, slot + CHUNK);
+                     slot < last; slot++) {
+                    task.run(slot);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Layout interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotTask {
+        void run(int slot);
+    }
+
+    /**
+     * For every node, its neighbours on the layers above or below it, whatever the edge direction
+     */
+    private static final class Neighbours {
+
+        private final int[] offsets;
+        private final int[] nodes;
+
+        Neighbours(int n, int[] source, int[] target, int[] layer, boolean above) {
+            offsets = new int[n + 1];
+            for (int e = 0; e < source.length; e++) {
+                int s = source[e];
+                int t = target[e];
+                if (layer[s] != layer[t]) {
+                    offsets[(layer[s] < layer[t]) == above ? t + 1 : s + 1]++;
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            nodes = new int[offsets[n]];
+            int[] cursor = Arrays.copyOf(offsets, n);
+            for (int e = 0; e < source.length; e++) {
+                int s = source[e];
+                int t = target[e];
+                if (layer[s] != layer[t]) {
+                    if ((layer[s] < layer[t]) == above) {
+                        nodes[cursor[t]++] = s;
+                    } else {
+                        nodes[cursor[s]++] = t;
+                    }
+                }
+            }
+        }
+
+        int start(int node) {
+            return offsets[node];
+        }
+
+        int degree(int node) {
+            return offsets[node + 1] - offsets[node];
+        }
+
+        int node(int index) {
+            return nodes[index];
+        }
+    }
+}
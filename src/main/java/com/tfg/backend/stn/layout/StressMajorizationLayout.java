@@ -0,0 +1,520 @@
+package com.tfg.backend.stn.layout;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Stress-majorization layout standing in for igraph's {@code layout_with_kk}, which produces
+ * the {@code x_kk/y_kk} columns of plot-alg.R and plot-merged.R: both place nodes so that
+ * their Euclidean distances match the graph's shortest-path distances, but Kamada-Kawai needs
+ * all pairs of them.
+ * <p>
+ * This uses the sparse stress model of Ortmann, Klimenta and Brandes: BFS distances are only
+ * computed from {@code k} pivots (in parallel, one BFS per pivot), every node is attracted to
+ * its graph neighbours and to each pivot, and a pivot stands in for the part of its region
+ * that is closer to it than half its distance to the node. With {@code k >= n} every node is
+ * a pivot and this is plain stress majorization over all pairs. The start positions come from
+ * pivot MDS over the same distances, and the localized updates run for all nodes in parallel
+ * on the previous positions until the stress stops improving or the iteration budget runs out.
+ * Unreachable pairs are kept one step further apart than the farthest reachable ones.
+ */
+public final class StressMajorizationLayout {
+
+    public static final int DEFAULT_PIVOTS = 100;
+    public static final int DEFAULT_ITERATIONS = 200;
+    /**
+     * Stop once an iteration changes the stress by less than this fraction. Updates are
+     * simultaneous, so the stress may also rise slightly before it settles.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-4;
+
+    /**
+     * Other neighbours of each neighbour a node is kept two hops from, see {@link #update}
+     */
+    private static final int SIBLINGS = 8;
+    /**
+     * Amplitude, in hops, of the noise added to the pivot MDS positions
+     */
+    private static final double JITTER = 0.01;
+    private static final int POWER_ITERATIONS = 300;
+    private static final int CHUNK = 256;
+
+    private final ForkJoinPool pool;
+
+    public StressMajorizationLayout(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public GraphLayout layout(CsrGraph graph, int dimensions, long seed) {
+        return layout(graph, dimensions, DEFAULT_PIVOTS, DEFAULT_ITERATIONS, DEFAULT_TOLERANCE, seed);
+    }
+
+    /**
+     * @param dimensions 2 for a planar layout, 3 for a spatial one
+     * @param pivots     BFS sources; at least the node count gives the exact stress model
+     * @param seed       seed of the pivot sample and of the start noise
+     */
+    public GraphLayout layout(CsrGraph graph, int dimensions, int pivots, int iterations, double tolerance,
+                              long seed) {
+        if (dimensions != 2 && dimensions != 3) {
+            throw new IllegalArgumentException("Layouts have 2 or 3 dimensions, not " + dimensions);
+        }
+        if (pivots < 1 || iterations < 0) {
+            throw new IllegalArgumentException("At least one pivot and no negative iterations are needed");
+        }
+        int n = graph.nodeCount();
+        if (n < 2) {
+            return new GraphLayout(new double[n * dimensions], dimensions);
+        }
+
+        int[] pivot = choosePivots(graph, Math.min(n, pivots), seed);
+        int[][] distance = call(() -> Arrays.stream(pivot).parallel()
+                .mapToObj(p -> bfs(graph, p))
+                .toArray(int[][]::new));
+        closeUnreachable(distance);
+        boolean[] isPivot = new boolean[n];
+        for (int p : pivot) {
+            isPivot[p] = true;
+        }
+        int[][] within = regionCounts(distance, n);
+
+        double[] current = pivotMds(distance, n, dimensions, seed);
+        scale(current, distance, within, pivot, dimensions);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < current.length; i++) {
+            current[i] += (random.nextDouble() - 0.5) * JITTER;
+        }
+        double[] next = new double[current.length];
+        double[] stress = new double[n];
+        double previousStress = Double.POSITIVE_INFINITY;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double[] from = current;
+            double[] to = next;
+            run(() -> IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().forEach(chunk -> {
+                double[] sum = new double[dimensions];
+                for (int v = chunk * CHUNK, last = Math.min(n, v + CHUNK); v < last; v++) {
+                    stress[v] = update(graph, pivot, isPivot, distance, within, from, to, v, dimensions, sum);
+                }
+            }));
+            next = current;
+            current = to;
+
+            double total = 0.0;
+            for (double s : stress) {
+                total += s;
+            }
+            if (Math.abs(previousStress - total) < tolerance * previousStress) {
+                break;
+            }
+            previousStress = total;
+        }
+        return new GraphLayout(current, dimensions);
+    }
+
+    /**
+     * One node of every connected component, largest components first, so no component is left
+     * without a pivot to hold it open; then a seeded sample of the remaining nodes
+     */
+    private static int[] choosePivots(CsrGraph graph, int count, long seed) {
+        int n = graph.nodeCount();
+        int[] component = new int[n];
+        Arrays.fill(component, -1);
+        int[] queue = new int[n];
+        int components = 0;
+        int[] firstNode = new int[n];
+        int[] size = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (component[root] >= 0) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            component[root] = components;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int i = graph.offset(v), last = graph.offset(v + 1); i < last; i++) {
+                    int u = graph.neighbour(i);
+                    if (component[u] < 0) {
+                        component[u] = components;
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            firstNode[components] = root;
+            size[components] = tail;
+            components++;
+        }
+
+        Integer[] bySize = new Integer[components];
+        for (int c = 0; c < components; c++) {
+            bySize[c] = c;
+        }
+        Arrays.sort(bySize, (a, b) -> size[b] != size[a] ? Integer.compare(size[b], size[a]) : Integer.compare(a, b));
+        boolean[] chosen = new boolean[n];
+        int[] pivot = new int[count];
+        int chosenCount = 0;
+        for (int c = 0; c < components && chosenCount < count; c++) {
+            int node = firstNode[bySize[c]];
+            chosen[node] = true;
+            pivot[chosenCount++] = node;
+        }
+
+        // Partial Fisher-Yates over the nodes not chosen yet
+        int[] rest = new int[n - chosenCount];
+        int r = 0;
+        for (int v = 0; v < n; v++) {
+            if (!chosen[v]) {
+                rest[r++] = v;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; chosenCount < count; i++) {
+            int j = i + random.nextInt(rest.length - i);
+            int swap = rest[i];
+            rest[i] = rest[j];
+            rest[j] = swap;
+            pivot[chosenCount++] = rest[i];
+        }
+        return pivot;
+    }
+
+    /**
+     * @return hop distance from {@code source} to every node, -1 where unreachable
+     */
+    private static int[] bfs(CsrGraph graph, int source) {
+        int n = graph.nodeCount();
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        distance[source] = 0;
+        while (head < tail) {
+            int v = queue[head++];
+            int next = distance[v] + 1;
+            for (int i = graph.offset(v), last = graph.offset(v + 1); i < last; i++) {
+                int u = graph.neighbour(i);
+                if (distance[u] < 0) {
+                    distance[u] = next;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static void closeUnreachable(int[][] distance) {
+        int max = 0;
+        for (int[] row : distance) {
+            for (int d : row) {
+                max = Math.max(max, d);
+            }
+        }
+        for (int[] row : distance) {
+            for (int v = 0; v < row.length; v++) {
+                if (row[v] < 0) {
+                    row[v] = max + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Every node belongs to the region of its closest pivot (the first on ties)
+     *
+     * @return per pivot, the number of nodes of its region at most {@code r} hops away, for every {@code r}
+     */
+    private static int[][] regionCounts(int[][] distance, int n) {
+        int k = distance.length;
+        int[] region = new int[n];
+        int[] radius = new int[k];
+        for (int v = 0; v < n; v++) {
+            int best = 0;
+            for (int p = 1; p < k; p++) {
+                if (distance[p][v] < distance[best][v]) {
+                    best = p;
+                }
+            }
+            region[v] = best;
+            radius[best] = Math.max(radius[best], distance[best][v]);
+        }
+        int[][] within = new int[k][];
+        for (int p = 0; p < k; p++) {
+            within[p] = new int[radius[p] + 1];
+        }
+        for (int v = 0; v < n; v++) {
+            within[region[v]][distance[region[v]][v]]++;
+        }
+        for (int[] counts : within) {
+            for (int r = 1; r < counts.length; r++) {
+                counts[r] += counts[r - 1];
+            }
+        }
+        return within;
+    }
+
+    /**
+     * Weight of the term between a node and a pivot {@code d} hops away: the pivot's region
+     * members no farther than {@code d/2} from it, over {@code d^2}
+     */
+    private static double pivotWeight(int[] within, int d) {
+        return within[Math.min(d / 2, within.length - 1)] / ((double) d * d);
+    }
+
+    /**
+     * Moves node {@code v} to the weighted average of where each of its terms would put it.
+     * <p>
+     * Besides its pivots and neighbours, a node is kept two hops from up to {@link #SIBLINGS}
+     * other neighbours of each of its neighbours. Without those terms nodes the pivots cannot
+     * tell apart, such as the many leaves of one hub, would all settle on the same point.
+     *
+     * @return the node's share of the stress at the previous positions
+     */
+    private static double update(CsrGraph graph, int[] pivot, boolean[] isPivot, int[][] distance, int[][] within,
+                                 double[] from, double[] to, int v, int dimensions, double[] sum) {
+        Arrays.fill(sum, 0.0);
+        double weights = 0.0;
+        double stress = 0.0;
+        for (int p = 0; p < pivot.length; p++) {
+            int u = pivot[p];
+            if (u == v) {
+                continue;
+            }
+            int d = distance[p][v];
+            double w = pivotWeight(within[p], d);
+            stress += term(from, v, u, d, w, dimensions, sum);
+            weights += w;
+        }
+        for (int i = graph.offset(v), last = graph.offset(v + 1); i < last; i++) {
+            int u = graph.neighbour(i);
+            if (!isPivot[u]) {
+                stress += term(from, v, u, 1, 1.0, dimensions, sum);
+                weights += 1.0;
+            }
+            int first = graph.offset(u);
+            int degree = graph.offset(u + 1) - first;
+            for (int j = 0, count = Math.min(SIBLINGS, degree); j < count; j++) {
+                int sibling = graph.neighbour(first + (v + j) % degree);
+                if (sibling != v && !isPivot[sibling]) {
+                    stress += term(from, v, sibling, 2, 0.25, dimensions, sum);
+                    weights += 0.25;
+                }
+            }
+        }
+        int base = v * dimensions;
+        for (int k = 0; k < dimensions; k++) {
+            to[base + k] = weights > 0 ? sum[k] / weights : from[base + k];
+        }
+        return stress;
+    }
+
+    private static double term(double[] from, int v, int u, int d, double w, int dimensions, double[] sum) {
+        int a = v * dimensions;
+        int b = u * dimensions;
+        double lengthSquared = 0.0;
+        for (int k = 0; k < dimensions; k++) {
+            double delta = from[a + k] - from[b + k];
+            lengthSquared += delta * delta;
+        }
+        double length = Math.sqrt(lengthSquared);
+        double stretch = length > 0 ? d / length : 0.0;
+        for (int k = 0; k < dimensions; k++) {
+            sum[k] += w * (from[b + k] + (from[a + k] - from[b + k]) * stretch);
+        }
+        return w * (length - d) * (length - d);
+    }
+
+    /**
+     * Pivot MDS (Brandes and Pich): the double-centred squared distances to the pivots, projected
+     * on the leading eigenvectors of their Gram matrix
+     */
+    private double[] pivotMds(int[][] distance, int n, int dimensions, long seed) {
+        int k = distance.length;
+        double[] columnMean = new double[k];
+        double[] rowMean = new double[n];
+        double grandMean = 0.0;
+        for (int p = 0; p < k; p++) {
+            double sum = 0.0;
+            for (int v = 0; v < n; v++) {
+                double squared = (double) distance[p][v] * distance[p][v];
+                sum += squared;
+                rowMean[v] += squared / k;
+            }
+            columnMean[p] = sum / n;
+            grandMean += sum;
+        }
+        grandMean /= (double) n * k;
+        double finalGrandMean = grandMean;
+
+        // Gram matrix C^T C of the n x k centred matrix C, summed per chunk in a fixed order
+        int chunks = (n + CHUNK - 1) / CHUNK;
+        double[][] partial = call(() -> IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            double[] gram = new double[k * k];
+            double[] row = new double[k];
+            for (int v = chunk * CHUNK, last = Math.min(n, v + CHUNK); v < last; v++) {
+                centredRow(distance, columnMean, rowMean[v], finalGrandMean, v, row);
+                for (int a = 0; a < k; a++) {
+                    double ra = row[a];
+                    for (int b = a; b < k; b++) {
+                        gram[a * k + b] += ra * row[b];
+                    }
+                }
+            }
+            return gram;
+        }).toArray(double[][]::new));
+        double[] gram = new double[k * k];
+        for (double[] part : partial) {
+            for (int i = 0; i < gram.length; i++) {
+                gram[i] += part[i];
+            }
+        }
+        for (int a = 0; a < k; a++) {
+            for (int b = 0; b < a; b++) {
+                gram[a * k + b] = gram[b * k + a];
+            }
+        }
+
+        double[][] eigenvectors = leadingEigenvectors(gram, k, dimensions, seed);
+        double[] positions = new double[n * dimensions];
+        run(() -> IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            double[] row = new double[k];
+            for (int v = chunk * CHUNK, last = Math.min(n, v + CHUNK); v < last; v++) {
+                centredRow(distance, columnMean, rowMean[v], finalGrandMean, v, row);
+                for (int d = 0; d < dimensions; d++) {
+                    double x = 0.0;
+                    for (int p = 0; p < k; p++) {
+                        x += row[p] * eigenvectors[d][p];
+                    }
+                    positions[v * dimensions + d] = x;
+                }
+            }
+        }));
+        return positions;
+    }
+
+    private static void centredRow(int[][] distance, double[] columnMean, double rowMean, double grandMean,
+                                   int v, double[] row) {
+        for (int p = 0; p < row.length; p++) {
+            double squared = (double) distance[p][v] * distance[p][v];
+            row[p] = -0.5 * (squared - rowMean - columnMean[p] + grandMean);
+        }
+    }
+
+    /**
+     * Power iteration with deflation on a symmetric positive semi-definite matrix. Directions
+     * the matrix does not span (tiny graphs, fewer pivots than dimensions) keep a random vector,
+     * so the layout still spreads along them once majorization starts.
+     */
+    private static double[][] leadingEigenvectors(double[] matrix, int k, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] vectors = new double[count][k];
+        double[] product = new double[k];
+        for (int e = 0; e < count; e++) {
+            double[] vector = vectors[e];
+            for (int i = 0; i < k; i++) {
+                vector[i] = random.nextDouble() - 0.5;
+            }
+            for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+                for (int previous = 0; previous < e; previous++) {
+                    orthogonalise(vector, vectors[previous]);
+                }
+                for (int i = 0; i < k; i++) {
+                    double sum = 0.0;
+                    for (int j = 0; j < k; j++) {
+                        sum += matrix[i * k + j] * vector[j];
+                    }
+                    product[i] = sum;
+                }
+                if (normalise(product) == 0.0) {
+                    break;
+                }
+                System.arraycopy(product, 0, vector, 0, k);
+            }
+            normalise(vector);
+        }
+        return vectors;
+    }
+
+    private static void orthogonalise(double[] vector, double[] against) {
+        double dot = 0.0;
+        for (int i = 0; i < vector.length; i++) {
+            dot += vector[i] * against[i];
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] -= dot * against[i];
+        }
+    }
+
+    private static double normalise(double[] vector) {
+        double norm = 0.0;
+        for (double x : vector) {
+            norm += x * x;
+        }
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= norm;
+            }
+        }
+        return norm;
+    }
+
+    /**
+     * Rescales the start positions by the factor that minimizes the stress of the pivot terms
+     */
+    private static void scale(double[] positions, int[][] distance, int[][] within, int[] pivot, int dimensions) {
+        int n = positions.length / dimensions;
+        double numerator = 0.0;
+        double denominator = 0.0;
+        for (int p = 0; p < pivot.length; p++) {
+            int u = pivot[p] * dimensions;
+            for (int v = 0; v < n; v++) {
+                int d = distance[p][v];
+                if (d == 0) {
+                    continue;
+                }
+                double lengthSquared = 0.0;
+                for (int k = 0; k < dimensions; k++) {
+                    double delta = positions[v * dimensions + k] - positions[u + k];
+                    lengthSquared += delta * delta;
+                }
+                double w = pivotWeight(within[p], d);
+                numerator += w * d * Math.sqrt(lengthSquared);
+                denominator += w * lengthSquared;
+            }
+        }
+        if (denominator > 0) {
+            double factor = numerator / denominator;
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] *= factor;
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Layout interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
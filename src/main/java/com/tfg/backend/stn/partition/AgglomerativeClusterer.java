@@ -0,0 +1,246 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.problem.domain.DistanceType;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Constrained agglomerative clustering, the engine behind partition/continuous/agglomerative.py.
+ * <p>
+ * The Python walks all pairs {@code (d, i, j)}, {@code i > j}, in increasing order and merges
+ * the clusters of the first pair that is allowed: pairs whose {@code i} was already merged
+ * away are skipped, and a merge must keep the cluster within {@code clusterSize}% of the rows
+ * and {@code volumeSize}% of the volume (the Frobenius norm of its rows times their count,
+ * relative to the whole set). Clusters only grow, so a pair that fails the limits never
+ * passes later, and the walk reduces to one pass over the pairs in order.
+ * <p>
+ * Here the pairs are not materialised: distances live in a {@link CondensedDistanceMatrix},
+ * computed in parallel, and a priority queue holds each live row {@code i} keyed by its
+ * current candidate pair. A row whose candidate fails the limits moves to its next closest
+ * {@code j}; after a few such moves the row is sorted once so later moves are O(1).
+ */
+public final class AgglomerativeClusterer {
+
+    private static final int SORT_AFTER_SCANS = 4;
+
+    private final ForkJoinPool pool;
+
+    public AgglomerativeClusterer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param solutions      distinct solutions; each one's weight counts as that many identical rows
+     * @param distance       distance between solutions
+     * @param clusterSize    maximum size of a cluster, as a percentage of all rows
+     * @param volumeSize     maximum volume of a cluster, as a percentage of the total volume
+     * @param firstMergeFree whether the first merge ignores the limits, as in the Python (which had
+     *                       not merged anything yet); false when identical rows were already folded
+     */
+    Dendrogram cluster(SolutionVectors solutions, DistanceType distance, double clusterSize,
+                       double volumeSize, boolean firstMergeFree) {
+        int n = solutions.count();
+        if (n < 2) {
+            return new Dendrogram(n, new int[0], new int[0], new float[0]);
+        }
+        CondensedDistanceMatrix matrix = new CondensedDistanceMatrix(n);
+        try {
+            return merge(solutions, matrix, fill(solutions, distance, matrix), clusterSize, volumeSize, firstMergeFree);
+        } finally {
+            matrix.release();
+        }
+    }
+
+    /**
+     * Fills the matrix row by row in parallel
+     *
+     * @return the closest {@code j} of every row (ties to the lowest), -1 for row 0
+     */
+    private int[] fill(SolutionVectors solutions, DistanceType distance, CondensedDistanceMatrix matrix) {
+        int n = solutions.count();
+        int[] closest = new int[n];
+        closest[0] = -1;
+        try {
+            pool.submit(() -> IntStream.range(1, n).parallel().forEach(i -> {
+                long start = CondensedDistanceMatrix.rowStart(i);
+                float best = Float.POSITIVE_INFINITY;
+                int bestJ = -1;
+                for (int j = 0; j < i; j++) {
+                    float d = (float) solutions.distance(distance, i, j);
+                    matrix.set(start + j, d);
+                    if (d < best) {
+                        best = d;
+                        bestJ = j;
+                    }
+                }
+                closest[i] = bestJ;
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distance computation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return closest;
+    }
+
+    private Dendrogram merge(SolutionVectors solutions, CondensedDistanceMatrix matrix, int[] closest,
+                             double clusterSize, double volumeSize, boolean firstMergeFree) {
+        int n = solutions.count();
+        long totalRows = 0;
+        double totalSquaredNorm = 0.0;
+        for (int s = 0; s < n; s++) {
+            totalRows += solutions.weight(s);
+            totalSquaredNorm += solutions.weight(s) * solutions.squaredNorm(s);
+        }
+        double totalVolume = Math.sqrt(totalSquaredNorm) * totalRows * solutions.dimensions();
+
+        // Union-find over solutions; cluster totals are kept at the root
+        int[] parent = new int[n];
+        long[] rows = new long[n];
+        double[] squaredNorms = new double[n];
+        for (int s = 0; s < n; s++) {
+            parent[s] = s;
+            rows[s] = solutions.weight(s);
+            squaredNorms[s] = solutions.weight(s) * solutions.squaredNorm(s);
+        }
+
+        // Current candidate of each row, ordered like the Python's (d, i, j)
+        int[] candidate = closest;
+        float[] candidateDistance = new float[n];
+        int[] scans = new int[n];
+        int[][] sortedRows = new int[n][];
+        int[] cursor = new int[n];
+        PriorityQueue<Integer> queue = new PriorityQueue<>(n, (a, b) -> {
+            int byDistance = Float.compare(candidateDistance[a], candidateDistance[b]);
+            return byDistance != 0 ? byDistance : Integer.compare(a, b);
+        });
+        for (int i = 1; i < n; i++) {
+            candidateDistance[i] = matrix.get(i, candidate[i]);
+            queue.add(i);
+        }
+
+        int[] merged = new int[n - 1];
+        int[] into = new int[n - 1];
+        float[] distances = new float[n - 1];
+        int merges = 0;
+        boolean[] mergedAway = new boolean[n];
+        while (!queue.isEmpty() && merges < n - 1) {
+            int i = queue.poll();
+            if (mergedAway[i]) {
+                continue;
+            }
+            int j = candidate[i];
+            // i is still the root (lowest solution) of its cluster, and j < i lies in another one
+            int rootJ = find(parent, j);
+            long mergedRows = rows[i] + rows[rootJ];
+            boolean allowed = firstMergeFree && merges == 0;
+            if (!allowed) {
+                double sizePercent = mergedRows * 100.0 / totalRows;
+                double volumePercent = Math.sqrt(squaredNorms[i] + squaredNorms[rootJ])
+                        * mergedRows * solutions.dimensions() * 100.0 / totalVolume;
+                allowed = sizePercent <= clusterSize && volumePercent <= volumeSize;
+            }
+
+            if (allowed) {
+                parent[i] = rootJ;
+                rows[rootJ] = mergedRows;
+                squaredNorms[rootJ] += squaredNorms[i];
+                mergedAway[i] = true;
+                sortedRows[i] = null;
+                merged[merges] = i;
+                into[merges] = j;
+                distances[merges] = candidateDistance[i];
+                merges++;
+            } else if (advance(matrix, i, candidate, candidateDistance, scans, sortedRows, cursor)) {
+                queue.add(i);
+            }
+        }
+        return new Dendrogram(n, Arrays.copyOf(merged, merges), Arrays.copyOf(into, merges),
+                Arrays.copyOf(distances, merges));
+    }
+
+    /**
+     * Moves row {@code i} to its next pair in {@code (d, j)} order
+     *
+     * @return false when the row has no pairs left
+     */
+    private static boolean advance(CondensedDistanceMatrix matrix, int i, int[] candidate, float[] candidateDistance,
+                                   int[] scans, int[][] sortedRows, int[] cursor) {
+        if (sortedRows[i] == null && ++scans[i] > SORT_AFTER_SCANS) {
+            sortedRows[i] = sortRow(matrix, i);
+            cursor[i] = indexOf(sortedRows[i], candidate[i]);
+        }
+        if (sortedRows[i] != null) {
+            int next = ++cursor[i];
+            if (next >= i) {
+                sortedRows[i] = null;
+                return false;
+            }
+            candidate[i] = sortedRows[i][next];
+            candidateDistance[i] = matrix.get(i, candidate[i]);
+            return true;
+        }
+
+        float afterDistance = candidateDistance[i];
+        int afterJ = candidate[i];
+        long start = CondensedDistanceMatrix.rowStart(i);
+        float best = Float.POSITIVE_INFINITY;
+        int bestJ = -1;
+        for (int j = 0; j < i; j++) {
+            float d = matrix.get(start + j);
+            if ((d > afterDistance || d == afterDistance && j > afterJ) && (d < best || bestJ < 0)) {
+                best = d;
+                bestJ = j;
+            }
+        }
+        if (bestJ < 0) {
+            return false;
+        }
+        candidate[i] = bestJ;
+        candidateDistance[i] = best;
+        return true;
+    }
+
+    /**
+     * The {@code j} of row {@code i} sorted by distance, ties by {@code j}
+     */
+    private static int[] sortRow(CondensedDistanceMatrix matrix, int i) {
+        long start = CondensedDistanceMatrix.rowStart(i);
+        long[] keys = new long[i];
+        for (int j = 0; j < i; j++) {
+            // Non-negative floats order like their bit patterns
+            keys[j] = ((long) Float.floatToIntBits(matrix.get(start + j)) << 32) | j;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[i];
+        for (int k = 0; k < i; k++) {
+            order[k] = (int) keys[k];
+        }
+        return order;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int k = 0; k < values.length; k++) {
+            if (values[k] == value) {
+                return k;
+            }
+        }
+        return 0;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
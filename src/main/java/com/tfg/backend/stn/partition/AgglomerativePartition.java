@@ -0,0 +1,11 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.StnTransitions;
+
+import java.util.Map;
+
+/**
+ * Traces partitioned by agglomerative clustering, cut at {@code clusters} clusters
+ */
+public record AgglomerativePartition(Map<String, StnTransitions> traces, int clusters) {
+}
@@ -0,0 +1,235 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.problem.domain.DistanceType;
+import com.tfg.backend.stn.SolutionIndex;
+import com.tfg.backend.stn.StnTransitions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Agglomerative partitioning of traces ({@code partition/continuous/agglomerative.py}).
+ * <p>
+ * Continuous traces have one solution per line ({@code Run,Fitness,x1,...,xn}); discrete
+ * traces contribute both solutions of each {@code Run,Fitness1,Solution1,Fitness2,Solution2}
+ * line. Identical solutions are clustered once, weighted by how often they occur, then the
+ * merge history is cut at the requested number of clusters or, by default, where the Python
+ * cut it. Every solution is replaced by the SHA-256 of its cluster number and consecutive
+ * solutions of the same run become transitions.
+ * <p>
+ * Unlike the Python, the first transition of each algorithm is kept and no transition
+ * crosses from one algorithm to the next.
+ */
+public final class AgglomerativePartitioner {
+
+    private static final int MIN_DISCRETE_CLUSTERS = 10;
+
+    private final AgglomerativeClusterer clusterer;
+
+    public AgglomerativePartitioner(ForkJoinPool pool) {
+        this.clusterer = new AgglomerativeClusterer(pool);
+    }
+
+    /**
+     * @param traces      algorithm name -> trace lines, as returned by {@link RawTraceReader}
+     * @param discrete    whether the lines are discrete transitions rather than continuous points
+     * @param clusterSize maximum cluster size, as a percentage of all solutions
+     * @param volumeSize  maximum cluster volume, as a percentage of the total volume
+     * @param distance    distance between solutions
+     * @param clusters    number of clusters to cut at, or null for the Python default
+     */
+    public AgglomerativePartition partition(Map<String, List<String>> traces, boolean discrete,
+                                            double clusterSize, double volumeSize, DistanceType distance,
+                                            Integer clusters) {
+        Rows rows = discrete ? discreteRows(traces) : continuousRows(traces);
+        int distinct = rows.solutions.size();
+        Dendrogram dendrogram = clusterer.cluster(rows.vectors(discrete), distance, clusterSize, volumeSize,
+                rows.size == distinct);
+
+        int cut = clusters != null ? clusters : defaultClusters(dendrogram, rows.size, discrete);
+        cut = Math.max(dendrogram.finalClusters(), Math.min(distinct, cut));
+        int[] labels = dendrogram.labels(cut);
+
+        SolutionIndex hashed = new SolutionIndex(Math.max(16, cut));
+        for (int label = 0; label < cut; label++) {
+            hashed.intern(sha256(String.valueOf(label)));
+        }
+        Map<String, StnTransitions> result = new LinkedHashMap<>();
+        for (int a = 0; a < rows.algorithms.size(); a++) {
+            result.put(rows.algorithms.get(a), new StnTransitions(hashed, 1024));
+        }
+        for (int r = 0; r + 1 < rows.size; r++) {
+            if (rows.algorithm[r] != rows.algorithm[r + 1] || rows.run[r] != rows.run[r + 1]) {
+                continue;
+            }
+            result.get(rows.algorithms.get(rows.algorithm[r])).add(rows.run[r],
+                    rows.fitness[r], labels[rows.solution[r]],
+                    rows.fitness[r + 1], labels[rows.solution[r + 1]]);
+        }
+        return new AgglomerativePartition(result, cut);
+    }
+
+    /**
+     * The Python kept the cluster counts reached after each merge of the rows (identical
+     * rows included) and cut at the smallest one, but at least 10, for discrete problems,
+     * and at the one a third of the way up the sorted counts for continuous problems.
+     */
+    static int defaultClusters(Dendrogram dendrogram, int rowCount, boolean discrete) {
+        int finalClusters = dendrogram.finalClusters();
+        int rowMerges = rowCount - dendrogram.size() + dendrogram.mergeCount();
+        if (rowMerges == 0) {
+            return rowCount;
+        }
+        if (discrete) {
+            return Math.max(finalClusters, MIN_DISCRETE_CLUSTERS);
+        }
+        int position = (rowMerges + 2) / 3;
+        return position < rowMerges ? finalClusters + position : finalClusters;
+    }
+
+    private static Rows discreteRows(Map<String, List<String>> traces) {
+        Rows rows = new Rows();
+        for (Map.Entry<String, List<String>> trace : traces.entrySet()) {
+            int algorithm = rows.algorithms.size();
+            rows.algorithms.add(trace.getKey());
+            for (String line : trace.getValue()) {
+                String[] fields = line.split(",", -1);
+                if (fields.length < 5) {
+                    continue;
+                }
+                try {
+                    int run = Integer.parseInt(fields[0].strip());
+                    double fitness1 = Double.parseDouble(fields[1]);
+                    double fitness2 = Double.parseDouble(fields[3]);
+                    rows.add(algorithm, run, fitness1, fields[2].strip());
+                    rows.add(algorithm, run, fitness2, fields[4].strip());
+                } catch (NumberFormatException e) {
+                    // header or malformed line
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Rows continuousRows(Map<String, List<String>> traces) {
+        Rows rows = new Rows();
+        for (Map.Entry<String, List<String>> trace : traces.entrySet()) {
+            int algorithm = rows.algorithms.size();
+            rows.algorithms.add(trace.getKey());
+            for (String line : trace.getValue()) {
+                int first = line.indexOf(',');
+                int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+                if (second < 0) {
+                    continue;
+                }
+                try {
+                    int run = Integer.parseInt(line.substring(0, first).strip());
+                    double fitness = Double.parseDouble(line.substring(first + 1, second));
+                    String text = line.substring(second + 1).strip();
+                    String[] parts = text.split(",");
+                    double[] point = new double[parts.length];
+                    for (int d = 0; d < parts.length; d++) {
+                        point[d] = Double.parseDouble(parts[d]);
+                    }
+                    if (rows.add(algorithm, run, fitness, text)) {
+                        rows.addCoordinates(point);
+                    }
+                } catch (NumberFormatException e) {
+                    // header or malformed line
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Solutions of all algorithms in trace order, each pointing to its distinct solution
+     */
+    private static final class Rows {
+
+        private final List<String> algorithms = new ArrayList<>();
+        private final SolutionIndex solutions = new SolutionIndex();
+        private int[] weights = new int[1024];
+        private double[] coordinates = new double[0];
+        private int dimensions = -1;
+
+        private int[] algorithm = new int[1024];
+        private int[] run = new int[1024];
+        private double[] fitness = new double[1024];
+        private int[] solution = new int[1024];
+        private int size;
+
+        /**
+         * @return whether the solution was seen for the first time
+         */
+        boolean add(int algorithmIndex, int runNumber, double fit, String key) {
+            if (size == run.length) {
+                algorithm = Arrays.copyOf(algorithm, size << 1);
+                run = Arrays.copyOf(run, size << 1);
+                fitness = Arrays.copyOf(fitness, size << 1);
+                solution = Arrays.copyOf(solution, size << 1);
+            }
+            int before = solutions.size();
+            int id = solutions.intern(key);
+            if (id == weights.length) {
+                weights = Arrays.copyOf(weights, weights.length << 1);
+            }
+            weights[id]++;
+            algorithm[size] = algorithmIndex;
+            run[size] = runNumber;
+            fitness[size] = fit;
+            solution[size] = id;
+            size++;
+            return solutions.size() > before;
+        }
+
+        void addCoordinates(double[] point) {
+            if (dimensions < 0) {
+                dimensions = point.length;
+            } else if (point.length != dimensions) {
+                throw new IllegalArgumentException("Solutions have different dimensions: "
+                        + dimensions + " and " + point.length);
+            }
+            int id = solutions.size() - 1;
+            if ((id + 1) * dimensions > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, Math.max((id + 1) * dimensions, coordinates.length << 1));
+            }
+            System.arraycopy(point, 0, coordinates, id * dimensions, dimensions);
+        }
+
+        SolutionVectors vectors(boolean discrete) {
+            int count = solutions.size();
+            int[] counts = Arrays.copyOf(weights, count);
+            if (!discrete) {
+                return SolutionVectors.ofCoordinates(Arrays.copyOf(coordinates, count * Math.max(0, dimensions)),
+                        Math.max(0, dimensions), counts);
+            }
+            String[] labels = new String[count];
+            for (int id = 0; id < count; id++) {
+                labels[id] = solutions.label(id);
+                if (labels[id].length() != labels[0].length()) {
+                    throw new IllegalArgumentException("Solutions have different lengths: "
+                            + labels[0].length() + " and " + labels[id].length());
+                }
+            }
+            return SolutionVectors.ofStrings(labels, counts);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.tfg.backend.stn.partition;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Lower triangle of a symmetric distance matrix, {@code n (n - 1) / 2} floats kept off-heap
+ * in direct buffers. Row {@code i} holds the distances to {@code j = 0 .. i-1} contiguously,
+ * which is the order the clusterer scans them in.
+ * <p>
+ * Writes to distinct cells may come from different threads.
+ */
+final class CondensedDistanceMatrix {
+
+    private static final int PAGE_BITS = 26; // 64M floats (256 MB) per buffer
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    private final int size;
+    private FloatBuffer[] pages;
+
+    CondensedDistanceMatrix(int size) {
+        this.size = size;
+        long cells = cells(size);
+        int pageCount = (int) ((cells + PAGE_MASK) >>> PAGE_BITS);
+        pages = new FloatBuffer[pageCount];
+        for (int p = 0; p < pageCount; p++) {
+            long pageCells = Math.min(1L << PAGE_BITS, cells - ((long) p << PAGE_BITS));
+            pages[p] = ByteBuffer.allocateDirect((int) pageCells * Float.BYTES)
+                    .order(ByteOrder.nativeOrder())
+                    .asFloatBuffer();
+        }
+    }
+
+    static long cells(int size) {
+        return (long) size * (size - 1) / 2;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Index of the first cell of row {@code i}
+     */
+    static long rowStart(int i) {
+        return (long) i * (i - 1) / 2;
+    }
+
+    float get(long cell) {
+        return pages[(int) (cell >>> PAGE_BITS)].get((int) (cell & PAGE_MASK));
+    }
+
+    void set(long cell, float distance) {
+        pages[(int) (cell >>> PAGE_BITS)].put((int) (cell & PAGE_MASK), distance);
+    }
+
+    /**
+     * Distance between {@code i} and {@code j}, {@code i > j}
+     */
+    float get(int i, int j) {
+        return get(rowStart(i) + j);
+    }
+
+    /**
+     * Drops the buffers so the off-heap memory can be reclaimed
+     */
+    void release() {
+        pages = new FloatBuffer[0];
+    }
+}
@@ -0,0 +1,131 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.SolutionIndex;
+import com.tfg.backend.stn.StnTransitions;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Standard partitioning of continuous traces ({@code partition/continuous/standard.py}): every
+ * coordinate of a solution ({@code Run,Fitness,x1,...,xn}, one per line) is replaced by its
+ * {@link HypercubeGrid} bin and solutions in the same hypercube become one node. Consecutive
+ * solutions of the same run become transitions.
+ * <p>
+ * The Python hashed {@code str()} of the binned list with Python's randomised string hash, so
+ * its labels changed from one process to the next; here a node is labelled with the hex of its
+ * 128-bit hypercube key. Lines are parsed and keyed in parallel, algorithms too. As in the
+ * agglomerative partitioner, the first transition of each algorithm is kept and no transition
+ * crosses from one algorithm to the next.
+ */
+public final class ContinuousStandardPartitioner {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ForkJoinPool pool;
+
+    public ContinuousStandardPartitioner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param traces   algorithm name -> trace lines, as returned by {@link RawTraceReader}
+     * @param minBound lower bound of the grid
+     * @param maxBound upper bound of the grid (exclusive, like np.arange)
+     * @param width    side of a hypercube
+     * @return algorithm name -> partitioned transitions, in the order of {@code traces}
+     */
+    public Map<String, StnTransitions> partition(Map<String, List<String>> traces, double minBound,
+                                                 double maxBound, double width) {
+        HypercubeGrid grid = new HypercubeGrid(minBound, maxBound, width);
+        List<String> names = new ArrayList<>(traces.keySet());
+        List<StnTransitions> partitioned = call(() -> names.parallelStream()
+                .map(name -> partition(traces.get(name), grid))
+                .toList());
+        Map<String, StnTransitions> result = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            result.put(names.get(i), partitioned.get(i));
+        }
+        return result;
+    }
+
+    private StnTransitions partition(List<String> lines, HypercubeGrid grid) {
+        int size = lines.size();
+        int[] runs = new int[size];
+        double[] fitness = new double[size];
+        long[] keys = new long[size * 2];
+        boolean[] valid = new boolean[size];
+        IntStream.range(0, size).parallel().forEach(row -> {
+            long[] key = new long[2];
+            if (parse(lines.get(row), grid, runs, fitness, row, key)) {
+                keys[row * 2] = key[0];
+                keys[row * 2 + 1] = key[1];
+                valid[row] = true;
+            }
+        });
+
+        SolutionIndex solutions = new SolutionIndex(Math.max(16, size / 4));
+        StnTransitions transitions = new StnTransitions(solutions, size);
+        int previous = -1;
+        int previousSolution = -1;
+        for (int row = 0; row < size; row++) {
+            if (!valid[row]) {
+                continue;
+            }
+            int solution = solutions.intern(HEX.toHexDigits(keys[row * 2]) + HEX.toHexDigits(keys[row * 2 + 1]));
+            if (previous >= 0 && runs[previous] == runs[row]) {
+                transitions.add(runs[row], fitness[previous], previousSolution, fitness[row], solution);
+            }
+            previous = row;
+            previousSolution = solution;
+        }
+        return transitions;
+    }
+
+    /**
+     * Parses {@code Run,Fitness,x1,...,xn} into the row's run, fitness and hypercube key
+     *
+     * @return false for the header and malformed lines
+     */
+    private static boolean parse(String line, HypercubeGrid grid, int[] runs, double[] fitness, int row,
+                                 long[] key) {
+        String[] fields = line.split(",");
+        if (fields.length < 3) {
+            return false;
+        }
+        int dimensions = fields.length - 2;
+        double[] point = new double[dimensions];
+        try {
+            runs[row] = Integer.parseInt(fields[0].strip());
+            fitness[row] = Double.parseDouble(fields[1]);
+            for (int d = 0; d < dimensions; d++) {
+                point[d] = Double.parseDouble(fields[d + 2]);
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        grid.key(point, 0, dimensions, key, new byte[dimensions * 9]);
+        return true;
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partitioning interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.tfg.backend.stn.partition;
+
+import java.util.Arrays;
+
+/**
+ * Merge history of an agglomerative clustering of {@code size} solutions. Merge
+ * {@code k} folded the cluster rooted at {@code merged(k)} into the cluster holding
+ * {@code into(k)}; a cluster is always rooted at its lowest solution.
+ */
+public final class Dendrogram {
+
+    private final int size;
+    private final int[] merged;
+    private final int[] into;
+    private final float[] distances;
+
+    Dendrogram(int size, int[] merged, int[] into, float[] distances) {
+        this.size = size;
+        this.merged = merged;
+        this.into = into;
+        this.distances = distances;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int mergeCount() {
+        return merged.length;
+    }
+
+    public int merged(int merge) {
+        return merged[merge];
+    }
+
+    public int into(int merge) {
+        return into[merge];
+    }
+
+    public float distance(int merge) {
+        return distances[merge];
+    }
+
+    /**
+     * Number of clusters left when the clustering stopped
+     */
+    public int finalClusters() {
+        return size - merged.length;
+    }
+
+    /**
+     * Cluster of each solution after the first merges that leave {@code clusters} clusters,
+     * numbered 0.. in the order of their lowest solution
+     *
+     * @param clusters between {@link #finalClusters()} and {@link #size()}
+     */
+    public int[] labels(int clusters) {
+        if (clusters < finalClusters() || clusters > size) {
+            throw new IllegalArgumentException("Cluster count out of range: " + clusters);
+        }
+        int[] parent = new int[size];
+        Arrays.setAll(parent, i -> i);
+        for (int k = 0; k < size - clusters; k++) {
+            parent[merged[k]] = find(parent, into[k]);
+        }
+        int[] labels = new int[size];
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            int root = find(parent, i);
+            labels[i] = root == i ? next++ : labels[root];
+        }
+        return labels;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,451 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.SolutionIndex;
+import com.tfg.backend.stn.StnTransitions;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Java port of the discrete standard partitioning ({@code partition/discrete/standard.py}).
+ * <p>
+ * Every distinct solution of every algorithm is packed into a {@code long[]} bitset
+ * (a {@code '1'} character is a set bit). The ones at each position are counted with
+ * bit-sliced adders, 64 positions per word, over chunks of solutions in parallel; the
+ * positions are then ranked by Shannon entropy and each solution is coarsened to its
+ * characters at the {@code percentage}% most entropic positions. Transitions that stay
+ * in the same coarse solution are dropped and the others are labelled with the SHA-256
+ * of the coarse solutions.
+ * <p>
+ * The output matches the Python one: runs keep the order in which they first appear,
+ * a coarse solution gets the lowest fitness of the solutions it groups, and with a
+ * percentage of 0 the full solutions are kept with the fitness they were last seen with.
+ * Unlike the Python, the statistics are computed once for all algorithms instead of
+ * once per algorithm, since they only depend on the union of their solutions.
+ */
+public final class DiscreteStandardPartitioner {
+
+    private static final int PLANES = 8;
+    private static final int FLUSH_EVERY = (1 << PLANES) - 1;
+    private static final int CHUNK = 16_384;
+    private static final MathContext LOG_CONTEXT = new MathContext(40);
+    private static final BigDecimal LOG_EPSILON = new BigDecimal("1e-38");
+    private static final BigDecimal LN_2 = new BigDecimal("0.6931471805599453094172321214581765680755");
+
+    private final ForkJoinPool pool;
+
+    public DiscreteStandardPartitioner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param traces     algorithm name -> trace lines ({@code Run,Fitness1,Solution1,Fitness2,Solution2},
+     *                   as returned by {@link RawTraceReader})
+     * @param percentage percentage (0..100) of positions to keep, 0 to keep the full solutions
+     * @return algorithm name -> partitioned transitions, in the order of {@code traces}; they all
+     * share one {@link SolutionIndex} labelled with the hashed solutions
+     */
+    public Map<String, StnTransitions> partition(Map<String, List<String>> traces, double percentage) {
+        if (!(percentage >= 0)) {
+            throw new IllegalArgumentException("Partition percentage cannot be negative: " + percentage);
+        }
+
+        // Every algorithm's lines are also the global solutions (all_solutions in the Python)
+        SolutionIndex solutions = new SolutionIndex(1 << 16);
+        long[] lastFitness = new long[1 << 16];
+        Map<String, Rows> rowsByAlgorithm = new LinkedHashMap<>();
+        String[] fields = new String[5];
+        for (Map.Entry<String, List<String>> trace : traces.entrySet()) {
+            Rows rows = new Rows();
+            for (String line : trace.getValue()) {
+                if (!split(line, fields)) {
+                    continue;
+                }
+                long fitness1;
+                long fitness2;
+                try {
+                    fitness1 = Long.parseLong(fields[1].strip());
+                    fitness2 = Long.parseLong(fields[3].strip());
+                } catch (NumberFormatException e) {
+                    continue; // header or malformed line
+                }
+                int solution1 = solutions.intern(fields[2].stripTrailing());
+                int solution2 = solutions.intern(fields[4].stripTrailing());
+                if (solutions.size() > lastFitness.length) {
+                    lastFitness = Arrays.copyOf(lastFitness, lastFitness.length << 1);
+                }
+                lastFitness[solution1] = fitness1;
+                lastFitness[solution2] = fitness2;
+                try {
+                    rows.add(Integer.parseInt(fields[0].strip()), solution1, solution2);
+                } catch (NumberFormatException e) {
+                    // Only counts as a global solution, like in the Python
+                }
+            }
+            rowsByAlgorithm.put(trace.getKey(), rows);
+        }
+        return partition(solutions, lastFitness, rowsByAlgorithm, percentage);
+    }
+
+    /**
+     * Same as {@link #partition(Map, double)} for traces already read into columns (see
+     * {@link com.tfg.backend.stn.TraceFileReader}); rows whose fitness is not an integer
+     * are skipped, as the Python skipped lines it could not parse with int()
+     */
+    public Map<String, StnTransitions> partitionTransitions(Map<String, StnTransitions> traces, double percentage) {
+        if (!(percentage >= 0)) {
+            throw new IllegalArgumentException("Partition percentage cannot be negative: " + percentage);
+        }
+
+        SolutionIndex solutions = new SolutionIndex(1 << 16);
+        long[] lastFitness = new long[1 << 16];
+        Map<String, Rows> rowsByAlgorithm = new LinkedHashMap<>();
+        for (Map.Entry<String, StnTransitions> entry : traces.entrySet()) {
+            StnTransitions trace = entry.getValue();
+            SolutionIndex local = trace.solutions();
+            int[] global = new int[local.size()];
+            Arrays.fill(global, -1);
+            Rows rows = new Rows();
+            for (int row = 0; row < trace.size(); row++) {
+                double fitness1 = trace.fitness1(row);
+                double fitness2 = trace.fitness2(row);
+                if (fitness1 != Math.rint(fitness1) || fitness2 != Math.rint(fitness2)) {
+                    continue;
+                }
+                int solution1 = globalId(global, local, trace.solution1(row), solutions);
+                int solution2 = globalId(global, local, trace.solution2(row), solutions);
+                if (solutions.size() > lastFitness.length) {
+                    lastFitness = Arrays.copyOf(lastFitness, lastFitness.length << 1);
+                }
+                lastFitness[solution1] = (long) fitness1;
+                lastFitness[solution2] = (long) fitness2;
+                rows.add(trace.run(row), solution1, solution2);
+            }
+            rowsByAlgorithm.put(entry.getKey(), rows);
+        }
+        return partition(solutions, lastFitness, rowsByAlgorithm, percentage);
+    }
+
+    private static int globalId(int[] global, SolutionIndex local, int id, SolutionIndex solutions) {
+        if (global[id] < 0) {
+            global[id] = solutions.intern(local.label(id));
+        }
+        return global[id];
+    }
+
+    private Map<String, StnTransitions> partition(SolutionIndex solutions, long[] lastFitness,
+                                                  Map<String, Rows> rowsByAlgorithm, double percentage) {
+        int solutionCount = solutions.size();
+        int length = solutionCount == 0 ? 0 : solutions.label(0).length();
+        for (int id = 1; id < solutionCount; id++) {
+            if (solutions.label(id).length() != length) {
+                throw new IllegalArgumentException(
+                        "Solutions have different lengths; entropy cannot be computed consistently");
+            }
+        }
+
+        boolean coarsen = percentage > 0;
+        int[] nodeOf;
+        long[] nodeFitness;
+        SolutionIndex nodes;
+        if (coarsen && solutionCount > 0) {
+            int[] positions = positionsByEntropy(solutions, length);
+            int kept = Math.min(length, Math.max(1, (int) Math.floor(length * percentage / 100.0)));
+            String[] coarse = call(() -> IntStream.range(0, solutionCount).parallel()
+                    .mapToObj(id -> coarsen(solutions.label(id), positions, kept))
+                    .toArray(String[]::new));
+
+            nodes = new SolutionIndex(solutionCount);
+            nodeOf = new int[solutionCount];
+            nodeFitness = new long[solutionCount];
+            for (int id = 0; id < solutionCount; id++) {
+                int before = nodes.size();
+                int node = nodes.intern(coarse[id]);
+                nodeFitness[node] = nodes.size() > before
+                        ? lastFitness[id]
+                        : Math.min(nodeFitness[node], lastFitness[id]);
+                nodeOf[id] = node;
+            }
+        } else {
+            nodes = solutions;
+            nodeOf = IntStream.range(0, solutionCount).toArray();
+            nodeFitness = lastFitness;
+        }
+
+        SolutionIndex hashed = hashLabels(nodes);
+        Map<String, StnTransitions> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Rows> entry : rowsByAlgorithm.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toTransitions(hashed, nodeOf, nodeFitness, coarsen));
+        }
+        return result;
+    }
+
+    /**
+     * Positions sorted by decreasing entropy of their one-frequency; ties keep position order
+     */
+    private int[] positionsByEntropy(SolutionIndex solutions, int length) {
+        int solutionCount = solutions.size();
+        int words = (length + 63) >>> 6;
+        long[] bits = new long[solutionCount * words];
+        call(() -> {
+            IntStream.range(0, solutionCount).parallel().forEach(id -> {
+                String label = solutions.label(id);
+                int base = id * words;
+                for (int i = 0; i < length; i++) {
+                    if (label.charAt(i) == '1') {
+                        bits[base + (i >>> 6)] |= 1L << (i & 63);
+                    }
+                }
+            });
+            return null;
+        });
+        int[] ones = pool.invoke(new OnesCounter(bits, words, 0, solutionCount));
+
+        // Same arithmetic as Stats.entropy; positions with the same count share the value
+        double[] entropy = new double[length];
+        Map<Integer, Double> entropyOfCount = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            entropy[i] = entropyOfCount.computeIfAbsent(ones[i], count -> {
+                double p1 = count / (double) solutionCount;
+                double p0 = 1.0 - p1;
+                double h = 0.0;
+                if (p1 > 0.0) {
+                    h += p1 * log2(p1);
+                }
+                if (p0 > 0.0) {
+                    h += p0 * log2(p0);
+                }
+                return -h;
+            });
+        }
+        return IntStream.range(0, length).boxed()
+                .sorted((a, b) -> Double.compare(entropy[b], entropy[a]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Correctly rounded log2, so that positions whose entropies are mathematically equal
+     * (k and n - k ones) rank exactly like with the C library's log2 used by the Python.
+     * Math.log(x) / Math.log(2) is off by an ulp often enough to reorder such ties.
+     */
+    static double log2(double value) {
+        int exponent = Math.getExponent(value);
+        double mantissa = value / Math.scalb(1.0, exponent); // [1, 2)
+        // ln(m) = 2 atanh(z), z = (m - 1) / (m + 1) <= 1/3
+        BigDecimal m = new BigDecimal(mantissa);
+        BigDecimal z = m.subtract(BigDecimal.ONE).divide(m.add(BigDecimal.ONE), LOG_CONTEXT);
+        BigDecimal z2 = z.multiply(z, LOG_CONTEXT);
+        BigDecimal term = z;
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int k = 1; term.signum() != 0 && term.abs().compareTo(LOG_EPSILON) > 0; k += 2) {
+            sum = sum.add(term.divide(BigDecimal.valueOf(k), LOG_CONTEXT), LOG_CONTEXT);
+            term = term.multiply(z2, LOG_CONTEXT);
+        }
+        BigDecimal log2Mantissa = sum.multiply(BigDecimal.TWO, LOG_CONTEXT).divide(LN_2, LOG_CONTEXT);
+        return log2Mantissa.add(BigDecimal.valueOf(exponent), LOG_CONTEXT).doubleValue();
+    }
+
+    private static String coarsen(String solution, int[] positions, int kept) {
+        char[] chars = new char[kept];
+        for (int j = 0; j < kept; j++) {
+            chars[j] = solution.charAt(positions[j]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Index with the same ids as {@code nodes}, labelled with the SHA-256 hex of each label
+     */
+    private SolutionIndex hashLabels(SolutionIndex nodes) {
+        String[] hashes = call(() -> IntStream.range(0, nodes.size()).parallel()
+                .mapToObj(id -> sha256(nodes.label(id)))
+                .toArray(String[]::new));
+        SolutionIndex hashed = new SolutionIndex(Math.max(16, hashes.length));
+        for (String hash : hashes) {
+            hashed.intern(hash);
+        }
+        return hashed;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Splits on commas like {@code line.split(',')}, accepting exactly five fields
+     */
+    private static boolean split(String line, String[] fields) {
+        int start = 0;
+        for (int i = 0; i < 4; i++) {
+            int comma = line.indexOf(',', start);
+            if (comma < 0) {
+                return false;
+            }
+            fields[i] = line.substring(start, comma);
+            start = comma + 1;
+        }
+        if (line.indexOf(',', start) >= 0) {
+            return false;
+        }
+        fields[4] = line.substring(start);
+        return true;
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partitioning interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Counts the set bits at every position over a range of packed solutions. Within a
+     * chunk, each word of positions is added into {@link #PLANES} bit planes (a ripple
+     * of carries, one 64-lane counter per plane) that are flushed into the int counts
+     * before they can overflow.
+     */
+    private static final class OnesCounter extends RecursiveTask<int[]> {
+
+        private final long[] bits;
+        private final int words;
+        private final int from;
+        private final int to;
+
+        OnesCounter(long[] bits, int words, int from, int to) {
+            this.bits = bits;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                OnesCounter left = new OnesCounter(bits, words, from, middle);
+                left.fork();
+                int[] right = new OnesCounter(bits, words, middle, to).compute();
+                int[] counts = left.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += right[i];
+                }
+                return counts;
+            }
+
+            int[] counts = new int[words << 6];
+            long[] planes = new long[words * PLANES];
+            int pending = 0;
+            for (int id = from; id < to; id++) {
+                int base = id * words;
+                for (int w = 0; w < words; w++) {
+                    long carry = bits[base + w];
+                    for (int p = w * PLANES; carry != 0; p++) {
+                        long overflow = planes[p] & carry;
+                        planes[p] ^= carry;
+                        carry = overflow;
+                    }
+                }
+                if (++pending == FLUSH_EVERY) {
+                    flush(planes, counts);
+                    pending = 0;
+                }
+            }
+            flush(planes, counts);
+            return counts;
+        }
+
+        private void flush(long[] planes, int[] counts) {
+            for (int w = 0; w < words; w++) {
+                for (int p = 0; p < PLANES; p++) {
+                    long plane = planes[w * PLANES + p];
+                    while (plane != 0) {
+                        counts[(w << 6) + Long.numberOfTrailingZeros(plane)] += 1 << p;
+                        plane &= plane - 1;
+                    }
+                    planes[w * PLANES + p] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Transitions of one algorithm as global solution ids, in file order
+     */
+    private static final class Rows {
+
+        private int[] runs = new int[1024];
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int size;
+
+        void add(int run, int solution1, int solution2) {
+            if (size == runs.length) {
+                runs = Arrays.copyOf(runs, size << 1);
+                from = Arrays.copyOf(from, size << 1);
+                to = Arrays.copyOf(to, size << 1);
+            }
+            runs[size] = run;
+            from[size] = solution1;
+            to[size] = solution2;
+            size++;
+        }
+
+        StnTransitions toTransitions(SolutionIndex hashed, int[] nodeOf, long[] nodeFitness, boolean coarsen) {
+            // Group the rows by run, runs in order of first appearance (a stable counting sort)
+            Map<Integer, Integer> groupOfRun = new HashMap<>();
+            int[] group = new int[size];
+            int[] groupSizes = new int[Math.max(1, size)];
+            for (int row = 0; row < size; row++) {
+                Integer g = groupOfRun.putIfAbsent(runs[row], groupOfRun.size());
+                group[row] = g == null ? groupOfRun.size() - 1 : g;
+                groupSizes[group[row]]++;
+            }
+            int[] offsets = new int[groupOfRun.size() + 1];
+            for (int g = 0; g < groupOfRun.size(); g++) {
+                offsets[g + 1] = offsets[g] + groupSizes[g];
+            }
+            int[] ordered = new int[size];
+            for (int row = 0; row < size; row++) {
+                ordered[offsets[group[row]]++] = row;
+            }
+
+            StnTransitions transitions = new StnTransitions(hashed, size);
+            for (int row : ordered) {
+                int a = nodeOf[from[row]];
+                int b = nodeOf[to[row]];
+                if (coarsen && a == b) {
+                    continue;
+                }
+                transitions.add(runs[row], nodeFitness[a], a, nodeFitness[b], b);
+            }
+            return transitions;
+        }
+    }
+}
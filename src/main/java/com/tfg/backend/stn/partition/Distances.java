@@ -0,0 +1,78 @@
+package com.tfg.backend.stn.partition;
+
+/**
+ * Distance kernels over flat row-major arrays. The coordinate loops keep four independent
+ * accumulators so the JIT can pipeline them instead of serialising on one sum.
+ */
+final class Distances {
+
+    private Distances() {
+    }
+
+    static double squaredEuclidean(double[] data, int a, int b, int length) {
+        double s0 = 0.0;
+        double s1 = 0.0;
+        double s2 = 0.0;
+        double s3 = 0.0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            double d0 = data[a + i] - data[b + i];
+            double d1 = data[a + i + 1] - data[b + i + 1];
+            double d2 = data[a + i + 2] - data[b + i + 2];
+            double d3 = data[a + i + 3] - data[b + i + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        double sum = s0 + s1 + s2 + s3;
+        for (; i < length; i++) {
+            double d = data[a + i] - data[b + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    static double manhattan(double[] data, int a, int b, int length) {
+        double s0 = 0.0;
+        double s1 = 0.0;
+        double s2 = 0.0;
+        double s3 = 0.0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            s0 += Math.abs(data[a + i] - data[b + i]);
+            s1 += Math.abs(data[a + i + 1] - data[b + i + 1]);
+            s2 += Math.abs(data[a + i + 2] - data[b + i + 2]);
+            s3 += Math.abs(data[a + i + 3] - data[b + i + 3]);
+        }
+        double sum = s0 + s1 + s2 + s3;
+        for (; i < length; i++) {
+            sum += Math.abs(data[a + i] - data[b + i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Number of coordinates that differ (scipy's hamming times the length)
+     */
+    static int differing(double[] data, int a, int b, int length) {
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[a + i] != data[b + i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Number of differing bits between two packed bitstrings
+     */
+    static int hamming(long[] bits, int a, int b, int words) {
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(bits[a + w] ^ bits[b + w]);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,108 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.MurmurHash3;
+
+/**
+ * The bins of {@code np.arange(minBound, maxBound, width)} that continuous_standard.hash_solution
+ * maps coordinates onto. A coordinate falls in bin {@code k} when {@code p[k] <= x <= p[k+1]}
+ * (the lowest such {@code k}); coordinates outside {@code [p[0], p[last]]} keep their value.
+ * <p>
+ * The bin is computed arithmetically and then checked against the edges, which are rebuilt
+ * the way numpy fills an arange ({@code start + i * delta}), so values on an edge land in
+ * the same bin as with the Python scan.
+ */
+final class HypercubeGrid {
+
+    private final double minBound;
+    private final double delta;
+    private final int bins;
+    private final int bitsPerCoordinate;
+
+    HypercubeGrid(double minBound, double maxBound, double width) {
+        if (!(width > 0)) {
+            throw new IllegalArgumentException("Hypercube width must be positive: " + width);
+        }
+        long edges = Math.max(0, (long) Math.ceil((maxBound - minBound) / width));
+        if (edges - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many hypercube bins: " + (edges - 1));
+        }
+        this.minBound = minBound;
+        this.delta = (minBound + width) - minBound;
+        this.bins = (int) Math.max(0, edges - 1);
+        this.bitsPerCoordinate = Math.max(1, 64 - Long.numberOfLeadingZeros(Math.max(1, bins - 1)));
+    }
+
+    int bins() {
+        return bins;
+    }
+
+    private double edge(int k) {
+        return minBound + k * delta;
+    }
+
+    /**
+     * @return the bin of {@code x}, or -1 if it lies outside the grid
+     */
+    int bin(double x) {
+        if (bins == 0 || !(x >= minBound) || x > edge(bins)) {
+            return -1;
+        }
+        long guess = (long) Math.ceil((x - minBound) / delta) - 1;
+        int k = (int) Math.max(0, Math.min(bins - 1, guess));
+        while (k > 0 && x <= edge(k)) {
+            k--;
+        }
+        while (k < bins - 1 && x > edge(k + 1)) {
+            k++;
+        }
+        return k;
+    }
+
+    /**
+     * Writes the 128-bit key of a point into {@code out}. When every coordinate is inside the
+     * grid and the bins fit, they are packed side by side (the top bit stays clear); otherwise
+     * the bins and out-of-grid values are hashed with MurmurHash3 and the top bit is set.
+     */
+    void key(double[] point, int offset, int dimensions, long[] out, byte[] scratch) {
+        boolean packable = dimensions * bitsPerCoordinate <= 127;
+        long high = 0;
+        long low = 0;
+        int shift = 0;
+        for (int d = 0; d < dimensions && packable; d++) {
+            int k = bin(point[offset + d]);
+            if (k < 0) {
+                packable = false;
+                break;
+            }
+            long bits = k;
+            if (shift >= 64) {
+                high |= bits << (shift - 64);
+            } else {
+                low |= bits << shift;
+                if (shift + bitsPerCoordinate > 64) {
+                    high |= bits >>> (64 - shift);
+                }
+            }
+            shift += bitsPerCoordinate;
+        }
+        if (packable) {
+            out[0] = high;
+            out[1] = low;
+            return;
+        }
+
+        // One tag byte and eight value bytes per coordinate: the bin, or the raw value
+        for (int d = 0; d < dimensions; d++) {
+            double x = point[offset + d];
+            int k = bin(x);
+            int p = d * 9;
+            scratch[p] = (byte) (k < 0 ? 1 : 0);
+            long value = k < 0 ? Double.doubleToLongBits(x == 0.0 ? 0.0 : x) : k;
+            for (int b = 0; b < 8; b++) {
+                scratch[p + 1 + b] = (byte) (value >>> (b << 3));
+            }
+        }
+        MurmurHash3.hash128(scratch, 0, dimensions * 9, out);
+        out[0] |= Long.MIN_VALUE;
+    }
+}
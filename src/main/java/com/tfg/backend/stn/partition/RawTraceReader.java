@@ -0,0 +1,90 @@
+package com.tfg.backend.stn.partition;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads an uploaded (not yet partitioned) trace into the comma separated lines
+ * the partitioners work on, normalised like {@code change_old_format} in stn_core.py:
+ * each line is trimmed and its whitespace runs become commas, and traces in the
+ * old three-column format ({@code Run Fitness Solution}, one line per visited
+ * solution) are paired into {@code Run,Fitness1,Solution1,Fitness2,Solution2} rows.
+ */
+public final class RawTraceReader {
+
+    private RawTraceReader() {
+    }
+
+    public static List<String> read(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return normalize(lines);
+    }
+
+    public static List<String> normalize(List<String> rawLines) {
+        List<String> lines = new ArrayList<>(rawLines.size());
+        for (String line : rawLines) {
+            lines.add(line.strip().replaceAll("\\s+", ","));
+        }
+
+        // Same pairing rule as the Python (including its look at the last line for i = 0)
+        List<String> paired = new ArrayList<>();
+        int size = lines.size();
+        for (int i = 0; i < size - 1; i++) {
+            String previous = lines.get(i == 0 ? size - 1 : i - 1);
+            String current = lines.get(i);
+            String next = lines.get(i + 1);
+            if (fieldCount(previous) <= 3 && firstField(current).equals(firstField(next))) {
+                paired.add(fields(current, 0, 3) + "," + fields(next, 1, 3));
+            }
+        }
+        return paired.isEmpty() ? lines : paired;
+    }
+
+    private static int fieldCount(String line) {
+        int count = 1;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == ',') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String firstField(String line) {
+        int comma = line.indexOf(',');
+        return comma < 0 ? line : line.substring(0, comma);
+    }
+
+    /**
+     * Fields [from, to) joined by commas, like {@code ','.join(line.split(',')[from:to])}
+     */
+    private static String fields(String line, int from, int to) {
+        int start = 0;
+        for (int field = 0; field < from; field++) {
+            start = line.indexOf(',', start) + 1;
+            if (start == 0) {
+                return "";
+            }
+        }
+        int end = start;
+        for (int field = from; field < to; field++) {
+            end = line.indexOf(',', end);
+            if (end < 0) {
+                return line.substring(start);
+            }
+            if (field < to - 1) {
+                end++;
+            }
+        }
+        return line.substring(start, end);
+    }
+}
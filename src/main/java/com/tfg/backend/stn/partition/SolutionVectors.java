@@ -0,0 +1,116 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.problem.domain.DistanceType;
+
+/**
+ * Distinct solutions to cluster, each with the number of trace rows it stands for.
+ * <p>
+ * Continuous solutions are coordinates stored row-major. Discrete solutions are
+ * compared through their character codes, like the Python did with its bytearrays; when
+ * every solution is a bitstring they are packed into {@code long} words instead, since
+ * for two bitstrings all three distances reduce to the number of differing bits.
+ */
+final class SolutionVectors {
+
+    private final int count;
+    private final int dimensions;
+    private final double[] coordinates;
+    private final long[] bits;
+    private final int words;
+    private final int[] weights;
+    private final double[] squaredNorms;
+
+    private SolutionVectors(int count, int dimensions, double[] coordinates, long[] bits, int words,
+                            int[] weights, double[] squaredNorms) {
+        this.count = count;
+        this.dimensions = dimensions;
+        this.coordinates = coordinates;
+        this.bits = bits;
+        this.words = words;
+        this.weights = weights;
+        this.squaredNorms = squaredNorms;
+    }
+
+    static SolutionVectors ofCoordinates(double[] coordinates, int dimensions, int[] weights) {
+        int count = weights.length;
+        double[] squaredNorms = new double[count];
+        for (int s = 0; s < count; s++) {
+            double sum = 0.0;
+            for (int d = 0, base = s * dimensions; d < dimensions; d++) {
+                sum += coordinates[base + d] * coordinates[base + d];
+            }
+            squaredNorms[s] = sum;
+        }
+        return new SolutionVectors(count, dimensions, coordinates, null, 0, weights, squaredNorms);
+    }
+
+    /**
+     * @param solutions discrete solutions, all of the same length
+     */
+    static SolutionVectors ofStrings(String[] solutions, int[] weights) {
+        int count = solutions.length;
+        int length = count == 0 ? 0 : solutions[0].length();
+        boolean binary = true;
+        double[] squaredNorms = new double[count];
+        for (int s = 0; s < count; s++) {
+            String solution = solutions[s];
+            double sum = 0.0;
+            for (int d = 0; d < length; d++) {
+                char c = solution.charAt(d);
+                binary &= c == '0' || c == '1';
+                sum += (double) c * c;
+            }
+            squaredNorms[s] = sum;
+        }
+
+        if (binary) {
+            int words = (length + 63) >>> 6;
+            long[] bits = new long[count * words];
+            for (int s = 0; s < count; s++) {
+                for (int d = 0; d < length; d++) {
+                    if (solutions[s].charAt(d) == '1') {
+                        bits[s * words + (d >>> 6)] |= 1L << (d & 63);
+                    }
+                }
+            }
+            return new SolutionVectors(count, length, null, bits, words, weights, squaredNorms);
+        }
+        double[] coordinates = new double[count * length];
+        for (int s = 0; s < count; s++) {
+            for (int d = 0; d < length; d++) {
+                coordinates[s * length + d] = solutions[s].charAt(d);
+            }
+        }
+        return new SolutionVectors(count, length, coordinates, null, 0, weights, squaredNorms);
+    }
+
+    int count() {
+        return count;
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int weight(int solution) {
+        return weights[solution];
+    }
+
+    double squaredNorm(int solution) {
+        return squaredNorms[solution];
+    }
+
+    double distance(DistanceType type, int a, int b) {
+        if (bits != null) {
+            int differing = Distances.hamming(bits, a * words, b * words, words);
+            return type == DistanceType.EUCLIDEAN ? Math.sqrt(differing) : differing;
+        }
+        int offsetA = a * dimensions;
+        int offsetB = b * dimensions;
+        return switch (type) {
+            case EUCLIDEAN -> Math.sqrt(Distances.squaredEuclidean(coordinates, offsetA, offsetB, dimensions));
+            case MANHATTAN -> Distances.manhattan(coordinates, offsetA, offsetB, dimensions);
+            case HAMMING -> Distances.differing(coordinates, offsetA, offsetB, dimensions);
+        };
+    }
+}
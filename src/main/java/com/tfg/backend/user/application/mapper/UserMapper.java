@@ -1,5 +1,6 @@
 package com.tfg.backend.user.application.mapper;
 
+import com.tfg.backend.common.UuidV7;
 import com.tfg.backend.user.application.dto.RegistrationUserDTO;
 import com.tfg.backend.user.application.dto.ResponseUserDTO;
 import com.tfg.backend.user.domain.Role;
@@ -7,14 +8,13 @@ import com.tfg.backend.user.domain.User;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Component
 public class UserMapper {
     
     public User fromDTOtoObject(RegistrationUserDTO dto) {
         return User.builder()
-                .id(UUID.randomUUID())
+                .id(UuidV7.generate())
                 .username(dto.getUsername())
                 .email(dto.getEmail())
                 .password(dto.getPassword())
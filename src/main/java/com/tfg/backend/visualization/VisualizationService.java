@@ -1,24 +1,19 @@
 package com.tfg.backend.visualization;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tfg.backend.algorithm.application.CreateEdgeUseCase;
-import com.tfg.backend.algorithm.application.CreateNodeUseCase;
-import com.tfg.backend.algorithm.application.dto.RegistrationEdgeDTO;
-import com.tfg.backend.algorithm.application.dto.RegistrationNodeDTO;
-import com.tfg.backend.algorithm.application.dto.Position3DDTO;
 import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.NodeType;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
-import com.tfg.backend.algorithm.infrastructure.repositories.EdgeRepositoryJPA;
-import com.tfg.backend.algorithm.infrastructure.repositories.NodeRepositoryJPA;
+import com.tfg.backend.algorithm.infrastructure.repositories.GraphBulkWriter;
+import com.tfg.backend.common.UuidV7;
 import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.stn.StnMetrics;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,44 +26,48 @@ public class VisualizationService {
     private static final int DEFAULT_COMPONENT_COUNT = 1;
     
     private final ObjectMapper objectMapper;
-    private final CreateNodeUseCase createNodeUseCase;
-    private final CreateEdgeUseCase createEdgeUseCase;
+    private final GraphBulkWriter graphBulkWriter;
     private final AlgorithmRepositoryJPA algorithmRepositoryJPA;
-    private final NodeRepositoryJPA nodeRepositoryJPA;
-    private final EdgeRepositoryJPA edgeRepositoryJPA;
     private final ProblemRepositoryJPA problemRepositoryJPA;
     
     public VisualizationService(ObjectMapper objectMapper,
-                               CreateNodeUseCase createNodeUseCase,
-                               CreateEdgeUseCase createEdgeUseCase,
+                               GraphBulkWriter graphBulkWriter,
                                AlgorithmRepositoryJPA algorithmRepositoryJPA,
-                               NodeRepositoryJPA nodeRepositoryJPA,
-                               EdgeRepositoryJPA edgeRepositoryJPA,
                                ProblemRepositoryJPA problemRepositoryJPA) {
         this.objectMapper = objectMapper;
-        this.createNodeUseCase = createNodeUseCase;
-        this.createEdgeUseCase = createEdgeUseCase;
+        this.graphBulkWriter = graphBulkWriter;
         this.algorithmRepositoryJPA = algorithmRepositoryJPA;
-        this.nodeRepositoryJPA = nodeRepositoryJPA;
-        this.edgeRepositoryJPA = edgeRepositoryJPA;
         this.problemRepositoryJPA = problemRepositoryJPA;
     }
     
     /**
      * Process visualization JSON and create nodes and edges in database
-     * @param jsonPath Path to the JSON file generated by R scripts
+     * @param json Content of the JSON generated by the R scripts
      * @param problemId The problem ID these nodes belong to
      * @param useKKLayout If true, use Kamada-Kawai layout; otherwise use Fruchterman-Reingold
      */
     @Transactional
-    public void processAndPersistVisualization(Path jsonPath, UUID problemId, boolean useKKLayout) throws IOException {
-        if (jsonPath == null || !Files.exists(jsonPath)) {
+    public void processAndPersistVisualization(byte[] json, UUID problemId, boolean useKKLayout) throws IOException {
+        processAndPersistVisualization(json, problemId, useKKLayout, Map.of());
+    }
+    
+    /**
+     * Same as {@link #processAndPersistVisualization(byte[], UUID, boolean)}, also storing the
+     * STN metrics of each algorithm. The problem is marked READY in the same transaction, so
+     * the graph is either stored whole or not at all.
+     * @param metrics Algorithm name -> metrics of its own STN; algorithms without an entry
+     *                fall back to the component count of the JSON stats
+     */
+    @Transactional
+    public void processAndPersistVisualization(byte[] json, UUID problemId, boolean useKKLayout,
+                                               Map<String, StnMetrics> metrics) throws IOException {
+        if (json == null) {
+            // The pipeline was expected to produce a graph, so the problem must not stay PENDING
+            problemRepositoryJPA.updateVisualizationStatus(problemId, VisualizationStatus.FAILED);
             return;
         }
         
-        // Read JSON file
-        String jsonContent = Files.readString(jsonPath);
-        VisualizationData vizData = objectMapper.readValue(jsonContent, VisualizationData.class);
+        VisualizationData vizData = objectMapper.readValue(json, VisualizationData.class);
         
         // Get all algorithms for this problem
         List<Algorithm> algorithms = algorithmRepositoryJPA.findByProblemId(problemId);
@@ -99,8 +98,13 @@ public class VisualizationService {
         final double finalMinFitness = minFitness;
         final double finalMaxFitness = maxFitness;
         
-        // Map to store node ID from JSON to actual persisted node UUID
+        // JSON node id -> persisted node UUID and owning algorithm, kept in memory so
+        // edges never have to re-read the nodes they connect
         Map<String, UUID> nodeIdMap = new HashMap<>();
+        Map<String, UUID> nodeAlgorithmMap = new HashMap<>();
+        Map<UUID, Integer> nodeCounts = new HashMap<>();
+        Map<UUID, Integer> edgeCounts = new HashMap<>();
+        List<GraphBulkWriter.NodeRow> nodeRows = new ArrayList<>(vizData.getNodes().size());
         
         // Process each node
         for (VisualizationData.NodeData nodeData : vizData.getNodes()) {
@@ -127,25 +131,15 @@ public class VisualizationService {
             Double y = useKKLayout ? nodeData.getY_kk() : nodeData.getY_fr();
             Double z = calculateZ(nodeData.getFitness(), finalMinFitness, finalMaxFitness, fitnessRange, isMaximization);
             
-            // Create position DTO
-            Position3DDTO position = Position3DDTO.builder()
-                .x(x)
-                .y(y)
-                .z(z)
-                .build();
-            
-            // Create node DTO
-            RegistrationNodeDTO nodeDTO = RegistrationNodeDTO.builder()
-                .type(nodeType)
-                .position(position)
-                .build();
-            
-            // Persist node and store the mapping
-            var responseNodeDTO = createNodeUseCase.execute(nodeDTO, algorithmId);
-            nodeIdMap.put(nodeData.getId(), responseNodeDTO.getId());
+            UUID nodeId = UuidV7.generate();
+            nodeRows.add(new GraphBulkWriter.NodeRow(nodeId, nodeType, algorithmId, x, y, z));
+            nodeIdMap.put(nodeData.getId(), nodeId);
+            nodeAlgorithmMap.put(nodeData.getId(), algorithmId);
+            nodeCounts.merge(algorithmId, 1, Integer::sum);
         }
         
         // Process each edge
+        List<GraphBulkWriter.EdgeRow> edgeRows = new ArrayList<>();
         if (vizData.getEdges() != null) {
             for (VisualizationData.EdgeData edgeData : vizData.getEdges()) {
                 UUID sourceNodeId = nodeIdMap.get(edgeData.getFrom());
@@ -155,39 +149,42 @@ public class VisualizationService {
                     continue; // Skip edge if either node doesn't exist
                 }
                 
-                // Find the algorithm for this edge (use the algorithm of the source node)
-                var sourceNode = nodeRepositoryJPA.findById(sourceNodeId).orElse(null);
-                if (sourceNode == null) {
-                    continue;
-                }
-                
-                UUID algorithmId = sourceNode.getAlgorithm().getId();
-                
-                // Create edge DTO
-                RegistrationEdgeDTO edgeDTO = RegistrationEdgeDTO.builder()
-                    .sourceNodeId(sourceNodeId)
-                    .targetNodeId(targetNodeId)
-                    .build();
-                
-                // Persist edge
-                createEdgeUseCase.execute(edgeDTO, algorithmId);
+                // The edge belongs to the algorithm of its source node
+                UUID algorithmId = nodeAlgorithmMap.get(edgeData.getFrom());
+                edgeRows.add(new GraphBulkWriter.EdgeRow(UuidV7.generate(), sourceNodeId, targetNodeId, algorithmId));
+                edgeCounts.merge(algorithmId, 1, Integer::sum);
             }
         }
         
-        // Update algorithm statistics - calculate per-algorithm counts
+        // Nodes first so the edge foreign keys resolve
+        graphBulkWriter.insertNodes(nodeRows);
+        graphBulkWriter.insertEdges(edgeRows);
+        
+        // Update algorithm statistics from what was just written
         for (Algorithm algorithm : algorithms) {
-            // Recalculate from the database to ensure accuracy
-            algorithm.setNodeCount(nodeRepositoryJPA.countByAlgorithmId(algorithm.getId()));
-            algorithm.setEdgeCount(edgeRepositoryJPA.countByAlgorithmId(algorithm.getId()));
+            algorithm.setNodeCount(nodeCounts.getOrDefault(algorithm.getId(), 0));
+            algorithm.setEdgeCount(edgeCounts.getOrDefault(algorithm.getId(), 0));
             
-            // Component count is kept from stats if available, otherwise use default
-            if (vizData.getStats() != null && vizData.getStats().getComponent_count() != null) {
+            StnMetrics algorithmMetrics = metrics.get(algorithm.getName());
+            if (algorithmMetrics != null) {
+                algorithm.setComponentCount(algorithmMetrics.components());
+                algorithm.setBestCount(algorithmMetrics.bestCount());
+                algorithm.setEndCount(algorithmMetrics.endCount());
+                algorithm.setBestStrength(algorithmMetrics.bestStrength());
+                algorithm.setAveragePathLength(algorithmMetrics.averagePathLength());
+                algorithm.setPathCount(algorithmMetrics.pathCount());
+            } else if (vizData.getStats() != null && vizData.getStats().getComponent_count() != null) {
+                // Without metrics of its own the algorithm keeps the count of the whole graph
                 algorithm.setComponentCount(vizData.getStats().getComponent_count());
             } else {
                 algorithm.setComponentCount(DEFAULT_COMPONENT_COUNT);
             }
-            algorithmRepositoryJPA.save(algorithm);
         }
+        algorithmRepositoryJPA.saveAll(algorithms);
+        
+        // A targeted update: saving the loaded entity would write back every column and
+        // could undo a delete that committed while the graph was being ingested
+        problemRepositoryJPA.updateVisualizationStatus(problemId, VisualizationStatus.READY);
     }
     
     /**
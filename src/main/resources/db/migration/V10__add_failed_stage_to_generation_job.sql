@@ -0,0 +1,3 @@
+-- Pipeline stage a failed or cancelled generation job was in
+ALTER TABLE generation_job
+    ADD COLUMN failed_stage VARCHAR(50);
@@ -0,0 +1,27 @@
+-- Foreign keys of the graph tables, so reads by parent (findByAlgorithmId,
+-- countByAlgorithmId, findByProblemId, findByProblemCollectionId) and the FK
+-- checks of deletes stop scanning the whole child table. The algorithm indexes
+-- carry the row id, so the ids of an algorithm's nodes or edges (counts, chunked
+-- deletes) are read from the index alone.
+--
+-- Built CONCURRENTLY, outside a transaction (see the .sql.conf next to this file),
+-- so the graph ingest keeps writing to node and edge while they are built. A build
+-- that fails leaves an INVALID index behind; each one is dropped first, so the
+-- migration can simply be rerun after a repair.
+DROP INDEX CONCURRENTLY IF EXISTS idx_node_algorithm;
+CREATE INDEX CONCURRENTLY idx_node_algorithm ON node (algorithm_id) INCLUDE (id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_edge_algorithm;
+CREATE INDEX CONCURRENTLY idx_edge_algorithm ON edge (algorithm_id) INCLUDE (id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_edge_source_node;
+CREATE INDEX CONCURRENTLY idx_edge_source_node ON edge (source_node_id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_edge_target_node;
+CREATE INDEX CONCURRENTLY idx_edge_target_node ON edge (target_node_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_algorithm_problem;
+CREATE INDEX CONCURRENTLY idx_algorithm_problem ON algorithm (problem_id);
+DROP INDEX CONCURRENTLY IF EXISTS idx_algorithm_file;
+CREATE INDEX CONCURRENTLY idx_algorithm_file ON algorithm (file_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_problem_problem_collection;
+CREATE INDEX CONCURRENTLY idx_problem_problem_collection ON problem (problem_collection_id);
@@ -0,0 +1,11 @@
+-- Whether the STN graph of a problem is being generated, stored or failed
+ALTER TABLE problem
+    ADD COLUMN visualization_status VARCHAR(20) NOT NULL DEFAULT 'NONE';
+
+-- After V11, so each problem's check reaches node through idx_node_algorithm
+UPDATE problem p
+SET visualization_status = 'READY'
+WHERE EXISTS (SELECT 1
+              FROM algorithm a
+                       JOIN node n ON n.algorithm_id = a.id
+              WHERE a.problem_id = p.id);
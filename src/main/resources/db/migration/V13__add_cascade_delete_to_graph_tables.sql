@@ -0,0 +1,44 @@
+-- Deleting an algorithm (or a node) now takes its graph rows with it, so a
+-- problem can be removed without loading its nodes and edges into Hibernate
+ALTER TABLE node
+    DROP CONSTRAINT IF EXISTS FK_NODE_ON_ALGORITHM;
+
+ALTER TABLE node
+    ADD CONSTRAINT FK_NODE_ON_ALGORITHM
+    FOREIGN KEY (algorithm_id)
+    REFERENCES algorithm (id)
+    ON DELETE CASCADE;
+
+ALTER TABLE edge
+    DROP CONSTRAINT IF EXISTS FK_EDGE_ON_SOURCE_NODE;
+
+ALTER TABLE edge
+    ADD CONSTRAINT FK_EDGE_ON_SOURCE_NODE
+    FOREIGN KEY (source_node_id)
+    REFERENCES node (id)
+    ON DELETE CASCADE;
+
+ALTER TABLE edge
+    DROP CONSTRAINT IF EXISTS FK_EDGE_ON_TARGET_NODE;
+
+ALTER TABLE edge
+    ADD CONSTRAINT FK_EDGE_ON_TARGET_NODE
+    FOREIGN KEY (target_node_id)
+    REFERENCES node (id)
+    ON DELETE CASCADE;
+
+ALTER TABLE edge
+    DROP CONSTRAINT IF EXISTS FK_EDGE_ON_ALGORITHM;
+
+ALTER TABLE edge
+    ADD CONSTRAINT FK_EDGE_ON_ALGORITHM
+    FOREIGN KEY (algorithm_id)
+    REFERENCES algorithm (id)
+    ON DELETE CASCADE;
+
+-- A deleted problem is hidden at once and its storage reclaimed in the background;
+-- the partial index lets a restart find the ones still waiting
+ALTER TABLE problem
+    ADD COLUMN deleted_at TIMESTAMP;
+
+CREATE INDEX idx_problem_deleted ON problem (deleted_at) WHERE deleted_at IS NOT NULL;
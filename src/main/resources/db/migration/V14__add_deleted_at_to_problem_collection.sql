@@ -0,0 +1,6 @@
+-- A deleted collection is hidden at once and its row removed after its problems,
+-- which FK_PROBLEM_ON_PROBLEM_COLLECTION still keeps pointing at it until then
+ALTER TABLE problem_collection
+    ADD COLUMN deleted_at TIMESTAMP;
+
+CREATE INDEX idx_problem_collection_deleted ON problem_collection (deleted_at) WHERE deleted_at IS NOT NULL;
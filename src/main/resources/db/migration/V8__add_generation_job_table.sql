@@ -0,0 +1,35 @@
+CREATE TABLE generation_job
+(
+    id            UUID          NOT NULL,
+    problem_id    UUID          NOT NULL,
+    status        VARCHAR(20)   NOT NULL,
+    error_message VARCHAR(2000),
+    created_at    TIMESTAMP     NOT NULL,
+    started_at    TIMESTAMP,
+    finished_at   TIMESTAMP,
+    CONSTRAINT pk_generation_job PRIMARY KEY (id)
+);
+
+CREATE TABLE generation_job_stage
+(
+    job_id      UUID         NOT NULL,
+    stage       VARCHAR(50)  NOT NULL,
+    duration_ms BIGINT,
+    CONSTRAINT pk_generation_job_stage PRIMARY KEY (job_id, stage)
+);
+
+-- Jobs go away with their problem
+ALTER TABLE generation_job
+    ADD CONSTRAINT FK_GENERATION_JOB_ON_PROBLEM
+    FOREIGN KEY (problem_id)
+    REFERENCES problem (id)
+    ON DELETE CASCADE;
+
+ALTER TABLE generation_job_stage
+    ADD CONSTRAINT FK_GENERATION_JOB_STAGE_ON_JOB
+    FOREIGN KEY (job_id)
+    REFERENCES generation_job (id)
+    ON DELETE CASCADE;
+
+CREATE INDEX idx_generation_job_problem ON generation_job (problem_id);
+CREATE INDEX idx_generation_job_status ON generation_job (status);
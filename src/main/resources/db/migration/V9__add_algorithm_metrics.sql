@@ -0,0 +1,7 @@
+-- Per-algorithm STN metrics, as computed by metrics-alg.R
+ALTER TABLE algorithm
+    ADD COLUMN best_count INTEGER DEFAULT 0,
+    ADD COLUMN end_count INTEGER DEFAULT 0,
+    ADD COLUMN best_strength DOUBLE PRECISION,
+    ADD COLUMN average_path_length DOUBLE PRECISION,
+    ADD COLUMN path_count INTEGER DEFAULT 0;
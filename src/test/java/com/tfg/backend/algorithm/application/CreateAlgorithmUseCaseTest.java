@@ -7,13 +7,16 @@ import com.tfg.backend.algorithm.application.mapper.AlgorithmMapper;
 import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.exceptions.AlgorithmAlreadyExistsException;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -49,15 +52,22 @@ class CreateAlgorithmUseCaseTest {
         algorithmId = UUID.randomUUID();
         problemId = UUID.randomUUID();
 
-        when(algorithm.getId()).thenReturn(algorithmId);
+        // Only read when nodes are created or a duplicate is reported
+        lenient().when(algorithm.getId()).thenReturn(algorithmId);
+    }
+
+    // What Spring ORM raises when the INSERT of a flush violates a constraint
+    private static DataIntegrityViolationException constraintViolation(String sqlState, String constraintName) {
+        SQLException sqlException = new SQLException("violates constraint \"" + constraintName + "\"", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraintName));
     }
 
     @Test
     void execute_validDTO_shouldCreateAndReturnResponse() {
         // Arrange
         when(algorithmMapper.fromDTOtoObject(registrationDTO, problemId)).thenReturn(algorithm);
-        when(algorithmRepositoryJPA.existsById(algorithmId)).thenReturn(false);
-        when(algorithmRepositoryJPA.save(algorithm)).thenReturn(algorithm);
+        when(algorithmRepositoryJPA.saveAndFlush(algorithm)).thenReturn(algorithm);
         when(algorithmMapper.fromObjectToDTO(algorithm)).thenReturn(responseDTO);
 
         // Act
@@ -66,8 +76,7 @@ class CreateAlgorithmUseCaseTest {
         // Assert
         assertThat(result).isEqualTo(responseDTO);
         verify(algorithmMapper).fromDTOtoObject(registrationDTO, problemId);
-        verify(algorithmRepositoryJPA).existsById(algorithmId);
-        verify(algorithmRepositoryJPA).save(algorithm);
+        verify(algorithmRepositoryJPA).saveAndFlush(algorithm);
         verify(algorithmMapper).fromObjectToDTO(algorithm);
         verify(createNodeUseCase, times(registrationDTO.getNodes().size())).execute(any(), eq(algorithmId));
     }
@@ -76,7 +85,8 @@ class CreateAlgorithmUseCaseTest {
     void execute_whenAlgorithmIdAlreadyExists_shouldThrowAlgorithmAlreadyExistsException() {
         // Arrange
         when(algorithmMapper.fromDTOtoObject(registrationDTO, problemId)).thenReturn(algorithm);
-        when(algorithmRepositoryJPA.existsById(algorithmId)).thenReturn(true);
+        when(algorithmRepositoryJPA.saveAndFlush(algorithm))
+                .thenThrow(constraintViolation("23505", "pk_algorithm"));
 
         // Act & Assert
         assertThrows(
@@ -85,8 +95,8 @@ class CreateAlgorithmUseCaseTest {
         );
 
         verify(algorithmMapper).fromDTOtoObject(registrationDTO, problemId);
-        verify(algorithmRepositoryJPA).existsById(algorithmId);
-        verify(algorithmRepositoryJPA, never()).save(any());
+        verify(algorithmRepositoryJPA).saveAndFlush(algorithm);
+        verifyNoMoreInteractions(algorithmRepositoryJPA);
         verify(algorithmMapper, never()).fromObjectToDTO(any());
         verify(createNodeUseCase, never()).execute(any(), any());
     }
@@ -96,8 +106,7 @@ class CreateAlgorithmUseCaseTest {
         // Arrange
         RegistrationAlgorithmDTO dtoWithoutNodes = AlgorithmMother.validRegistrationAlgorithmDTOWithoutFile();
         when(algorithmMapper.fromDTOtoObject(dtoWithoutNodes, problemId)).thenReturn(algorithm);
-        when(algorithmRepositoryJPA.existsById(algorithmId)).thenReturn(false);
-        when(algorithmRepositoryJPA.save(algorithm)).thenReturn(algorithm);
+        when(algorithmRepositoryJPA.saveAndFlush(algorithm)).thenReturn(algorithm);
         when(algorithmMapper.fromObjectToDTO(algorithm)).thenReturn(responseDTO);
 
         // Act
@@ -107,4 +116,21 @@ class CreateAlgorithmUseCaseTest {
         assertThat(result).isEqualTo(responseDTO);
         verify(createNodeUseCase, never()).execute(any(), any());
     }
+
+    @Test
+    void execute_whenAnotherConstraintIsViolated_shouldPropagateTheViolation() {
+        // Arrange
+        DataIntegrityViolationException violation = constraintViolation("23503", "fk_algorithm_on_problem");
+        when(algorithmMapper.fromDTOtoObject(registrationDTO, problemId)).thenReturn(algorithm);
+        when(algorithmRepositoryJPA.saveAndFlush(algorithm)).thenThrow(violation);
+
+        // Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(
+                DataIntegrityViolationException.class,
+                () -> createAlgorithmUseCase.execute(registrationDTO, problemId)
+        );
+
+        assertThat(thrown).isSameAs(violation);
+        verify(algorithmMapper, never()).fromObjectToDTO(any());
+    }
 }
@@ -8,13 +8,16 @@ import com.tfg.backend.algorithm.domain.Node;
 import com.tfg.backend.algorithm.domain.NodeType;
 import com.tfg.backend.algorithm.domain.exceptions.NodeAlreadyExistsException;
 import com.tfg.backend.algorithm.infrastructure.repositories.NodeRepositoryJPA;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -47,15 +50,22 @@ class CreateNodeUseCaseTest {
         nodeId = UUID.randomUUID();
         algorithmId = UUID.randomUUID();
 
-        when(node.getId()).thenReturn(nodeId);
+        // Only read when a duplicate is reported
+        lenient().when(node.getId()).thenReturn(nodeId);
+    }
+
+    // What Spring ORM raises when the INSERT of a flush violates a constraint
+    private static DataIntegrityViolationException constraintViolation(String sqlState, String constraintName) {
+        SQLException sqlException = new SQLException("violates constraint \"" + constraintName + "\"", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraintName));
     }
 
     @Test
     void execute_validDTO_shouldCreateAndReturnResponse() {
         // Arrange
         when(nodeMapper.fromDTOtoObject(registrationDTO, algorithmId)).thenReturn(node);
-        when(nodeRepositoryJPA.existsById(nodeId)).thenReturn(false);
-        when(nodeRepositoryJPA.save(node)).thenReturn(node);
+        when(nodeRepositoryJPA.saveAndFlush(node)).thenReturn(node);
         when(nodeMapper.fromObjectToDTO(node)).thenReturn(responseDTO);
 
         // Act
@@ -64,8 +74,7 @@ class CreateNodeUseCaseTest {
         // Assert
         assertThat(result).isEqualTo(responseDTO);
         verify(nodeMapper).fromDTOtoObject(registrationDTO, algorithmId);
-        verify(nodeRepositoryJPA).existsById(nodeId);
-        verify(nodeRepositoryJPA).save(node);
+        verify(nodeRepositoryJPA).saveAndFlush(node);
         verify(nodeMapper).fromObjectToDTO(node);
     }
 
@@ -73,7 +82,8 @@ class CreateNodeUseCaseTest {
     void execute_whenNodeIdAlreadyExists_shouldThrowNodeAlreadyExistsException() {
         // Arrange
         when(nodeMapper.fromDTOtoObject(registrationDTO, algorithmId)).thenReturn(node);
-        when(nodeRepositoryJPA.existsById(nodeId)).thenReturn(true);
+        when(nodeRepositoryJPA.saveAndFlush(node))
+                .thenThrow(constraintViolation("23505", "pk_node"));
 
         // Act & Assert
         assertThrows(
@@ -82,8 +92,25 @@ class CreateNodeUseCaseTest {
         );
 
         verify(nodeMapper).fromDTOtoObject(registrationDTO, algorithmId);
-        verify(nodeRepositoryJPA).existsById(nodeId);
-        verify(nodeRepositoryJPA, never()).save(any());
+        verify(nodeRepositoryJPA).saveAndFlush(node);
+        verifyNoMoreInteractions(nodeRepositoryJPA);
+        verify(nodeMapper, never()).fromObjectToDTO(any());
+    }
+
+    @Test
+    void execute_whenAnotherConstraintIsViolated_shouldPropagateTheViolation() {
+        // Arrange
+        DataIntegrityViolationException violation = constraintViolation("23503", "fk_node_on_algorithm");
+        when(nodeMapper.fromDTOtoObject(registrationDTO, algorithmId)).thenReturn(node);
+        when(nodeRepositoryJPA.saveAndFlush(node)).thenThrow(violation);
+
+        // Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(
+                DataIntegrityViolationException.class,
+                () -> createNodeUseCase.execute(registrationDTO, algorithmId)
+        );
+
+        assertThat(thrown).isSameAs(violation);
         verify(nodeMapper, never()).fromObjectToDTO(any());
     }
 }
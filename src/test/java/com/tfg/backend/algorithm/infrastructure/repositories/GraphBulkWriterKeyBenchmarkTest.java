@@ -0,0 +1,105 @@
+package com.tfg.backend.algorithm.infrastructure.repositories;
+
+import com.tfg.backend.TestContainersConfig;
+import com.tfg.backend.common.UuidV7;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insert throughput, primary-key index size and WAL volume of the node bulk-ingest
+ * path with random (v4) against time-ordered (v7) keys. Opt-in, as it writes a few
+ * million rows: {@code mvn test -Dtest=GraphBulkWriterKeyBenchmarkTest -Dbenchmarks=true}
+ * ({@code -Dbenchmarks.rows=...} to change the size, default 2,000,000).
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class GraphBulkWriterKeyBenchmarkTest {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO %s (id, type, algorithm_id, x, y, z) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 5000;
+    // Rows per ingest, like one STN; the index is already large for the later ones
+    private static final int ROWS_PER_INGEST = 100_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> tables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        tables.forEach(table -> jdbcTemplate.execute("DROP TABLE IF EXISTS " + table));
+    }
+
+    private record Result(String keys, double rowsPerSecond, long indexBytes, long walBytes) {
+    }
+
+    private Result ingest(String keys, Supplier<UUID> ids, int rows) {
+        String table = "bench_node_" + keys;
+        tables.add(table);
+        // Same columns and primary key as node, without its foreign keys
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + table);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE node INCLUDING DEFAULTS INCLUDING INDEXES)");
+        UUID algorithmId = UuidV7.generate();
+        String sql = INSERT_SQL.formatted(table);
+        String walStart = jdbcTemplate.queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+
+        long start = System.nanoTime();
+        for (int done = 0; done < rows; done += ROWS_PER_INGEST) {
+            List<UUID> batch = new ArrayList<>(ROWS_PER_INGEST);
+            for (int i = 0; i < Math.min(ROWS_PER_INGEST, rows - done); i++) {
+                batch.add(ids.get());
+            }
+            jdbcTemplate.batchUpdate(sql, batch, BATCH_SIZE, (ps, id) -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ps.setObject(1, id);
+                ps.setString(2, "DEFAULT");
+                ps.setObject(3, algorithmId);
+                ps.setDouble(4, random.nextDouble());
+                ps.setDouble(5, random.nextDouble());
+                ps.setDouble(6, random.nextDouble());
+            });
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        Long walBytes = jdbcTemplate.queryForObject(
+                "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)::bigint", Long.class, walStart);
+        Long indexBytes = jdbcTemplate.queryForObject(
+                "SELECT pg_indexes_size(?::regclass)", Long.class, table);
+        return new Result(keys, rows / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)),
+                indexBytes, walBytes);
+    }
+
+    @Test
+    void ingest_withTimeOrderedKeys_shouldKeepThePrimaryKeyIndexCompact() {
+        // Arrange
+        int rows = Integer.getInteger("benchmarks.rows", 2_000_000);
+
+        // Act
+        Result v4 = ingest("v4", UUID::randomUUID, rows);
+        Result v7 = ingest("v7", UuidV7::generate, rows);
+
+        // Assert
+        for (Result result : List.of(v4, v7)) {
+            System.out.printf("%s keys: %,.0f rows/s, index %,d kB, WAL %,d kB%n", result.keys(),
+                    result.rowsPerSecond(), result.indexBytes() / 1024, result.walBytes() / 1024);
+        }
+        // Appending to the right edge of the B-tree fills its pages instead of splitting them half-full
+        assertThat(v7.indexBytes()).isLessThan(v4.indexBytes());
+    }
+}
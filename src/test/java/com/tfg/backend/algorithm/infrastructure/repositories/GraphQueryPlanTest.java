@@ -0,0 +1,238 @@
+package com.tfg.backend.algorithm.infrastructure.repositories;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.TestContainersConfig;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of the graph-table repository queries (and of the FK cascades and
+ * chunked deletes run when a problem's graph is reclaimed) at realistic row counts:
+ * each must reach its table through an index, never a sequential scan. The repository
+ * SQL is captured from Hibernate while the methods run, so it includes whatever the
+ * mappings add, such as the {@code deleted_at IS NULL} of the soft-deleted problems.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.tfg.backend.algorithm.infrastructure.repositories.GraphQueryPlanTest$CapturingStatementInspector")
+@Import(TestContainersConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GraphQueryPlanTest {
+
+    private static final int COLLECTIONS = 100;
+    private static final int PROBLEMS = 2_000;
+    private static final int ALGORITHMS = 10_000;
+    private static final int NODES = 300_000;
+
+    // Deterministic ids, so the queries can probe rows of the seeded data
+    private static final String ID = "md5('plan-test-%s-' || %s)::uuid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private NodeRepositoryJPA nodeRepositoryJPA;
+
+    @Autowired
+    private EdgeRepositoryJPA edgeRepositoryJPA;
+
+    @Autowired
+    private AlgorithmRepositoryJPA algorithmRepositoryJPA;
+
+    @Autowired
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    /**
+     * Records the SQL that Hibernate prepares on the current thread, unchanged
+     */
+    public static class CapturingStatementInspector implements StatementInspector {
+        private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+
+    private static String id(String table, Object index) {
+        return ID.formatted(table, index);
+    }
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO problem_collection (id, name, color) "
+                + "SELECT " + id("collection", "i") + ", 'plan-test-' || i, '\\x00'::bytea "
+                + "FROM generate_series(1, " + COLLECTIONS + ") i");
+        jdbcTemplate.update("INSERT INTO problem (id, problem_type, name, color, value_best_known_solution, number_runs, "
+                + "vertex_size, arrow_size, tree_layout, problem_collection_id) "
+                + "SELECT " + id("problem", "i") + ", 'DiscreteProblem', 'plan-test-' || i, '\\x00'::bytea, 0, 1, 1, 1, "
+                + "false, " + id("collection", "i % " + COLLECTIONS + " + 1") + " "
+                + "FROM generate_series(1, " + PROBLEMS + ") i");
+        jdbcTemplate.update("INSERT INTO algorithm (id, name, color, problem_id) "
+                + "SELECT " + id("algorithm", "i") + ", 'plan-test-' || i, '\\x00'::bytea, "
+                + id("problem", "i % " + PROBLEMS + " + 1") + " "
+                + "FROM generate_series(1, " + ALGORITHMS + ") i");
+        jdbcTemplate.update("INSERT INTO node (id, type, algorithm_id, x, y, z) "
+                + "SELECT " + id("node", "i") + ", 'DEFAULT', " + id("algorithm", "i % " + ALGORITHMS + " + 1") + ", "
+                + "random(), random(), random() "
+                + "FROM generate_series(1, " + NODES + ") i");
+        // One edge per node, to the next node of the same algorithm
+        jdbcTemplate.update("INSERT INTO edge (id, source_node_id, target_node_id, algorithm_id) "
+                + "SELECT " + id("edge", "i") + ", " + id("node", "i") + ", "
+                + id("node", "(i + " + ALGORITHMS + " - 1) % " + NODES + " + 1") + ", "
+                + id("algorithm", "i % " + ALGORITHMS + " + 1") + " "
+                + "FROM generate_series(1, " + NODES + ") i");
+        jdbcTemplate.execute("ANALYZE problem_collection, problem, algorithm, node, edge");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        String algorithms = "SELECT id FROM algorithm WHERE name LIKE 'plan-test-%'";
+        jdbcTemplate.update("DELETE FROM edge WHERE algorithm_id IN (" + algorithms + ")");
+        jdbcTemplate.update("DELETE FROM node WHERE algorithm_id IN (" + algorithms + ")");
+        jdbcTemplate.update("DELETE FROM algorithm WHERE name LIKE 'plan-test-%'");
+        jdbcTemplate.update("DELETE FROM problem WHERE name LIKE 'plan-test-%'");
+        jdbcTemplate.update("DELETE FROM problem_collection WHERE name LIKE 'plan-test-%'");
+    }
+
+    private UUID probe(String table) {
+        return jdbcTemplate.queryForObject("SELECT " + id(table, 1), UUID.class);
+    }
+
+    /**
+     * Inline the parameters, in order, so the statement can be explained on its own
+     */
+    private static String bind(String sql, Object... parameters) {
+        StringBuilder bound = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                Object value = parameters[parameter++];
+                bound.append(value instanceof Number ? value : "'" + value + "'");
+            } else {
+                bound.append(c);
+            }
+        }
+        assertThat(parameter).as("parameters of %s", sql).isEqualTo(parameters.length);
+        return bound.toString();
+    }
+
+    private List<String> explain(String sql) throws Exception {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        List<String> scans = new ArrayList<>();
+        collectScans(objectMapper.readTree(json).get(0).path("Plan"), scans);
+        return scans;
+    }
+
+    private static void collectScans(JsonNode plan, List<String> scans) {
+        if (plan.has("Relation Name")) {
+            scans.add(plan.path("Node Type").asText() + " on " + plan.path("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectScans(child, scans);
+        }
+    }
+
+    Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                repositoryQuery("NodeRepositoryJPA.findByAlgorithmId", "node", "algorithm",
+                        algorithmId -> nodeRepositoryJPA.findByAlgorithmId(algorithmId)),
+                repositoryQuery("NodeRepositoryJPA.countByAlgorithmId", "node", "algorithm",
+                        algorithmId -> nodeRepositoryJPA.countByAlgorithmId(algorithmId)),
+                repositoryQuery("EdgeRepositoryJPA.findByAlgorithmId", "edge", "algorithm",
+                        algorithmId -> edgeRepositoryJPA.findByAlgorithmId(algorithmId)),
+                repositoryQuery("EdgeRepositoryJPA.countByAlgorithmId", "edge", "algorithm",
+                        algorithmId -> edgeRepositoryJPA.countByAlgorithmId(algorithmId)),
+                repositoryQuery("AlgorithmRepositoryJPA.findByProblemId", "algorithm", "problem",
+                        problemId -> algorithmRepositoryJPA.findByProblemId(problemId)),
+                repositoryQuery("ProblemRepositoryJPA.findByProblemCollectionId", "problem", "collection",
+                        collectionId -> problemRepositoryJPA.findByProblemCollectionId(collectionId)),
+                repositoryQuery("ProblemRepositoryJPA.findAllIdsByProblemCollectionId", "problem", "collection",
+                        collectionId -> problemRepositoryJPA.findAllIdsByProblemCollectionId(collectionId)));
+    }
+
+    private static Arguments repositoryQuery(String query, String table, String parent, Consumer<UUID> call) {
+        return Arguments.of(query, table, parent, call);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQuery_shouldNotScanTheWholeTable(String query, String table, String parent, Consumer<UUID> call)
+            throws Exception {
+        // Arrange
+        UUID parentId = probe(parent);
+        List<String> statements = CapturingStatementInspector.STATEMENTS.get();
+        statements.clear();
+
+        // Act - The query itself comes first, any eager loads of its results after it
+        call.accept(parentId);
+        assertThat(statements).as("SQL of %s", query).isNotEmpty();
+        List<String> scans = explain(bind(statements.get(0), parentId));
+
+        // Assert
+        assertThat(scans).as("plan of %s: %s", query, statements.get(0))
+                .anyMatch(scan -> scan.endsWith(" on " + table))
+                .noneMatch(scan -> scan.equals("Seq Scan on " + table));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            "GraphBulkDeleter edge chunk | edge",
+            "GraphBulkDeleter node chunk | node"
+    })
+    void chunkDelete_shouldNotScanTheWholeTable(String query, String table) throws Exception {
+        // Arrange
+        String sql = table.equals("edge") ? GraphBulkDeleter.DELETE_EDGES_SQL : GraphBulkDeleter.DELETE_NODES_SQL;
+
+        // Act - EXPLAIN without ANALYZE plans the delete without running it
+        List<String> scans = explain(bind(sql, probe("problem"), 10_000));
+
+        // Assert
+        assertThat(scans).as("plan of %s", query)
+                .anyMatch(scan -> scan.endsWith(" on " + table))
+                .noneMatch(scan -> scan.equals("Seq Scan on " + table));
+    }
+
+    /**
+     * What PostgreSQL runs on edge for each node deleted, to cascade FK_EDGE_ON_SOURCE_NODE
+     * and FK_EDGE_ON_TARGET_NODE; explained, not run
+     */
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            "FK cascade of a deleted source node | DELETE FROM ONLY edge WHERE source_node_id = ?",
+            "FK cascade of a deleted target node | DELETE FROM ONLY edge WHERE target_node_id = ?"
+    })
+    void foreignKeyCheck_shouldNotScanTheWholeTable(String query, String sql) throws Exception {
+        // Act
+        List<String> scans = explain(bind(sql, probe("node")));
+
+        // Assert
+        assertThat(scans).as("plan of %s", query)
+                .anyMatch(scan -> scan.endsWith(" on edge"))
+                .noneMatch(scan -> scan.equals("Seq Scan on edge"));
+    }
+}
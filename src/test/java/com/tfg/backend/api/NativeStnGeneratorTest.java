@@ -0,0 +1,161 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.StnEngine;
+import com.tfg.backend.visualization.VisualizationData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NativeStnGeneratorTest {
+
+    private final StnEngine stnEngine = new StnEngine(2);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NativeStnGenerator nativeStnGenerator = new NativeStnGenerator(stnEngine, objectMapper);
+    private final StnRunSupervisor stnRunSupervisor = new StnRunSupervisor(0, 0, 1000);
+
+    @AfterEach
+    void tearDown() {
+        stnEngine.shutdown();
+    }
+
+    private static RegistrationAlgorithmDTO algorithm(String name, Color color, String trace) {
+        String content = Base64.getEncoder().encodeToString(trace.getBytes(StandardCharsets.UTF_8));
+        return RegistrationAlgorithmDTO.builder()
+                .name(name)
+                .color(color)
+                .file(FileDTO.builder().fileName("trace.txt").content(content).build())
+                .build();
+    }
+
+    private static RegistrationProblemDTO registration() {
+        return RegistrationProblemDTO.builder()
+                .problemType("DiscreteProblem")
+                .valueBestKnownSolution(5)
+                .numberRuns(2)
+                .algorithms(List.of(
+                        algorithm("GA", Color.BLUE, "Run Fitness1 Solution1 Fitness2 Solution2\n"
+                                + "1 10 0001 8 0011\n1 8 0011 5 0111\n2 9 1000 5 0111\n"),
+                        algorithm("ILS", Color.GREEN, "Run Fitness1 Solution1 Fitness2 Solution2\n"
+                                + "1 10 0001 9 0010\n2 12 1111 11 1110\n")))
+                .build();
+    }
+
+    private StnRun startedRun() {
+        StnRun stnRun = stnRunSupervisor.newRun();
+        stnRun.start();
+        return stnRun;
+    }
+
+    /**
+     * The node with the given fitness; the labels are partition hashes
+     */
+    private static VisualizationData.NodeData node(VisualizationData data, double fitness) {
+        return data.getNodes().stream()
+                .filter(node -> node.getFitness() == fitness)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    void generate_shouldDescribeTheMergedStnAsThePlotScriptsDo() throws Exception {
+        // Act
+        StnResult result = nativeStnGenerator.generate(registration(), false, startedRun());
+
+        // Assert
+        assertThat(result.pdf()).isNull();
+        VisualizationData data = objectMapper.readValue(result.json(), VisualizationData.class);
+        assertThat(data.getAlgorithms()).containsExactly("GA", "ILS");
+        assertThat(data.getAlgorithmColors()).containsExactly("#0000ff", "#00ff00");
+        assertThat(data.getStats().getNode_count()).isEqualTo(data.getNodes().size());
+        assertThat(data.getStats().getEdge_count()).isEqualTo(data.getEdges().size());
+        // ILS's second run never meets the rest
+        assertThat(data.getStats().getComponent_count()).isEqualTo(2);
+
+        Map<String, VisualizationData.NodeData> nodes = data.getNodes().stream()
+                .collect(Collectors.toMap(VisualizationData.NodeData::getId, Function.identity()));
+        assertThat(data.getEdges()).allSatisfy(edge -> assertThat(nodes).containsKeys(edge.getFrom(), edge.getTo()));
+        assertThat(data.getNodes()).allSatisfy(node -> {
+            assertThat(node.getX_fr()).isFinite();
+            assertThat(node.getY_fr()).isFinite();
+            assertThat(node.getX_kk()).isFinite();
+            assertThat(node.getY_kk()).isFinite();
+        });
+
+        // Both algorithms start at 0001: one shared start node
+        VisualizationData.NodeData sharedStart = node(data, 10.0);
+        assertThat(sharedStart.getAlgorithm()).isEqualTo("GAILS");
+        assertThat(sharedStart.getType()).isEqualTo("startstart");
+        assertThat(sharedStart.getColor()).isEqualTo(NativeStnGenerator.START_COLOR);
+        assertThat(sharedStart.getSize()).isEqualTo(1.0);
+
+        // 0111 is reached by two GA transitions and is the best known solution
+        VisualizationData.NodeData best = node(data, 5.0);
+        assertThat(best.getAlgorithm()).isEqualTo("GA");
+        assertThat(best.getType()).isEqualTo("best");
+        assertThat(best.getColor()).isEqualTo(NativeStnGenerator.BEST_COLOR);
+        assertThat(best.getSize()).isEqualTo(3.6);
+    }
+
+    @Test
+    void generate_withTreeLayout_shouldUseTheTreeCoordinatesForBothLayouts() throws Exception {
+        // Act
+        StnResult result = nativeStnGenerator.generate(registration(), true, startedRun());
+
+        // Assert
+        VisualizationData data = objectMapper.readValue(result.json(), VisualizationData.class);
+        assertThat(data.getNodes()).isNotEmpty().allSatisfy(node -> {
+            assertThat(node.getX_kk()).isEqualTo(node.getX_fr());
+            assertThat(node.getY_kk()).isEqualTo(node.getY_fr());
+        });
+    }
+
+    @Test
+    void generate_withoutTraces_shouldReturnNull() throws Exception {
+        // Arrange
+        RegistrationProblemDTO dto = RegistrationProblemDTO.builder()
+                .problemType("DiscreteProblem")
+                .algorithms(List.of())
+                .build();
+
+        // Act & Assert
+        assertThat(nativeStnGenerator.generate(dto, false, startedRun())).isNull();
+    }
+
+    @Test
+    void generate_shouldReturnTheMetricsOfTheStnsItBuilt() throws Exception {
+        // Act
+        StnResult result = nativeStnGenerator.generate(registration(), false, startedRun());
+
+        // Assert
+        assertThat(result.metrics()).containsOnlyKeys("GA", "ILS");
+        assertThat(result.metrics().get("GA").bestCount()).isEqualTo(1);
+        assertThat(result.metrics().get("ILS").components()).isEqualTo(2);
+    }
+
+    @Test
+    void generate_ofAStoppedRun_shouldNotFinish() {
+        // Arrange
+        StnRun stnRun = startedRun();
+        stnRun.cancel();
+
+        // Act & Assert
+        assertThrows(
+                StnRunAbortedException.class,
+                () -> nativeStnGenerator.generate(registration(), false, stnRun)
+        );
+    }
+}
@@ -0,0 +1,181 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives the real stn_worker.py against a stub stn_cli module, so the protocol
+ * and the restart logic are exercised without numpy or R.
+ */
+class PythonWorkerPoolTest {
+
+    private static final String STUB_CLI = """
+            import base64
+            import os
+            import subprocess
+            import time
+
+            class CliError(Exception):
+                pass
+
+            def run(argv, traces=None, workspace=None, timings=None, on_stage=None):
+                if argv == ["hang"]:
+                    on_stage("create")
+                    subprocess.Popen(["sleep", "60"])
+                    time.sleep(60)
+                if timings is not None:
+                    timings.update({"partition": 5, "create": 7})
+                if workspace is not None:
+                    os.chdir(workspace)
+                    os.makedirs("temp")
+                    content = b"".join(base64.b64decode(t["content"]) for t in traces)
+                    with open("temp/out.json", "w") as f:
+                        f.write('{"workspace": "%s", "traces": "%s"}' % (workspace, content.decode()))
+                    with open("temp/out.pdf", "wb") as f:
+                        f.write(b"%PDF")
+                    return "temp/out.pdf", "temp/out.json"
+                print("noise that must not reach the protocol")
+                subprocess.run(["python3", "-c", "print('child noise')"])
+                if argv == ["crash"]:
+                    os._exit(3)
+                if argv == ["bad"]:
+                    raise CliError("bad arguments")
+                return "out/%s.pdf" % os.getpid(), "out/%s.json" % os.getpid()
+            """;
+
+    @TempDir
+    Path scriptsDir;
+
+    private PythonWorkerPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assumeTrue(pythonAvailable(), "python3 is required for this test");
+        Files.copy(Path.of("python", "stn_worker.py"), scriptsDir.resolve("stn_worker.py"));
+        Files.writeString(scriptsDir.resolve("stn_cli.py"), STUB_CLI);
+        pool = new PythonWorkerPool("python3", scriptsDir.toString(), 1, 100, 30000, new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean pythonAvailable() {
+        try {
+            Process p = new ProcessBuilder("python3", "--version").start();
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    @Test
+    void run_shouldReuseTheSameWarmWorker() throws Exception {
+        // Act
+        String[] first = pool.run(List.of("--typeproblem", "discrete"));
+        String[] second = pool.run(List.of("--typeproblem", "discrete"));
+
+        // Assert
+        assertThat(first[0]).endsWith(".pdf");
+        assertThat(first[1]).endsWith(".json");
+        assertThat(second).containsExactly(first);
+        assertThat(pool.getRestarts()).isZero();
+    }
+
+    @Test
+    void run_whenCliRejectsArguments_shouldThrowAndKeepWorker() throws Exception {
+        // Arrange
+        String[] before = pool.run(List.of("ok"));
+
+        // Act & Assert
+        IOException ex = assertThrows(IOException.class, () -> pool.run(List.of("bad")));
+        assertThat(ex.getMessage()).contains("bad arguments");
+        assertThat(pool.run(List.of("ok"))).containsExactly(before);
+        assertThat(pool.getRestarts()).isZero();
+    }
+
+    @Test
+    void run_whenWorkerCrashes_shouldReplaceItOnNextJob() throws Exception {
+        // Arrange
+        String[] before = pool.run(List.of("ok"));
+
+        // Act
+        assertThrows(IOException.class, () -> pool.run(List.of("crash")));
+        String[] after = pool.run(List.of("ok"));
+
+        // Assert - a different process served the job
+        assertThat(after[0]).isNotEqualTo(before[0]);
+        assertThat(pool.getRestarts()).isEqualTo(1);
+    }
+
+    @Test
+    void runInline_shouldReturnTheResultsAndDeleteTheWorkspace() throws Exception {
+        // Arrange
+        List<Map<String, String>> traces = List.of(
+                Map.of("file", "a.txt", "name", "A", "color", "#ff0000",
+                        "content", Base64.getEncoder().encodeToString("run-a ".getBytes(StandardCharsets.UTF_8))),
+                Map.of("file", "b.txt", "name", "B", "color", "#00ff00",
+                        "content", Base64.getEncoder().encodeToString("run-b".getBytes(StandardCharsets.UTF_8))));
+
+        // Act
+        PythonWorkerPool.Output output = pool.runInline(List.of("--json-only"), traces,
+                new StnRunSupervisor(0, 0, 1000).newRun());
+
+        // Assert
+        JsonNode json = new ObjectMapper().readTree(output.json());
+        assertThat(json.path("traces").asText()).isEqualTo("run-a run-b");
+        assertThat(output.pdf()).isEqualTo("%PDF".getBytes(StandardCharsets.US_ASCII));
+        assertThat(output.timings()).containsExactly(Map.entry("partition", 5L), Map.entry("create", 7L));
+        assertThat(Path.of(json.path("workspace").asText())).doesNotExist();
+        assertThat(pool.run(List.of("ok"))[1]).endsWith(".json");
+    }
+
+    @Test
+    void runInline_whenTheRunTimesOut_shouldKillTheWorkerAndReplaceIt() throws Exception {
+        // Arrange
+        StnRunSupervisor supervisor = new StnRunSupervisor(1, 0, 50);
+        StnRun run = supervisor.newRun();
+        run.start();
+
+        // Act
+        StnRunAbortedException ex = assertThrows(StnRunAbortedException.class,
+                () -> pool.runInline(List.of("hang"), List.of(), run));
+        supervisor.shutdown();
+
+        // Assert
+        assertThat(ex.getReason()).isEqualTo(StnRun.AbortReason.TIMEOUT);
+        assertThat(ex.getStage()).isEqualTo("generate.create");
+        assertThat(pool.run(List.of("ok"))[1]).endsWith(".json");
+        assertThat(pool.getRestarts()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledPool_shouldReportItself() {
+        // Arrange
+        PythonWorkerPool disabled = new PythonWorkerPool("python3", scriptsDir.toString(), 0, 100, 30000, new ObjectMapper());
+
+        // Act & Assert
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThrows(IllegalStateException.class, () -> disabled.run(List.of()));
+    }
+}
@@ -0,0 +1,137 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.StnMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StnGeneratorServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private PythonWorkerPool pythonWorkerPool;
+
+    @Mock
+    private NativeStnGenerator nativeStnGenerator;
+
+    @Mock
+    private StnMetricsService stnMetricsService;
+
+    private final StnRunSupervisor stnRunSupervisor = new StnRunSupervisor(0, 0, 1000);
+
+    private StnGeneratorService stnGeneratorService;
+
+    private RegistrationProblemDTO registrationDTO;
+    private UUID problemId;
+
+    @BeforeEach
+    void setUp() {
+        StnResultCache stnResultCache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000,
+                new ObjectMapper());
+        stnGeneratorService = new StnGeneratorService("python3", "python", stnResultCache, pythonWorkerPool,
+                stnRunSupervisor, nativeStnGenerator, stnMetricsService, true);
+        String trace = "Run Fitness1 Solution1 Fitness2 Solution2\n1 10 0001 8 0011\n";
+        registrationDTO = RegistrationProblemDTO.builder()
+                .problemType("DiscreteProblem")
+                .valueBestKnownSolution(5)
+                .numberRuns(1)
+                .algorithms(List.of(RegistrationAlgorithmDTO.builder()
+                        .name("GA")
+                        .file(FileDTO.builder()
+                                .fileName("trace.txt")
+                                .content(Base64.getEncoder().encodeToString(trace.getBytes(StandardCharsets.UTF_8)))
+                                .build())
+                        .build()))
+                .build();
+        problemId = UUID.randomUUID();
+    }
+
+    private StnResult generate() throws Exception {
+        try (StnRun stnRun = stnRunSupervisor.newRun()) {
+            stnRun.start();
+            return stnGeneratorService.generateFromRegistration(registrationDTO, problemId, new HashMap<>(), stnRun);
+        }
+    }
+
+    @Test
+    void decodeTo_shouldWriteTheDecodedBytesAndReturnTheirHash() throws Exception {
+        // Arrange
+        byte[] content = new byte[100_003];
+        new Random(7).nextBytes(content);
+        Path target = tempDir.resolve("upload.txt");
+        Files.writeString(target, "stale content");
+
+        // Act
+        String hash = StnGeneratorService.decodeTo(Base64.getEncoder().encodeToString(content), target);
+
+        // Assert
+        assertThat(Files.readAllBytes(target)).isEqualTo(content);
+        assertThat(hash).isEqualTo(StnResultCache.hash(content));
+        assertThat(StnGeneratorService.hashBase64(Base64.getEncoder().encodeToString(content))).isEqualTo(hash);
+    }
+
+    @Test
+    void generateFromRegistration_onACacheHit_shouldReuseTheCachedMetrics() throws Exception {
+        // Arrange
+        byte[] json = {'{', '}'};
+        Map<String, StnMetrics> metrics = Map.of("GA", new StnMetrics(2, 1, 1, 0, 1, null, null, 0));
+        when(nativeStnGenerator.generate(eq(registrationDTO), eq(false), any(StnRun.class)))
+                .thenReturn(new StnResult(null, json, metrics));
+
+        // Act
+        StnResult generated = generate();
+        StnResult cached = generate();
+
+        // Assert
+        assertThat(generated.metrics()).isEqualTo(metrics);
+        assertThat(cached.json()).isEqualTo(json);
+        assertThat(cached.metrics()).isEqualTo(metrics);
+        verify(nativeStnGenerator, times(1)).generate(any(), anyBoolean(), any());
+        verifyNoInteractions(stnMetricsService);
+    }
+
+    @Test
+    void generateFromRegistration_onAHitCachedWithoutMetrics_shouldComputeThemOnceUnderTheRun() throws Exception {
+        // Arrange
+        Map<String, StnMetrics> metrics = Map.of("GA", new StnMetrics(2, 1, 1, 0, 1, null, null, 0));
+        when(nativeStnGenerator.generate(eq(registrationDTO), eq(false), any(StnRun.class)))
+                .thenReturn(new StnResult(null, new byte[]{'{', '}'}));
+        when(stnMetricsService.computeFromRegistration(eq(registrationDTO), any(StnRun.class))).thenReturn(metrics);
+
+        // Act
+        generate();
+        StnResult completed = generate();
+        StnResult cached = generate();
+
+        // Assert
+        assertThat(completed.metrics()).isEqualTo(metrics);
+        assertThat(cached.metrics()).isEqualTo(metrics);
+        verify(nativeStnGenerator, times(1)).generate(any(), anyBoolean(), any());
+        verify(stnMetricsService, times(1)).computeFromRegistration(any(), any());
+    }
+}
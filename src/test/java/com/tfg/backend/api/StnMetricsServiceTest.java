@@ -0,0 +1,106 @@
+package com.tfg.backend.api;
+
+import com.tfg.backend.algorithm.application.dto.FileDTO;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.stn.StnEngine;
+import com.tfg.backend.stn.StnMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StnMetricsServiceTest {
+
+    private final StnEngine stnEngine = new StnEngine(2);
+    private final StnMetricsService stnMetricsService = new StnMetricsService(stnEngine);
+    private final StnRunSupervisor stnRunSupervisor = new StnRunSupervisor(0, 0, 1000);
+
+    @AfterEach
+    void tearDown() {
+        stnEngine.shutdown();
+    }
+
+    private static RegistrationAlgorithmDTO algorithm(String name, String trace) {
+        String content = Base64.getEncoder().encodeToString(trace.getBytes(StandardCharsets.UTF_8));
+        return RegistrationAlgorithmDTO.builder()
+                .name(name)
+                .file(FileDTO.builder().fileName("trace.txt").content(content).build())
+                .build();
+    }
+
+    // Both traces use the same file name, as uploads often do
+    private static RegistrationProblemDTO registration() {
+        return RegistrationProblemDTO.builder()
+                .problemType("DiscreteProblem")
+                .valueBestKnownSolution(5)
+                .numberRuns(2)
+                .algorithms(List.of(
+                        algorithm("GA", "Run Fitness1 Solution1 Fitness2 Solution2\n"
+                                + "1 10 0001 8 0011\n1 8 0011 5 0111\n2 9 1000 5 0111\n"),
+                        algorithm("ILS", "Run Fitness1 Solution1 Fitness2 Solution2\n"
+                                + "1 10 0001 9 0010\n2 12 1111 11 1110\n")))
+                .build();
+    }
+
+    private StnRun startedRun() {
+        StnRun stnRun = stnRunSupervisor.newRun();
+        stnRun.start();
+        return stnRun;
+    }
+
+    @Test
+    void computeFromRegistration_shouldReturnTheMetricsOfEachAlgorithm() throws Exception {
+        // Act
+        Map<String, StnMetrics> metrics = stnMetricsService.computeFromRegistration(registration(), startedRun());
+
+        // Assert
+        assertThat(metrics).containsOnlyKeys("GA", "ILS");
+        StnMetrics ga = metrics.get("GA");
+        assertThat(ga.components()).isEqualTo(1);
+        assertThat(ga.bestCount()).isEqualTo(1);
+        assertThat(ga.bestStrength()).isEqualTo(1.0);
+        assertThat(ga.pathCount()).isEqualTo(2);
+        assertThat(ga.averagePathLength()).isEqualTo(1.5);
+        StnMetrics ils = metrics.get("ILS");
+        assertThat(ils.components()).isEqualTo(2);
+        assertThat(ils.endCount()).isEqualTo(2);
+        assertThat(ils.bestStrength()).isNull();
+    }
+
+    @Test
+    void computeFromRegistration_withTwoTracesUnderOneName_shouldRejectTheRegistration() {
+        // Arrange
+        String trace = "Run Fitness1 Solution1 Fitness2 Solution2\n1 10 0001 8 0011\n";
+        RegistrationProblemDTO dto = RegistrationProblemDTO.builder()
+                .problemType("DiscreteProblem")
+                .numberRuns(1)
+                .algorithms(List.of(algorithm("GA", trace), algorithm("GA", trace)))
+                .build();
+
+        // Act & Assert
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> stnMetricsService.computeFromRegistration(dto, startedRun())
+        );
+    }
+
+    @Test
+    void computeFromRegistration_ofAStoppedRun_shouldNotFinish() {
+        // Arrange
+        StnRun stnRun = startedRun();
+        stnRun.cancel();
+
+        // Act & Assert
+        assertThrows(
+                StnRunAbortedException.class,
+                () -> stnMetricsService.computeFromRegistration(registration(), stnRun)
+        );
+    }
+}
@@ -0,0 +1,186 @@
+package com.tfg.backend.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tfg.backend.stn.StnMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StnResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static StnResult jsonOnly(int size) {
+        return new StnResult(null, new byte[size]);
+    }
+
+    @Test
+    void key_shouldDependOnEveryPartAndItsBoundaries() {
+        // Act & Assert
+        assertThat(StnResultCache.key(List.of("--best", "10")))
+                .isEqualTo(StnResultCache.key(List.of("--best", "10")));
+        assertThat(StnResultCache.key(List.of("--best", "10")))
+                .isNotEqualTo(StnResultCache.key(List.of("--best", "100")));
+        assertThat(StnResultCache.key(List.of("ab", "c")))
+                .isNotEqualTo(StnResultCache.key(List.of("a", "bc")));
+    }
+
+    @Test
+    void lookup_afterStore_shouldHitAndCountBoth() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+
+        // Act
+        StnResult miss = cache.lookup("k1");
+        cache.store("k1", new StnResult(new byte[10], new byte[20]));
+        StnResult hit = cache.lookup("k1");
+
+        // Assert
+        assertThat(miss).isNull();
+        assertThat(hit.pdf()).hasSize(10);
+        assertThat(hit.json()).hasSize(20);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getTotalBytes()).isEqualTo(30);
+    }
+
+    @Test
+    void lookup_ofAJsonOnlyResult_shouldHitWithoutAPdf() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+
+        // Act
+        cache.store("k1", jsonOnly(20));
+        StnResult hit = cache.lookup("k1");
+
+        // Assert
+        assertThat(hit.pdf()).isNull();
+        assertThat(hit.json()).hasSize(20);
+    }
+
+    @Test
+    void storeResult_shouldWriteTheResultAsACacheEntry() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+        byte[] json = {'{', '}'};
+
+        // Act
+        cache.store("k1", new StnResult(null, json));
+        StnResult hit = cache.lookup("k1");
+
+        // Assert
+        assertThat(hit.pdf()).isNull();
+        assertThat(hit.json()).isEqualTo(json);
+        assertThat(cache.getTotalBytes()).isEqualTo(2);
+    }
+
+    @Test
+    void lookup_ofAResultStoredWithMetrics_shouldHandBackTheMetrics() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+        Map<String, StnMetrics> metrics = Map.of("GA", new StnMetrics(3, 2, 1, 1, 1, 0.5, null, 1));
+
+        // Act
+        cache.store("k1", new StnResult(null, new byte[20], metrics));
+        StnResult hit = cache.lookup("k1");
+
+        // Assert
+        assertThat(hit.metrics()).isEqualTo(metrics);
+    }
+
+    @Test
+    void lookup_ofAResultStoredWithoutMetrics_shouldHitWithoutThem() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+
+        // Act
+        cache.store("k1", jsonOnly(20));
+        StnResult hit = cache.lookup("k1");
+
+        // Assert
+        assertThat(hit.metrics()).isNull();
+    }
+
+    @Test
+    void storeResult_whenDisabled_shouldWriteNothing() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(false, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+
+        // Act
+        cache.store("k1", new StnResult(new byte[10], new byte[20]));
+
+        // Assert
+        assertThat(cache.lookup("k1")).isNull();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void lookup_shouldHandBackContentThatOutlivesAnEviction() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 150, objectMapper);
+        cache.store("a", jsonOnly(100));
+        StnResult hit = cache.lookup("a");
+
+        // Act
+        cache.store("b", jsonOnly(100)); // evicts "a"
+
+        // Assert
+        assertThat(cache.lookup("a")).isNull();
+        assertThat(hit.json()).hasSize(100);
+    }
+
+    @Test
+    void store_overCapacity_shouldEvictLeastRecentlyUsed() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(true, tempDir.resolve("cache").toString(), 250, objectMapper);
+        cache.store("a", jsonOnly(100));
+        cache.store("b", jsonOnly(100));
+        cache.lookup("a"); // "b" is now the least recently used
+
+        // Act
+        cache.store("c", jsonOnly(100));
+
+        // Assert
+        assertThat(cache.lookup("a")).isNotNull();
+        assertThat(cache.lookup("b")).isNull();
+        assertThat(cache.lookup("c")).isNotNull();
+        assertThat(cache.getTotalBytes()).isEqualTo(200);
+    }
+
+    @Test
+    void constructor_shouldReloadEntriesLeftOnDisk() throws Exception {
+        // Arrange
+        String dir = tempDir.resolve("cache").toString();
+        new StnResultCache(true, dir, 1_000_000, objectMapper).store("k1", jsonOnly(20));
+
+        // Act
+        StnResultCache reloaded = new StnResultCache(true, dir, 1_000_000, objectMapper);
+
+        // Assert
+        assertThat(reloaded.lookup("k1")).isNotNull();
+        assertThat(reloaded.getTotalBytes()).isEqualTo(20);
+    }
+
+    @Test
+    void disabledCache_shouldNeverHit() throws Exception {
+        // Arrange
+        StnResultCache cache = new StnResultCache(false, tempDir.resolve("cache").toString(), 1_000_000, objectMapper);
+        cache.store("k1", jsonOnly(20));
+
+        // Act & Assert
+        assertThat(cache.lookup("k1")).isNull();
+        assertThat(Files.exists(tempDir.resolve("cache"))).isFalse();
+    }
+}
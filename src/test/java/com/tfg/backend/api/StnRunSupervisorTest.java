@@ -0,0 +1,97 @@
+package com.tfg.backend.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StnRunSupervisorTest {
+
+    private StnRunSupervisor supervisor;
+
+    @AfterEach
+    void tearDown() {
+        if (supervisor != null) {
+            supervisor.shutdown();
+        }
+    }
+
+    private static Process startProcessTree() throws Exception {
+        assumeTrue(!System.getProperty("os.name").startsWith("Windows"), "needs a POSIX shell");
+        Process process = new ProcessBuilder("sh", "-c", "sleep 30 & sleep 30").start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (process.descendants().count() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        return process;
+    }
+
+    @Test
+    void check_whenARunExceedsItsTime_shouldKillTheWholeProcessTree() throws Exception {
+        // Arrange
+        supervisor = new StnRunSupervisor(1, 0, 50);
+        Process process = startProcessTree();
+        List<ProcessHandle> children = process.descendants().toList();
+        StnRun run = supervisor.newRun();
+        run.start();
+        run.setStage("generate.create");
+        run.attach(process);
+
+        // Act
+        boolean exited = process.waitFor(10, TimeUnit.SECONDS);
+        for (ProcessHandle child : children) {
+            child.onExit().get(10, TimeUnit.SECONDS);
+        }
+
+        // Assert
+        assertThat(exited).isTrue();
+        assertThat(children).isNotEmpty().noneMatch(ProcessHandle::isAlive);
+        StnRunAbortedException ex = assertThrows(StnRunAbortedException.class, run::throwIfAborted);
+        assertThat(ex.getReason()).isEqualTo(StnRun.AbortReason.TIMEOUT);
+        assertThat(ex.getStage()).isEqualTo("generate.create");
+        run.close();
+    }
+
+    @Test
+    void cancel_beforeStart_shouldKeepTheRunFromStartingOrAttaching() throws Exception {
+        // Arrange
+        supervisor = new StnRunSupervisor(0, 0, 1000);
+        StnRun run = supervisor.newRun();
+        Process process = startProcessTree();
+
+        // Act
+        boolean hadStarted = run.cancel();
+
+        // Assert
+        assertThat(hadStarted).isFalse();
+        assertThat(run.start()).isFalse();
+        StnRunAbortedException ex = assertThrows(StnRunAbortedException.class, () -> run.attach(process));
+        assertThat(ex.getReason()).isEqualTo(StnRun.AbortReason.CANCELLED);
+        assertThat(process.waitFor(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void check_withinTheLimits_shouldLeaveTheRunAlone() throws Exception {
+        // Arrange
+        supervisor = new StnRunSupervisor(60, 64 * 1024, 1000);
+        StnRun run = supervisor.newRun();
+        run.start();
+        Process process = startProcessTree();
+        run.attach(process);
+
+        // Act
+        supervisor.check();
+
+        // Assert
+        assertThat(process.isAlive()).isTrue();
+        run.throwIfAborted();
+        run.detach();
+        run.close();
+        ProcessTree.kill(process.toHandle());
+    }
+}
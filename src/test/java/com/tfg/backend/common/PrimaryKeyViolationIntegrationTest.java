@@ -0,0 +1,101 @@
+package com.tfg.backend.common;
+
+import com.tfg.backend.TestContainersConfig;
+import com.tfg.backend.problem.domain.ContinuousProblem;
+import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.problemCollection.domain.ProblemCollection;
+import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.Color;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Inserts the same id twice against PostgreSQL, checking that the exception Spring
+ * actually raises for it is recognized as a primary-key violation, and that other
+ * integrity violations of the same save are not.
+ */
+@SpringBootTest
+@Import(TestContainersConfig.class)
+class PrimaryKeyViolationIntegrationTest {
+
+    @Autowired
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    @Autowired
+    private ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ProblemCollection problemCollection;
+
+    @BeforeEach
+    void setUp() {
+        problemCollection = new ProblemCollection();
+        problemCollection.setId(UuidV7.generate());
+        problemCollection.setName("Test Collection");
+        problemCollection.setColor(Color.BLUE);
+        problemCollectionRepositoryJPA.saveAndFlush(problemCollection);
+    }
+
+    private static Problem problem(UUID id, ProblemCollection problemCollection) {
+        Problem problem = new ContinuousProblem();
+        problem.setId(id);
+        problem.setName("Test Problem");
+        problem.setColor(Color.RED);
+        problem.setValueBestKnownSolution(100);
+        problem.setNumberRuns(10);
+        problem.setVertexSize(1.0);
+        problem.setArrowSize(0.5);
+        problem.setTreeLayout(false);
+        problem.setProblemCollection(problemCollection);
+        return problem;
+    }
+
+    // Each save in its own transaction and persistence context, as two requests would
+    private DataIntegrityViolationException saveAndFlushFailure(Supplier<Problem> problem) {
+        return catchThrowableOfType(DataIntegrityViolationException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> problemRepositoryJPA.saveAndFlush(problem.get())));
+    }
+
+    @Test
+    void of_sameIdInsertedTwice_shouldBeThePrimaryKeyViolation() {
+        // Arrange
+        UUID id = UuidV7.generate();
+        problemRepositoryJPA.saveAndFlush(problem(id, problemCollection));
+
+        // Act
+        DataIntegrityViolationException e = saveAndFlushFailure(() -> problem(id, problemCollection));
+
+        // Assert
+        assertThat(e).isNotNull();
+        assertThat(PrimaryKeyViolation.of(e, "pk_problem")).isTrue();
+        assertThat(PrimaryKeyViolation.of(e, "pk_algorithm")).isFalse();
+    }
+
+    @Test
+    void of_missingForeignKey_shouldNotBeThePrimaryKeyViolation() {
+        // Arrange
+        UUID missingCollectionId = UuidV7.generate();
+
+        // Act
+        DataIntegrityViolationException e = saveAndFlushFailure(() -> problem(UuidV7.generate(),
+                problemCollectionRepositoryJPA.getReferenceById(missingCollectionId)));
+
+        // Assert
+        assertThat(e).isNotNull();
+        assertThat(PrimaryKeyViolation.of(e, "pk_problem")).isFalse();
+    }
+}
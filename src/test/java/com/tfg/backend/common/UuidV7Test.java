@@ -0,0 +1,59 @@
+package com.tfg.backend.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+    // Byte order, as PostgreSQL compares uuid values
+    private static int compareUnsigned(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    @Test
+    void generate_shouldSetVersion7AndTheRfcVariant() {
+        // Act
+        UUID uuid = UuidV7.generate();
+
+        // Assert
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UUID.fromString(uuid.toString())).isEqualTo(uuid);
+    }
+
+    @Test
+    void generate_shouldEmbedTheCurrentTime() {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        UUID uuid = UuidV7.generate();
+
+        // Assert - the counter may have borrowed a few milliseconds from a burst before
+        assertThat(UuidV7.timestamp(uuid)).isBetween(before, System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void generate_shouldBeStrictlyIncreasingAndUnique() {
+        // Arrange - far more ids than fit in one millisecond's counter
+        List<UUID> uuids = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            uuids.add(UuidV7.generate());
+        }
+
+        // Assert
+        for (int i = 1; i < uuids.size(); i++) {
+            assertThat(compareUnsigned(uuids.get(i - 1), uuids.get(i))).isNegative();
+        }
+        assertThat(new HashSet<>(uuids)).hasSameSizeAs(uuids);
+    }
+}
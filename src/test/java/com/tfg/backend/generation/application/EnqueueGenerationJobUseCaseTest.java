@@ -0,0 +1,113 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.GenerationStatus;
+import com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnqueueGenerationJobUseCaseTest {
+
+    @Mock
+    private GenerationJobRepositoryJPA generationJobRepositoryJPA;
+
+    @Mock
+    private GenerationJobRunner generationJobRunner;
+
+    @InjectMocks
+    private EnqueueGenerationJobUseCase enqueueGenerationJobUseCase;
+
+    private final GenerationAdmissionController.Reservation reservation = mock(GenerationAdmissionController.Reservation.class);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(generationJobRunner.reserve(any())).thenReturn(reservation);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void execute_withoutTransaction_shouldSaveQueuedJobAndSubmitImmediately() {
+        // Arrange
+        RegistrationProblemDTO registrationDTO = new RegistrationProblemDTO();
+        UUID problemId = UUID.randomUUID();
+        when(generationJobRepositoryJPA.save(any(GenerationJob.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Act
+        UUID jobId = enqueueGenerationJobUseCase.execute(registrationDTO, problemId);
+
+        // Assert
+        ArgumentCaptor<GenerationJob> captor = ArgumentCaptor.forClass(GenerationJob.class);
+        verify(generationJobRepositoryJPA).save(captor.capture());
+        assertThat(captor.getValue().getId()).isEqualTo(jobId);
+        assertThat(captor.getValue().getProblemId()).isEqualTo(problemId);
+        assertThat(captor.getValue().getStatus()).isEqualTo(GenerationStatus.QUEUED);
+        verify(generationJobRunner).submit(reservation, jobId, registrationDTO);
+    }
+
+    @Test
+    void execute_insideTransaction_shouldSubmitOnlyAfterCommit() {
+        // Arrange
+        RegistrationProblemDTO registrationDTO = new RegistrationProblemDTO();
+        when(generationJobRepositoryJPA.save(any(GenerationJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        UUID jobId = enqueueGenerationJobUseCase.execute(registrationDTO, UUID.randomUUID());
+
+        // Assert
+        verify(generationJobRunner, never()).submit(any(), any(), any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(generationJobRunner).submit(reservation, jobId, registrationDTO);
+    }
+
+    @Test
+    void execute_whenTheTransactionRollsBack_shouldGiveBackTheReservation() {
+        // Arrange
+        when(generationJobRepositoryJPA.save(any(GenerationJob.class))).thenAnswer(inv -> inv.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        enqueueGenerationJobUseCase.execute(new RegistrationProblemDTO(), UUID.randomUUID());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verify(generationJobRunner, never()).submit(any(), any(), any());
+        verify(generationJobRunner).release(reservation);
+    }
+
+    @Test
+    void execute_whenTheQueueIsFull_shouldSaveNothing() {
+        // Arrange
+        when(generationJobRunner.reserve(any())).thenThrow(new GenerationQueueFullException(5));
+
+        // Act & Assert
+        assertThrows(GenerationQueueFullException.class,
+                () -> enqueueGenerationJobUseCase.execute(new RegistrationProblemDTO(), UUID.randomUUID()));
+        verifyNoInteractions(generationJobRepositoryJPA);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.domain.exceptions.GenerationQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GenerationAdmissionControllerTest {
+
+    private final GenerationAdmissionController admission = new GenerationAdmissionController(1, 2);
+
+    @AfterEach
+    void tearDown() {
+        admission.shutdown();
+    }
+
+    private Future<Void> blockSlot(CountDownLatch started, CountDownLatch release) {
+        return admission.submit(admission.reserve(0), () -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+    }
+
+    @Test
+    void submit_shouldRunTheSmallestWaitingJobFirst() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockSlot(started, release);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<String> order = new CopyOnWriteArrayList<>();
+        GenerationAdmissionController.Reservation large = admission.reserve(1_000);
+        GenerationAdmissionController.Reservation small = admission.reserve(10);
+
+        // Act
+        Future<Boolean> first = admission.submit(large, () -> order.add("large"));
+        Future<Boolean> second = admission.submit(small, () -> order.add("small"));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(order).containsExactly("small", "large");
+        GenerationAdmissionController.Stats stats = admission.stats();
+        assertThat(stats.admitted()).isEqualTo(3);
+        assertThat(stats.queued()).isZero();
+        assertThat(stats.maxWaitMillis()).isGreaterThanOrEqualTo(stats.averageWaitMillis());
+    }
+
+    @Test
+    void reserve_whenTheQueueIsFull_shouldRejectWithARetryAfter() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        blockSlot(started, release);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        admission.reserve(1);
+        admission.reserve(1);
+
+        // Act
+        GenerationQueueFullException ex = assertThrows(GenerationQueueFullException.class, () -> admission.reserve(1));
+
+        // Assert
+        assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 600L);
+        assertThat(admission.stats().rejected()).isEqualTo(1);
+        assertThat(admission.stats().queued()).isEqualTo(2);
+        release.countDown();
+    }
+
+    @Test
+    void cancel_shouldGiveThePlaceBackOnlyOnce() {
+        // Arrange
+        GenerationAdmissionController.Reservation first = admission.reserve(1);
+        GenerationAdmissionController.Reservation second = admission.reserve(1);
+        admission.reserve(1);
+
+        // Act
+        admission.cancel(first);
+        admission.cancel(first);
+
+        // Assert
+        assertThat(admission.stats().queued()).isEqualTo(2);
+        assertThrows(IllegalStateException.class, () -> admission.submit(first, () -> null));
+        admission.cancel(second);
+        assertThat(admission.stats().queued()).isEqualTo(1);
+    }
+}
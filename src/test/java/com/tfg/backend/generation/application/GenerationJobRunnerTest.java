@@ -0,0 +1,230 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.api.StnGeneratorService;
+import com.tfg.backend.api.StnResult;
+import com.tfg.backend.api.StnRun;
+import com.tfg.backend.api.StnRunAbortedException;
+import com.tfg.backend.api.StnRunSupervisor;
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.GenerationStatus;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.problem.domain.VisualizationStatus;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.stn.StnMetrics;
+import com.tfg.backend.visualization.VisualizationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GenerationJobRunnerTest {
+
+    @Mock
+    private GenerationJobRepositoryJPA generationJobRepositoryJPA;
+
+    @Mock
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    @Mock
+    private StnGeneratorService stnGeneratorService;
+
+    @Mock
+    private VisualizationService visualizationService;
+
+    private GenerationAdmissionController generationAdmissionController;
+
+    private final StnRunSupervisor stnRunSupervisor = new StnRunSupervisor(0, 0, 1000);
+
+    private GenerationJobRunner generationJobRunner;
+
+    private UUID jobId;
+    private UUID problemId;
+    private GenerationJob job;
+    private RegistrationProblemDTO registrationDTO;
+
+    @BeforeEach
+    void setUp() {
+        generationAdmissionController = new GenerationAdmissionController(1, 1);
+        generationJobRunner = new GenerationJobRunner(generationJobRepositoryJPA, problemRepositoryJPA,
+                stnGeneratorService, visualizationService, generationAdmissionController,
+                stnRunSupervisor);
+        jobId = UUID.randomUUID();
+        problemId = UUID.randomUUID();
+        job = GenerationJob.builder().id(jobId).problemId(problemId).status(GenerationStatus.QUEUED).build();
+        registrationDTO = new RegistrationProblemDTO();
+        lenient().when(generationJobRepositoryJPA.save(any(GenerationJob.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        generationAdmissionController.shutdown();
+    }
+
+    @Test
+    void run_whenPipelineSucceeds_shouldPersistVisualizationAndMarkDone() throws Exception {
+        // Arrange
+        byte[] json = "{}".getBytes();
+        registrationDTO.setTreeLayout(true);
+        Map<String, StnMetrics> metrics = Map.of("alg", new StnMetrics(3, 2, 1, 1, 1, 0.5, 2.0, 1));
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(stnGeneratorService.generateFromRegistration(eq(registrationDTO), eq(problemId), anyMap(), any(StnRun.class))).thenAnswer(inv -> {
+            inv.<Map<String, Long>>getArgument(2).put("generate.create", 12L);
+            return new StnResult(null, json, metrics);
+        });
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        verify(visualizationService).processAndPersistVisualization(json, problemId, false, metrics);
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.DONE);
+        assertThat(job.getStartedAt()).isNotNull();
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(job.getStageDurations()).containsKeys(GenerationJobRunner.STAGE_GENERATE,
+                GenerationJobRunner.STAGE_PERSIST);
+        assertThat(job.getStageDurations()).containsEntry("generate.create", 12L);
+        verify(problemRepositoryJPA, never()).updateVisualizationStatus(any(), any());
+    }
+
+    @Test
+    void run_whenTheResultHasNoMetrics_shouldStillPersistVisualization() throws Exception {
+        // Arrange
+        byte[] json = "{}".getBytes();
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(stnGeneratorService.generateFromRegistration(eq(registrationDTO), eq(problemId), anyMap(), any(StnRun.class)))
+                .thenReturn(new StnResult(null, json));
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        verify(visualizationService).processAndPersistVisualization(json, problemId, true, Map.of());
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.DONE);
+    }
+
+    @Test
+    void run_whenPipelineFails_shouldMarkFailedWithMessage() throws Exception {
+        // Arrange
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(stnGeneratorService.generateFromRegistration(eq(registrationDTO), eq(problemId), anyMap(), any(StnRun.class)))
+                .thenThrow(new IOException("stn_cli.py failed with exit code 1"));
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        verify(visualizationService, never()).processAndPersistVisualization(any(), any(), anyBoolean(), anyMap());
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("stn_cli.py failed with exit code 1");
+        assertThat(job.getFailedStage()).isEqualTo(GenerationJobRunner.STAGE_GENERATE);
+        assertThat(job.getFinishedAt()).isNotNull();
+        verify(problemRepositoryJPA).updateVisualizationStatus(problemId, VisualizationStatus.FAILED);
+    }
+
+    @Test
+    void run_whenALimitStopsThePipeline_shouldMarkFailedWithTheStage() throws Exception {
+        // Arrange
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(stnGeneratorService.generateFromRegistration(eq(registrationDTO), eq(problemId), anyMap(), any(StnRun.class)))
+                .thenThrow(new StnRunAbortedException(StnRun.AbortReason.TIMEOUT, "Time limit of 5 s exceeded",
+                        "generate.create"));
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("Time limit of 5 s exceeded");
+        assertThat(job.getFailedStage()).isEqualTo("generate.create");
+    }
+
+    @Test
+    void run_whenCancelledWhileRunning_shouldStopBeforeTheNextStage() throws Exception {
+        // Arrange
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(stnGeneratorService.generateFromRegistration(eq(registrationDTO), eq(problemId), anyMap(), any(StnRun.class)))
+                .thenAnswer(inv -> {
+                    inv.getArgument(3, StnRun.class).cancel();
+                    return new StnResult(null, "{}".getBytes());
+                });
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        verifyNoInteractions(visualizationService);
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.CANCELLED);
+        assertThat(job.getFailedStage()).isEqualTo(GenerationJobRunner.STAGE_GENERATE);
+    }
+
+    @Test
+    void cancel_ofAQueuedJob_shouldCancelItWithoutRunningIt() throws Exception {
+        // Arrange - the only slot is busy, so the job waits in the queue
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        generationAdmissionController.submit(generationAdmissionController.reserve(0), () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        generationJobRunner.submit(generationJobRunner.reserve(registrationDTO), jobId, registrationDTO);
+
+        // Act
+        boolean cancelled = generationJobRunner.cancel(jobId);
+        release.countDown();
+
+        // Assert
+        assertThat(cancelled).isTrue();
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.CANCELLED);
+        verify(stnGeneratorService, after(200).never()).generateFromRegistration(any(), any(), any(), any());
+        assertThat(generationJobRunner.cancel(jobId)).isFalse();
+    }
+
+    @Test
+    void run_whenJobNoLongerExists_shouldDoNothing() throws Exception {
+        // Arrange
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.empty());
+
+        // Act
+        generationJobRunner.run(jobId, registrationDTO, stnRunSupervisor.newRun());
+
+        // Assert
+        verify(stnGeneratorService, never()).generateFromRegistration(any(), any(), any(), any());
+        verify(generationJobRepositoryJPA, never()).save(any());
+    }
+
+    @Test
+    void failInterruptedJobs_shouldFailQueuedAndRunningJobs() {
+        // Arrange
+        GenerationJob running = GenerationJob.builder().id(UUID.randomUUID()).problemId(problemId)
+                .status(GenerationStatus.RUNNING).build();
+        when(generationJobRepositoryJPA.findByStatusIn(List.of(GenerationStatus.QUEUED, GenerationStatus.RUNNING)))
+                .thenReturn(List.of(job, running));
+
+        // Act
+        generationJobRunner.failInterruptedJobs();
+
+        // Assert
+        assertThat(job.getStatus()).isEqualTo(GenerationStatus.FAILED);
+        assertThat(running.getStatus()).isEqualTo(GenerationStatus.FAILED);
+        verify(generationJobRepositoryJPA, times(2)).save(any(GenerationJob.class));
+    }
+}
@@ -0,0 +1,59 @@
+package com.tfg.backend.generation.application;
+
+import com.tfg.backend.generation.application.dto.ResponseGenerationJobDTO;
+import com.tfg.backend.generation.application.mapper.GenerationJobMapper;
+import com.tfg.backend.generation.domain.GenerationJob;
+import com.tfg.backend.generation.domain.exceptions.GenerationJobNotFoundException;
+import com.tfg.backend.generation.infrastructure.repositories.GenerationJobRepositoryJPA;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadGenerationJobUseCaseTest {
+
+    @Mock
+    private GenerationJobMapper generationJobMapper;
+
+    @Mock
+    private GenerationJobRepositoryJPA generationJobRepositoryJPA;
+
+    @InjectMocks
+    private ReadGenerationJobUseCase readGenerationJobUseCase;
+
+    @Test
+    void execute_existingJob_shouldReturnDTO() {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        GenerationJob job = mock(GenerationJob.class);
+        ResponseGenerationJobDTO responseDTO = mock(ResponseGenerationJobDTO.class);
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.of(job));
+        when(generationJobMapper.fromObjectToDTO(job)).thenReturn(responseDTO);
+
+        // Act
+        ResponseGenerationJobDTO result = readGenerationJobUseCase.execute(jobId);
+
+        // Assert
+        assertThat(result).isEqualTo(responseDTO);
+    }
+
+    @Test
+    void execute_unknownJob_shouldThrowGenerationJobNotFoundException() {
+        // Arrange
+        UUID jobId = UUID.randomUUID();
+        when(generationJobRepositoryJPA.findById(jobId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(GenerationJobNotFoundException.class, () -> readGenerationJobUseCase.execute(jobId));
+        verify(generationJobMapper, never()).fromObjectToDTO(any());
+    }
+}
@@ -1,19 +1,26 @@
 package com.tfg.backend.problem.application;
 
 import com.tfg.backend.algorithm.application.CreateAlgorithmUseCase;
+import com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO;
+import com.tfg.backend.generation.application.EnqueueGenerationJobUseCase;
 import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
 import com.tfg.backend.problem.application.dto.ResponseProblemDTO;
 import com.tfg.backend.problem.application.mapper.ProblemMapper;
 import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import com.tfg.backend.problem.domain.exceptions.ProblemAlreadyExistsException;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +39,9 @@ class CreateProblemUseCaseTest {
     @Mock
     private CreateAlgorithmUseCase createAlgorithmUseCase;
 
+    @Mock
+    private EnqueueGenerationJobUseCase enqueueGenerationJobUseCase;
+
     @InjectMocks
     private CreateProblemUseCase createProblemUseCase;
 
@@ -49,15 +59,22 @@ class CreateProblemUseCaseTest {
         problemId = UUID.randomUUID();
         collectionId = UUID.randomUUID();
 
-        when(problem.getId()).thenReturn(problemId);
+        // Not read when the problem has no algorithms
+        lenient().when(problem.getId()).thenReturn(problemId);
+    }
+
+    // What Spring ORM raises when the INSERT of a flush violates a constraint
+    private static DataIntegrityViolationException constraintViolation(String sqlState, String constraintName) {
+        SQLException sqlException = new SQLException("violates constraint \"" + constraintName + "\"", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", sqlException, constraintName));
     }
 
     @Test
     void execute_validDTO_shouldCreateAndReturnResponse() {
         // Arrange
         when(problemMapper.fromDTOtoObject(registrationDTO, collectionId)).thenReturn(problem);
-        when(problemRepositoryJPA.existsById(problemId)).thenReturn(false);
-        when(problemRepositoryJPA.save(problem)).thenReturn(problem);
+        when(problemRepositoryJPA.saveAndFlush(problem)).thenReturn(problem);
         when(problemMapper.fromObjectToDTO(problem)).thenReturn(responseDTO);
 
         // Act
@@ -66,16 +83,40 @@ class CreateProblemUseCaseTest {
         // Assert
         assertThat(result).isEqualTo(responseDTO);
         verify(problemMapper).fromDTOtoObject(registrationDTO, collectionId);
-        verify(problemRepositoryJPA).existsById(problemId);
-        verify(problemRepositoryJPA).save(problem);
+        verify(problemRepositoryJPA).saveAndFlush(problem);
         verify(problemMapper).fromObjectToDTO(problem);
+        verify(problem).setVisualizationStatus(VisualizationStatus.NONE);
+        verify(enqueueGenerationJobUseCase, never()).execute(any(), any());
+    }
+
+    @Test
+    void execute_withAlgorithms_shouldEnqueueGenerationJobAndReturnItsId() {
+        // Arrange
+        RegistrationAlgorithmDTO algorithmDTO = mock(RegistrationAlgorithmDTO.class);
+        UUID jobId = UUID.randomUUID();
+        when(registrationDTO.getAlgorithms()).thenReturn(List.of(algorithmDTO));
+        when(problemMapper.fromDTOtoObject(registrationDTO, collectionId)).thenReturn(problem);
+        when(problemRepositoryJPA.saveAndFlush(problem)).thenReturn(problem);
+        when(enqueueGenerationJobUseCase.execute(registrationDTO, problemId)).thenReturn(jobId);
+        when(problemMapper.fromObjectToDTO(problem)).thenReturn(responseDTO);
+
+        // Act
+        ResponseProblemDTO result = createProblemUseCase.execute(registrationDTO, collectionId);
+
+        // Assert
+        assertThat(result).isEqualTo(responseDTO);
+        verify(createAlgorithmUseCase).execute(algorithmDTO, problemId);
+        verify(enqueueGenerationJobUseCase).execute(registrationDTO, problemId);
+        verify(responseDTO).setGenerationJobId(jobId);
+        verify(problem).setVisualizationStatus(VisualizationStatus.PENDING);
     }
 
     @Test
     void execute_whenProblemIdAlreadyExists_shouldThrowProblemAlreadyExistsException() {
         // Arrange
         when(problemMapper.fromDTOtoObject(registrationDTO, collectionId)).thenReturn(problem);
-        when(problemRepositoryJPA.existsById(problemId)).thenReturn(true);
+        when(problemRepositoryJPA.saveAndFlush(problem))
+                .thenThrow(constraintViolation("23505", "pk_problem"));
 
         // Act & Assert
         assertThrows(
@@ -84,8 +125,27 @@ class CreateProblemUseCaseTest {
         );
 
         verify(problemMapper).fromDTOtoObject(registrationDTO, collectionId);
-        verify(problemRepositoryJPA).existsById(problemId);
-        verify(problemRepositoryJPA, never()).save(any());
+        verify(problemRepositoryJPA).saveAndFlush(problem);
+        verifyNoMoreInteractions(problemRepositoryJPA);
+        verify(problemMapper, never()).fromObjectToDTO(any());
+        verify(createAlgorithmUseCase, never()).execute(any(), any());
+        verify(enqueueGenerationJobUseCase, never()).execute(any(), any());
+    }
+
+    @Test
+    void execute_whenAnotherConstraintIsViolated_shouldPropagateTheViolation() {
+        // Arrange
+        DataIntegrityViolationException violation = constraintViolation("23503", "fk_problem_on_problem_collection");
+        when(problemMapper.fromDTOtoObject(registrationDTO, collectionId)).thenReturn(problem);
+        when(problemRepositoryJPA.saveAndFlush(problem)).thenThrow(violation);
+
+        // Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(
+                DataIntegrityViolationException.class,
+                () -> createProblemUseCase.execute(registrationDTO, collectionId)
+        );
+
+        assertThat(thrown).isSameAs(violation);
         verify(problemMapper, never()).fromObjectToDTO(any());
     }
 }
@@ -2,10 +2,13 @@ package com.tfg.backend.problem.application;
 
 import com.tfg.backend.TestContainersConfig;
 import com.tfg.backend.algorithm.domain.Algorithm;
+import com.tfg.backend.algorithm.domain.NodeType;
+import com.tfg.backend.algorithm.infrastructure.repositories.GraphBulkWriter;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
 import com.tfg.backend.problem.domain.ContinuousProblem;
 import com.tfg.backend.problem.domain.Problem;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.problemCollection.application.DeleteProblemCollectionUseCase;
 import com.tfg.backend.problemCollection.domain.ProblemCollection;
 import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,9 +16,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.awt.Color;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,6 +32,9 @@ class DeleteProblemUseCaseIntegrationTest {
     @Autowired
     private DeleteProblemUseCase deleteProblemUseCase;
 
+    @Autowired
+    private DeleteProblemCollectionUseCase deleteProblemCollectionUseCase;
+
     @Autowired
     private ProblemRepositoryJPA problemRepositoryJPA;
 
@@ -36,9 +44,16 @@ class DeleteProblemUseCaseIntegrationTest {
     @Autowired
     private ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
 
+    @Autowired
+    private GraphBulkWriter graphBulkWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private TransactionTemplate transactionTemplate;
 
+    private UUID problemCollectionId;
     private UUID problemId;
     private UUID algorithm1Id;
     private UUID algorithm2Id;
@@ -54,6 +69,8 @@ class DeleteProblemUseCaseIntegrationTest {
             problemCollection.setColor(Color.BLUE);
             problemCollectionRepositoryJPA.save(problemCollection);
 
+            problemCollectionId = problemCollection.getId();
+
             // Create and save a problem
             Problem problem = new ContinuousProblem();
             problem.setId(UUID.randomUUID());
@@ -88,12 +105,35 @@ class DeleteProblemUseCaseIntegrationTest {
 
             algorithm2Id = algorithm2.getId();
 
+            // A small graph on the first algorithm
+            UUID node1Id = UUID.randomUUID();
+            UUID node2Id = UUID.randomUUID();
+            graphBulkWriter.insertNodes(List.of(
+                    new GraphBulkWriter.NodeRow(node1Id, NodeType.START, algorithm1Id, 0.0, 0.0, null),
+                    new GraphBulkWriter.NodeRow(node2Id, NodeType.END, algorithm1Id, 1.0, 1.0, null)));
+            graphBulkWriter.insertEdges(List.of(
+                    new GraphBulkWriter.EdgeRow(UUID.randomUUID(), node1Id, node2Id, algorithm1Id)));
+
             return null;
         });
     }
 
+    private long countRows(String table) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM " + table + " WHERE algorithm_id IN (?, ?)", Long.class, algorithm1Id, algorithm2Id);
+    }
+
+    private boolean problemRowExists() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM problem WHERE id = ?", Long.class, problemId) > 0;
+    }
+
+    private boolean problemCollectionRowExists() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM problem_collection WHERE id = ?", Long.class, problemCollectionId) > 0;
+    }
+
     @Test
-    void execute_shouldCascadeDeleteAlgorithms() {
+    void execute_shouldHideTheProblemAndReclaimItsAlgorithmsAndGraph() throws InterruptedException {
         // Arrange - Verify initial state in a separate transaction
         Boolean problemExists = transactionTemplate.execute(status -> 
             problemRepositoryJPA.existsById(problemId)
@@ -108,6 +148,8 @@ class DeleteProblemUseCaseIntegrationTest {
         assertThat(problemExists).isTrue();
         assertThat(algorithm1Exists).isTrue();
         assertThat(algorithm2Exists).isTrue();
+        assertThat(countRows("node")).isEqualTo(2);
+        assertThat(countRows("edge")).isEqualTo(1);
 
         // Act - Delete the problem in a transaction that will be committed
         transactionTemplate.execute(status -> {
@@ -115,10 +157,19 @@ class DeleteProblemUseCaseIntegrationTest {
             return null;
         });
 
-        // Assert - Verify deletion in a separate transaction
+        // Assert - The problem is gone for readers right away
         Boolean problemExistsAfter = transactionTemplate.execute(status -> 
             problemRepositoryJPA.existsById(problemId)
         );
+        assertThat(problemExistsAfter).isFalse();
+        assertThat(algorithmRepositoryJPA.findByProblemId(problemId)).isEmpty();
+
+        // ...and its rows once the background reclaim finishes
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (problemRowExists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(problemRowExists()).isFalse();
         Boolean algorithm1ExistsAfter = transactionTemplate.execute(status -> 
             algorithmRepositoryJPA.existsById(algorithm1Id)
         );
@@ -126,8 +177,37 @@ class DeleteProblemUseCaseIntegrationTest {
             algorithmRepositoryJPA.existsById(algorithm2Id)
         );
 
-        assertThat(problemExistsAfter).isFalse();
         assertThat(algorithm1ExistsAfter).isFalse();
         assertThat(algorithm2ExistsAfter).isFalse();
+        assertThat(countRows("node")).isZero();
+        assertThat(countRows("edge")).isZero();
+    }
+
+    @Test
+    void deletingTheCollectionOfADeletedProblem_shouldReclaimBoth() throws InterruptedException {
+        // Act - The problem row may still be waiting for its reclaim when the collection goes
+        transactionTemplate.execute(status -> {
+            deleteProblemUseCase.execute(problemId);
+            return null;
+        });
+        transactionTemplate.execute(status -> {
+            deleteProblemCollectionUseCase.execute(problemCollectionId);
+            return null;
+        });
+
+        // Assert - Hidden right away...
+        Boolean problemCollectionExistsAfter = transactionTemplate.execute(status ->
+            problemCollectionRepositoryJPA.existsById(problemCollectionId)
+        );
+        assertThat(problemCollectionExistsAfter).isFalse();
+
+        // ...and both rows gone once the background reclaim finishes
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (problemCollectionRowExists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(problemRowExists()).isFalse();
+        assertThat(problemCollectionRowExists()).isFalse();
+        assertThat(countRows("node")).isZero();
     }
 }
@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -20,6 +21,9 @@ class DeleteProblemUseCaseTest {
     @Mock
     private ProblemRepositoryJPA problemRepositoryJPA;
 
+    @Mock
+    private ProblemStorageReclaimer problemStorageReclaimer;
+
     @InjectMocks
     private DeleteProblemUseCase deleteProblemUseCase;
 
@@ -31,22 +35,23 @@ class DeleteProblemUseCaseTest {
     }
 
     @Test
-    void execute_existingProblem_shouldDeleteProblem() {
+    void execute_existingProblem_shouldMarkItDeletedAndReclaimItsStorage() {
         // Arrange
-        when(problemRepositoryJPA.existsById(problemId)).thenReturn(true);
+        when(problemRepositoryJPA.markDeleted(eq(problemId), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
         deleteProblemUseCase.execute(problemId);
 
         // Assert
-        verify(problemRepositoryJPA).existsById(problemId);
-        verify(problemRepositoryJPA).deleteById(problemId);
+        verify(problemRepositoryJPA).markDeleted(eq(problemId), any(LocalDateTime.class));
+        verify(problemStorageReclaimer).submit(problemId);
+        verify(problemRepositoryJPA, never()).deleteById(any());
     }
 
     @Test
     void execute_nonExistingProblem_shouldThrowProblemNotFoundException() {
         // Arrange
-        when(problemRepositoryJPA.existsById(problemId)).thenReturn(false);
+        when(problemRepositoryJPA.markDeleted(eq(problemId), any(LocalDateTime.class))).thenReturn(0);
 
         // Act & Assert
         assertThrows(
@@ -54,7 +59,6 @@ class DeleteProblemUseCaseTest {
                 () -> deleteProblemUseCase.execute(problemId)
         );
 
-        verify(problemRepositoryJPA).existsById(problemId);
-        verify(problemRepositoryJPA, never()).deleteById(any());
+        verify(problemStorageReclaimer, never()).submit(any());
     }
 }
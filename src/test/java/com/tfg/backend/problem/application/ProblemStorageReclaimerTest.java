@@ -0,0 +1,158 @@
+package com.tfg.backend.problem.application;
+
+import com.tfg.backend.algorithm.infrastructure.repositories.GraphBulkDeleter;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProblemStorageReclaimerTest {
+
+    private static final int CHUNK_SIZE = 100;
+    private static final long SWEEP_INTERVAL_MS = 50;
+
+    @Mock
+    private GraphBulkDeleter graphBulkDeleter;
+
+    @Mock
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    @Mock
+    private ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
+
+    private ProblemStorageReclaimer problemStorageReclaimer;
+
+    private UUID problemId;
+
+    @BeforeEach
+    void setUp() {
+        problemStorageReclaimer = new ProblemStorageReclaimer(graphBulkDeleter, problemRepositoryJPA,
+                problemCollectionRepositoryJPA, CHUNK_SIZE, SWEEP_INTERVAL_MS);
+        problemId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        problemStorageReclaimer.shutdown();
+    }
+
+    @Test
+    void reclaim_shouldDeleteEdgesThenNodesInChunksBeforeTheProblem() {
+        // Arrange
+        when(graphBulkDeleter.deleteEdgesOfProblem(problemId, CHUNK_SIZE)).thenReturn(CHUNK_SIZE, 30, 0);
+        when(graphBulkDeleter.deleteNodesOfProblem(problemId, CHUNK_SIZE)).thenReturn(CHUNK_SIZE, 0);
+
+        // Act
+        problemStorageReclaimer.reclaim(problemId);
+
+        // Assert
+        InOrder inOrder = inOrder(graphBulkDeleter);
+        inOrder.verify(graphBulkDeleter, times(3)).deleteEdgesOfProblem(problemId, CHUNK_SIZE);
+        inOrder.verify(graphBulkDeleter, times(2)).deleteNodesOfProblem(problemId, CHUNK_SIZE);
+        inOrder.verify(graphBulkDeleter).deleteProblem(problemId);
+    }
+
+    @Test
+    void reclaim_failingChunk_shouldKeepTheProblemForTheNextSweep() {
+        // Arrange
+        when(graphBulkDeleter.deleteEdgesOfProblem(problemId, CHUNK_SIZE))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+
+        // Act
+        problemStorageReclaimer.reclaim(problemId);
+
+        // Assert
+        verify(graphBulkDeleter, never()).deleteNodesOfProblem(any(), anyInt());
+        verify(graphBulkDeleter, never()).deleteProblem(any());
+    }
+
+    @Test
+    void reclaimCollection_shouldReclaimEveryProblemBeforeTheCollectionRow() {
+        // Arrange
+        UUID collectionId = UUID.randomUUID();
+        UUID otherProblemId = UUID.randomUUID();
+        when(problemRepositoryJPA.findAllIdsByProblemCollectionId(collectionId))
+                .thenReturn(List.of(problemId, otherProblemId));
+
+        // Act
+        problemStorageReclaimer.reclaimCollection(collectionId);
+
+        // Assert
+        InOrder inOrder = inOrder(graphBulkDeleter);
+        inOrder.verify(graphBulkDeleter).deleteProblem(problemId);
+        inOrder.verify(graphBulkDeleter).deleteProblem(otherProblemId);
+        inOrder.verify(graphBulkDeleter).deleteProblemCollection(collectionId);
+    }
+
+    @Test
+    void resumeInterruptedReclaims_shouldReclaimEveryCollectionStillMarkedDeleted() {
+        // Arrange
+        UUID collectionId = UUID.randomUUID();
+        when(problemRepositoryJPA.findDeletedIds()).thenReturn(List.of(problemId), List.of());
+        when(problemCollectionRepositoryJPA.findDeletedIds()).thenReturn(List.of(collectionId), List.of());
+        when(problemRepositoryJPA.findAllIdsByProblemCollectionId(collectionId)).thenReturn(List.of(problemId));
+        when(graphBulkDeleter.deleteProblemCollection(collectionId)).thenReturn(true);
+
+        // Act
+        problemStorageReclaimer.resumeInterruptedReclaims();
+
+        // Assert
+        verify(graphBulkDeleter, timeout(5000)).deleteProblemCollection(collectionId);
+    }
+
+    @Test
+    void resumeInterruptedReclaims_shouldReclaimEveryProblemStillMarkedDeleted() {
+        // Arrange
+        UUID otherProblemId = UUID.randomUUID();
+        when(problemRepositoryJPA.findDeletedIds()).thenReturn(List.of(problemId, otherProblemId), List.of());
+
+        // Act
+        problemStorageReclaimer.resumeInterruptedReclaims();
+
+        // Assert
+        verify(graphBulkDeleter, timeout(5000)).deleteProblem(problemId);
+        verify(graphBulkDeleter, timeout(5000)).deleteProblem(otherProblemId);
+    }
+
+    @Test
+    void resumeInterruptedReclaims_failedReclaim_shouldBeRetriedByALaterSweep() {
+        // Arrange
+        when(problemRepositoryJPA.findDeletedIds()).thenReturn(List.of(problemId), List.of(problemId), List.of());
+        when(graphBulkDeleter.deleteEdgesOfProblem(problemId, CHUNK_SIZE))
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"))
+                .thenReturn(0);
+
+        // Act
+        problemStorageReclaimer.resumeInterruptedReclaims();
+
+        // Assert
+        verify(graphBulkDeleter, timeout(5000)).deleteProblem(problemId);
+        verify(graphBulkDeleter, times(2)).deleteEdgesOfProblem(problemId, CHUNK_SIZE);
+    }
+
+    @Test
+    void sweep_failingLookup_shouldNotCancelLaterSweeps() {
+        // Arrange
+        when(problemRepositoryJPA.findDeletedIds())
+                .thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"))
+                .thenReturn(List.of(problemId), List.of());
+
+        // Act
+        problemStorageReclaimer.resumeInterruptedReclaims();
+
+        // Assert
+        verify(graphBulkDeleter, timeout(5000)).deleteProblem(problemId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tfg.backend.problem.application;
+
+import com.tfg.backend.algorithm.AlgorithmMother;
+import com.tfg.backend.algorithm.domain.Algorithm;
+import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
+import com.tfg.backend.api.StnGeneratorService;
+import com.tfg.backend.generation.application.GenerationAdmissionController;
+import com.tfg.backend.problem.ProblemMother;
+import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
+import com.tfg.backend.problem.application.mapper.ProblemMapper;
+import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.exceptions.ProblemNotFoundException;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadProblemPdfUseCaseTest {
+
+    @Mock
+    private ProblemMapper problemMapper;
+
+    @Mock
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    @Mock
+    private AlgorithmRepositoryJPA algorithmRepositoryJPA;
+
+    @Mock
+    private StnGeneratorService stnGeneratorService;
+
+    @Spy
+    private GenerationAdmissionController generationAdmissionController = new GenerationAdmissionController(1, 1);
+
+    @InjectMocks
+    private ReadProblemPdfUseCase readProblemPdfUseCase;
+
+    @AfterEach
+    void tearDown() {
+        generationAdmissionController.shutdown();
+    }
+
+    @Test
+    void execute_shouldRenderThePdfFromTheStoredProblem() throws Exception {
+        // Arrange
+        UUID problemId = UUID.randomUUID();
+        Problem problem = ProblemMother.validDiscreteProblem();
+        List<Algorithm> algorithms = List.of(AlgorithmMother.validAlgorithm());
+        RegistrationProblemDTO dto = ProblemMother.validRegistrationDiscreteProblemDTO();
+        byte[] pdf = {'%', 'P', 'D', 'F'};
+        when(problemRepositoryJPA.findById(problemId)).thenReturn(Optional.of(problem));
+        when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(algorithms);
+        when(problemMapper.fromObjectToRegistrationDTO(problem, algorithms)).thenReturn(dto);
+        when(stnGeneratorService.renderPdf(dto, problemId)).thenReturn(pdf);
+
+        // Act
+        Optional<byte[]> result = readProblemPdfUseCase.execute(problemId);
+
+        // Assert
+        assertThat(result).contains(pdf);
+    }
+
+    @Test
+    void execute_whenNothingIsRendered_shouldReturnEmpty() throws Exception {
+        // Arrange
+        UUID problemId = UUID.randomUUID();
+        when(problemRepositoryJPA.findById(problemId)).thenReturn(Optional.of(ProblemMother.validDiscreteProblem()));
+        when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(List.of());
+        when(problemMapper.fromObjectToRegistrationDTO(any(), any())).thenReturn(new RegistrationProblemDTO());
+        when(stnGeneratorService.renderPdf(any(), eq(problemId))).thenReturn(null);
+
+        // Act
+        Optional<byte[]> result = readProblemPdfUseCase.execute(problemId);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void execute_whenProblemDoesNotExist_shouldThrowProblemNotFoundException() throws Exception {
+        // Arrange
+        UUID problemId = UUID.randomUUID();
+        when(problemRepositoryJPA.findById(problemId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProblemNotFoundException.class, () -> readProblemPdfUseCase.execute(problemId));
+        verify(stnGeneratorService, never()).renderPdf(any(), any());
+    }
+}
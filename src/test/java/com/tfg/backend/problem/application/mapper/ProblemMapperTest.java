@@ -1,5 +1,7 @@
 package com.tfg.backend.problem.application.mapper;
 
+import com.tfg.backend.algorithm.AlgorithmMother;
+import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.problem.ProblemMother;
 import com.tfg.backend.problem.application.dto.RegistrationProblemDTO;
 import com.tfg.backend.problem.application.dto.ResponseProblemDTO;
@@ -18,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.awt.*;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -137,6 +140,28 @@ class ProblemMapperTest {
         assertThat(result.getDefaultShape()).isEqualTo(problem.getDefaultShape());
     }
 
+    @Test
+    void fromObjectToRegistrationDTO_shouldRebuildTheRequestWithTheStoredTraces() {
+        // Arrange
+        ContinuousProblem problem = ProblemMother.validContinuousProblem();
+        Algorithm withFile = AlgorithmMother.validAlgorithm();
+        Algorithm withoutFile = AlgorithmMother.validAlgorithmWithoutFile();
+
+        // Act
+        RegistrationProblemDTO result = problemMapper.fromObjectToRegistrationDTO(problem, List.of(withFile, withoutFile));
+
+        // Assert
+        assertThat(result.getProblemType()).isEqualTo("ContinuousProblem");
+        assertThat(result.getNumberRuns()).isEqualTo(problem.getNumberRuns());
+        assertThat(result.getTreeLayout()).isEqualTo(problem.isTreeLayout());
+        assertThat(result.getAgglomerativeClustering().getDistance()).isEqualTo(problem.getAgglomerativeClustering().getDistance());
+        assertThat(result.getAlgorithms()).hasSize(2);
+        assertThat(result.getAlgorithms().get(0).getName()).isEqualTo(withFile.getName());
+        assertThat(result.getAlgorithms().get(0).getColor()).isEqualTo(withFile.getColor());
+        assertThat(result.getAlgorithms().get(0).getFile().getContent()).isEqualTo(withFile.getFile().getContent());
+        assertThat(result.getAlgorithms().get(1).getFile()).isNull();
+    }
+
     @Test
     void updateFromDTO_shouldUpdateProblemFields() {
         // Arrange
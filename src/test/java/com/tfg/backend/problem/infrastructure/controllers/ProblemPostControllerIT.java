@@ -117,4 +117,38 @@ public class ProblemPostControllerIT {
                 .andExpect(jsonPath("$.id").isNotEmpty())
                 .andExpect(jsonPath("$.name").value(requestDto.getName()));
     }
+
+    @Test
+    void createProblem_withTwoAlgorithmsOfTheSameName_returnsBadRequest() throws Exception {
+        // Arrange
+        RegistrationProblemDTO requestDto = ProblemMother.validRegistrationDiscreteProblemDTO();
+        requestDto.setAlgorithms(java.util.List.of(
+                com.tfg.backend.algorithm.AlgorithmMother.validRegistrationAlgorithmDTOWithoutFile(),
+                com.tfg.backend.algorithm.AlgorithmMother.validRegistrationAlgorithmDTOWithoutFile()
+        ));
+
+        // Act and Assert
+        mockMvc.perform(post("/problem-collections/{collectionId}/problems", collectionId)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createProblem_withAnUnnamedAlgorithm_returnsBadRequest() throws Exception {
+        // Arrange
+        RegistrationProblemDTO requestDto = ProblemMother.validRegistrationDiscreteProblemDTO();
+        com.tfg.backend.algorithm.application.dto.RegistrationAlgorithmDTO algorithmDto =
+                com.tfg.backend.algorithm.AlgorithmMother.validRegistrationAlgorithmDTOWithoutFile();
+        algorithmDto.setName(null);
+        requestDto.setAlgorithms(java.util.List.of(algorithmDto));
+
+        // Act and Assert
+        mockMvc.perform(post("/problem-collections/{collectionId}/problems", collectionId)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -1,24 +1,33 @@
 package com.tfg.backend.problemCollection.application;
 
+import com.tfg.backend.problem.application.ProblemStorageReclaimer;
+import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
 import com.tfg.backend.problemCollection.infrastructure.repositories.ProblemCollectionRepositoryJPA;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 import static org.mockito.Mockito.*;
 
-
 @ExtendWith(MockitoExtension.class)
 class DeleteProblemCollectionUseCaseTest {
 
     @Mock
     private ProblemCollectionRepositoryJPA problemCollectionRepositoryJPA;
 
+    @Mock
+    private ProblemRepositoryJPA problemRepositoryJPA;
+
+    @Mock
+    private ProblemStorageReclaimer problemStorageReclaimer;
+
     @InjectMocks
     private DeleteProblemCollectionUseCase deleteProblemCollectionUseCase;
 
@@ -30,28 +39,32 @@ class DeleteProblemCollectionUseCaseTest {
     }
 
     @Test
-    void execute_validId_shouldDeleteCollection() {
+    void execute_validId_shouldMarkTheCollectionAndItsProblemsDeletedAndReclaimThem() {
         // Arrange
-        when(problemCollectionRepositoryJPA.existsById(collectionId)).thenReturn(true);
+        when(problemCollectionRepositoryJPA.markDeleted(eq(collectionId), any(LocalDateTime.class))).thenReturn(1);
 
         // Act
         deleteProblemCollectionUseCase.execute(collectionId);
 
         // Assert
-        verify(problemCollectionRepositoryJPA).existsById(collectionId);
-        verify(problemCollectionRepositoryJPA).deleteById(collectionId);
+        ArgumentCaptor<LocalDateTime> deletedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(problemCollectionRepositoryJPA).markDeleted(eq(collectionId), deletedAt.capture());
+        verify(problemRepositoryJPA).markDeletedByProblemCollectionId(collectionId, deletedAt.getValue());
+        verify(problemStorageReclaimer).submitCollection(collectionId);
+        // The problems still reference the row, so it can only go once they are reclaimed
+        verify(problemCollectionRepositoryJPA, never()).deleteById(any());
     }
 
     @Test
     void execute_whenCollectionIdDoesNotExist_shouldReturnWithoutDeleting() {
         // Arrange
-        when(problemCollectionRepositoryJPA.existsById(collectionId)).thenReturn(false);
+        when(problemCollectionRepositoryJPA.markDeleted(eq(collectionId), any(LocalDateTime.class))).thenReturn(0);
 
         // Act
         deleteProblemCollectionUseCase.execute(collectionId);
 
         // Assert
-        verify(problemCollectionRepositoryJPA).existsById(collectionId);
-        verify(problemCollectionRepositoryJPA, never()).deleteById(any());
+        verify(problemRepositoryJPA, never()).markDeletedByProblemCollectionId(any(), any());
+        verify(problemStorageReclaimer, never()).submitCollection(any());
     }
 }
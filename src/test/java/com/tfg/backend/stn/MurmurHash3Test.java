@@ -0,0 +1,39 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MurmurHash3Test {
+
+    private static long[] hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long[] out = new long[2];
+        MurmurHash3.hash128(bytes, 0, bytes.length, out);
+        return out;
+    }
+
+    @Test
+    void hash128_shouldMatchReferenceVectors() {
+        // Reference values from the C++ implementation (seed 0)
+        assertThat(hash("")).containsExactly(0L, 0L);
+        assertThat(hash("hello")).containsExactly(0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L);
+        assertThat(hash("The quick brown fox jumps over the lazy dog"))
+                .containsExactly(0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L);
+    }
+
+    @Test
+    void hash128_shouldOnlyReadTheGivenRange() {
+        // Arrange
+        byte[] padded = "xxhelloyy".getBytes(StandardCharsets.UTF_8);
+        long[] out = new long[2];
+
+        // Act
+        MurmurHash3.hash128(padded, 2, 5, out);
+
+        // Assert
+        assertThat(out).containsExactly(hash("hello"));
+    }
+}
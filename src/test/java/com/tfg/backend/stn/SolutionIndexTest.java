@@ -0,0 +1,45 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SolutionIndexTest {
+
+    @Test
+    void intern_shouldAssignDenseIdsAndSurviveRehashing() {
+        // Arrange
+        SolutionIndex index = new SolutionIndex(4);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(index.intern("solution-" + i)).isEqualTo(i);
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(10_000);
+        assertThat(index.intern("solution-1234")).isEqualTo(1234);
+        assertThat(index.find("solution-9999")).isEqualTo(9999);
+        assertThat(index.find("missing")).isEqualTo(-1);
+        assertThat(index.label(42)).isEqualTo("solution-42");
+    }
+
+    @Test
+    void edgeWeightMap_shouldCountTransitions() {
+        // Arrange
+        EdgeWeightMap edges = new EdgeWeightMap(2);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            edges.increment(i, i + 1);
+            edges.increment(i, i + 1);
+        }
+        edges.increment(7, 3);
+
+        // Assert
+        assertThat(edges.size()).isEqualTo(1001);
+        assertThat(edges.get(5, 6)).isEqualTo(2);
+        assertThat(edges.get(7, 3)).isEqualTo(1);
+        assertThat(edges.get(3, 7)).isZero();
+    }
+}
@@ -0,0 +1,119 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StnBuilderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Two runs:  run 1: a -> b -> b -> c,  run 2: d -> b -> c
+     */
+    private StnTransitions sampleTrace() {
+        StnTransitions trace = new StnTransitions();
+        trace.add(1, 10.0, "a", 8.0, "b");
+        trace.add(1, 8.0, "b", 8.0, "b");
+        trace.add(1, 8.0, "b", 5.0, "c");
+        trace.add(2, 12.0, "d", 7.0, "b");
+        trace.add(2, 7.0, "b", 5.0, "c");
+        return trace;
+    }
+
+    @Test
+    void build_shouldAggregateNodesAndWeightEdgesLikeCreateR() {
+        // Act
+        StnGraph graph = StnBuilder.build(sampleTrace(), true, 0.0, 2);
+
+        // Assert - nodes in label order, loop b->b removed
+        assertThat(graph.nodeCount()).isEqualTo(4);
+        assertThat(graph.label(0)).isEqualTo("a");
+        assertThat(graph.label(3)).isEqualTo("d");
+        int b = graph.indexOf("b");
+        int c = graph.indexOf("c");
+        assertThat(graph.fitness(b)).isEqualTo(7.0);
+        assertThat(graph.count(b)).isEqualTo(2);
+        assertThat(graph.edgeCount()).isEqualTo(3);
+        assertThat(graph.edgeSource(1)).isEqualTo(b);
+        assertThat(graph.edgeTarget(1)).isEqualTo(c);
+        assertThat(graph.edgeWeight(1)).isEqualTo(2);
+    }
+
+    @Test
+    void build_shouldTypeStartEndAndBestWithCreateRPrecedence() {
+        // Act - best fitness 5 makes c best even though it also ends both runs
+        StnGraph graph = StnBuilder.build(sampleTrace(), true, 5.0, 2);
+
+        // Assert
+        assertThat(graph.type(graph.indexOf("a"))).isEqualTo(StnNodeType.START);
+        assertThat(graph.type(graph.indexOf("d"))).isEqualTo(StnNodeType.START);
+        assertThat(graph.type(graph.indexOf("b"))).isEqualTo(StnNodeType.MEDIUM);
+        assertThat(graph.type(graph.indexOf("c"))).isEqualTo(StnNodeType.BEST);
+    }
+
+    @Test
+    void build_forMaximization_shouldTypeNodesAtOrAboveBest() {
+        // Act
+        StnGraph graph = StnBuilder.build(sampleTrace(), false, 12.0, 2);
+
+        // Assert
+        assertThat(graph.type(graph.indexOf("d"))).isEqualTo(StnNodeType.BEST);
+        assertThat(graph.type(graph.indexOf("c"))).isEqualTo(StnNodeType.END);
+    }
+
+    @Test
+    void build_shouldIgnoreRunsBeyondTheLimit() {
+        // Act
+        StnGraph graph = StnBuilder.build(sampleTrace(), true, 0.0, 1);
+
+        // Assert
+        assertThat(graph.indexOf("d")).isEqualTo(-1);
+        assertThat(graph.fitness(graph.indexOf("b"))).isEqualTo(8.0);
+        assertThat(graph.edgeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void engine_shouldDeriveBestAndRunsAcrossAlgorithms() throws Exception {
+        // Arrange
+        Path first = tempDir.resolve("A.csv");
+        Files.writeString(first, """
+                Run,Fitness1,Solution1,Fitness2,Solution2
+                1,10,a,8,b
+                1,8,b,5,c
+                """);
+        Path second = tempDir.resolve("B.csv");
+        Files.writeString(second, """
+                Run,Fitness1,Solution1,Fitness2,Solution2
+                1,9,x,6,y
+                2,9,x,3,z
+                """);
+        Map<String, Path> traces = new LinkedHashMap<>();
+        traces.put("A", first);
+        traces.put("B", second);
+        StnEngine engine = new StnEngine(2);
+
+        try {
+            // Act
+            Map<String, StnGraph> graphs = engine.buildFromFiles(traces, true, null, null);
+
+            // Assert - best is 3 (from B), so nothing in A is best
+            assertThat(graphs).containsOnlyKeys("A", "B");
+            StnGraph a = graphs.get("A");
+            assertThat(a.type(a.indexOf("c"))).isEqualTo(StnNodeType.END);
+            StnGraph b = graphs.get("B");
+            assertThat(b.type(b.indexOf("z"))).isEqualTo(StnNodeType.BEST);
+            assertThat(b.type(b.indexOf("x"))).isEqualTo(StnNodeType.START);
+            assertThat(b.edgeCount()).isEqualTo(2);
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
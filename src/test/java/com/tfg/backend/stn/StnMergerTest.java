@@ -0,0 +1,77 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StnMergerTest {
+
+    /**
+     * GA:  a -> b -> c (twice),  ILS:  d -> b -> c,  b -> e
+     */
+    private Map<String, StnGraph> sampleGraphs() {
+        StnTransitions ga = new StnTransitions();
+        ga.add(1, 10.0, "a", 8.0, "b");
+        ga.add(1, 8.0, "b", 5.0, "c");
+        ga.add(2, 8.0, "b", 5.0, "c");
+        StnTransitions ils = new StnTransitions();
+        ils.add(1, 12.0, "d", 7.0, "b");
+        ils.add(1, 7.0, "b", 5.0, "c");
+        ils.add(2, 7.0, "b", 6.0, "e");
+        Map<String, StnGraph> graphs = new LinkedHashMap<>();
+        graphs.put("GA", StnBuilder.build(ga, true, 5.0, 2));
+        graphs.put("ILS", StnBuilder.build(ils, true, 5.0, 2));
+        return graphs;
+    }
+
+    @Test
+    void merge_shouldUnifyNodesByLabelAndFlagSharedOnes() {
+        // Act
+        MergedStnGraph merged = StnMerger.merge(sampleGraphs());
+
+        // Assert
+        assertThat(merged.algorithms()).containsExactly("GA", "ILS");
+        assertThat(merged.nodeCount()).isEqualTo(5);
+        assertThat(merged.label(0)).isEqualTo("a");
+        assertThat(merged.label(4)).isEqualTo("e");
+        int b = merged.indexOf("b");
+        assertThat(merged.isShared(b)).isTrue();
+        assertThat(merged.isShared(merged.indexOf("c"))).isTrue();
+        assertThat(merged.isShared(merged.indexOf("a"))).isFalse();
+        assertThat(merged.fitness(b)).isEqualTo(8.0);
+        assertThat(merged.count(b)).isEqualTo(6);
+        assertThat(merged.count(merged.indexOf("c"))).isEqualTo(3);
+        assertThat(merged.type(merged.indexOf("a"), 0)).isEqualTo(StnNodeType.START);
+        assertThat(merged.type(merged.indexOf("a"), 1)).isNull();
+        assertThat(merged.type(merged.indexOf("e"), 1)).isEqualTo(StnNodeType.END);
+        int first = merged.nodeMembershipStart(b);
+        assertThat(merged.nodeMembershipStart(b + 1) - first).isEqualTo(2);
+        assertThat(merged.nodeMemberAlgorithm(first)).isZero();
+        assertThat(merged.nodeMemberAlgorithm(first + 1)).isEqualTo(1);
+    }
+
+    @Test
+    void merge_shouldSumEdgeWeightsAndKeepThemPerAlgorithm() {
+        // Act
+        MergedStnGraph merged = StnMerger.merge(sampleGraphs());
+
+        // Assert - a->b, b->c, b->e, d->b in (source, target) order
+        assertThat(merged.edgeCount()).isEqualTo(4);
+        int b = merged.indexOf("b");
+        int c = merged.indexOf("c");
+        assertThat(merged.edgeSource(1)).isEqualTo(b);
+        assertThat(merged.edgeTarget(1)).isEqualTo(c);
+        assertThat(merged.edgeWeight(1)).isEqualTo(3);
+        assertThat(merged.edgeWeight(1, 0)).isEqualTo(2);
+        assertThat(merged.edgeWeight(1, 1)).isEqualTo(1);
+        assertThat(merged.edgeTarget(2)).isEqualTo(merged.indexOf("e"));
+        assertThat(merged.edgeWeight(2, 0)).isZero();
+        int membership = merged.edgeMembershipStart(2);
+        assertThat(merged.edgeMembershipStart(3) - membership).isEqualTo(1);
+        assertThat(merged.edgeMemberAlgorithm(membership)).isEqualTo(1);
+        assertThat(merged.edgeMemberWeight(membership)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StnMetricsCalculatorTest {
+
+    /**
+     * Three runs:  run 1: a -> b -> c,  run 2: d -> e,  run 3: f -> c
+     */
+    private StnGraph sampleGraph(double best) {
+        StnTransitions trace = new StnTransitions();
+        trace.add(1, 10.0, "a", 8.0, "b");
+        trace.add(1, 8.0, "b", 5.0, "c");
+        trace.add(2, 12.0, "d", 9.0, "e");
+        trace.add(3, 11.0, "f", 5.0, "c");
+        return StnBuilder.build(trace, true, best, 3);
+    }
+
+    @Test
+    void compute_shouldMatchMetricsAlgR() {
+        // Act
+        StnMetrics metrics = StnMetricsCalculator.compute(sampleGraph(5.0), 3);
+
+        // Assert - c is the only best node, e the only end node that is not best
+        assertThat(metrics.nodes()).isEqualTo(6);
+        assertThat(metrics.edges()).isEqualTo(4);
+        assertThat(metrics.components()).isEqualTo(2);
+        assertThat(metrics.bestCount()).isEqualTo(1);
+        assertThat(metrics.endCount()).isEqualTo(1);
+        assertThat(metrics.bestStrength()).isEqualTo(0.6667);
+        assertThat(metrics.pathCount()).isEqualTo(2);
+        assertThat(metrics.averagePathLength()).isEqualTo(1.5);
+    }
+
+    @Test
+    void compute_withoutBestNodes_shouldLeaveStrengthAndPathsEmpty() {
+        // Act
+        StnMetrics metrics = StnMetricsCalculator.compute(sampleGraph(0.0), 3);
+
+        // Assert
+        assertThat(metrics.bestCount()).isZero();
+        assertThat(metrics.endCount()).isEqualTo(2);
+        assertThat(metrics.bestStrength()).isNull();
+        assertThat(metrics.averagePathLength()).isNull();
+        assertThat(metrics.pathCount()).isZero();
+    }
+
+    @Test
+    void compute_withMoreStartsThanOneBatch_shouldMatchOneBfsPerStart() {
+        // Arrange - 200 random walks over 400 solutions
+        Random random = new Random(3);
+        StnTransitions trace = new StnTransitions();
+        for (int run = 1; run <= 200; run++) {
+            int current = random.nextInt(400);
+            for (int step = 0; step < 10; step++) {
+                int next = random.nextInt(400);
+                trace.add(run, current, "s" + current, next, "s" + next);
+                current = next;
+            }
+        }
+        StnGraph graph = StnBuilder.build(trace, true, 20.0, 200);
+
+        // Act
+        StnMetrics metrics = StnMetricsCalculator.compute(graph, 200);
+
+        // Assert
+        long lengthSum = 0;
+        int pathCount = 0;
+        int[] distance = new int[graph.nodeCount()];
+        for (int s = 0; s < graph.nodeCount(); s++) {
+            if (graph.type(s) != StnNodeType.START) {
+                continue;
+            }
+            Arrays.fill(distance, -1);
+            distance[s] = 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(s);
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                for (int e = 0; e < graph.edgeCount(); e++) {
+                    if (graph.edgeSource(e) == v && distance[graph.edgeTarget(e)] < 0) {
+                        distance[graph.edgeTarget(e)] = distance[v] + 1;
+                        queue.add(graph.edgeTarget(e));
+                    }
+                }
+            }
+            for (int v = 0; v < graph.nodeCount(); v++) {
+                if (graph.type(v) == StnNodeType.BEST && distance[v] >= 0) {
+                    lengthSum += distance[v];
+                    pathCount++;
+                }
+            }
+        }
+        assertThat(pathCount).isGreaterThan(64);
+        assertThat(metrics.pathCount()).isEqualTo(pathCount);
+        assertThat(metrics.averagePathLength())
+                .isEqualTo(Math.rint((double) lengthSum / pathCount * 10_000) / 10_000);
+    }
+}
@@ -0,0 +1,113 @@
+package com.tfg.backend.stn;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TraceFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("trace-" + System.nanoTime() + ".txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static String row(StnTransitions t, int row) {
+        return t.run(row) + "," + t.fitness1(row) + "," + t.solutions().label(t.solution1(row))
+                + "," + t.fitness2(row) + "," + t.solutions().label(t.solution2(row));
+    }
+
+    @Test
+    void read_shouldParseTheFiveColumnFormatWithAnySeparators() throws Exception {
+        // Arrange
+        Path file = write("Run,Fitness1,Solution1,Fitness2,Solution2\r\n"
+                + "1,10,0101,8.5,0111\r\n"
+                + "1 \t8.5  0111 -2e1 1111\r\n"
+                + "\r\n"
+                + "2,3,0101,3,0101");
+
+        // Act
+        StnTransitions transitions = TraceFileReader.read(file);
+
+        // Assert
+        assertThat(transitions.size()).isEqualTo(3);
+        assertThat(row(transitions, 0)).isEqualTo("1,10.0,0101,8.5,0111");
+        assertThat(row(transitions, 1)).isEqualTo("1,8.5,0111,-20.0,1111");
+        assertThat(row(transitions, 2)).isEqualTo("2,3.0,0101,3.0,0101");
+        assertThat(transitions.solutions().size()).isEqualTo(3);
+    }
+
+    @Test
+    void read_shouldPairOldFormatLinesOfTheSameRun() throws Exception {
+        // Arrange
+        Path file = write("Run Fitness Solution\n1 10 aa\n1 8 ab\n1 5 bb\n2 9 aa\n2 7 ab\n");
+
+        // Act
+        StnTransitions transitions = TraceFileReader.read(file);
+
+        // Assert
+        assertThat(transitions.size()).isEqualTo(3);
+        assertThat(row(transitions, 0)).isEqualTo("1,10.0,aa,8.0,ab");
+        assertThat(row(transitions, 1)).isEqualTo("1,8.0,ab,5.0,bb");
+        assertThat(row(transitions, 2)).isEqualTo("2,9.0,aa,7.0,ab");
+    }
+
+    @Test
+    void read_shouldCarryLinesAcrossMappedWindows() throws Exception {
+        // Arrange
+        StringBuilder content = new StringBuilder("Run,Fitness1,Solution1,Fitness2,Solution2\n");
+        for (int i = 0; i < 500; i++) {
+            content.append(i % 7 + 1).append(',').append(i).append(",s").append(i)
+                    .append(',').append(i + 1).append(",s").append(i + 1).append('\n');
+        }
+        Path file = write(content.toString());
+
+        // Act - 64-byte windows cut almost every line
+        StnTransitions transitions = TraceFileReader.read(file, new SolutionIndex(), 64);
+
+        // Assert
+        assertThat(transitions.size()).isEqualTo(500);
+        assertThat(row(transitions, 499)).isEqualTo("3,499.0,s499,500.0,s500");
+        assertThatThrownBy(() -> TraceFileReader.read(file, new SolutionIndex(), 16))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void parseDouble_shouldMatchDoubleParseDouble() throws Exception {
+        // Arrange
+        Random random = new Random(3);
+        String[] fixed = {"0", "-0", "1e22", "1e23", "123456789012345678", "0.1", "3.14159265358979323846",
+                "2.2250738585072014E-308", "1.7976931348623157e308", "4.9e-324", "+7.", ".5", "1E-5"};
+
+        // Act & Assert
+        for (String value : fixed) {
+            assertThat(parse(value)).as(value).isEqualTo(Double.parseDouble(value));
+        }
+        for (int i = 0; i < 20_000; i++) {
+            double value = random.nextDouble() * Math.pow(10, random.nextInt(30) - 15);
+            String text = i % 2 == 0 ? Double.toString(value) : String.format("%.6f", value);
+            assertThat(parse(text)).as(text).isEqualTo(Double.parseDouble(text));
+        }
+    }
+
+    private double parse(String text) throws IOException {
+        Path file = write(text);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return TraceFileReader.parseDouble(buffer, 0, (int) channel.size());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.tfg.backend.stn.layout;
+
+import com.tfg.backend.algorithm.domain.Position3D;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FruchtermanReingoldLayoutTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static CsrGraph randomGraph(int n, int m, long seed) {
+        Random random = new Random(seed);
+        int[] source = new int[m];
+        int[] target = new int[m];
+        for (int e = 0; e < m; e++) {
+            source[e] = random.nextInt(n);
+            target[e] = random.nextInt(n);
+        }
+        return CsrGraph.of(n, source, target, null);
+    }
+
+    private static double distance(GraphLayout layout, int a, int b) {
+        double dx = layout.x(a) - layout.x(b);
+        double dy = layout.y(a) - layout.y(b);
+        double dz = layout.z(a) - layout.z(b);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Test
+    void layout_shouldDependOnlyOnTheSeed() {
+        // Arrange
+        CsrGraph graph = randomGraph(2_000, 3_000, 1);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        // Act
+        GraphLayout parallel = new FruchtermanReingoldLayout(pool).layout(graph, 2, 50, 0.7, 42);
+        GraphLayout sequential = new FruchtermanReingoldLayout(single).layout(graph, 2, 50, 0.7, 42);
+        GraphLayout otherSeed = new FruchtermanReingoldLayout(pool).layout(graph, 2, 50, 0.7, 43);
+        single.shutdownNow();
+
+        // Assert
+        for (int v = 0; v < graph.nodeCount(); v++) {
+            assertThat(parallel.x(v)).isEqualTo(sequential.x(v));
+            assertThat(parallel.y(v)).isEqualTo(sequential.y(v));
+        }
+        assertThat(otherSeed.x(0)).isNotEqualTo(parallel.x(0));
+    }
+
+    private static double[] repulsion(BarnesHutTree tree, int n, int dimensions, double theta) {
+        double[] forces = new double[n * dimensions];
+        int[] stack = new int[tree.stackSize()];
+        for (int leaf = 0; leaf < tree.leafCount(); leaf++) {
+            tree.repulsion(leaf, theta * theta, forces, stack);
+        }
+        return forces;
+    }
+
+    @Test
+    void repulsion_shouldApproximateTheExactSum() {
+        // Arrange
+        int n = 3_000;
+        Random random = new Random(5);
+        double[] positions = new double[n * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextGaussian() * 20;
+        }
+        BarnesHutTree tree = new BarnesHutTree(3, n);
+        tree.build(positions);
+
+        // Act
+        double[] exact = repulsion(tree, n, 3, 0.0);
+        double[] approximate = repulsion(tree, n, 3, FruchtermanReingoldLayout.DEFAULT_THETA);
+
+        // Assert
+        for (int v = 0; v < n; v += 37) {
+            double[] expected = new double[3];
+            for (int u = 0; u < n; u++) {
+                if (u != v) {
+                    double dx = positions[v * 3] - positions[u * 3];
+                    double dy = positions[v * 3 + 1] - positions[u * 3 + 1];
+                    double dz = positions[v * 3 + 2] - positions[u * 3 + 2];
+                    double d2 = dx * dx + dy * dy + dz * dz;
+                    expected[0] += dx / d2;
+                    expected[1] += dy / d2;
+                    expected[2] += dz / d2;
+                }
+            }
+            double norm = Math.sqrt(expected[0] * expected[0] + expected[1] * expected[1]
+                    + expected[2] * expected[2]);
+            for (int k = 0; k < 3; k++) {
+                assertThat(exact[v * 3 + k]).isCloseTo(expected[k], within(1e-9 * Math.max(1, norm)));
+                assertThat(approximate[v * 3 + k]).isCloseTo(expected[k], within(0.05 * norm));
+            }
+        }
+    }
+
+    @Test
+    void repulsion_ofCoincidentNodes_shouldBeFiniteAndOpposite() {
+        // Arrange
+        double[] positions = new double[40];
+        BarnesHutTree tree = new BarnesHutTree(2, 20);
+        tree.build(positions);
+
+        // Act
+        double[] forces = repulsion(tree, 20, 2, 0.7);
+
+        // Assert
+        double totalX = 0.0;
+        double totalY = 0.0;
+        for (int v = 0; v < 20; v++) {
+            assertThat(Double.isFinite(forces[v * 2]) && Double.isFinite(forces[v * 2 + 1])).isTrue();
+            totalX += forces[v * 2];
+            totalY += forces[v * 2 + 1];
+        }
+        assertThat(Math.abs(forces[0]) + Math.abs(forces[1])).isPositive();
+        assertThat(totalX).isCloseTo(0.0, within(1e-3));
+        assertThat(totalY).isCloseTo(0.0, within(1e-3));
+    }
+
+    @Test
+    void layout_shouldPlaceConnectedNodesCloserThanUnconnectedOnes() {
+        // Arrange - two disjoint 20-node cycles
+        int[] source = new int[40];
+        int[] target = new int[40];
+        for (int i = 0; i < 20; i++) {
+            source[i] = i;
+            target[i] = (i + 1) % 20;
+            source[20 + i] = 20 + i;
+            target[20 + i] = 20 + (i + 1) % 20;
+        }
+        CsrGraph graph = CsrGraph.of(40, source, target, null);
+
+        // Act
+        GraphLayout layout = new FruchtermanReingoldLayout(pool).layout(graph, 3, 7);
+
+        // Assert
+        double adjacent = 0.0;
+        double across = 0.0;
+        for (int i = 0; i < 20; i++) {
+            adjacent += distance(layout, i, (i + 1) % 20);
+            across += distance(layout, i, 20 + i);
+        }
+        assertThat(adjacent).isLessThan(across / 2);
+        Position3D position = layout.position(3);
+        assertThat(position.getZ()).isEqualTo(layout.z(3));
+        assertThat(layout.position(3, 9.5).getZ()).isEqualTo(9.5);
+    }
+
+    @Test
+    void of_shouldStoreEachEdgeForBothEndpointsAndDropSelfLoops() {
+        // Act
+        CsrGraph graph = CsrGraph.of(3, new int[]{0, 1, 2}, new int[]{1, 1, 0}, new double[]{2, 5, 3});
+
+        // Assert
+        assertThat(graph.offset(1) - graph.offset(0)).isEqualTo(2);
+        assertThat(graph.offset(2) - graph.offset(1)).isEqualTo(1);
+        assertThat(graph.neighbour(graph.offset(1))).isEqualTo(0);
+        assertThat(graph.weight(graph.offset(1))).isEqualTo(2.0);
+        assertThat(graph.offset(3)).isEqualTo(4);
+        assertThatThrownBy(() -> new FruchtermanReingoldLayout(pool).layout(graph, 4, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tfg.backend.stn.layout;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LayeredLayoutTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static boolean[] flags(int n, int... nodes) {
+        boolean[] flags = new boolean[n];
+        for (int v : nodes) {
+            flags[v] = true;
+        }
+        return flags;
+    }
+
+    @Test
+    void layout_shouldPutStartsOnTopAndBestAtTheBottomDespiteCycles() {
+        // Arrange - 0 -> 1 -> 2 -> 1 is a cycle, 4 -> 0 leads back into the start
+        int[] source = {0, 1, 2, 2, 0, 4, 5};
+        int[] target = {1, 2, 1, 3, 3, 0, 4};
+
+        // Act
+        GraphLayout layout = new LayeredLayout(pool).layout(6, source, target, flags(6, 0, 5), flags(6, 3));
+
+        // Assert
+        assertThat(layout.y(0)).isEqualTo(layout.y(5)).isGreaterThan(layout.y(1));
+        assertThat(layout.y(1)).isGreaterThan(layout.y(2));
+        assertThat(layout.y(2)).isGreaterThan(layout.y(3));
+        assertThat(layout.y(3)).isZero();
+        assertThat(layout.y(4)).isEqualTo(layout.y(1));
+        assertThat(Math.abs(layout.x(0) - layout.x(5))).isGreaterThanOrEqualTo(1.0);
+    }
+
+    @Test
+    void layout_ofATree_shouldHaveNoCrossings() {
+        // Arrange - random tree, parents listed in shuffled label order
+        int n = 2_000;
+        Random random = new Random(9);
+        int[] label = new int[n];
+        for (int i = 0; i < n; i++) {
+            label[i] = i;
+        }
+        for (int i = n - 1; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int swap = label[i];
+            label[i] = label[j];
+            label[j] = swap;
+        }
+        int[] source = new int[n - 1];
+        int[] target = new int[n - 1];
+        for (int i = 1; i < n; i++) {
+            source[i - 1] = label[random.nextInt(i)];
+            target[i - 1] = label[i];
+        }
+
+        // Act
+        GraphLayout layout = new LayeredLayout(pool).layout(n, source, target, flags(n, 0), new boolean[n]);
+
+        // Assert
+        for (int e = 0; e < n - 1; e++) {
+            assertThat(layout.y(source[e]) - layout.y(target[e])).isEqualTo(1.0);
+            for (int f = e + 1; f < n - 1; f++) {
+                if (layout.y(source[e]) == layout.y(source[f])) {
+                    boolean parents = layout.x(source[e]) < layout.x(source[f]);
+                    boolean children = layout.x(target[e]) < layout.x(target[f]);
+                    if (layout.x(source[e]) != layout.x(source[f])) {
+                        assertThat(children).isEqualTo(parents);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void layout_ofAWideDeepGraph_shouldKeepGapsAndNotDependOnParallelism() {
+        // Arrange - 300 runs of random walks over 30 000 solutions
+        int n = 30_000;
+        int m = 60_000;
+        Random random = new Random(4);
+        int[] source = new int[m];
+        int[] target = new int[m];
+        boolean[] top = new boolean[n];
+        for (int e = 0; e < m; e++) {
+            source[e] = e % 200 == 0 ? random.nextInt(n) : target[e - 1];
+            target[e] = random.nextInt(n);
+            if (e % 200 == 0) {
+                top[source[e]] = true;
+            }
+        }
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        // Act
+        GraphLayout parallel = new LayeredLayout(pool).layout(n, source, target, top, flags(n, 7));
+        GraphLayout sequential = new LayeredLayout(single).layout(n, source, target, top, flags(n, 7));
+        single.shutdownNow();
+
+        // Assert
+        double[] lastX = new double[n];
+        Arrays.fill(lastX, Double.NEGATIVE_INFINITY);
+        Integer[] byX = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            assertThat(parallel.x(v)).isEqualTo(sequential.x(v));
+            assertThat(parallel.y(v)).isEqualTo(sequential.y(v));
+            byX[v] = v;
+        }
+        Arrays.sort(byX, (a, b) -> Double.compare(parallel.x(a), parallel.x(b)));
+        for (int v : byX) {
+            int row = (int) parallel.y(v);
+            assertThat(parallel.x(v) - lastX[row]).isGreaterThanOrEqualTo(1.0 - 1e-9);
+            lastX[row] = parallel.x(v);
+        }
+        assertThat(parallel.y(7)).isZero();
+    }
+}
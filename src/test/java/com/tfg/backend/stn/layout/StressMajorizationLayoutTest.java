@@ -0,0 +1,159 @@
+package com.tfg.backend.stn.layout;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StressMajorizationLayoutTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static CsrGraph graph(int n, List<int[]> edges) {
+        int[] source = new int[edges.size()];
+        int[] target = new int[edges.size()];
+        for (int e = 0; e < edges.size(); e++) {
+            source[e] = edges.get(e)[0];
+            target[e] = edges.get(e)[1];
+        }
+        return CsrGraph.of(n, source, target, null);
+    }
+
+    private static CsrGraph grid(int side) {
+        List<int[]> edges = new ArrayList<>();
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                if (c + 1 < side) {
+                    edges.add(new int[]{r * side + c, r * side + c + 1});
+                }
+                if (r + 1 < side) {
+                    edges.add(new int[]{r * side + c, (r + 1) * side + c});
+                }
+            }
+        }
+        return graph(side * side, edges);
+    }
+
+    private static double distance(GraphLayout layout, int a, int b) {
+        double dx = layout.x(a) - layout.x(b);
+        double dy = layout.y(a) - layout.y(b);
+        double dz = layout.z(a) - layout.z(b);
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Test
+    void layout_ofAPath_shouldMatchHopDistancesExactly() {
+        // Arrange
+        List<int[]> edges = new ArrayList<>();
+        for (int v = 0; v < 9; v++) {
+            edges.add(new int[]{v, v + 1});
+        }
+
+        // Act
+        GraphLayout layout = new StressMajorizationLayout(pool).layout(graph(10, edges), 2, 7);
+
+        // Assert
+        assertThat(distance(layout, 0, 9)).isCloseTo(9.0, within(0.05));
+        assertThat(distance(layout, 3, 4)).isCloseTo(1.0, within(0.05));
+    }
+
+    @Test
+    void layout_ofAGrid_withFewPivots_shouldStayCloseToTheExactModel() {
+        // Arrange
+        int side = 30;
+        int n = side * side;
+        CsrGraph graph = grid(side);
+        StressMajorizationLayout layout = new StressMajorizationLayout(pool);
+
+        // Act
+        GraphLayout sparse = layout.layout(graph, 2, 20, StressMajorizationLayout.DEFAULT_ITERATIONS,
+                StressMajorizationLayout.DEFAULT_TOLERANCE, 3);
+        GraphLayout exact = layout.layout(graph, 2, n, StressMajorizationLayout.DEFAULT_ITERATIONS,
+                StressMajorizationLayout.DEFAULT_TOLERANCE, 3);
+
+        // Assert - corners as far apart as in the full model and neighbours about one unit apart
+        double corner = distance(exact, 0, n - 1);
+        assertThat(distance(sparse, 0, n - 1)).isCloseTo(corner, within(0.1 * corner));
+        assertThat(distance(sparse, side - 1, n - side)).isCloseTo(corner, within(0.1 * corner));
+        double sparseEdges = 0.0;
+        double exactEdges = 0.0;
+        for (int v = 0; v + 1 < n; v++) {
+            sparseEdges += distance(sparse, v, v + 1);
+            exactEdges += distance(exact, v, v + 1);
+        }
+        assertThat(sparseEdges).isCloseTo(exactEdges, within(0.1 * exactEdges));
+    }
+
+    @Test
+    void layout_shouldSeparateLeavesThePivotsCannotTellApart() {
+        // Arrange - two hubs joined by a path, each with 50 leaves
+        List<int[]> edges = new ArrayList<>();
+        edges.add(new int[]{0, 1});
+        for (int leaf = 2; leaf < 102; leaf++) {
+            edges.add(new int[]{leaf < 52 ? 0 : 1, leaf});
+        }
+        CsrGraph graph = graph(102, edges);
+
+        // Act
+        GraphLayout layout = new StressMajorizationLayout(pool).layout(graph, 2, 4, 200, 1e-6, 11);
+
+        // Assert
+        double closest = Double.POSITIVE_INFINITY;
+        for (int a = 2; a < 52; a++) {
+            for (int b = a + 1; b < 52; b++) {
+                closest = Math.min(closest, distance(layout, a, b));
+            }
+        }
+        assertThat(closest).isGreaterThan(0.02);
+        assertThat(distance(layout, 0, 2)).isCloseTo(1.0, within(0.3));
+    }
+
+    @Test
+    void layout_shouldDependOnlyOnTheSeedAndKeepComponentsApart() {
+        // Arrange - a grid and a separate triangle
+        CsrGraph grid = grid(20);
+        int n = 403;
+        int[] source = new int[grid.offset(400) / 2 + 3];
+        int[] target = new int[source.length];
+        int e = 0;
+        for (int v = 0; v < 400; v++) {
+            for (int i = grid.offset(v); i < grid.offset(v + 1); i++) {
+                if (grid.neighbour(i) > v) {
+                    source[e] = v;
+                    target[e++] = grid.neighbour(i);
+                }
+            }
+        }
+        int[][] triangle = {{400, 401}, {401, 402}, {402, 400}};
+        for (int[] edge : triangle) {
+            source[e] = edge[0];
+            target[e++] = edge[1];
+        }
+        CsrGraph graph = CsrGraph.of(n, source, target, null);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        // Act
+        GraphLayout parallel = new StressMajorizationLayout(pool).layout(graph, 3, 5);
+        GraphLayout sequential = new StressMajorizationLayout(single).layout(graph, 3, 5);
+        single.shutdownNow();
+
+        // Assert
+        for (int v = 0; v < n; v++) {
+            assertThat(parallel.position(v)).isEqualTo(sequential.position(v));
+        }
+        assertThat(distance(parallel, 400, 401)).isCloseTo(1.0, within(0.2));
+        for (int v = 0; v < 400; v += 7) {
+            assertThat(distance(parallel, v, 400)).isGreaterThan(1.0);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.problem.domain.DistanceType;
+import com.tfg.backend.stn.StnTransitions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AgglomerativeClustererTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final AgglomerativeClusterer clusterer = new AgglomerativeClusterer(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static SolutionVectors line(double... points) {
+        int[] weights = new int[points.length];
+        Arrays.fill(weights, 1);
+        return SolutionVectors.ofCoordinates(points, 1, weights);
+    }
+
+    @Test
+    void cluster_withoutLimits_shouldMergeClosestPairsFirst() {
+        // Act
+        Dendrogram dendrogram = clusterer.cluster(line(0, 1, 3, 10), DistanceType.EUCLIDEAN, 100, 100, true);
+
+        // Assert - (1,0) at 1, (2,1) at 2, (3,2) at 7
+        assertThat(dendrogram.mergeCount()).isEqualTo(3);
+        assertThat(dendrogram.merged(1)).isEqualTo(2);
+        assertThat(dendrogram.into(1)).isEqualTo(1);
+        assertThat(dendrogram.distance(2)).isEqualTo(7f);
+        assertThat(dendrogram.labels(2)).containsExactly(0, 0, 0, 1);
+        assertThat(dendrogram.labels(4)).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    void cluster_shouldRespectTheSizeLimitAfterTheFirstMerge() {
+        // Act - at most 50% of the 4 rows per cluster
+        Dendrogram dendrogram = clusterer.cluster(line(0, 1, 3, 10), DistanceType.MANHATTAN, 50, 100, true);
+
+        // Assert - 2 cannot join {0, 1}, so it ends up with 3
+        assertThat(dendrogram.finalClusters()).isEqualTo(2);
+        assertThat(dendrogram.labels(2)).containsExactly(0, 0, 1, 1);
+    }
+
+    @Test
+    void cluster_shouldCountWeightsAgainstTheSizeLimit() {
+        // Arrange - solution 0 stands for three identical rows out of five
+        SolutionVectors solutions = SolutionVectors.ofCoordinates(new double[]{0, 1, 2}, 1, new int[]{3, 1, 1});
+
+        // Act
+        Dendrogram dendrogram = clusterer.cluster(solutions, DistanceType.EUCLIDEAN, 70, 100, false);
+
+        // Assert - 1 cannot join 0 (80% of the rows) but can join 2
+        assertThat(dendrogram.labels(dendrogram.finalClusters())).containsExactly(0, 1, 1);
+    }
+
+    @Test
+    void partition_shouldHashClustersAndChainSolutionsOfTheSameRun() throws Exception {
+        // Arrange - two near-identical bitstrings and a distant one
+        List<String> trace = List.of("Run,Fitness1,Solution1,Fitness2,Solution2",
+                "1,5,000000,4,000001",
+                "1,4,000001,1,111111",
+                "2,6,000000,5,000001");
+        AgglomerativePartitioner partitioner = new AgglomerativePartitioner(pool);
+
+        // Act
+        AgglomerativePartition partition = partitioner.partition(Map.of("A", trace), true, 100, 100,
+                DistanceType.HAMMING, 2);
+
+        // Assert - both transitions inside a line and across lines are kept, not across runs
+        assertThat(partition.clusters()).isEqualTo(2);
+        StnTransitions transitions = partition.traces().get("A");
+        assertThat(transitions.size()).isEqualTo(4);
+        String first = sha256("0");
+        String second = sha256("1");
+        assertThat(transitions.solutions().label(transitions.solution1(0))).isEqualTo(first);
+        assertThat(transitions.solutions().label(transitions.solution2(2))).isEqualTo(second);
+        assertThat(transitions.fitness2(2)).isEqualTo(1.0);
+        assertThat(transitions.run(3)).isEqualTo(2);
+    }
+
+    @Test
+    void defaultClusters_shouldFollowThePythonCut() {
+        // Arrange - 10 distinct solutions fully merged, from 30 rows
+        Dendrogram dendrogram = clusterer.cluster(line(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), DistanceType.EUCLIDEAN,
+                100, 100, false);
+
+        // Act & Assert - 20 identical-row merges + 9 merges: a third of the way is 10 above the last count
+        assertThat(AgglomerativePartitioner.defaultClusters(dendrogram, 30, false)).isEqualTo(11);
+        assertThat(AgglomerativePartitioner.defaultClusters(dendrogram, 30, true)).isEqualTo(10);
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
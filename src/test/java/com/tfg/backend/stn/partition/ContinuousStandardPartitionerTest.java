@@ -0,0 +1,100 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.StnTransitions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContinuousStandardPartitionerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * The loop of continuous_standard.hash_solution over np.arange edges
+     */
+    private static int scan(double x, double min, double max, double width) {
+        int length = (int) Math.ceil((max - min) / width);
+        double delta = (min + width) - min;
+        for (int k = 0; k < length - 1; k++) {
+            if (min + k * delta <= x && x <= min + (k + 1) * delta) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void bin_shouldMatchTheLinearScanIncludingEdges() {
+        // Arrange
+        HypercubeGrid grid = new HypercubeGrid(-5, 5, 0.1);
+        Random random = new Random(42);
+
+        // Act & Assert
+        assertThat(grid.bins()).isEqualTo(99);
+        for (int k = 0; k <= 100; k++) {
+            double edge = -5 + k * ((-5 + 0.1) - -5);
+            assertThat(grid.bin(edge)).as("edge %d", k).isEqualTo(scan(edge, -5, 5, 0.1));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            double x = random.nextDouble() * 12 - 6;
+            assertThat(grid.bin(x)).as("x=%s", x).isEqualTo(scan(x, -5, 5, 0.1));
+        }
+        assertThat(grid.bin(Double.NaN)).isEqualTo(-1);
+    }
+
+    @Test
+    void key_shouldPackBinsAndHashOutOfGridPoints() {
+        // Arrange
+        HypercubeGrid grid = new HypercubeGrid(0, 10, 1);
+        long[] first = new long[2];
+        long[] second = new long[2];
+        byte[] scratch = new byte[27];
+
+        // Act & Assert - same hypercube, same packed key (top bit clear)
+        grid.key(new double[]{0.5, 2.2, 8.9}, 0, 3, first, scratch);
+        grid.key(new double[]{0.9, 2.8, 8.1}, 0, 3, second, scratch);
+        assertThat(first).containsExactly(second);
+        assertThat(first[0]).isNotNegative();
+
+        // Outside the grid the raw value is part of the (hashed) key
+        grid.key(new double[]{0.5, 2.2, 12.0}, 0, 3, first, scratch);
+        grid.key(new double[]{0.5, 2.2, 13.0}, 0, 3, second, scratch);
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first[0]).isNegative();
+    }
+
+    @Test
+    void partition_shouldMergeSolutionsInTheSameHypercube() {
+        // Arrange
+        List<String> trace = List.of("Run,Fitness,x1,x2",
+                "1,9.5,0.12,0.31",
+                "1,7.0,0.18,0.39",
+                "1,4.0,0.55,0.71",
+                "2,8.0,0.11,0.35",
+                "2,3.0,0.52,0.78");
+        ContinuousStandardPartitioner partitioner = new ContinuousStandardPartitioner(pool);
+
+        // Act - hypercubes of side 0.1 over [0, 1)
+        StnTransitions transitions = partitioner.partition(Map.of("A", trace), 0, 1, 0.1).get("A");
+
+        // Assert
+        assertThat(transitions.size()).isEqualTo(3);
+        assertThat(transitions.solution1(0)).isEqualTo(transitions.solution2(0));
+        assertThat(transitions.solution1(2)).isEqualTo(transitions.solution1(0));
+        assertThat(transitions.solution2(2)).isEqualTo(transitions.solution2(1));
+        assertThat(transitions.fitness1(1)).isEqualTo(7.0);
+        assertThat(transitions.run(2)).isEqualTo(2);
+        assertThat(transitions.solutions().size()).isEqualTo(2);
+    }
+}
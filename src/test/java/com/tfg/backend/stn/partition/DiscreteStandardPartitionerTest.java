@@ -0,0 +1,121 @@
+package com.tfg.backend.stn.partition;
+
+import com.tfg.backend.stn.SolutionIndex;
+import com.tfg.backend.stn.StnTransitions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscreteStandardPartitionerTest {
+
+    private static final String HEADER = "Run,Fitness1,Solution1,Fitness2,Solution2";
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final DiscreteStandardPartitioner partitioner = new DiscreteStandardPartitioner(pool);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private static Map<String, List<String>> sampleTraces() {
+        Map<String, List<String>> traces = new LinkedHashMap<>();
+        traces.put("A", List.of(HEADER,
+                "1,10,1100,8,1101",
+                "2,9,1110,7,1100",
+                "1,8,1101,5,0011",
+                "2,7,1100,7,1110"));
+        traces.put("B", List.of(HEADER,
+                "1,6,0011,4,0001"));
+        return traces;
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String row(StnTransitions t, int row) {
+        SolutionIndex solutions = t.solutions();
+        return t.run(row) + "," + (long) t.fitness1(row) + "," + solutions.label(t.solution1(row))
+                + "," + (long) t.fitness2(row) + "," + solutions.label(t.solution2(row));
+    }
+
+    @Test
+    void partition_withoutPercentage_shouldHashFullSolutionsAndGroupRowsByRun() throws Exception {
+        // Act
+        Map<String, StnTransitions> result = partitioner.partition(sampleTraces(), 0);
+
+        // Assert - same rows as standard.py: grouped by run, fitness last seen for each solution
+        StnTransitions a = result.get("A");
+        assertThat(a.size()).isEqualTo(4);
+        assertThat(row(a, 0)).isEqualTo("1,7," + sha256("1100") + ",8," + sha256("1101"));
+        assertThat(row(a, 1)).isEqualTo("1,8," + sha256("1101") + ",6," + sha256("0011"));
+        assertThat(row(a, 2)).isEqualTo("2,7," + sha256("1110") + ",7," + sha256("1100"));
+        assertThat(row(result.get("B"), 0)).isEqualTo("1,6," + sha256("0011") + ",4," + sha256("0001"));
+    }
+
+    @Test
+    void partition_withPercentage_shouldCoarsenToMostEntropicPositions() throws Exception {
+        // Act - every position has the same entropy; like standard.py the first two are kept
+        Map<String, StnTransitions> result = partitioner.partition(sampleTraces(), 50);
+
+        // Assert - transitions inside a coarse solution are dropped, coarse fitness is the minimum
+        StnTransitions a = result.get("A");
+        assertThat(a.size()).isEqualTo(1);
+        assertThat(row(a, 0)).isEqualTo("1,7," + sha256("11") + ",4," + sha256("00"));
+        assertThat(result.get("B").size()).isZero();
+    }
+
+    @Test
+    void partition_shouldSkipHeaderAndMalformedLines() {
+        // Arrange
+        Map<String, List<String>> traces = Map.of("A", List.of(HEADER, "1,x,10,2,11", "1,2,10", "", "1,3,10,2,11"));
+
+        // Act
+        StnTransitions a = partitioner.partition(traces, 0).get("A");
+
+        // Assert
+        assertThat(a.size()).isEqualTo(1);
+        assertThat(a.fitness1(0)).isEqualTo(3.0);
+    }
+
+    @Test
+    void partition_shouldRejectSolutionsOfDifferentLengths() {
+        // Arrange
+        Map<String, List<String>> traces = Map.of("A", List.of("1,1,101,2,10"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> partitioner.partition(traces, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> partitioner.partition(sampleTraces(), -1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void log2_shouldBeCorrectlyRounded() {
+        assertThat(DiscreteStandardPartitioner.log2(1.0)).isZero();
+        assertThat(DiscreteStandardPartitioner.log2(0.5)).isEqualTo(-1.0);
+        assertThat(DiscreteStandardPartitioner.log2(0.6)).isEqualTo(-0.7369655941662062);
+        assertThat(DiscreteStandardPartitioner.log2(0.4)).isEqualTo(-1.3219280948873622);
+    }
+
+    @Test
+    void rawTraceReader_shouldPairOldThreeColumnTraces() {
+        // Act
+        List<String> lines = RawTraceReader.normalize(List.of("1 10 1100", "1  8 1101", "1 5 0011", "2 9 1110", "2 7 1100"));
+
+        // Assert
+        assertThat(lines).containsExactly("1,10,1100,8,1101", "1,8,1101,5,0011", "2,9,1110,7,1100");
+    }
+}
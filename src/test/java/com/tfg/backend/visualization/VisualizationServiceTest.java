@@ -1,31 +1,32 @@
 package com.tfg.backend.visualization;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.tfg.backend.algorithm.application.CreateEdgeUseCase;
-import com.tfg.backend.algorithm.application.CreateNodeUseCase;
-import com.tfg.backend.algorithm.application.dto.Position3DDTO;
-import com.tfg.backend.algorithm.application.dto.ResponseNodeDTO;
 import com.tfg.backend.algorithm.domain.Algorithm;
 import com.tfg.backend.algorithm.domain.NodeType;
 import com.tfg.backend.algorithm.infrastructure.repositories.AlgorithmRepositoryJPA;
-import com.tfg.backend.algorithm.infrastructure.repositories.EdgeRepositoryJPA;
-import com.tfg.backend.algorithm.infrastructure.repositories.NodeRepositoryJPA;
+import com.tfg.backend.algorithm.infrastructure.repositories.GraphBulkWriter;
+import com.tfg.backend.problem.domain.DiscreteProblem;
+import com.tfg.backend.problem.domain.Problem;
+import com.tfg.backend.problem.domain.VisualizationStatus;
 import com.tfg.backend.problem.infrastructure.repositories.ProblemRepositoryJPA;
+import com.tfg.backend.stn.StnMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.awt.Color;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -37,20 +38,11 @@ class VisualizationServiceTest {
     private ObjectMapper objectMapper;
 
     @Mock
-    private CreateNodeUseCase createNodeUseCase;
-
-    @Mock
-    private CreateEdgeUseCase createEdgeUseCase;
+    private GraphBulkWriter graphBulkWriter;
 
     @Mock
     private AlgorithmRepositoryJPA algorithmRepositoryJPA;
 
-    @Mock
-    private NodeRepositoryJPA nodeRepositoryJPA;
-
-    @Mock
-    private EdgeRepositoryJPA edgeRepositoryJPA;
-
     @Mock
     private ProblemRepositoryJPA problemRepositoryJPA;
 
@@ -71,36 +63,31 @@ class VisualizationServiceTest {
             .name("TestAlgorithm")
             .color(Color.RED)
             .build();
-        
-        // Mock createNodeUseCase to return a proper ResponseNodeDTO
-        ResponseNodeDTO mockNodeDTO = ResponseNodeDTO.builder()
-            .id(UUID.randomUUID())
-            .type(NodeType.DEFAULT)
-            .position(Position3DDTO.builder().x(1.0).y(2.0).z(0.0).build())
-            .algorithmId(algorithmId)
-            .build();
-        lenient().when(createNodeUseCase.execute(any(), any())).thenReturn(mockNodeDTO);
     }
 
-    @Test
-    void testProcessAndPersistVisualization_withNullPath_shouldReturn() throws Exception {
-        // When
-        visualizationService.processAndPersistVisualization(null, problemId, false);
+    @SuppressWarnings("unchecked")
+    private List<GraphBulkWriter.NodeRow> captureNodeRows() {
+        ArgumentCaptor<List<GraphBulkWriter.NodeRow>> captor = ArgumentCaptor.forClass(List.class);
+        verify(graphBulkWriter).insertNodes(captor.capture());
+        return captor.getValue();
+    }
 
-        // Then - no exception should be thrown
-        verify(createNodeUseCase, never()).execute(any(), any());
+    @SuppressWarnings("unchecked")
+    private List<GraphBulkWriter.EdgeRow> captureEdgeRows() {
+        ArgumentCaptor<List<GraphBulkWriter.EdgeRow>> captor = ArgumentCaptor.forClass(List.class);
+        verify(graphBulkWriter).insertEdges(captor.capture());
+        return captor.getValue();
     }
 
     @Test
-    void testProcessAndPersistVisualization_withNonExistentPath_shouldReturn() throws Exception {
-        // Given
-        Path nonExistentPath = Path.of("/tmp/non-existent-file.json");
-
+    void testProcessAndPersistVisualization_withNullJson_shouldMarkTheProblemFailed() throws Exception {
         // When
-        visualizationService.processAndPersistVisualization(nonExistentPath, problemId, false);
+        visualizationService.processAndPersistVisualization(null, problemId, false);
 
         // Then - no exception should be thrown
-        verify(createNodeUseCase, never()).execute(any(), any());
+        verify(graphBulkWriter, never()).insertNodes(any());
+        verify(problemRepositoryJPA).updateVisualizationStatus(problemId, VisualizationStatus.FAILED);
+        verify(problemRepositoryJPA, never()).updateVisualizationStatus(problemId, VisualizationStatus.READY);
     }
 
     @Test
@@ -145,22 +132,23 @@ class VisualizationServiceTest {
         }
         """;
 
-        Path tempFile = Files.createTempFile("test-viz", ".json");
-        Files.writeString(tempFile, jsonContent);
+        byte[] json = jsonContent.getBytes(StandardCharsets.UTF_8);
 
         VisualizationData vizData = new ObjectMapper().readValue(jsonContent, VisualizationData.class);
-        when(objectMapper.readValue(anyString(), eq(VisualizationData.class))).thenReturn(vizData);
+        when(objectMapper.readValue(any(byte[].class), eq(VisualizationData.class))).thenReturn(vizData);
         when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(Arrays.asList(algorithm));
 
-        try {
-            // When
-            visualizationService.processAndPersistVisualization(tempFile, problemId, false);
+        // When
+        visualizationService.processAndPersistVisualization(json, problemId, false);
 
-            // Then
-            verify(createNodeUseCase, times(2)).execute(any(), eq(algorithmId));
-        } finally {
-            Files.deleteIfExists(tempFile);
-        }
+        // Then
+        List<GraphBulkWriter.NodeRow> nodeRows = captureNodeRows();
+        assertEquals(2, nodeRows.size());
+        assertEquals(algorithmId, nodeRows.get(0).algorithmId());
+        assertEquals(10.5, nodeRows.get(0).x());
+        assertEquals(20.3, nodeRows.get(0).y());
+        assertEquals(2, algorithm.getNodeCount());
+        assertEquals(0, algorithm.getEdgeCount());
     }
 
     @Test
@@ -207,21 +195,124 @@ class VisualizationServiceTest {
         }
         """;
 
-        Path tempFile = Files.createTempFile("test-viz-types", ".json");
-        Files.writeString(tempFile, jsonContent);
+        byte[] json = jsonContent.getBytes(StandardCharsets.UTF_8);
 
         VisualizationData vizData = new ObjectMapper().readValue(jsonContent, VisualizationData.class);
-        when(objectMapper.readValue(anyString(), eq(VisualizationData.class))).thenReturn(vizData);
+        when(objectMapper.readValue(any(byte[].class), eq(VisualizationData.class))).thenReturn(vizData);
         when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(Arrays.asList(algorithm));
 
-        try {
-            // When
-            visualizationService.processAndPersistVisualization(tempFile, problemId, false);
+        // When
+        visualizationService.processAndPersistVisualization(json, problemId, false);
+
+        // Then - verify all three nodes are processed
+        List<GraphBulkWriter.NodeRow> nodeRows = captureNodeRows();
+        assertEquals(3, nodeRows.size());
+        assertEquals(NodeType.START, nodeRows.get(0).type());
+        assertEquals(NodeType.END, nodeRows.get(1).type());
+        assertEquals(NodeType.DEFAULT, nodeRows.get(2).type());
+    }
 
-            // Then - verify all three nodes are processed
-            verify(createNodeUseCase, times(3)).execute(any(), eq(algorithmId));
-        } finally {
-            Files.deleteIfExists(tempFile);
+    @Test
+    void testProcessAndPersistVisualization_withEdges_shouldLinkPersistedNodeIds() throws Exception {
+        // Given
+        String jsonContent = """
+        {
+            "algorithms": ["TestAlgorithm"],
+            "nodes": [
+                { "id": "node1", "type": "start", "fitness": 10.0, "algorithm": "TestAlgorithm", "x_kk": 1.0, "y_kk": 2.0 },
+                { "id": "node2", "type": "end", "fitness": 5.0, "algorithm": "TestAlgorithm", "x_kk": 3.0, "y_kk": 4.0 }
+            ],
+            "edges": [
+                { "from": "node1", "to": "node2", "width": 1.0 },
+                { "from": "node1", "to": "missing", "width": 1.0 }
+            ],
+            "stats": { "node_count": 2, "edge_count": 1, "component_count": 1 }
         }
+        """;
+
+        byte[] json = jsonContent.getBytes(StandardCharsets.UTF_8);
+
+        VisualizationData vizData = new ObjectMapper().readValue(jsonContent, VisualizationData.class);
+        when(objectMapper.readValue(any(byte[].class), eq(VisualizationData.class))).thenReturn(vizData);
+        when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(Arrays.asList(algorithm));
+
+        // When
+        visualizationService.processAndPersistVisualization(json, problemId, true);
+
+        // Then - the edge to an unknown node is dropped, the other one points at the generated ids
+        List<GraphBulkWriter.NodeRow> nodeRows = captureNodeRows();
+        List<GraphBulkWriter.EdgeRow> edgeRows = captureEdgeRows();
+        assertEquals(1, edgeRows.size());
+        assertEquals(nodeRows.get(0).id(), edgeRows.get(0).sourceNodeId());
+        assertEquals(nodeRows.get(1).id(), edgeRows.get(0).targetNodeId());
+        assertEquals(algorithmId, edgeRows.get(0).algorithmId());
+        assertEquals(1.0, nodeRows.get(0).x());
+        assertEquals(1, algorithm.getEdgeCount());
+        verify(algorithmRepositoryJPA).saveAll(Arrays.asList(algorithm));
+    }
+
+    @Test
+    void testProcessAndPersistVisualization_withMetrics_shouldStoreThemPerAlgorithm() throws Exception {
+        // Given
+        Algorithm other = Algorithm.builder().id(UUID.randomUUID()).name("Other").color(Color.BLUE).build();
+        String jsonContent = """
+        {
+            "algorithms": ["TestAlgorithm", "Other"],
+            "nodes": [
+                { "id": "node1", "type": "start", "fitness": 10.0, "algorithm": "TestAlgorithm", "x_fr": 1.0, "y_fr": 2.0 },
+                { "id": "node2", "type": "end", "fitness": 5.0, "algorithm": "Other", "x_fr": 3.0, "y_fr": 4.0 }
+            ],
+            "edges": [],
+            "stats": { "node_count": 2, "edge_count": 0, "component_count": 2 }
+        }
+        """;
+
+        byte[] json = jsonContent.getBytes(StandardCharsets.UTF_8);
+
+        VisualizationData vizData = new ObjectMapper().readValue(jsonContent, VisualizationData.class);
+        when(objectMapper.readValue(any(byte[].class), eq(VisualizationData.class))).thenReturn(vizData);
+        when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(Arrays.asList(algorithm, other));
+        Map<String, StnMetrics> metrics = Map.of("TestAlgorithm", new StnMetrics(7, 6, 3, 2, 4, 1.25, 2.5, 4));
+
+        // When
+        visualizationService.processAndPersistVisualization(json, problemId, false, metrics);
+
+        // Then - the algorithm without metrics keeps the count of the whole graph
+        assertEquals(3, algorithm.getComponentCount());
+        assertEquals(2, algorithm.getBestCount());
+        assertEquals(4, algorithm.getEndCount());
+        assertEquals(1.25, algorithm.getBestStrength());
+        assertEquals(2.5, algorithm.getAveragePathLength());
+        assertEquals(4, algorithm.getPathCount());
+        assertEquals(1, algorithm.getNodeCount());
+        assertEquals(2, other.getComponentCount());
+        assertEquals(null, other.getBestStrength());
+    }
+
+    @Test
+    void testProcessAndPersistVisualization_shouldMarkTheProblemReady() throws Exception {
+        // Given
+        String jsonContent = """
+        {
+            "nodes": [ { "id": "node1", "type": "start", "fitness": 1.0, "algorithm": "TestAlgorithm" } ],
+            "edges": []
+        }
+        """;
+
+        byte[] json = jsonContent.getBytes(StandardCharsets.UTF_8);
+
+        Problem problem = new DiscreteProblem();
+        problem.setVisualizationStatus(VisualizationStatus.PENDING);
+        VisualizationData vizData = new ObjectMapper().readValue(jsonContent, VisualizationData.class);
+        when(objectMapper.readValue(any(byte[].class), eq(VisualizationData.class))).thenReturn(vizData);
+        when(algorithmRepositoryJPA.findByProblemId(problemId)).thenReturn(Arrays.asList(algorithm));
+        when(problemRepositoryJPA.findById(problemId)).thenReturn(Optional.of(problem));
+
+        // When
+        visualizationService.processAndPersistVisualization(json, problemId, false);
+
+        // Then
+        verify(problemRepositoryJPA).updateVisualizationStatus(problemId, VisualizationStatus.READY);
+        verify(problemRepositoryJPA, never()).save(any());
     }
 }